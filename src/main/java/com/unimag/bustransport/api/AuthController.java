@@ -3,6 +3,7 @@ package com.unimag.bustransport.api;
 import com.unimag.bustransport.api.dto.UserDtos;
 import com.unimag.bustransport.security.dto.AuthDtos;
 import com.unimag.bustransport.security.jwt.JwtService;
+import com.unimag.bustransport.security.token.RefreshTokenStore;
 import com.unimag.bustransport.security.user.CustomUserDetails;
 import com.unimag.bustransport.security.user.CustomUserDetailsService;
 import com.unimag.bustransport.services.UserService;
@@ -27,6 +28,7 @@ public class AuthController {
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
     private final CustomUserDetailsService userDetailsService;
+    private final RefreshTokenStore refreshTokenStore;
     
     @PostMapping("/register")
     public ResponseEntity<UserDtos.UserResponse> register(
@@ -60,7 +62,8 @@ public class AuthController {
          CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
         
        String accessToken = jwtService.generateAccessToken(userDetails);
-        String refreshToken = jwtService.generateRefreshToken(userDetails);
+        RefreshTokenStore.Session session = refreshTokenStore.openSession(userDetails.getUserId());
+        String refreshToken = jwtService.generateRefreshToken(userDetails, session.familyId(), session.generation());
         
         AuthDtos.AuthResponse response = new AuthDtos.AuthResponse(
                 accessToken,
@@ -86,18 +89,16 @@ public class AuthController {
     ) {
         log.info("Solicitud de renovación de token");
         
-         if (!jwtService.isRefreshTokenValid(request.refreshToken())) {
-            log.error("Refresh token invalid or expired");
-            throw new IllegalArgumentException("Invalid or expired refresh token");
-        }
-        
-       Long userId = jwtService.extractUserId(request.refreshToken());
-        CustomUserDetails userDetails = (CustomUserDetails) userDetailsService.loadUserById(userId);
+        // Rota el refresh token: el presentado deja de ser válido y se emite uno nuevo de la misma familia
+        RefreshTokenStore.Session session = refreshTokenStore.rotate(request.refreshToken());
+        CustomUserDetails userDetails = (CustomUserDetails) userDetailsService.loadUserById(session.userId());
         
         String newAccessToken = jwtService.generateAccessToken(userDetails);
+        String newRefreshToken = jwtService.generateRefreshToken(userDetails, session.familyId(), session.generation());
         
         AuthDtos.RefreshTokenResponse response = new AuthDtos.RefreshTokenResponse(
                 newAccessToken,
+                newRefreshToken,
                 "Bearer",
                 jwtService.extractExpiration(newAccessToken).getTime() / 1000
         );
@@ -106,4 +107,12 @@ public class AuthController {
         
         return ResponseEntity.ok(response);
     }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(
+            @Valid @RequestBody AuthDtos.RefreshTokenRequest request
+    ) {
+        refreshTokenStore.revoke(request.refreshToken());
+        return ResponseEntity.noContent().build();
+    }
 }
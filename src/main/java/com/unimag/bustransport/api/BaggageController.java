@@ -1,5 +1,7 @@
 package com.unimag.bustransport.api;
 
+import com.unimag.bustransport.api.dto.BaggageDtos.BaggageBatchRequest;
+import com.unimag.bustransport.api.dto.BaggageDtos.BaggageBatchResponse;
 import com.unimag.bustransport.api.dto.BaggageDtos.BaggageCreateRequest;
 import com.unimag.bustransport.api.dto.BaggageDtos.BaggageResponse;
 import com.unimag.bustransport.api.dto.BaggageDtos.BaggageUpdateRequest;
@@ -32,6 +34,13 @@ public class BaggageController {
         return ResponseEntity.created(location).body(baggageCreated);
     }
 
+    // Maletas de todo un viaje; responde 200 con las registradas y las rechazadas
+    @PostMapping("/by-trip/{tripId}/batch")
+    public ResponseEntity<BaggageBatchResponse> createBatch(@PathVariable Long tripId,
+                                                            @Valid @RequestBody BaggageBatchRequest req) {
+        return ResponseEntity.ok(service.registerBaggageBatch(tripId, req));
+    }
+
     @GetMapping("/by-ticket/{ticketId}")
     public ResponseEntity<List<BaggageResponse>> getByTicketId(@PathVariable Long ticketId) {
         return ResponseEntity.ok(service.getBaggageByTicket(ticketId));
@@ -0,0 +1,37 @@
+package com.unimag.bustransport.api;
+
+import com.unimag.bustransport.api.dto.BoardingDtos;
+import com.unimag.bustransport.services.BoardingManifestService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/boarding")
+@RequiredArgsConstructor
+@Validated
+public class BoardingController {
+
+    private final BoardingManifestService service;
+
+    // Exportación del manifiesto para los dispositivos de puerta
+    @GetMapping("/trips/{tripId}/manifest")
+    public ResponseEntity<BoardingDtos.ManifestResponse> manifest(@PathVariable Long tripId) {
+        return ResponseEntity.ok(service.getManifest(tripId));
+    }
+
+    @PostMapping("/trips/{tripId}/scan")
+    public ResponseEntity<BoardingDtos.ScanResponse> scan(@PathVariable Long tripId,
+                                                          @Valid @RequestBody BoardingDtos.ScanRequest req) {
+        return ResponseEntity.ok(service.scan(tripId, req.qrCode()));
+    }
+
+    // Lote de escaneos subido por el dispositivo al recuperar conexión
+    @PostMapping("/trips/{tripId}/scans")
+    public ResponseEntity<BoardingDtos.BatchScanResponse> scanBatch(@PathVariable Long tripId,
+                                                                    @Valid @RequestBody BoardingDtos.BatchScanRequest req) {
+        return ResponseEntity.ok(service.scanBatch(tripId, req));
+    }
+}
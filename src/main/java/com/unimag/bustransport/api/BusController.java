@@ -2,6 +2,7 @@ package com.unimag.bustransport.api;
 
 import com.unimag.bustransport.api.dto.BusDtos;
 import com.unimag.bustransport.api.dto.SeatDtos;
+import com.unimag.bustransport.api.dto.PageDtos.CursorPage;
 import com.unimag.bustransport.services.BusService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -51,8 +52,10 @@ public class BusController {
     }
 
     @GetMapping
-    public ResponseEntity<List<BusDtos.BusResponse>> getAll() {
-        return ResponseEntity.ok(busService.getAllBus());
+    public ResponseEntity<CursorPage<BusDtos.BusResponse>> getAll(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(busService.getAllBus(cursor, limit));
     }
 
     @GetMapping("/{id}/seats")
@@ -1,6 +1,7 @@
 package com.unimag.bustransport.api;
 
 import com.unimag.bustransport.api.dto.FareRuleDtos;
+import com.unimag.bustransport.api.dto.PageDtos.CursorPage;
 import com.unimag.bustransport.services.FareRuleService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -49,8 +50,10 @@ public class FareRuleController {
     }
 
     @GetMapping
-    public ResponseEntity<List<FareRuleDtos.FareRuleResponse>> getAll() {
-        return ResponseEntity.ok(fareRuleService.getAllFareRules());
+    public ResponseEntity<CursorPage<FareRuleDtos.FareRuleResponse>> getAll(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(fareRuleService.getAllFareRules(cursor, limit));
     }
 
     @GetMapping("/by-route/{routeId}")
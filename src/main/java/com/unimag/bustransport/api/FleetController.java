@@ -0,0 +1,26 @@
+package com.unimag.bustransport.api;
+
+import com.unimag.bustransport.api.dto.FleetDtos.FleetPlanRequest;
+import com.unimag.bustransport.api.dto.FleetDtos.FleetPlanResponse;
+import com.unimag.bustransport.services.FleetService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/trips/fleet-plan")
+@RequiredArgsConstructor
+@Validated
+public class FleetController {
+
+    private final FleetService service;
+
+    // dryRun=true devuelve la propuesta sin bloquear buses ni cambiar los viajes
+    @PostMapping
+    public ResponseEntity<FleetPlanResponse> plan(@Valid @RequestBody FleetPlanRequest req,
+                                                  @RequestParam(defaultValue = "false") boolean dryRun) {
+        return ResponseEntity.ok(service.plan(req, dryRun));
+    }
+}
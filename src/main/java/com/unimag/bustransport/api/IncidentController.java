@@ -3,6 +3,7 @@ package com.unimag.bustransport.api;
 import com.unimag.bustransport.api.dto.IncidentDtos.IncidentCreateRequest;
 import com.unimag.bustransport.api.dto.IncidentDtos.IncidentResponse;
 import com.unimag.bustransport.api.dto.IncidentDtos.IncidentUpdateRequest;
+import com.unimag.bustransport.api.dto.PageDtos.CursorPage;
 import com.unimag.bustransport.domain.entities.Incident;
 import com.unimag.bustransport.services.IncidentService;
 import jakarta.validation.Valid;
@@ -33,8 +34,11 @@ public class IncidentController {
     }
 
     @GetMapping("/by-entity-type/{entityType}")
-    public ResponseEntity<List<IncidentResponse>> getByEntityType(@PathVariable Incident.EntityType entityType) {
-        return ResponseEntity.ok(service.findByIncidentByType(entityType));
+    public ResponseEntity<CursorPage<IncidentResponse>> getByEntityType(
+            @PathVariable Incident.EntityType entityType,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(service.findByIncidentByType(entityType, cursor, limit));
     }
 
     @GetMapping("/by-type/{type}")
@@ -1,16 +1,20 @@
 package com.unimag.bustransport.api;
 
 import com.unimag.bustransport.api.dto.KpiDtos.KpiCreateRequest;
+import com.unimag.bustransport.api.dto.KpiDtos.KpiSeriesResponse;
 import com.unimag.bustransport.api.dto.KpiDtos.KpiResponse;
 import com.unimag.bustransport.api.dto.KpiDtos.KpiUpdateRequest;
+import com.unimag.bustransport.domain.entities.KpiSample;
 import com.unimag.bustransport.services.KpiService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 
 @RestController
@@ -41,6 +45,16 @@ public class KpiController {
         return ResponseEntity.ok(service.getKpiByRecentMetrics());
     }
 
+    // Serie de tiempo; sin resolution se elige la más fina que cabe en el tope de puntos
+    @GetMapping("/series")
+    public ResponseEntity<KpiSeriesResponse> getSeries(
+            @RequestParam String name,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to,
+            @RequestParam(required = false) KpiSample.Resolution resolution) {
+        return ResponseEntity.ok(service.getSeries(name, from, to, resolution));
+    }
+
     @PatchMapping("/{id}")
     public ResponseEntity<Void> update(@PathVariable Long id,
                                        @Valid @RequestBody KpiUpdateRequest req) {
@@ -1,9 +1,16 @@
 package com.unimag.bustransport.api;
 
+import com.unimag.bustransport.api.dto.ParcelDtos.AutoAssignResponse;
 import com.unimag.bustransport.api.dto.ParcelDtos.ParcelCreateRequest;
 import com.unimag.bustransport.api.dto.ParcelDtos.ParcelResponse;
 import com.unimag.bustransport.api.dto.ParcelDtos.ParcelUpdateRequest;
+import com.unimag.bustransport.api.dto.ParcelDtos.ScanBatchRequest;
+import com.unimag.bustransport.api.dto.ParcelDtos.ScanBatchResponse;
+import com.unimag.bustransport.api.dto.ParcelDtos.TrackingResponse;
+import com.unimag.bustransport.api.dto.PageDtos.CursorPage;
+import com.unimag.bustransport.services.ParcelDispatchService;
 import com.unimag.bustransport.services.ParcelService;
+import com.unimag.bustransport.services.ParcelTrackingService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -20,6 +27,8 @@ import java.util.List;
 public class ParcelController {
 
     private final ParcelService service;
+    private final ParcelTrackingService trackingService;
+    private final ParcelDispatchService dispatchService;
 
     @PostMapping
     public ResponseEntity<ParcelResponse> create(@Valid @RequestBody ParcelCreateRequest req,
@@ -36,9 +45,30 @@ public class ParcelController {
         return ResponseEntity.ok(service.getParcelByCode(code));
     }
 
+    // Historial desde parcel_events por código, sin tocar parcels
+    @GetMapping("/track/{code}")
+    public ResponseEntity<TrackingResponse> track(@PathVariable String code) {
+        return ResponseEntity.ok(trackingService.track(code));
+    }
+
+    // Lote de escaneos de bodega; los escaneos inválidos se devuelven en "rejected" sin abortar el lote
+    @PostMapping("/scans")
+    public ResponseEntity<ScanBatchResponse> scans(@Valid @RequestBody ScanBatchRequest req) {
+        return ResponseEntity.ok(trackingService.applyScans(req));
+    }
+
+    // Asigna en bloque las encomiendas CREATED a los próximos viajes de su ruta (también corre programado)
+    @PostMapping("/auto-assign")
+    public ResponseEntity<AutoAssignResponse> autoAssign() {
+        return ResponseEntity.ok(dispatchService.autoAssignPendingParcels());
+    }
+
     @GetMapping("/by-sender")
-    public ResponseEntity<List<ParcelResponse>> getBySender(@RequestParam String phone) {
-        return ResponseEntity.ok(service.getParcelsBySender(phone));
+    public ResponseEntity<CursorPage<ParcelResponse>> getBySender(
+            @RequestParam String phone,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(service.getParcelsBySender(phone, cursor, limit));
     }
 
     @GetMapping("/by-receiver")
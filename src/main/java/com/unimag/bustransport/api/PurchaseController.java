@@ -1,14 +1,20 @@
 package com.unimag.bustransport.api;
 
+import com.unimag.bustransport.api.dto.PurchaseDtos.ExportFormat;
 import com.unimag.bustransport.api.dto.PurchaseDtos.PurchaseCreateRequest;
 import com.unimag.bustransport.api.dto.PurchaseDtos.PurchaseResponse;
+import com.unimag.bustransport.api.dto.PageDtos.CursorPage;
+import com.unimag.bustransport.services.PurchaseExportService;
 import com.unimag.bustransport.services.PurchaseService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.time.OffsetDateTime;
@@ -21,6 +27,7 @@ import java.util.List;
 public class PurchaseController {
 
     private final PurchaseService service;
+    private final PurchaseExportService exportService;
 
     @PostMapping
     public ResponseEntity<PurchaseResponse> create(@Valid @RequestBody PurchaseCreateRequest req,
@@ -38,8 +45,11 @@ public class PurchaseController {
     }
 
     @GetMapping("/by-user/{userId}")
-    public ResponseEntity<List<PurchaseResponse>> getByUser(@PathVariable Long userId) {
-        return ResponseEntity.ok(service.getPurchasesByUserId(userId));
+    public ResponseEntity<CursorPage<PurchaseResponse>> getByUser(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(service.getPurchasesByUserId(userId, cursor, limit));
     }
 
     @GetMapping("/by-date-range")
@@ -49,6 +59,22 @@ public class PurchaseController {
         return ResponseEntity.ok(service.getPurchasesByDateRange(start, end));
     }
 
+    // Exportación por rango en streaming (NDJSON o CSV); la memoria no crece con el tamaño del rango
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime end,
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+        exportService.validateExportRange(start, end);
+        boolean csv = format == ExportFormat.CSV;
+        String filename = "purchases-" + start.toLocalDate() + "-" + end.toLocalDate() + (csv ? ".csv" : ".ndjson");
+        StreamingResponseBody body = out -> exportService.exportByDateRange(start, end, format, out);
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv") : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
+    }
+
     @PostMapping("/{id}/confirm")
     public ResponseEntity<Void> confirm(@PathVariable Long id,
                                         @RequestParam String paymentReference) {
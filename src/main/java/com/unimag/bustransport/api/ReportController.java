@@ -0,0 +1,48 @@
+package com.unimag.bustransport.api;
+
+import com.unimag.bustransport.api.dto.ReportDtos.RefundPolicyRow;
+import com.unimag.bustransport.api.dto.ReportDtos.RouteRevenueRow;
+import com.unimag.bustransport.api.dto.ReportDtos.TripOccupancyRow;
+import com.unimag.bustransport.services.ReportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Reportes de gerencia; se sirven solo desde las tablas resumen, nunca desde tickets/purchases
+@RestController
+@RequestMapping("/api/v1/reports")
+@RequiredArgsConstructor
+@Validated
+public class ReportController {
+
+    private final ReportService service;
+
+    @GetMapping("/revenue-by-route")
+    public ResponseEntity<List<RouteRevenueRow>> revenueByRoute(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long routeId) {
+        return ResponseEntity.ok(service.getRevenueByRoute(from, to, routeId));
+    }
+
+    @GetMapping("/occupancy-by-trip")
+    public ResponseEntity<List<TripOccupancyRow>> occupancyByTrip(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long routeId) {
+        return ResponseEntity.ok(service.getOccupancyByTrip(from, to, routeId));
+    }
+
+    @GetMapping("/refunds-by-policy")
+    public ResponseEntity<List<RefundPolicyRow>> refundsByPolicy(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long routeId) {
+        return ResponseEntity.ok(service.getRefundsByPolicy(from, to, routeId));
+    }
+}
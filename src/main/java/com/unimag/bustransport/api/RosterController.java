@@ -0,0 +1,40 @@
+package com.unimag.bustransport.api;
+
+import com.unimag.bustransport.api.dto.RosterDtos.AutoAssignRequest;
+import com.unimag.bustransport.api.dto.RosterDtos.AutoAssignResponse;
+import com.unimag.bustransport.api.dto.RosterDtos.RosterConflict;
+import com.unimag.bustransport.services.RosterService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/assignments/roster")
+@RequiredArgsConstructor
+@Validated
+public class RosterController {
+
+    private final RosterService service;
+
+    // Choques, descansos cortos y excesos de conducción de los turnos ya asignados del día
+    @GetMapping("/conflicts")
+    public ResponseEntity<List<RosterConflict>> conflicts(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(service.findConflicts(date));
+    }
+
+    // dryRun=true no bloquea conductores ni inserta: solo devuelve la propuesta
+    @PostMapping("/auto-assign")
+    public ResponseEntity<AutoAssignResponse> autoAssign(@Valid @RequestBody AutoAssignRequest req,
+                                                         @RequestParam(defaultValue = "false") boolean dryRun) {
+        var response = service.autoAssign(req, dryRun);
+        return dryRun ? ResponseEntity.ok(response) : ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+}
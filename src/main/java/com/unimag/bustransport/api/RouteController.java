@@ -4,6 +4,7 @@ import com.unimag.bustransport.api.dto.RouteDtos.RouteCreateRequest;
 import com.unimag.bustransport.api.dto.RouteDtos.RouteResponse;
 import com.unimag.bustransport.api.dto.RouteDtos.RouteUpdateRequest;
 import com.unimag.bustransport.api.dto.StopDtos.StopResponse;
+import com.unimag.bustransport.api.dto.PageDtos.CursorPage;
 import com.unimag.bustransport.services.RouteService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -38,8 +39,10 @@ public class RouteController {
     }
 
     @GetMapping
-    public ResponseEntity<List<RouteResponse>> getAll() {
-        return ResponseEntity.ok(service.getAllRoutes());
+    public ResponseEntity<CursorPage<RouteResponse>> getAll(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(service.getAllRoutes(cursor, limit));
     }
 
     @GetMapping("/search")
@@ -2,6 +2,7 @@ package com.unimag.bustransport.api;
 
 import com.unimag.bustransport.api.dto.TicketDtos;
 import com.unimag.bustransport.api.dto.TicketDtos.TicketResponse;
+import com.unimag.bustransport.api.dto.PageDtos.CursorPage;
 import com.unimag.bustransport.security.user.CustomUserDetails;
 import com.unimag.bustransport.services.TicketService;
 import lombok.RequiredArgsConstructor;
@@ -28,8 +29,11 @@ public class TicketController {
     }
 
     @GetMapping("/by-trip/{tripId}")
-    public ResponseEntity<List<TicketResponse>> getByTrip(@PathVariable Long tripId) {
-        return ResponseEntity.ok(service.getTicketsByTrip(tripId));
+    public ResponseEntity<CursorPage<TicketResponse>> getByTrip(
+            @PathVariable Long tripId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(service.getTicketsByTrip(tripId, cursor, limit));
     }
 
     @GetMapping("/by-purchase/{purchaseId}")
@@ -49,9 +53,10 @@ public class TicketController {
     }
 
     @PostMapping("/validate-qr")
-    public ResponseEntity<TicketDtos.ValidationResponse> validateQr(@RequestParam String qrCode) {
+    public ResponseEntity<TicketDtos.ValidationResponse> validateQr(@RequestParam String qrCode,
+                                                                    @RequestParam(required = false) Long tripId) {
         try {
-            service.validateQrForTicket(qrCode);
+            service.validateQrForTicket(qrCode, tripId);
             return ResponseEntity.ok(new TicketDtos.ValidationResponse(true, "Valid ticket"));
         } catch (Exception e) {
             return ResponseEntity.ok(new TicketDtos.ValidationResponse(false, e.getMessage()));
@@ -0,0 +1,34 @@
+package com.unimag.bustransport.api;
+
+import com.unimag.bustransport.api.dto.TimetableDtos.TimetableRequest;
+import com.unimag.bustransport.api.dto.TimetableDtos.TimetableResponse;
+import com.unimag.bustransport.services.TimetableService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/trips/timetable")
+@RequiredArgsConstructor
+@Validated
+public class TimetableController {
+
+    private final TimetableService service;
+
+    // Viajes que se crearían y choques, sin escribir nada
+    @PostMapping("/preview")
+    public ResponseEntity<TimetableResponse> preview(@Valid @RequestBody TimetableRequest req) {
+        return ResponseEntity.ok(service.preview(req));
+    }
+
+    // dryRun=true no bloquea buses ni inserta: solo devuelve los conteos que tendría la carga real
+    @PostMapping
+    public ResponseEntity<TimetableResponse> generate(@Valid @RequestBody TimetableRequest req,
+                                                      @RequestParam(defaultValue = "false") boolean dryRun) {
+        var response = service.generate(req, dryRun);
+        return dryRun ? ResponseEntity.ok(response) : ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+}
@@ -5,13 +5,19 @@ import com.unimag.bustransport.api.dto.TripDtos;
 import com.unimag.bustransport.api.dto.TripDtos.TripCreateRequest;
 import com.unimag.bustransport.api.dto.TripDtos.TripResponse;
 import com.unimag.bustransport.api.dto.TripDtos.TripUpdateRequest;
+import com.unimag.bustransport.exception.NotFoundException;
+import com.unimag.bustransport.seatmap.SeatMapBroadcaster;
 import com.unimag.bustransport.services.TripService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.time.LocalDate;
@@ -24,6 +30,7 @@ import java.util.List;
 public class TripController {
 
     private final TripService service;
+    private final SeatMapBroadcaster seatMapBroadcaster;
 
     @PostMapping
     public ResponseEntity<TripResponse> create(@Valid @RequestBody TripCreateRequest req,
@@ -53,6 +60,22 @@ public class TripController {
         return ResponseEntity.ok(service.getSeats(id));
     }
 
+    // Snapshot inicial y luego deltas held/released/sold a medida que se confirman. Los errores
+    // van sin cuerpo (503 sin cupo, 404 sin viaje): un ApiError JSON no es aceptable para un
+    // cliente de text/event-stream y terminaría en 406/500
+    @GetMapping(path = "/{id}/seats/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamSeats(@PathVariable Long id) {
+        try {
+            return seatMapBroadcaster.subscribe(id, () -> service.getSeats(id))
+                    .map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                            .header(HttpHeaders.RETRY_AFTER, "5")
+                            .build());
+        } catch (NotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     @GetMapping("/{id}/statistics")
     public ResponseEntity<TripDtos.StatisticsResponse> getStatistics(@PathVariable Long id) {
         var soldSeats = service.getTripStatistics(id);
@@ -3,6 +3,7 @@ package com.unimag.bustransport.api;
 import com.unimag.bustransport.api.dto.UserDtos.EmployeeCreateRequest;
 import com.unimag.bustransport.api.dto.UserDtos.UserResponse;
 import com.unimag.bustransport.api.dto.UserDtos.UserUpdateRequest;
+import com.unimag.bustransport.api.dto.PageDtos.CursorPage;
 import com.unimag.bustransport.domain.entities.Role;
 import com.unimag.bustransport.services.UserService;
 import jakarta.validation.Valid;
@@ -50,8 +51,11 @@ public class UserController {
     }
 
     @GetMapping("/by-role/{role}")
-    public ResponseEntity<List<UserResponse>> getByRole(@PathVariable Role role) {
-        return ResponseEntity.ok(service.getAllUsersByRole(role));
+    public ResponseEntity<CursorPage<UserResponse>> getByRole(
+            @PathVariable Role role,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(service.getAllUsersByRole(role, cursor, limit));
     }
 
     @PatchMapping("/{id}")
@@ -1,10 +1,14 @@
 package com.unimag.bustransport.api.dto;
 
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 
 import java.io.Serializable;
 import java.math.BigDecimal;
+import java.util.List;
 
 public class BaggageDtos {
     public record BaggageCreateRequest(
@@ -17,6 +21,31 @@ public class BaggageDtos {
             String tagCode
     ) implements Serializable {}
 
+    // Check-in de mostrador: todas las maletas de un bus en una sola llamada
+    public record BaggageBatchRequest(
+            @NotEmpty @Size(max = 500) List<@Valid BaggageBatchItem> bags
+    ) implements Serializable {}
+
+    public record BaggageBatchItem(
+            @NotNull Long ticketId,
+            @NotNull @Positive Double weightKg
+    ) implements Serializable {}
+
+    public record BaggageBatchResponse(
+            Long tripId,
+            int received,
+            int registered,
+            BigDecimal totalFee,
+            BigDecimal tripBaggageWeightKg,
+            List<BaggageTag> tags,
+            List<BaggageRejection> rejected
+    ) implements Serializable {}
+
+    public record BaggageTag(Long ticketId, Double weightKg, BigDecimal fee, String tagCode) implements Serializable {}
+
+    // index = posición de la maleta en el lote recibido
+    public record BaggageRejection(int index, Long ticketId, String reason) implements Serializable {}
+
     public record BaggageResponse(
             Long id,
             Double weightKg,
@@ -0,0 +1,70 @@
+package com.unimag.bustransport.api.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.io.Serializable;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+public class BoardingDtos {
+    public record ScanRequest(
+            @NotBlank String qrCode
+    ) implements Serializable {}
+
+    public record ScanResponse(
+            boolean valid,
+            Long ticketId,
+            String seatNumber,
+            String passengerName,
+            String message
+    ) implements Serializable {}
+
+    // Escaneos acumulados por el dispositivo de puerta; uploadId permite reintentos idempotentes
+    public record BatchScanRequest(
+            String uploadId,
+            @NotEmpty @Size(max = 500) List<@Valid ScanItem> scans
+    ) implements Serializable {
+        public record ScanItem(@NotBlank String qrCode, OffsetDateTime scannedAt) implements Serializable {}
+    }
+
+    public record BatchScanResponse(
+            Long tripId,
+            String uploadId,
+            int boarded,
+            int alreadyBoarded,
+            int rejected,
+            List<ScanResult> results
+    ) implements Serializable {
+        public record ScanResult(
+                String qrCode,
+                ScanOutcome outcome,
+                Long ticketId,
+                String seatNumber,
+                String message
+        ) implements Serializable {}
+    }
+
+    public enum ScanOutcome {
+        BOARDED, ALREADY_BOARDED, DUPLICATE, REJECTED
+    }
+
+    public record ManifestResponse(
+            Long tripId,
+            OffsetDateTime builtAt,
+            int totalTickets,
+            int boardedTickets,
+            List<ManifestEntry> entries
+    ) implements Serializable {
+        public record ManifestEntry(
+                Long ticketId,
+                String seatNumber,
+                String passengerName,
+                String qrCode,
+                Integer fromStopOrder,
+                Integer toStopOrder,
+                String status
+        ) implements Serializable {}
+    }
+}
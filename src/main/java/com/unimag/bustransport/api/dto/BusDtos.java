@@ -3,8 +3,10 @@ package com.unimag.bustransport.api.dto;
 import com.unimag.bustransport.domain.entities.Bus;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 
 import java.io.Serializable;
+import java.math.BigDecimal;
 import java.util.List;
 
 public class BusDtos {
@@ -12,12 +14,16 @@ public class BusDtos {
             @NotBlank String plate,
             @NotNull Integer capacity,
             List<String> amenities, // aire, wifi, baño, etc.
-            @NotNull Bus.Status status
+            @NotNull Bus.Status status,
+            @Positive BigDecimal cargoCapacityKg, // null = cupo por defecto de parcels.cargo
+            @Positive BigDecimal cargoCapacityLiters
     ) implements Serializable {}
     public record BusUpdateRequest(
             Integer capacity,
             List<String> amenities,
-            Bus.Status status
+            Bus.Status status,
+            @Positive BigDecimal cargoCapacityKg,
+            @Positive BigDecimal cargoCapacityLiters
     ) implements Serializable {}
     public record BusResponse(
             Long id,
@@ -25,7 +31,9 @@ public class BusDtos {
             Integer capacity,
             List<String> amenities,
             String status,
-            Integer totalSeats
+            Integer totalSeats,
+            BigDecimal cargoCapacityKg,
+            BigDecimal cargoCapacityLiters
     ) implements Serializable {}
 
 }
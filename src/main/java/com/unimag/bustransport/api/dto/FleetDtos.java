@@ -0,0 +1,50 @@
+package com.unimag.bustransport.api.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+public class FleetDtos {
+
+    // Reparte los buses entre los viajes programados del día. busIds vacío = todos los ACTIVE;
+    // los minutos nulos toman trips.fleet.*
+    public record FleetPlanRequest(
+            @NotNull LocalDate date,
+            List<@NotNull Long> busIds,
+            @PositiveOrZero Integer turnaroundMinutes,
+            @PositiveOrZero Integer deadheadMinutes
+    ) implements Serializable {}
+
+    public record FleetAssignment(
+            Long tripId,
+            OffsetDateTime departureAt,
+            Long busId,
+            Long previousBusId,
+            boolean deadhead
+    ) implements Serializable {}
+
+    public record FleetUnassigned(
+            Long tripId,
+            OffsetDateTime departureAt,
+            String reason
+    ) implements Serializable {}
+
+    // lowerBound: máximo de viajes simultáneos, ningún plan usa menos buses
+    public record FleetPlanResponse(
+            LocalDate date,
+            boolean dryRun,
+            int trips,
+            int busesAvailable,
+            int busesUsed,
+            int lowerBound,
+            int deadheads,
+            int changed,
+            List<FleetAssignment> assignments,
+            List<FleetUnassigned> unassigned,
+            long elapsedMs
+    ) implements Serializable {}
+}
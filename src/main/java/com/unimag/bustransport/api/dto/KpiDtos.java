@@ -4,6 +4,7 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import java.io.Serializable;
 import java.time.OffsetDateTime;
+import java.util.List;
 
 public class KpiDtos {
     public record KpiCreateRequest(
@@ -15,6 +16,17 @@ public class KpiDtos {
             Double value
     ) implements Serializable {}
 
+    public record KpiSeriesResponse(
+            String name,
+            String resolution,
+            OffsetDateTime from,
+            OffsetDateTime to,
+            List<KpiPoint> points
+    ) implements Serializable {
+        public record KpiPoint(OffsetDateTime bucketStart, Double value, Double min, Double max, Integer samples)
+                implements Serializable {}
+    }
+
     public record KpiResponse(
             Long id,
             String name,
@@ -0,0 +1,14 @@
+package com.unimag.bustransport.api.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+public class PageDtos {
+    // Página por keyset: nextCursor es opaco y se reenvía tal cual para pedir la siguiente
+    public record CursorPage<T>(
+            List<T> items,
+            int limit,
+            boolean hasMore,
+            String nextCursor
+    ) implements Serializable {}
+}
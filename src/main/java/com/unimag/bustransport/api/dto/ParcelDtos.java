@@ -1,9 +1,16 @@
 package com.unimag.bustransport.api.dto;
 
+import com.unimag.bustransport.domain.entities.ParcelEvent;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 import java.io.Serializable;
 import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.List;
 
 public class ParcelDtos {
     public record ParcelCreateRequest(
@@ -14,7 +21,9 @@ public class ParcelDtos {
             String receiverPhone,
             @NotNull Long fromStopId,
             @NotNull Long toStopId,
-            Long tripId
+            Long tripId,
+            @Positive BigDecimal weightKg,
+            @Positive BigDecimal volumeLiters
     ) implements Serializable {}
 
     public record ParcelUpdateRequest(
@@ -45,4 +54,53 @@ public class ParcelDtos {
         public record TripSummary(Long id, String origin, String destination) implements Serializable {}
         public record StopSummary(Long id, String name, String city) implements Serializable {}
     }
+
+    // Lote de escaneos de un handheld de bodega; scanId identifica el escaneo para reintentos
+    public record ScanBatchRequest(
+            @NotBlank String deviceId,
+            @NotEmpty @Size(max = 500) List<@Valid ScanRequest> scans
+    ) implements Serializable {}
+
+    public record ScanRequest(
+            @NotBlank String scanId,
+            @NotBlank String code,
+            @NotNull ParcelEvent.Type type,
+            Long tripId,
+            Long stopId,
+            String otp,
+            String note,
+            OffsetDateTime scannedAt
+    ) implements Serializable {}
+
+    public record ScanBatchResponse(
+            int received,
+            int applied,
+            int duplicates,
+            List<ScanRejection> rejected
+    ) implements Serializable {}
+
+    public record ScanRejection(String scanId, String code, String reason) implements Serializable {}
+
+    public record AutoAssignResponse(
+            int pending,
+            int assigned,
+            int unassigned,
+            int trips,
+            long elapsedMs
+    ) implements Serializable {}
+
+    public record TrackingResponse(
+            String code,
+            String status,
+            List<TrackingEvent> events
+    ) implements Serializable {}
+
+    public record TrackingEvent(
+            String type,
+            String status,
+            Long tripId,
+            Long stopId,
+            String stopName,
+            OffsetDateTime occurredAt
+    ) implements Serializable {}
 }
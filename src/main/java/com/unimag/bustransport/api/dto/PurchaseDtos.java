@@ -46,4 +46,8 @@ public class PurchaseDtos {
         public record UserSummary(Long id, String name, String email) implements Serializable {}
         public record TicketSummary(Long id, String seatNumber, BigDecimal price, String status) implements Serializable {}
     }
+
+    public enum ExportFormat {
+        NDJSON, CSV
+    }
 }
@@ -0,0 +1,38 @@
+package com.unimag.bustransport.api.dto;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+
+public class ReportDtos {
+    public record RouteRevenueRow(
+            Long routeId,
+            LocalDate serviceDate,
+            Integer trips,
+            Integer ticketsSold,
+            BigDecimal revenue,
+            OffsetDateTime refreshedAt
+    ) implements Serializable {}
+
+    public record TripOccupancyRow(
+            Long tripId,
+            Long routeId,
+            LocalDate serviceDate,
+            Integer capacity,
+            Integer seatsSold,
+            Integer boarded,
+            Integer noShows,
+            BigDecimal occupancy,
+            OffsetDateTime refreshedAt
+    ) implements Serializable {}
+
+    public record RefundPolicyRow(
+            Long routeId,
+            LocalDate refundDate,
+            String policy,
+            Integer refunds,
+            BigDecimal refundedAmount,
+            OffsetDateTime refreshedAt
+    ) implements Serializable {}
+}
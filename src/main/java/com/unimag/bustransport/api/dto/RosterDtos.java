@@ -0,0 +1,51 @@
+package com.unimag.bustransport.api.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+public class RosterDtos {
+
+    // Asigna conductor a los viajes programados sin asignar del día.
+    // driverIds vacío = todos los conductores activos
+    public record AutoAssignRequest(
+            @NotNull LocalDate date,
+            @NotNull Long dispatcherId,
+            List<@NotNull Long> driverIds
+    ) implements Serializable {}
+
+    public record DriverAssignment(
+            Long tripId,
+            Long driverId,
+            OffsetDateTime departureAt,
+            OffsetDateTime arrivalAt
+    ) implements Serializable {}
+
+    public record UnassignedTrip(
+            Long tripId,
+            OffsetDateTime departureAt,
+            String reason
+    ) implements Serializable {}
+
+    public record AutoAssignResponse(
+            LocalDate date,
+            boolean dryRun,
+            int trips,
+            int assigned,
+            List<DriverAssignment> assignments,
+            List<UnassignedTrip> unassigned,
+            long elapsedMs
+    ) implements Serializable {}
+
+    // violation: OVERLAP, REST o DAILY_LIMIT; conflictingTripId nulo para el tope diario
+    public record RosterConflict(
+            Long driverId,
+            Long tripId,
+            Long conflictingTripId,
+            String violation,
+            String message
+    ) implements Serializable {}
+}
@@ -5,6 +5,8 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
 import java.io.Serializable;
+import java.time.OffsetDateTime;
+import java.util.List;
 
 public class SeatDtos {
     public record SeatCreateRequest(
@@ -26,4 +28,18 @@ public class SeatDtos {
     ) implements Serializable {}
 
     public record AvailabilityResponse(boolean available) implements Serializable {}
+
+    // Stream SSE del mapa de asientos: primero un snapshot y luego deltas con secuencia creciente
+    public record SeatMapSnapshot(
+            Long tripId,
+            long sequence,
+            List<SeatResponse> seats
+    ) implements Serializable {}
+    public record SeatDelta(
+            Long tripId,
+            long sequence,
+            String seatNumber,
+            String state,
+            OffsetDateTime occurredAt
+    ) implements Serializable {}
 }
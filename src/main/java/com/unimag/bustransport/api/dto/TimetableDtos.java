@@ -0,0 +1,55 @@
+package com.unimag.bustransport.api.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+import java.io.Serializable;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Set;
+
+public class TimetableDtos {
+
+    // Patrón recurrente de una ruta: días de la semana y horas de salida entre dos fechas,
+    // con los buses en rotación. zone nulo = trips.timetable.zone
+    public record TimetableRequest(
+            @NotNull Long routeId,
+            @NotNull LocalDate startDate,
+            @NotNull LocalDate endDate,
+            @NotEmpty Set<@NotNull DayOfWeek> daysOfWeek,
+            @NotEmpty List<@NotNull LocalTime> departureTimes,
+            @NotNull @Positive Integer durationMinutes,
+            @NotEmpty List<@NotNull Long> busIds,
+            ZoneId zone,
+            Double overbookingPercent
+    ) implements Serializable {}
+
+    public record PlannedTrip(
+            LocalDate date,
+            OffsetDateTime departureAt,
+            OffsetDateTime arrivalAt,
+            Long busId
+    ) implements Serializable {}
+
+    public record TimetableConflict(
+            LocalDate date,
+            OffsetDateTime departureAt,
+            String reason
+    ) implements Serializable {}
+
+    // trips solo viene en la vista previa; al generar basta con los conteos
+    public record TimetableResponse(
+            Long routeId,
+            boolean dryRun,
+            int planned,
+            int created,
+            List<PlannedTrip> trips,
+            List<TimetableConflict> conflicts,
+            long elapsedMs
+    ) implements Serializable {}
+}
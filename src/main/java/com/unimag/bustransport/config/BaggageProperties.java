@@ -0,0 +1,16 @@
+package com.unimag.bustransport.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "baggage")
+@Getter
+@Setter
+public class BaggageProperties {
+
+    // Tarifas y topes de equipaje en memoria; editar la config los recarga al instante en este nodo
+    private long feeCacheTtlMs = 60000;
+}
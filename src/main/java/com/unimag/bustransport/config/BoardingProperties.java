@@ -0,0 +1,17 @@
+package com.unimag.bustransport.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "boarding.manifest")
+@Getter
+@Setter
+public class BoardingProperties {
+
+    private boolean enabled = true;
+    private long leadMinutes = 30;          // Minutos antes de la salida en que se arma el manifiesto
+    private long refreshIntervalMs = 15000; // Resincronización con la BD (ventas tardías, cancelaciones)
+}
@@ -0,0 +1,23 @@
+package com.unimag.bustransport.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+
+@Component
+@ConfigurationProperties(prefix = "parcels.cargo")
+@Getter
+@Setter
+public class CargoProperties {
+
+    private boolean enabled = true;
+    // Cupo de bodega cuando el bus no lo tiene configurado
+    private BigDecimal defaultCapacityKg = new BigDecimal("500");
+    private BigDecimal defaultCapacityLiters = new BigDecimal("4000");
+    // Medidas que se asumen si la encomienda se registra sin ellas
+    private BigDecimal defaultParcelWeightKg = new BigDecimal("5");
+    private BigDecimal defaultParcelVolumeLiters = new BigDecimal("20");
+}
@@ -0,0 +1,16 @@
+package com.unimag.bustransport.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "purchases.export")
+@Getter
+@Setter
+public class ExportProperties {
+
+    private int fetchSize = 500;    // Filas que trae el cursor por viaje a la BD
+    private int maxRangeDays = 366;
+}
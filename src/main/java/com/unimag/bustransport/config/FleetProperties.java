@@ -0,0 +1,20 @@
+package com.unimag.bustransport.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "trips.fleet")
+@Getter
+@Setter
+public class FleetProperties {
+
+    // Zona que define el "día" del plan de flota
+    private String zone = "America/Bogota";
+    // Alistamiento entre la llegada de un viaje y la salida del siguiente del mismo bus
+    private int turnaroundMinutes = 20;
+    // Tiempo para mover un bus vacío entre terminales; no hay distancias entre terminales en la BD
+    private int deadheadMinutes = 90;
+}
@@ -0,0 +1,18 @@
+package com.unimag.bustransport.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "parcels.codes")
+@Getter
+@Setter
+public class ParcelCodeProperties {
+
+    // 0..1023, distinto en cada nodo; -1 toma un id libre en code_node_leases
+    private int nodeId = -1;
+    private long leaseTtlMs = 600000;       // Un lease sin renovar queda libre para otro nodo
+    private long leaseRenewMs = 60000;
+}
@@ -0,0 +1,19 @@
+package com.unimag.bustransport.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "parcels.auto-assign")
+@Getter
+@Setter
+public class ParcelDispatchProperties {
+
+    private boolean enabled = true;
+    private long intervalMs = 300000;
+    private int minLeadMinutes = 30;     // No se cargan viajes que salen antes de este margen
+    private int horizonHours = 72;       // Solo viajes que salen dentro de esta ventana
+    private int chunkSize = 1000;        // Encomiendas por UPDATE
+}
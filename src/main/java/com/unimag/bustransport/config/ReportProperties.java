@@ -0,0 +1,24 @@
+package com.unimag.bustransport.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "reports.rollup")
+@Getter
+@Setter
+public class ReportProperties {
+
+    private boolean enabled = true;
+    private long refreshIntervalMs = 60000;
+    // Recálculo completo que corrige lo que la marca no ve: cambios de viajes, viajes nuevos sin
+    // tickets, borrados y transacciones que confirman después del margen
+    private long fullRefreshIntervalMs = 3600000;
+    // La marca no llega hasta "ahora": updated_at es la hora de inicio de la transacción,
+    // así que una transacción aún abierta puede confirmar filas con un updated_at anterior
+    private long lagSeconds = 30;
+    private int batchSize = 1000;   // Viajes recalculados por sentencia
+    private int maxRangeDays = 400; // Rango máximo que acepta un reporte
+}
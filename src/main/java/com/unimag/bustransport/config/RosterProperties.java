@@ -0,0 +1,20 @@
+package com.unimag.bustransport.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "assignments.roster")
+@Getter
+@Setter
+public class RosterProperties {
+
+    // Zona que define el "día" para el tope de conducción y la auto-asignación
+    private String zone = "America/Bogota";
+    // Descanso mínimo entre la llegada de un viaje y la salida del siguiente del mismo conductor
+    private int minRestMinutes = 30;
+    // Tope de conducción por conductor y día
+    private int maxDailyDrivingMinutes = 540;
+}
@@ -0,0 +1,11 @@
+package com.unimag.bustransport.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Habilita los @Scheduled de los servicios (holds, tickets, notificaciones).
+// Corren en cada nodo: cada job debe ser idempotente o reclamar su trabajo en BD
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
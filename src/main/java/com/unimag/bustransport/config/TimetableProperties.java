@@ -0,0 +1,19 @@
+package com.unimag.bustransport.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "trips.timetable")
+@Getter
+@Setter
+public class TimetableProperties {
+
+    // Zona de las horas de salida cuando la solicitud no la indica
+    private String zone = "America/Bogota";
+    // Topes por solicitud para no reservar memoria ni bloquear buses sin límite
+    private int maxDays = 370;
+    private int maxTrips = 10000;
+}
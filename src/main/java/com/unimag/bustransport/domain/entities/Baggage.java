@@ -13,7 +13,8 @@ import java.math.BigDecimal;
 @Builder
 public class Baggage {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "baggage_seq")
+    @SequenceGenerator(name = "baggage_seq", sequenceName = "baggage_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "weight_kg")
@@ -5,6 +5,7 @@ import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.Type;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -24,6 +25,12 @@ public class Bus {
     @Column(nullable = false)
     private Integer capacity;
 
+    // Cupo de bodega para encomiendas; null = el valor por defecto de parcels.cargo
+    @Column(name = "cargo_capacity_kg")
+    private BigDecimal cargoCapacityKg;
+    @Column(name = "cargo_capacity_liters")
+    private BigDecimal cargoCapacityLiters;
+
     @Type(JsonType.class)
     @Column(columnDefinition = "jsonb")
     private List<String> amenities = new ArrayList<>();
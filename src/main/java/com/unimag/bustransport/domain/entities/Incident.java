@@ -13,7 +13,8 @@ import java.time.OffsetDateTime;
 @Builder
 public class Incident {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "incidents_seq")
+    @SequenceGenerator(name = "incidents_seq", sequenceName = "incidents_id_seq", allocationSize = 50)
     private Long id;
 
     @Enumerated(EnumType.STRING)
@@ -13,7 +13,8 @@ import java.math.BigDecimal;
 @Builder
 public class Parcel {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "parcels_seq")
+    @SequenceGenerator(name = "parcels_seq", sequenceName = "parcels_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(unique = true, nullable = false)
@@ -32,6 +33,12 @@ public class Parcel {
     @Column(name = "delivery_otp")
     private String deliveryOtp;
 
+    @Column(name = "weight_kg", nullable = false)
+    private BigDecimal weightKg;
+
+    @Column(name = "volume_liters", nullable = false)
+    private BigDecimal volumeLiters;
+
     @Column(name = "sender_name", nullable = false)
     private String senderName;
 
@@ -0,0 +1,75 @@
+package com.unimag.bustransport.domain.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+
+// Registro inmutable del historial de una encomienda; sin asociaciones para leerlo sin joins
+@Entity
+@Table(name = "parcel_events")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ParcelEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "parcel_id", nullable = false, updatable = false)
+    private Long parcelId;
+
+    @Column(name = "parcel_code", nullable = false, updatable = false)
+    private String parcelCode;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, updatable = false)
+    private Type type;
+
+    // Estado de la encomienda después de aplicar el evento
+    @Enumerated(EnumType.STRING)
+    @Column(name = "parcel_status", nullable = false, updatable = false)
+    private Parcel.Status parcelStatus;
+
+    @Column(name = "trip_id", updatable = false)
+    private Long tripId;
+
+    @Column(name = "stop_id", updatable = false)
+    private Long stopId;
+
+    @Column(name = "stop_name", updatable = false)
+    private String stopName;
+
+    @Column(name = "device_id", updatable = false)
+    private String deviceId;
+
+    @Column(name = "scan_id", updatable = false)
+    private String scanId;
+
+    @Column(updatable = false)
+    private String note;
+
+    @Column(name = "occurred_at", nullable = false, updatable = false)
+    private OffsetDateTime occurredAt;
+
+    @Column(name = "recorded_at", nullable = false, insertable = false, updatable = false)
+    private OffsetDateTime recordedAt;
+
+    public enum Type {
+        CREATED, LOADED, UNLOADED, DELIVERED, FAILED
+    }
+
+    public static ParcelEvent of(Parcel parcel, Type type, String note) {
+        return ParcelEvent.builder()
+                .parcelId(parcel.getId())
+                .parcelCode(parcel.getCode())
+                .type(type)
+                .parcelStatus(parcel.getStatus())
+                .tripId(parcel.getTrip() != null ? parcel.getTrip().getId() : null)
+                .note(note)
+                .occurredAt(OffsetDateTime.now())
+                .build();
+    }
+}
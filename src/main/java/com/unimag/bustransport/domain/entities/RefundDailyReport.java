@@ -0,0 +1,41 @@
+package com.unimag.bustransport.domain.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+
+// Resumen de reembolsos por ruta, día y tramo de política; solo lo escribe el refresco de reportes
+@Entity
+@Table(name = "report_refunds_daily")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RefundDailyReport {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "route_id", nullable = false)
+    private Long routeId;
+
+    @Column(name = "refund_date", nullable = false)
+    private LocalDate refundDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Ticket.RefundPolicy policy;
+
+    @Column(nullable = false)
+    private Integer refunds;
+
+    @Column(name = "refunded_amount", nullable = false)
+    private BigDecimal refundedAmount;
+
+    @Column(name = "refreshed_at", nullable = false)
+    private OffsetDateTime refreshedAt;
+}
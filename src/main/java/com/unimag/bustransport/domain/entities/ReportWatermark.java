@@ -0,0 +1,22 @@
+package com.unimag.bustransport.domain.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+
+// Hasta dónde (updated_at) se han incorporado los cambios de la tabla origen a los resúmenes
+@Entity
+@Table(name = "report_watermarks")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReportWatermark {
+    @Id
+    private String name;
+
+    @Column(name = "high_water", nullable = false)
+    private OffsetDateTime highWater;
+}
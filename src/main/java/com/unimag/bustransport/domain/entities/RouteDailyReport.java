@@ -0,0 +1,40 @@
+package com.unimag.bustransport.domain.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+
+// Resumen de ingresos por ruta y día de servicio; solo lo escribe el refresco de reportes
+@Entity
+@Table(name = "report_route_daily")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RouteDailyReport {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "route_id", nullable = false)
+    private Long routeId;
+
+    @Column(name = "service_date", nullable = false)
+    private LocalDate serviceDate;
+
+    @Column(nullable = false)
+    private Integer trips;
+
+    @Column(name = "tickets_sold", nullable = false)
+    private Integer ticketsSold;
+
+    @Column(nullable = false)
+    private BigDecimal revenue;
+
+    @Column(name = "refreshed_at", nullable = false)
+    private OffsetDateTime refreshedAt;
+}
@@ -16,7 +16,8 @@ import lombok.*;
 @Builder
 public class Seat {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "seats_seq")
+    @SequenceGenerator(name = "seats_seq", sequenceName = "seats_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
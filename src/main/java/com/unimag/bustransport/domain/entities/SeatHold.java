@@ -13,7 +13,8 @@ import java.time.OffsetDateTime;
 @Builder
 public class SeatHold {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "seat_holds_seq")
+    @SequenceGenerator(name = "seat_holds_seq", sequenceName = "seat_holds_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "seat_number", nullable = false)
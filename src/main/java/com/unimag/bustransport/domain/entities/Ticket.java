@@ -3,6 +3,7 @@ package com.unimag.bustransport.domain.entities;
 import jakarta.persistence.*;
 import lombok.*;
 import java.math.BigDecimal;
+import java.time.OffsetDateTime;
 
 @Entity
 @Table(name = "tickets")
@@ -14,7 +15,8 @@ import java.math.BigDecimal;
 public class Ticket {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tickets_seq")
+    @SequenceGenerator(name = "tickets_seq", sequenceName = "tickets_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "seat_number", nullable = false)
@@ -55,7 +57,22 @@ public class Ticket {
             foreignKey = @ForeignKey(name = "fk_ticket_purchase"))
     private Purchase purchase;
 
+    // Datos del reembolso (alimentan el resumen de reembolsos por tramo de política)
+    @Column(name = "refund_amount")
+    private BigDecimal refundAmount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "refund_policy")
+    private RefundPolicy refundPolicy;
+
+    @Column(name = "refunded_at")
+    private OffsetDateTime refundedAt;
+
     public enum Status {
         PENDING, SOLD, CANCELLED, NO_SHOW,BOARDED
     }
+
+    public enum RefundPolicy {
+        OVER_24H, FROM_2H_TO_24H, UNDER_2H
+    }
 }
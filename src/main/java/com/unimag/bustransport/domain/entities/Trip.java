@@ -2,6 +2,7 @@ package com.unimag.bustransport.domain.entities;
 
 import jakarta.persistence.*;
 import lombok.*;
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
@@ -16,7 +17,8 @@ import java.util.List;
 @Builder
 public class Trip {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "trips_seq")
+    @SequenceGenerator(name = "trips_seq", sequenceName = "trips_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -29,6 +31,18 @@ public class Trip {
     @Enumerated(EnumType.STRING)
     private Status status = Status.SCHEDULED;
 
+    // Solo los escribe el proceso de no-shows (UPDATE masivo) al cruzar la hora de salida
+    @Column(name = "no_show_count", insertable = false, updatable = false)
+    private Integer noShowCount;
+    @Column(name = "boarded_count", insertable = false, updatable = false)
+    private Integer boardedCount;
+    @Column(name = "no_show_processed_at", insertable = false, updatable = false)
+    private OffsetDateTime noShowProcessedAt;
+
+    // Lo mantiene el registro de equipaje con sumas atómicas (TripRepository.addBaggageWeight)
+    @Column(name = "baggage_weight_kg", insertable = false, updatable = false)
+    private BigDecimal baggageWeightKg;
+
     @ManyToOne
     @JoinColumn(name = "route_id",foreignKey = @ForeignKey(name = "fk_trip_route"))
     private Route route;
@@ -0,0 +1,49 @@
+package com.unimag.bustransport.domain.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+
+// Resumen de ocupación por viaje; solo lo escribe el refresco de reportes
+@Entity
+@Table(name = "report_trip_occupancy")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TripOccupancyReport {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "trip_id", nullable = false, unique = true)
+    private Long tripId;
+
+    @Column(name = "route_id", nullable = false)
+    private Long routeId;
+
+    @Column(name = "service_date", nullable = false)
+    private LocalDate serviceDate;
+
+    @Column(nullable = false)
+    private Integer capacity;
+
+    @Column(name = "seats_sold", nullable = false)
+    private Integer seatsSold;
+
+    @Column(nullable = false)
+    private Integer boarded;
+
+    @Column(name = "no_shows", nullable = false)
+    private Integer noShows;
+
+    @Column(nullable = false)
+    private BigDecimal occupancy;
+
+    @Column(name = "refreshed_at", nullable = false)
+    private OffsetDateTime refreshedAt;
+}
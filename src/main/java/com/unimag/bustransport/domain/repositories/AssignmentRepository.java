@@ -5,6 +5,8 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,4 +14,55 @@ public interface AssignmentRepository extends JpaRepository<Assignment, Long> {
     Optional<Assignment> findByTripId(Long tripId);
     @Query("SELECT a FROM Assignment a WHERE a.driver.id = :driverId")
     List<Assignment> findByDriver(@Param("driverId") Long driverId);
+
+    // Turnos activos de los conductores que se cruzan con [from, to); earliestDeparture acota el
+    // rango igual que TripRepository.findBusyIntervals
+    @Query("""
+    SELECT a.driver.id AS driverId, t.id AS tripId, t.departureAt AS departureAt, t.arrivalAt AS arrivalAt
+    FROM Assignment a
+    JOIN a.trip t
+    WHERE a.driver.id IN :driverIds
+      AND t.departureAt > :earliestDeparture
+      AND t.departureAt < :to
+      AND t.arrivalAt > :from
+      AND t.status IN (
+            com.unimag.bustransport.domain.entities.Trip.Status.SCHEDULED,
+            com.unimag.bustransport.domain.entities.Trip.Status.BOARDING,
+            com.unimag.bustransport.domain.entities.Trip.Status.DEPARTED
+      )
+    ORDER BY t.departureAt, t.id
+    """)
+    List<DriverDuty> findDriverDuties(@Param("driverIds") Collection<Long> driverIds,
+                                      @Param("earliestDeparture") OffsetDateTime earliestDeparture,
+                                      @Param("from") OffsetDateTime from,
+                                      @Param("to") OffsetDateTime to);
+
+    // Mismos turnos para todos los conductores, para el reporte de choques de un día
+    @Query("""
+    SELECT a.driver.id AS driverId, t.id AS tripId, t.departureAt AS departureAt, t.arrivalAt AS arrivalAt
+    FROM Assignment a
+    JOIN a.trip t
+    WHERE t.departureAt > :earliestDeparture
+      AND t.departureAt < :to
+      AND t.arrivalAt > :from
+      AND t.status IN (
+            com.unimag.bustransport.domain.entities.Trip.Status.SCHEDULED,
+            com.unimag.bustransport.domain.entities.Trip.Status.BOARDING,
+            com.unimag.bustransport.domain.entities.Trip.Status.DEPARTED
+      )
+    ORDER BY t.departureAt, t.id
+    """)
+    List<DriverDuty> findAllDuties(@Param("earliestDeparture") OffsetDateTime earliestDeparture,
+                                   @Param("from") OffsetDateTime from,
+                                   @Param("to") OffsetDateTime to);
+
+    interface DriverDuty {
+        Long getDriverId();
+
+        Long getTripId();
+
+        OffsetDateTime getDepartureAt();
+
+        OffsetDateTime getArrivalAt();
+    }
 }
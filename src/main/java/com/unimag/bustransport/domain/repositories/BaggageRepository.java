@@ -1,11 +1,34 @@
 package com.unimag.bustransport.domain.repositories;
 
 import com.unimag.bustransport.domain.entities.Baggage;
+import com.unimag.bustransport.domain.entities.Ticket;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface BaggageRepository extends JpaRepository<Baggage, Long> {
     List<Baggage> findByTicketId(Long ticketId);
     int countByTicketId(Long ticketId);
+
+    // Lo que necesita el registro por lotes de cada ticket, con sus maletas ya registradas
+    @Query("""
+    SELECT t.id AS ticketId, t.trip.id AS tripId, t.status AS status,
+           (SELECT COUNT(b) FROM Baggage b WHERE b.ticket = t) AS bags
+    FROM Ticket t
+    WHERE t.id IN :ticketIds
+    """)
+    List<TicketBaggage> findTicketBaggage(@Param("ticketIds") Collection<Long> ticketIds);
+
+    interface TicketBaggage {
+        Long getTicketId();
+
+        Long getTripId();
+
+        Ticket.Status getStatus();
+
+        Long getBags();
+    }
 }
@@ -1,17 +1,22 @@
 package com.unimag.bustransport.domain.repositories;
 
 import com.unimag.bustransport.domain.entities.Bus;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.data.domain.Limit;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface BusRepository extends JpaRepository<Bus,Long> {
     Optional<Bus> findByPlate(String plate);
     List<Bus> findByStatus(Bus.Status status);
+    List<Bus> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
     @Query("SELECT b " +
             "FROM Bus b " +
             "LEFT JOIN FETCH b.seats " +
@@ -23,5 +28,10 @@ public interface BusRepository extends JpaRepository<Bus,Long> {
             "WHERE b.id = :busId")
     void changeBusStatus(@Param("busId") Long busId, @Param("status") Bus.Status status);
 
+    // Generación de horarios: bloquea los buses en orden de id para que dos cargas no se crucen
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Bus b WHERE b.id IN :ids ORDER BY b.id")
+    List<Bus> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
 
 }
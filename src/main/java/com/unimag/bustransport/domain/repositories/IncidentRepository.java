@@ -4,11 +4,13 @@ import com.unimag.bustransport.domain.entities.Incident;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.data.domain.Limit;
 
 import java.util.List;
 
 public interface IncidentRepository extends JpaRepository<Incident, Long> {
     List<Incident> findByEntityType(Incident.EntityType entityType);
+    List<Incident> findByEntityTypeAndIdLessThanOrderByIdDesc(Incident.EntityType entityType, Long beforeId, Limit limit);
 
     @Query("SELECT i FROM Incident i WHERE i.type = :type ORDER BY i.createdAt DESC")
     List<Incident> findRecentByType(@Param("type") Incident.Type type);
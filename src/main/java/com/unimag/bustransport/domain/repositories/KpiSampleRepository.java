@@ -0,0 +1,74 @@
+package com.unimag.bustransport.domain.repositories;
+
+import com.unimag.bustransport.domain.entities.KpiSample;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+public interface KpiSampleRepository extends JpaRepository<KpiSample, Long> {
+
+    @Query("""
+    SELECT s FROM KpiSample s
+    WHERE s.name = :name
+      AND s.resolution = :resolution
+      AND s.bucketStart >= :from
+      AND s.bucketStart < :to
+    ORDER BY s.bucketStart
+    """)
+    List<KpiSample> findSeries(@Param("name") String name,
+                               @Param("resolution") KpiSample.Resolution resolution,
+                               @Param("from") OffsetDateTime from,
+                               @Param("to") OffsetDateTime to);
+
+    // Muestra por minuto; si el minuto ya existe (reinicio, varios nodos) la nueva se suma a las
+    // anteriores: value queda como promedio ponderado por sample_count, igual que en el resumen
+    @Modifying
+    @Query(value = """
+    INSERT INTO kpi_samples ("name", resolution, bucket_start, "value", min_value, max_value, sample_count)
+    VALUES (:name, 'MINUTE', :bucketStart, :value, :value, :value, 1)
+    ON CONFLICT ("name", resolution, bucket_start)
+    DO UPDATE SET "value" = (kpi_samples."value" * kpi_samples.sample_count + EXCLUDED."value")
+                            / (kpi_samples.sample_count + 1),
+                  min_value = LEAST(kpi_samples.min_value, EXCLUDED.min_value),
+                  max_value = GREATEST(kpi_samples.max_value, EXCLUDED.max_value),
+                  sample_count = kpi_samples.sample_count + 1
+    """, nativeQuery = true)
+    void upsertMinuteSample(@Param("name") String name,
+                            @Param("bucketStart") OffsetDateTime bucketStart,
+                            @Param("value") Double value);
+
+    // Resume [from, to) de una resolución a la siguiente; idempotente, se puede recalcular
+    @Modifying
+    @Query(value = """
+    INSERT INTO kpi_samples ("name", resolution, bucket_start, "value", min_value, max_value, sample_count)
+    SELECT "name",
+           :target,
+           to_timestamp(floor(extract(epoch FROM bucket_start) / :seconds) * :seconds),
+           SUM("value" * sample_count) / SUM(sample_count),
+           MIN(min_value),
+           MAX(max_value),
+           SUM(sample_count)
+    FROM kpi_samples
+    WHERE resolution = :source
+      AND bucket_start >= :from
+      AND bucket_start < :to
+    GROUP BY 1, 3
+    ON CONFLICT ("name", resolution, bucket_start)
+    DO UPDATE SET "value" = EXCLUDED."value", min_value = EXCLUDED.min_value,
+                  max_value = EXCLUDED.max_value, sample_count = EXCLUDED.sample_count
+    """, nativeQuery = true)
+    int rollup(@Param("source") String source,
+               @Param("target") String target,
+               @Param("seconds") long seconds,
+               @Param("from") OffsetDateTime from,
+               @Param("to") OffsetDateTime to);
+
+    @Modifying
+    @Query("DELETE FROM KpiSample s WHERE s.resolution = :resolution AND s.bucketStart < :cutoff")
+    int deleteOlderThan(@Param("resolution") KpiSample.Resolution resolution,
+                        @Param("cutoff") OffsetDateTime cutoff);
+}
@@ -0,0 +1,38 @@
+package com.unimag.bustransport.domain.repositories;
+
+import com.unimag.bustransport.domain.entities.ParcelEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ParcelEventRepository extends JpaRepository<ParcelEvent, Long> {
+
+    // Usa idx_parcel_events_code; no toca parcels ni stops
+    List<ParcelEvent> findByParcelCodeOrderByIdAsc(String parcelCode);
+
+    // Escaneos de un lote que ya se registraron en un envío anterior del mismo equipo
+    @Query("""
+    SELECT e.scanId FROM ParcelEvent e
+    WHERE e.deviceId = :deviceId
+      AND e.scanId IN :scanIds
+    """)
+    List<String> findRecordedScanIds(@Param("deviceId") String deviceId,
+                                     @Param("scanIds") Collection<String> scanIds);
+
+    // Un evento por encomienda asignada en una sola sentencia, con el estado ya actualizado
+    @Modifying
+    @Query(value = """
+    INSERT INTO parcel_events (parcel_id, parcel_code, event_type, parcel_status, trip_id, note, occurred_at)
+    SELECT p.id, p.code, 'LOADED', p.status, p.trip_id, :note, now()
+    FROM parcels p
+    WHERE p.id IN (:parcelIds)
+      AND p.trip_id = :tripId
+    """, nativeQuery = true)
+    int appendLoadedForTrip(@Param("parcelIds") Collection<Long> parcelIds,
+                            @Param("tripId") Long tripId,
+                            @Param("note") String note);
+}
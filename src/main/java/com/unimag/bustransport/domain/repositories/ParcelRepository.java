@@ -1,8 +1,17 @@
 package com.unimag.bustransport.domain.repositories;
 
 import com.unimag.bustransport.domain.entities.Parcel;
+import com.unimag.bustransport.domain.entities.Trip;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -10,6 +19,105 @@ public interface ParcelRepository extends JpaRepository<Parcel,Long> {
     List<Parcel> findByTripId(Long tripId);
     Optional<Parcel> findByCode(String code);
     List<Parcel> findBySenderPhone(String senderPhone);
+    List<Parcel> findBySenderPhoneAndIdGreaterThanOrderByIdAsc(String senderPhone, Long afterId, Limit limit);
     List<Parcel> findByReceiverPhone(String receiverPhone);
     boolean existsByCode(String code);
+
+    // Lote de escaneos: bloquea las encomiendas en orden de id para no cruzarse con otro lote
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Parcel p WHERE p.code IN :codes ORDER BY p.id")
+    List<Parcel> findByCodeInForUpdate(@Param("codes") Collection<String> codes);
+
+    // Ruta de cada encomienda (la de su parada de origen) sin cargar las paradas
+    @Query("SELECT p.id AS parcelId, p.fromStop.route.id AS routeId FROM Parcel p WHERE p.id IN :ids")
+    List<ParcelRoute> findRoutes(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE Parcel p SET p.status = :status WHERE p.id IN :ids")
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("status") Parcel.Status status);
+
+    @Modifying
+    @Query("UPDATE Parcel p SET p.status = :status, p.trip = :trip WHERE p.id IN :ids")
+    int updateStatusAndTrip(@Param("ids") Collection<Long> ids,
+                            @Param("status") Parcel.Status status,
+                            @Param("trip") Trip trip);
+
+    // Pendientes del despacho automático, sin cargar entidades; las más antiguas primero
+    @Query("""
+    SELECT p.id AS parcelId, p.fromStop.id AS fromStopId, p.toStop.id AS toStopId, p.fromStop.route.id AS routeId,
+           p.weightKg AS weightKg, p.volumeLiters AS volumeLiters
+    FROM Parcel p
+    WHERE p.status = com.unimag.bustransport.domain.entities.Parcel.Status.CREATED
+      AND p.trip IS NULL
+    ORDER BY p.id
+    """)
+    List<PendingParcel> findPendingForDispatch();
+
+    // Candado de la transacción en curso; false si otro nodo lo tiene. Se suelta solo con el commit
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:key)", nativeQuery = true)
+    boolean tryAdvisoryXactLock(@Param("key") long key);
+
+    // Lo que va en bodega por viaje; una descarga anterior al destino acorta el recorrido
+    @Query(value = """
+    SELECT p.id AS parcelId, p.trip_id AS tripId, fs."order" AS fromOrder,
+           LEAST(ts."order", COALESCE((SELECT MIN(us."order")
+                                       FROM parcel_events e
+                                       JOIN stops us ON us.id = e.stop_id
+                                       WHERE e.parcel_id = p.id
+                                         AND e.trip_id = p.trip_id
+                                         AND e.event_type = 'UNLOADED'), ts."order")) AS toOrder,
+           p.weight_kg AS weightKg, p.volume_liters AS volumeLiters
+    FROM parcels p
+    JOIN stops fs ON fs.id = p.from_stop_id
+    JOIN stops ts ON ts.id = p.to_stop_id
+    WHERE p.trip_id IN (:tripIds)
+      AND p.status = 'IN_TRANSIT'
+    """, nativeQuery = true)
+    List<CargoParcel> findCargoOnTrips(@Param("tripIds") Collection<Long> tripIds);
+
+    // Asignación masiva; solo toma las que siguen sin viaje por si otra operación se adelantó
+    @Modifying
+    @Query("""
+    UPDATE Parcel p
+    SET p.trip = :trip,
+        p.status = com.unimag.bustransport.domain.entities.Parcel.Status.IN_TRANSIT
+    WHERE p.id IN :ids
+      AND p.trip IS NULL
+      AND p.status = com.unimag.bustransport.domain.entities.Parcel.Status.CREATED
+    """)
+    int assignPendingToTrip(@Param("ids") Collection<Long> ids, @Param("trip") Trip trip);
+
+    interface PendingParcel {
+        Long getParcelId();
+
+        Long getFromStopId();
+
+        Long getToStopId();
+
+        Long getRouteId();
+
+        BigDecimal getWeightKg();
+
+        BigDecimal getVolumeLiters();
+    }
+
+    interface CargoParcel {
+        Long getParcelId();
+
+        Long getTripId();
+
+        Integer getFromOrder();
+
+        Integer getToOrder();
+
+        BigDecimal getWeightKg();
+
+        BigDecimal getVolumeLiters();
+    }
+
+    interface ParcelRoute {
+        Long getParcelId();
+
+        Long getRouteId();
+    }
 }
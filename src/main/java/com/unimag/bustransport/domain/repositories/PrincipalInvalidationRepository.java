@@ -0,0 +1,20 @@
+package com.unimag.bustransport.domain.repositories;
+
+import com.unimag.bustransport.domain.entities.PrincipalInvalidation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+public interface PrincipalInvalidationRepository extends JpaRepository<PrincipalInvalidation, Long> {
+
+    @Query("SELECT DISTINCT p.userId FROM PrincipalInvalidation p WHERE p.createdAt > :since")
+    List<Long> findUserIdsInvalidatedSince(@Param("since") OffsetDateTime since);
+
+    @Modifying
+    @Query("DELETE FROM PrincipalInvalidation p WHERE p.createdAt < :before")
+    int deleteOlderThan(@Param("before") OffsetDateTime before);
+}
@@ -0,0 +1,59 @@
+package com.unimag.bustransport.domain.repositories;
+
+import com.unimag.bustransport.domain.entities.RefreshTokenFamily;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+public interface RefreshTokenFamilyRepository extends JpaRepository<RefreshTokenFamily, Long> {
+
+    boolean existsByFamilyIdAndRevokedTrue(UUID familyId);
+
+    // Rotación atómica: solo avanza si la generación presentada es la vigente y la familia no está revocada
+    @Modifying
+    @Query("""
+            UPDATE RefreshTokenFamily f
+            SET f.generation = f.generation + 1, f.lastUsedAt = :now, f.expiresAt = :expiresAt
+            WHERE f.familyId = :familyId AND f.generation = :generation AND f.revoked = false
+            """)
+    int rotate(@Param("familyId") UUID familyId,
+               @Param("generation") int generation,
+               @Param("now") OffsetDateTime now,
+               @Param("expiresAt") OffsetDateTime expiresAt);
+
+    @Modifying
+    @Query("UPDATE RefreshTokenFamily f SET f.revoked = true, f.revokedAt = :now WHERE f.familyId = :familyId AND f.revoked = false")
+    int revoke(@Param("familyId") UUID familyId, @Param("now") OffsetDateTime now);
+
+    @Query("SELECT f.familyId FROM RefreshTokenFamily f WHERE f.userId = :userId AND f.revoked = false")
+    List<UUID> findActiveFamilyIdsByUserId(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("UPDATE RefreshTokenFamily f SET f.revoked = true, f.revokedAt = :now WHERE f.userId = :userId AND f.revoked = false")
+    int revokeAllByUserId(@Param("userId") Long userId, @Param("now") OffsetDateTime now);
+
+    @Query("SELECT f.familyId FROM RefreshTokenFamily f WHERE f.revoked = true AND f.revokedAt > :since")
+    List<UUID> findRevokedSince(@Param("since") OffsetDateTime since);
+
+    // Para reconstruir el filtro de revocados sin cargar todo en memoria
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "5000"))
+    @Query("SELECT f.familyId FROM RefreshTokenFamily f WHERE f.revoked = true AND f.expiresAt > :now")
+    Stream<UUID> streamRevokedNotExpired(@Param("now") OffsetDateTime now);
+
+    @Query("SELECT COUNT(f) FROM RefreshTokenFamily f WHERE f.revoked = true AND f.expiresAt > :now")
+    long countRevokedNotExpired(@Param("now") OffsetDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM RefreshTokenFamily f WHERE f.expiresAt < :now")
+    int deleteExpired(@Param("now") OffsetDateTime now);
+}
@@ -0,0 +1,53 @@
+package com.unimag.bustransport.domain.repositories;
+
+import com.unimag.bustransport.domain.entities.RefundDailyReport;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+public interface RefundDailyReportRepository extends JpaRepository<RefundDailyReport, Long> {
+
+    List<RefundDailyReport> findByRefundDateBetweenOrderByRefundDateAscRouteIdAscPolicyAsc(LocalDate from, LocalDate to);
+
+    List<RefundDailyReport> findByRouteIdAndRefundDateBetweenOrderByRefundDateAscPolicyAsc(Long routeId, LocalDate from, LocalDate to);
+
+    // Recalcula los grupos (ruta, día, tramo) que tocan los reembolsos registrados en (from, to]
+    @Modifying
+    @Query(value = """
+    INSERT INTO report_refunds_daily (route_id, refund_date, policy, refunds, refunded_amount, refreshed_at)
+    SELECT tr.route_id, CAST(ti.refunded_at AS DATE), ti.refund_policy, COUNT(*), SUM(ti.refund_amount), now()
+    FROM tickets ti
+    JOIN trips tr ON tr.id = ti.trip_id
+    WHERE ti.refunded_at IS NOT NULL
+      AND (tr.route_id, CAST(ti.refunded_at AS DATE)) IN (
+            SELECT tr2.route_id, CAST(t2.refunded_at AS DATE)
+            FROM tickets t2
+            JOIN trips tr2 ON tr2.id = t2.trip_id
+            WHERE t2.updated_at > :from AND t2.updated_at <= :to
+              AND t2.refunded_at IS NOT NULL)
+    GROUP BY 1, 2, 3
+    ON CONFLICT (refund_date, route_id, policy)
+    DO UPDATE SET refunds = EXCLUDED.refunds, refunded_amount = EXCLUDED.refunded_amount,
+                  refreshed_at = EXCLUDED.refreshed_at
+    """, nativeQuery = true)
+    int refreshChangedBetween(@Param("from") OffsetDateTime from, @Param("to") OffsetDateTime to);
+
+    // Grupos (ruta, día, tramo) que ya no tienen ningún ticket reembolsado
+    @Modifying
+    @Query(value = """
+    DELETE FROM report_refunds_daily r
+    WHERE NOT EXISTS (
+            SELECT 1
+            FROM tickets ti
+            JOIN trips tr ON tr.id = ti.trip_id
+            WHERE tr.route_id = r.route_id
+              AND CAST(ti.refunded_at AS DATE) = r.refund_date
+              AND ti.refund_policy = r.policy)
+    """, nativeQuery = true)
+    int deleteOrphans();
+}
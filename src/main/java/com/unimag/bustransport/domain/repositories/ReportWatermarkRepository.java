@@ -0,0 +1,18 @@
+package com.unimag.bustransport.domain.repositories;
+
+import com.unimag.bustransport.domain.entities.ReportWatermark;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface ReportWatermarkRepository extends JpaRepository<ReportWatermark, String> {
+
+    // Bloquea la marca para que dos nodos no refresquen el mismo tramo a la vez
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM ReportWatermark w WHERE w.name = :name")
+    Optional<ReportWatermark> findForUpdate(@Param("name") String name);
+}
@@ -0,0 +1,41 @@
+package com.unimag.bustransport.domain.repositories;
+
+import com.unimag.bustransport.domain.entities.RouteDailyReport;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+public interface RouteDailyReportRepository extends JpaRepository<RouteDailyReport, Long> {
+
+    List<RouteDailyReport> findByServiceDateBetweenOrderByServiceDateAscRouteIdAsc(LocalDate from, LocalDate to);
+
+    List<RouteDailyReport> findByRouteIdAndServiceDateBetweenOrderByServiceDateAsc(Long routeId, LocalDate from, LocalDate to);
+
+    // Recalcula completas las parejas (ruta, día) de los viajes indicados; idempotente
+    @Modifying
+    @Query(value = """
+    INSERT INTO report_route_daily (route_id, service_date, trips, tickets_sold, revenue, refreshed_at)
+    SELECT tr.route_id, tr."date", COUNT(DISTINCT tr.id), COUNT(ti.id), COALESCE(SUM(ti.price), 0), now()
+    FROM trips tr
+    LEFT JOIN tickets ti ON ti.trip_id = tr.id AND ti.status IN ('SOLD', 'BOARDED', 'NO_SHOW')
+    WHERE (tr.route_id, tr."date") IN (SELECT route_id, "date" FROM trips WHERE id IN (:tripIds))
+    GROUP BY tr.route_id, tr."date"
+    ON CONFLICT (service_date, route_id)
+    DO UPDATE SET trips = EXCLUDED.trips, tickets_sold = EXCLUDED.tickets_sold,
+                  revenue = EXCLUDED.revenue, refreshed_at = EXCLUDED.refreshed_at
+    """, nativeQuery = true)
+    int refreshForTrips(@Param("tripIds") Collection<Long> tripIds);
+
+    // Parejas (ruta, día) que se quedaron sin viajes al borrarlos o moverlos de ruta o de día
+    @Modifying
+    @Query(value = """
+    DELETE FROM report_route_daily r
+    WHERE NOT EXISTS (SELECT 1 FROM trips tr WHERE tr.route_id = r.route_id AND tr."date" = r.service_date)
+    """, nativeQuery = true)
+    int deleteOrphans();
+}
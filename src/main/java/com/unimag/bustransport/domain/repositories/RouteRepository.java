@@ -2,6 +2,7 @@ package com.unimag.bustransport.domain.repositories;
 
 import com.unimag.bustransport.domain.entities.Route;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.domain.Limit;
 import java.util.List;
 
 public interface RouteRepository extends JpaRepository<Route,Long> {
@@ -13,4 +14,5 @@ public interface RouteRepository extends JpaRepository<Route,Long> {
     List<Route> findByDestination(String destination);
 
     boolean existsByCode(String code);
+    List<Route> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
 }
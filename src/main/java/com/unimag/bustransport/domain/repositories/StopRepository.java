@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,6 +20,18 @@ public interface StopRepository extends JpaRepository<Stop,Long> {
             @Param("order") Integer order
     );
     boolean existsByRouteIdAndId(Long routeId, Long stopId);
+
+    // Índice ruta -> parada -> orden para el despacho automático
+    @Query("SELECT s.id AS stopId, s.route.id AS routeId, s.order AS stopOrder FROM Stop s WHERE s.route.id IN :routeIds")
+    List<StopPosition> findPositionsByRouteIds(@Param("routeIds") Collection<Long> routeIds);
+
+    interface StopPosition {
+        Long getStopId();
+
+        Long getRouteId();
+
+        Integer getStopOrder();
+    }
     @Query( "SELECT s " +
             "FROM Stop s " +
             "WHERE s.route.id = :routeId AND s.order " +
@@ -2,18 +2,24 @@ package com.unimag.bustransport.domain.repositories;
 
 import com.unimag.bustransport.domain.entities.Ticket;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface TicketRepository extends JpaRepository<Ticket,Long> {
     List<Ticket> findByTripId(Long tripId);
+    List<Ticket> findByTripIdAndIdGreaterThanOrderByIdAsc(Long tripId, Long afterId, Limit limit);
     List<Ticket> findByPassengerId(Long passengerId);
     List<Ticket> findByPurchaseId(Long purchaseId);
     Optional<Ticket> findByQrCode(String qrCode);
+    List<Ticket> findByTripIdAndQrCodeIn(Long tripId, Collection<String> qrCodes);
     List<Ticket> findByStatus(Ticket.Status status);
 
     @Query("SELECT COUNT(t) FROM Ticket t WHERE t.trip.id = :tripId AND t.status IN (\n" +
@@ -67,13 +73,55 @@ public interface TicketRepository extends JpaRepository<Ticket,Long> {
             "AND t.purchase.paymentStatus = com.unimag.bustransport.domain.entities.Purchase.PaymentStatus.PENDING " +
             "AND t.purchase.createdAt < :cutoffTime")
     List<Ticket> findExpiredPendingTickets(@Param("cutoffTime") OffsetDateTime cutoffTime);
+    // No-shows de un viaje en una sola sentencia: todo lo que sigue SOLD al cruzar la salida
+    @Transactional
+    @Modifying
     @Query("""
-    SELECT t FROM Ticket t
-    WHERE t.trip.id = :tripId 
+    UPDATE Ticket t
+    SET t.status = com.unimag.bustransport.domain.entities.Ticket.Status.NO_SHOW
+    WHERE t.trip.id = :tripId
+      AND t.status = com.unimag.bustransport.domain.entities.Ticket.Status.SOLD
+    """)
+    int markNoShowByTrip(@Param("tripId") Long tripId);
+
+    // Abordaje en una sola sentencia: solo pasa a BOARDED si sigue SOLD y el QR es el vigente
+    @Transactional
+    @Modifying
+    @Query("""
+    UPDATE Ticket t
+    SET t.status = com.unimag.bustransport.domain.entities.Ticket.Status.BOARDED
+    WHERE t.id = :ticketId
+      AND t.qrCode = :qrCode
       AND t.status = com.unimag.bustransport.domain.entities.Ticket.Status.SOLD
-      AND t.trip.departureAt BETWEEN CURRENT_TIMESTAMP AND :thresholdTime
     """)
-    List<Ticket> findTicketNoShow(@Param("thresholdTime") OffsetDateTime thresholdTime);
+    int markBoarded(@Param("ticketId") Long ticketId, @Param("qrCode") String qrCode);
+
+    // Tickets abordables de un viaje, con lo necesario para el manifiesto de abordaje
+    @Query("""
+    SELECT t FROM Ticket t
+    JOIN FETCH t.passenger
+    JOIN FETCH t.fromStop
+    JOIN FETCH t.toStop
+    WHERE t.trip.id = :tripId
+      AND t.qrCode IS NOT NULL
+      AND t.status IN (
+            com.unimag.bustransport.domain.entities.Ticket.Status.SOLD,
+            com.unimag.bustransport.domain.entities.Ticket.Status.BOARDED
+      )
+    """)
+    List<Ticket> findBoardingManifest(@Param("tripId") Long tripId);
+
+    // Abordaje por lotes: una sola sentencia para todo el envío y devuelve los tickets que sí pasaron
+    // de SOLD a BOARDED; nativa y sin @Modifying porque el RETURNING se lee como resultado
+    @Transactional
+    @Query(value = "UPDATE tickets SET status = 'BOARDED' WHERE id IN (:ticketIds) AND status = 'SOLD' "
+            + "RETURNING id", nativeQuery = true)
+    List<Long> markBoardedBatch(@Param("ticketIds") Collection<Long> ticketIds);
 
-    List<Ticket> tripId(Long tripId);
+    // Viajes con tickets cambiados en (from, to]; updated_at lo mantiene un trigger, por eso es nativa
+    @Query(value = """
+    SELECT DISTINCT trip_id FROM tickets
+    WHERE updated_at > :from AND updated_at <= :to
+    """, nativeQuery = true)
+    List<Long> findTripIdsChangedBetween(@Param("from") OffsetDateTime from, @Param("to") OffsetDateTime to);
 }
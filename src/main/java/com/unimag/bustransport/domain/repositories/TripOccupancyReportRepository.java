@@ -0,0 +1,49 @@
+package com.unimag.bustransport.domain.repositories;
+
+import com.unimag.bustransport.domain.entities.TripOccupancyReport;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+public interface TripOccupancyReportRepository extends JpaRepository<TripOccupancyReport, Long> {
+
+    List<TripOccupancyReport> findByServiceDateBetweenOrderByServiceDateAscTripIdAsc(LocalDate from, LocalDate to);
+
+    List<TripOccupancyReport> findByRouteIdAndServiceDateBetweenOrderByServiceDateAscTripIdAsc(Long routeId, LocalDate from, LocalDate to);
+
+    @Modifying
+    @Query(value = """
+    INSERT INTO report_trip_occupancy (trip_id, route_id, service_date, capacity, seats_sold, boarded, no_shows,
+                                       occupancy, refreshed_at)
+    SELECT tr.id, tr.route_id, tr."date", b.capacity,
+           COUNT(ti.id) FILTER (WHERE ti.status IN ('SOLD', 'BOARDED', 'NO_SHOW')),
+           COUNT(ti.id) FILTER (WHERE ti.status = 'BOARDED'),
+           COUNT(ti.id) FILTER (WHERE ti.status = 'NO_SHOW'),
+           LEAST(CAST(COUNT(ti.id) FILTER (WHERE ti.status IN ('SOLD', 'BOARDED', 'NO_SHOW')) AS NUMERIC) / b.capacity, 99),
+           now()
+    FROM trips tr
+    JOIN buses b ON b.id = tr.bus_id
+    LEFT JOIN tickets ti ON ti.trip_id = tr.id
+    WHERE tr.id IN (:tripIds)
+    GROUP BY tr.id, tr.route_id, tr."date", b.capacity
+    ON CONFLICT (trip_id)
+    DO UPDATE SET route_id = EXCLUDED.route_id, service_date = EXCLUDED.service_date,
+                  capacity = EXCLUDED.capacity, seats_sold = EXCLUDED.seats_sold,
+                  boarded = EXCLUDED.boarded, no_shows = EXCLUDED.no_shows,
+                  occupancy = EXCLUDED.occupancy, refreshed_at = EXCLUDED.refreshed_at
+    """, nativeQuery = true)
+    int refreshForTrips(@Param("tripIds") Collection<Long> tripIds);
+
+    // Filas de viajes borrados o sin bus, que refreshForTrips ya no produce
+    @Modifying
+    @Query(value = """
+    DELETE FROM report_trip_occupancy o
+    WHERE NOT EXISTS (SELECT 1 FROM trips tr JOIN buses b ON b.id = tr.bus_id WHERE tr.id = o.trip_id)
+    """, nativeQuery = true)
+    int deleteOrphans();
+}
@@ -1,12 +1,18 @@
 package com.unimag.bustransport.domain.repositories;
 
 import com.unimag.bustransport.domain.entities.Trip;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -50,4 +56,233 @@ public interface TripRepository extends JpaRepository<Trip,Long> {
             "      )")
     Long countSoldTickets(Long tripId);
 
+    // viajes que cruzaron el umbral de salida y aún no pasan por el proceso de no-shows
+    @Query("""
+    SELECT t.id FROM Trip t
+    WHERE t.departureAt <= :threshold
+      AND t.noShowProcessedAt IS NULL
+      AND t.status IN (
+            com.unimag.bustransport.domain.entities.Trip.Status.SCHEDULED,
+            com.unimag.bustransport.domain.entities.Trip.Status.BOARDING,
+            com.unimag.bustransport.domain.entities.Trip.Status.DEPARTED
+      )
+    ORDER BY t.departureAt
+    """)
+    List<Long> findTripIdsPendingNoShow(@Param("threshold") OffsetDateTime threshold);
+
+    // Recalcula los contadores con agregados (idempotente) y marca el viaje como procesado. Solo
+    // actualiza si nadie lo cerró antes: con el job activo en cada nodo, devuelve 1 al que lo cierra.
+    // Nativa porque las columnas de contadores no son actualizables desde la entidad.
+    @Transactional
+    @Modifying
+    @Query(value = """
+    UPDATE trips t
+    SET no_show_count = (SELECT COUNT(*) FROM tickets ti WHERE ti.trip_id = t.id AND ti.status = 'NO_SHOW'),
+        boarded_count = (SELECT COUNT(*) FROM tickets ti WHERE ti.trip_id = t.id AND ti.status = 'BOARDED'),
+        no_show_processed_at = :processedAt
+    WHERE t.id = :tripId
+      AND t.no_show_processed_at IS NULL
+    """, nativeQuery = true)
+    int recordNoShowCounters(@Param("tripId") Long tripId, @Param("processedAt") OffsetDateTime processedAt);
+
+    // Viajes programados dentro de la ventana del despacho automático de encomiendas
+    @Query("""
+    SELECT t.id AS tripId, t.route.id AS routeId, t.departureAt AS departureAt
+    FROM Trip t
+    WHERE t.status = com.unimag.bustransport.domain.entities.Trip.Status.SCHEDULED
+      AND t.departureAt BETWEEN :from AND :to
+    ORDER BY t.departureAt, t.id
+    """)
+    List<DispatchTrip> findScheduledForDispatch(@Param("from") OffsetDateTime from, @Param("to") OffsetDateTime to);
+
+    // Suma atómica al peso de equipaje del viaje y devuelve el nuevo total; nativa porque la columna
+    // no es actualizable desde la entidad, y sin @Modifying porque el RETURNING se lee como resultado
+    @Transactional
+    @Query(value = "UPDATE trips SET baggage_weight_kg = baggage_weight_kg + :deltaKg WHERE id = :tripId "
+            + "RETURNING baggage_weight_kg", nativeQuery = true)
+    BigDecimal addBaggageWeight(@Param("tripId") Long tripId, @Param("deltaKg") BigDecimal deltaKg);
+
+    @Query("SELECT t.baggageWeightKg FROM Trip t WHERE t.id = :tripId")
+    BigDecimal findBaggageWeightKg(@Param("tripId") Long tripId);
+
+    // Reserva de bodega: bloquea los viajes en orden de id hasta el fin de la transacción
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM Trip t WHERE t.id IN :ids ORDER BY t.id")
+    List<Trip> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    // Cupo de bodega de cada viaje según su bus
+    @Query("""
+    SELECT t.id AS tripId, t.route.id AS routeId, b.cargoCapacityKg AS capacityKg, b.cargoCapacityLiters AS capacityLiters
+    FROM Trip t
+    LEFT JOIN t.bus b
+    WHERE t.id IN :tripIds
+    """)
+    List<CargoTrip> findCargoTrips(@Param("tripIds") Collection<Long> tripIds);
+
+    // Viajes activos de los buses que se cruzan con [from, to). earliestDeparture (from menos la
+    // duración máxima de un viaje, ver BusIntervalIndex) acota el rango sobre idx_trips_bus_active
+    // para no recorrer el historial del bus.
+    @Query("""
+    SELECT t.id AS tripId, t.bus.id AS busId, t.departureAt AS departureAt, t.arrivalAt AS arrivalAt
+    FROM Trip t
+    WHERE t.bus.id IN :busIds
+      AND t.departureAt > :earliestDeparture
+      AND t.departureAt < :to
+      AND t.arrivalAt > :from
+      AND t.status IN (
+            com.unimag.bustransport.domain.entities.Trip.Status.SCHEDULED,
+            com.unimag.bustransport.domain.entities.Trip.Status.BOARDING,
+            com.unimag.bustransport.domain.entities.Trip.Status.DEPARTED
+      )
+    """)
+    List<BusInterval> findBusyIntervals(@Param("busIds") Collection<Long> busIds,
+                                        @Param("earliestDeparture") OffsetDateTime earliestDeparture,
+                                        @Param("from") OffsetDateTime from,
+                                        @Param("to") OffsetDateTime to);
+
+    // Viajes programados sin conductor que salen en [from, to), para la auto-asignación
+    @Query("""
+    SELECT t FROM Trip t
+    WHERE t.status = com.unimag.bustransport.domain.entities.Trip.Status.SCHEDULED
+      AND t.departureAt >= :from
+      AND t.departureAt < :to
+      AND NOT EXISTS (SELECT 1 FROM Assignment a WHERE a.trip = t)
+    ORDER BY t.departureAt, t.id
+    """)
+    List<Trip> findUnassignedScheduled(@Param("from") OffsetDateTime from, @Param("to") OffsetDateTime to);
+
+    // Viajes programados del día con sus terminales, el cupo de su bus y los puestos ocupados o
+    // retenidos, para el plan de flota. Por número de puesto: un mismo asiento se vende por tramos
+    // y cuenta una sola vez
+    @Query("""
+    SELECT t.id AS tripId, b.id AS busId, b.capacity AS busCapacity, r.origin AS origin,
+           r.destination AS destination, t.departureAt AS departureAt, t.arrivalAt AS arrivalAt,
+           (SELECT COUNT(DISTINCT ti.seatNumber) FROM Ticket ti
+            WHERE ti.trip = t
+              AND ti.status IN (
+                    com.unimag.bustransport.domain.entities.Ticket.Status.PENDING,
+                    com.unimag.bustransport.domain.entities.Ticket.Status.SOLD,
+                    com.unimag.bustransport.domain.entities.Ticket.Status.BOARDED
+              )) AS seatsTaken,
+           (SELECT COUNT(h) FROM SeatHold h
+            WHERE h.trip = t
+              AND h.status = com.unimag.bustransport.domain.entities.SeatHold.Status.HOLD
+              AND h.expiresAt > :now) AS seatsHeld
+    FROM Trip t
+    JOIN t.route r
+    LEFT JOIN t.bus b
+    WHERE t.status = com.unimag.bustransport.domain.entities.Trip.Status.SCHEDULED
+      AND t.departureAt >= :from
+      AND t.departureAt < :to
+    ORDER BY t.departureAt, t.id
+    """)
+    List<FleetTrip> findFleetTrips(@Param("from") OffsetDateTime from, @Param("to") OffsetDateTime to,
+                                   @Param("now") OffsetDateTime now);
+
+    // Viajes no cancelados de los buses que salen en (after, to), con terminales: los que ya
+    // llegaron también cuentan, porque dejan el bus en su destino
+    @Query("""
+    SELECT t.id AS tripId, t.bus.id AS busId, r.origin AS origin, r.destination AS destination,
+           t.departureAt AS departureAt, t.arrivalAt AS arrivalAt
+    FROM Trip t
+    JOIN t.route r
+    WHERE t.bus.id IN :busIds
+      AND t.departureAt > :after
+      AND t.departureAt < :to
+      AND t.status <> com.unimag.bustransport.domain.entities.Trip.Status.CANCELLED
+    """)
+    List<BusTrip> findBusTrips(@Param("busIds") Collection<Long> busIds,
+                               @Param("after") OffsetDateTime after,
+                               @Param("to") OffsetDateTime to);
+
+    // Último viaje no cancelado de cada bus que sale hasta before: ahí quedó el bus si no volvió a salir
+    @Query("""
+    SELECT t.id AS tripId, t.bus.id AS busId, r.origin AS origin, r.destination AS destination,
+           t.departureAt AS departureAt, t.arrivalAt AS arrivalAt
+    FROM Trip t
+    JOIN t.route r
+    WHERE t.bus.id IN :busIds
+      AND t.status <> com.unimag.bustransport.domain.entities.Trip.Status.CANCELLED
+      AND t.departureAt = (
+            SELECT MAX(p.departureAt) FROM Trip p
+            WHERE p.bus = t.bus
+              AND p.departureAt <= :before
+              AND p.status <> com.unimag.bustransport.domain.entities.Trip.Status.CANCELLED)
+    """)
+    List<BusTrip> findLastBusTrips(@Param("busIds") Collection<Long> busIds,
+                                   @Param("before") OffsetDateTime before);
+
+    // Ids de viaje por páginas de clave (id > afterId), para recorrer todos los viajes por lotes
+    @Query(value = "SELECT id FROM trips WHERE id > :afterId ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, @Param("limit") int limit);
+
+    interface BusInterval {
+        Long getTripId();
+
+        Long getBusId();
+
+        OffsetDateTime getDepartureAt();
+
+        OffsetDateTime getArrivalAt();
+    }
+
+    interface FleetTrip {
+        Long getTripId();
+
+        Long getBusId();
+
+        Integer getBusCapacity();
+
+        String getOrigin();
+
+        String getDestination();
+
+        OffsetDateTime getDepartureAt();
+
+        OffsetDateTime getArrivalAt();
+
+        Long getSeatsTaken();
+
+        Long getSeatsHeld();
+    }
+
+    interface BusTrip {
+        Long getTripId();
+
+        Long getBusId();
+
+        String getOrigin();
+
+        String getDestination();
+
+        OffsetDateTime getDepartureAt();
+
+        OffsetDateTime getArrivalAt();
+    }
+
+    interface CargoTrip {
+        Long getTripId();
+
+        Long getRouteId();
+
+        BigDecimal getCapacityKg();
+
+        BigDecimal getCapacityLiters();
+    }
+
+    interface DispatchTrip {
+        Long getTripId();
+
+        Long getRouteId();
+
+        OffsetDateTime getDepartureAt();
+    }
+
+    // Tasa de no-show sobre los viajes procesados desde :since (null si no hay pasajeros)
+    @Query("""
+    SELECT SUM(t.noShowCount) * 1.0 / NULLIF(SUM(t.noShowCount + t.boardedCount), 0)
+    FROM Trip t
+    WHERE t.noShowProcessedAt >= :since
+    """)
+    Double noShowRateSince(@Param("since") OffsetDateTime since);
 }
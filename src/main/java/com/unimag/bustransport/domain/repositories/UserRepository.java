@@ -2,8 +2,14 @@ package com.unimag.bustransport.domain.repositories;
 
 import com.unimag.bustransport.domain.entities.Role;
 import com.unimag.bustransport.domain.entities.User;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,4 +22,20 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
 
     List<User> findByRoleAndStatus(Role role, User.Status status);
+    List<User> findByRoleAndStatusAndIdGreaterThanOrderByIdAsc(Role role, User.Status status, Long afterId, Limit limit);
+
+    // Auto-asignación de conductores: los bloquea en orden de id para que dos corridas no se crucen
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM User u WHERE u.role = :role AND u.status = :status ORDER BY u.id")
+    List<User> findByRoleAndStatusForUpdate(@Param("role") Role role, @Param("status") User.Status status);
+
+    // Solo los conductores pedidos, en el mismo orden de id
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM User u WHERE u.id IN :ids ORDER BY u.id")
+    List<User> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    // Asignación manual: serializa las verificaciones de disponibilidad de un mismo conductor
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM User u WHERE u.id = :id")
+    Optional<User> findByIdForUpdate(@Param("id") Long id);
 }
@@ -0,0 +1,224 @@
+package com.unimag.bustransport.kpi;
+
+import com.unimag.bustransport.domain.entities.Kpi;
+import com.unimag.bustransport.domain.repositories.KpiRepository;
+import com.unimag.bustransport.domain.repositories.KpiSampleRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Motor incremental de KPIs: consume eventos de dominio ya confirmados y mantiene
+ * ventanas móviles (última hora y últimas 24 h) globales y por ruta. Los valores se
+ * persisten periódicamente en la tabla kpis para que los tableros no agreguen sobre
+ * las tablas transaccionales. Cada nodo solo ve sus propios eventos: guarda sus totales
+ * en {@link KpiNodeTotals} y publica lo que resulta de sumar los de todos los nodos.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class KpiEngine {
+
+    static final Map<String, Duration> WINDOWS = new LinkedHashMap<>(Map.of(
+            "1h", Duration.ofHours(1),
+            "24h", Duration.ofDays(1)
+    ));
+    private static final Duration RETENTION = Duration.ofDays(1);
+
+    private final KpiRepository kpiRepository;
+    private final KpiSampleRepository kpiSampleRepository;
+    private final KpiNodeTotals nodeTotals;
+    private final KpiProperties properties;
+
+    private final KpiWindow global = new KpiWindow();
+    private final Map<Long, KpiWindow> routes = new ConcurrentHashMap<>();
+
+    // Sin transacción activa (jobs programados) el evento se procesa de inmediato
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void on(KpiEvent event) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            record(event, Instant.now());
+        } catch (Exception e) {
+            log.warn("Failed to record KPI event {}: {}", event, e.getMessage());
+        }
+    }
+
+    void record(KpiEvent event, Instant now) {
+        long index = bucketIndex(event.occurredAt().toInstant());
+        // Eventos más viejos que la ventana más larga ya no aportan
+        if (index <= bucketIndex(now) - bucketsIn(RETENTION)) {
+            return;
+        }
+        apply(event, global.bucket(index));
+        if (event.routeId() != null) {
+            apply(event, routes.computeIfAbsent(event.routeId(), id -> new KpiWindow()).bucket(index));
+        }
+    }
+
+    public Map<String, Double> snapshot() {
+        return snapshot(Instant.now());
+    }
+
+    Map<String, Double> snapshot(Instant now) {
+        return values(totals(now));
+    }
+
+    // Contadores crudos de este nodo: ámbito + contador + ventana, p. ej. "route.7.boarded.1h"
+    Map<String, Long> totals(Instant now) {
+        Map<String, Long> totals = new HashMap<>();
+        long current = bucketIndex(now);
+        WINDOWS.forEach((suffix, length) -> {
+            long from = current - bucketsIn(length);
+            putTotals(totals, "", suffix, global.sum(from, current));
+            routes.forEach((routeId, window) ->
+                    putTotals(totals, "route." + routeId + ".", suffix, window.sum(from, current)));
+        });
+        return totals;
+    }
+
+    // Las tasas salen de los contadores ya sumados, nunca de promediar tasas de cada nodo
+    static Map<String, Double> values(Map<String, Long> totals) {
+        Map<ScopeWindow, Map<String, Long>> byWindow = new HashMap<>();
+        totals.forEach((name, value) -> {
+            int windowDot = name.lastIndexOf('.');
+            int counterDot = name.lastIndexOf('.', windowDot - 1);
+            ScopeWindow key = new ScopeWindow(name.substring(0, counterDot + 1), name.substring(windowDot + 1));
+            byWindow.computeIfAbsent(key, k -> new HashMap<>()).put(name.substring(counterDot + 1, windowDot), value);
+        });
+        Map<String, Double> values = new TreeMap<>();
+        byWindow.forEach((key, counters) ->
+                putValues(values, key.scope(), key.suffix(), KpiWindow.Totals.fromMap(counters)));
+        return values;
+    }
+
+    private record ScopeWindow(String scope, String suffix) {
+    }
+
+    @Scheduled(fixedDelayString = "${kpi.engine.snapshot-interval-ms:60000}")
+    @Transactional
+    public void persistSnapshots() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Instant now = Instant.now();
+        evictExpired(now);
+        OffsetDateTime calculatedAt = now.atOffset(ZoneOffset.UTC);
+
+        // Este nodo reemplaza sus totales; los de nodos que dejaron de reportar ya no cuentan
+        OffsetDateTime staleBefore = calculatedAt.minus(Duration.ofMillis(properties.getNodeStaleAfterMs()));
+        nodeTotals.save(totals(now), calculatedAt);
+        nodeTotals.deleteOlderThan(staleBefore);
+        Map<String, Double> values = values(nodeTotals.sumSince(staleBefore));
+        if (values.isEmpty()) {
+            return;
+        }
+
+        // Upsert en bloque: una consulta para los existentes y un saveAll. Todos los nodos
+        // escriben la misma suma, así que el orden entre ellos ya no cambia el resultado
+        Map<String, Kpi> existing = kpiRepository.findByNameIn(values.keySet()).stream()
+                .collect(Collectors.toMap(Kpi::getName, Function.identity()));
+        List<Kpi> kpis = new ArrayList<>(values.size());
+        values.forEach((name, value) -> {
+            Kpi kpi = existing.get(name);
+            if (kpi == null) {
+                kpi = Kpi.builder().name(name).build();
+            }
+            kpi.setValue(value);
+            kpi.setCalculatedAt(calculatedAt);
+            kpis.add(kpi);
+        });
+        kpiRepository.saveAll(kpis);
+
+        // Además del último valor, se guarda la muestra del minuto para la serie de tiempo
+        if (properties.getSamples().isEnabled()) {
+            OffsetDateTime minute = now.atOffset(ZoneOffset.UTC).truncatedTo(ChronoUnit.MINUTES);
+            values.forEach((name, value) -> kpiSampleRepository.upsertMinuteSample(name, minute, value));
+        }
+        log.debug("Persisted {} KPI snapshots", kpis.size());
+    }
+
+    void evictExpired(Instant now) {
+        long cutoff = bucketIndex(now) - bucketsIn(RETENTION);
+        global.evictUpTo(cutoff);
+        routes.values().forEach(window -> window.evictUpTo(cutoff));
+    }
+
+    private static void apply(KpiEvent event, KpiWindow.Counters counters) {
+        switch (event) {
+            case KpiEvent.TicketsSold sold -> {
+                counters.ticketsSold.add(sold.tickets());
+                counters.revenueCents.add(cents(sold.amount()));
+            }
+            case KpiEvent.TicketsRefunded refunded -> {
+                counters.ticketsRefunded.add(refunded.tickets());
+                counters.revenueCents.add(-cents(refunded.amount()));
+            }
+            case KpiEvent.TripClosed closed -> {
+                counters.tripsClosed.increment();
+                counters.seatCapacity.add(closed.capacity());
+                counters.boarded.add(closed.boarded());
+                counters.noShows.add(closed.noShows());
+            }
+            case KpiEvent.ParcelClosed parcel -> {
+                if (parcel.delivered()) {
+                    counters.parcelsDelivered.increment();
+                } else {
+                    counters.parcelsFailed.increment();
+                }
+            }
+            case KpiEvent.IncidentReported incident -> counters.incidents.increment();
+        }
+    }
+
+    private static void putTotals(Map<String, Long> totals, String scope, String suffix, KpiWindow.Totals t) {
+        t.asMap().forEach((counter, value) -> totals.put(scope + counter + "." + suffix, value));
+    }
+
+    // Las tasas sin denominador se omiten para no publicar ceros engañosos
+    private static void putValues(Map<String, Double> values, String scope, String suffix, KpiWindow.Totals t) {
+        values.put(scope + "revenue." + suffix, t.revenueCents() / 100.0);
+        values.put(scope + "tickets_sold." + suffix, (double) t.ticketsSold());
+        values.put(scope + "incidents." + suffix, (double) t.incidents());
+        if (t.seatCapacity() > 0) {
+            values.put(scope + "occupancy." + suffix, (double) t.boarded() / t.seatCapacity());
+        }
+        if (t.boarded() + t.noShows() > 0) {
+            values.put(scope + "no_show_rate." + suffix, (double) t.noShows() / (t.boarded() + t.noShows()));
+        }
+        if (t.parcelsDelivered() + t.parcelsFailed() > 0) {
+            values.put(scope + "parcel_delivery_rate." + suffix,
+                    (double) t.parcelsDelivered() / (t.parcelsDelivered() + t.parcelsFailed()));
+        }
+    }
+
+    private long bucketIndex(Instant instant) {
+        return instant.getEpochSecond() / (properties.getBucketMinutes() * 60L);
+    }
+
+    private long bucketsIn(Duration duration) {
+        return duration.toMinutes() / properties.getBucketMinutes();
+    }
+
+    private static long cents(BigDecimal amount) {
+        return amount == null ? 0 : amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue();
+    }
+}
@@ -0,0 +1,24 @@
+package com.unimag.bustransport.kpi;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+// Cambios de estado que alimentan el motor de KPIs (se publican al confirmar la transacción)
+public sealed interface KpiEvent {
+
+    Long routeId();
+
+    OffsetDateTime occurredAt();
+
+    record TicketsSold(Long routeId, int tickets, BigDecimal amount, OffsetDateTime occurredAt) implements KpiEvent {}
+
+    record TicketsRefunded(Long routeId, int tickets, BigDecimal amount, OffsetDateTime occurredAt) implements KpiEvent {}
+
+    // Cierre de abordaje: lo emite el proceso de no-shows
+    record TripClosed(Long routeId, Long tripId, int capacity, int boarded, int noShows,
+                      OffsetDateTime occurredAt) implements KpiEvent {}
+
+    record ParcelClosed(Long routeId, boolean delivered, OffsetDateTime occurredAt) implements KpiEvent {}
+
+    record IncidentReported(Long routeId, String type, OffsetDateTime occurredAt) implements KpiEvent {}
+}
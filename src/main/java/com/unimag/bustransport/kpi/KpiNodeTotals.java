@@ -0,0 +1,69 @@
+package com.unimag.bustransport.kpi;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.lang.management.ManagementFactory;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Totales de las ventanas de cada nodo en kpi_node_totals, una fila por (nodo, contador).
+ * Un nodo solo reemplaza sus filas, así que los nodos no se pisan; lo publicado sale de
+ * sumar las filas de los nodos que reportaron dentro del plazo de vigencia.
+ */
+@Component
+public class KpiNodeTotals {
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO kpi_node_totals (node_id, "name", "value", calculated_at)
+            VALUES (?, ?, ?, ?)
+            ON CONFLICT (node_id, "name")
+            DO UPDATE SET "value" = EXCLUDED."value", calculated_at = EXCLUDED.calculated_at
+            """;
+
+    private static final String SUM_SQL = """
+            SELECT "name", SUM("value") AS total
+            FROM kpi_node_totals
+            WHERE calculated_at >= ?
+            GROUP BY "name"
+            """;
+
+    private static final String DELETE_SQL = "DELETE FROM kpi_node_totals WHERE calculated_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String nodeId;
+
+    public KpiNodeTotals(JdbcTemplate jdbcTemplate, KpiProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        // Sin node-id configurado se usa pid@host: un reinicio entra como nodo nuevo y el anterior vence
+        this.nodeId = StringUtils.hasText(properties.getNodeId())
+                ? properties.getNodeId() : ManagementFactory.getRuntimeMXBean().getName();
+    }
+
+    public void save(Map<String, Long> totals, OffsetDateTime calculatedAt) {
+        List<Object[]> rows = new ArrayList<>(totals.size());
+        totals.forEach((name, value) -> rows.add(new Object[]{nodeId, name, value, calculatedAt}));
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+    }
+
+    public Map<String, Long> sumSince(OffsetDateTime since) {
+        Map<String, Long> sums = new HashMap<>();
+        jdbcTemplate.query(SUM_SQL, rs -> {
+            sums.put(rs.getString("name"), rs.getLong("total"));
+        }, since);
+        return sums;
+    }
+
+    public int deleteOlderThan(OffsetDateTime cutoff) {
+        return jdbcTemplate.update(DELETE_SQL, cutoff);
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+}
@@ -0,0 +1,31 @@
+package com.unimag.bustransport.kpi;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "kpi.engine")
+@Getter
+@Setter
+public class KpiProperties {
+
+    private boolean enabled = true;
+    private int bucketMinutes = 5;           // Resolución de las ventanas móviles
+    private long snapshotIntervalMs = 60000; // Cada cuánto se persisten en la tabla kpis
+    private String nodeId;                   // Vacío = pid@host del proceso
+    private long nodeStaleAfterMs = 180000;  // Un nodo sin reportar en este plazo deja de sumar
+    private Samples samples = new Samples();
+
+    // Serie de tiempo en kpi_samples: retención por resolución y tope de puntos por consulta
+    @Getter
+    @Setter
+    public static class Samples {
+        private boolean enabled = true;
+        private int minuteRetentionHours = 48;
+        private int hourRetentionDays = 90;
+        private int dayRetentionDays = 1095;
+        private int maxPoints = 3000;
+    }
+}
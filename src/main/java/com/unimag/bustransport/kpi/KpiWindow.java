@@ -0,0 +1,94 @@
+package com.unimag.bustransport.kpi;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores de un ámbito (global o una ruta) repartidos en cubetas de tiempo fijas.
+ * Una ventana móvil se obtiene sumando las últimas N cubetas.
+ */
+class KpiWindow {
+
+    private final Map<Long, Counters> buckets = new ConcurrentHashMap<>();
+
+    Counters bucket(long index) {
+        return buckets.computeIfAbsent(index, i -> new Counters());
+    }
+
+    // Suma las cubetas en (fromIndex, toIndex]
+    Totals sum(long fromIndex, long toIndex) {
+        Totals totals = Totals.EMPTY;
+        for (Map.Entry<Long, Counters> entry : buckets.entrySet()) {
+            if (entry.getKey() > fromIndex && entry.getKey() <= toIndex) {
+                totals = totals.plus(entry.getValue().totals());
+            }
+        }
+        return totals;
+    }
+
+    void evictUpTo(long index) {
+        buckets.keySet().removeIf(key -> key <= index);
+    }
+
+    boolean isEmpty() {
+        return buckets.isEmpty();
+    }
+
+    static final class Counters {
+        final LongAdder ticketsSold = new LongAdder();
+        final LongAdder ticketsRefunded = new LongAdder();
+        final LongAdder revenueCents = new LongAdder();
+        final LongAdder tripsClosed = new LongAdder();
+        final LongAdder seatCapacity = new LongAdder();
+        final LongAdder boarded = new LongAdder();
+        final LongAdder noShows = new LongAdder();
+        final LongAdder parcelsDelivered = new LongAdder();
+        final LongAdder parcelsFailed = new LongAdder();
+        final LongAdder incidents = new LongAdder();
+
+        Totals totals() {
+            return new Totals(ticketsSold.sum(), ticketsRefunded.sum(), revenueCents.sum(), tripsClosed.sum(),
+                    seatCapacity.sum(), boarded.sum(), noShows.sum(), parcelsDelivered.sum(),
+                    parcelsFailed.sum(), incidents.sum());
+        }
+    }
+
+    record Totals(long ticketsSold, long ticketsRefunded, long revenueCents, long tripsClosed, long seatCapacity,
+                  long boarded, long noShows, long parcelsDelivered, long parcelsFailed, long incidents) {
+
+        static final Totals EMPTY = new Totals(0, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+
+        // Contadores por nombre: así se guardan por nodo y se vuelven a armar tras sumarlos
+        Map<String, Long> asMap() {
+            Map<String, Long> counters = new LinkedHashMap<>();
+            counters.put("tickets_sold", ticketsSold);
+            counters.put("tickets_refunded", ticketsRefunded);
+            counters.put("revenue_cents", revenueCents);
+            counters.put("trips_closed", tripsClosed);
+            counters.put("seat_capacity", seatCapacity);
+            counters.put("boarded", boarded);
+            counters.put("no_shows", noShows);
+            counters.put("parcels_delivered", parcelsDelivered);
+            counters.put("parcels_failed", parcelsFailed);
+            counters.put("incidents", incidents);
+            return counters;
+        }
+
+        static Totals fromMap(Map<String, Long> counters) {
+            return new Totals(counters.getOrDefault("tickets_sold", 0L), counters.getOrDefault("tickets_refunded", 0L),
+                    counters.getOrDefault("revenue_cents", 0L), counters.getOrDefault("trips_closed", 0L),
+                    counters.getOrDefault("seat_capacity", 0L), counters.getOrDefault("boarded", 0L),
+                    counters.getOrDefault("no_shows", 0L), counters.getOrDefault("parcels_delivered", 0L),
+                    counters.getOrDefault("parcels_failed", 0L), counters.getOrDefault("incidents", 0L));
+        }
+
+        Totals plus(Totals o) {
+            return new Totals(ticketsSold + o.ticketsSold, ticketsRefunded + o.ticketsRefunded,
+                    revenueCents + o.revenueCents, tripsClosed + o.tripsClosed, seatCapacity + o.seatCapacity,
+                    boarded + o.boarded, noShows + o.noShows, parcelsDelivered + o.parcelsDelivered,
+                    parcelsFailed + o.parcelsFailed, incidents + o.incidents);
+        }
+    }
+}
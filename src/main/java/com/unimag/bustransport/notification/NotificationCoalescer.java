@@ -0,0 +1,143 @@
+package com.unimag.bustransport.notification;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Agrupa las notificaciones por (destinatario, canal, asunto) dentro de una ventana de tiempo.
+// Mensajes idénticos se descartan y los distintos se fusionan en un solo envío; con asuntos
+// distintos van en envíos separados para no perder ninguno. Los avisos urgentes no esperan la
+// ventana (NotificationFactory.sendNow): solo se descarta el mismo mensaje repetido al mismo
+// destinatario dentro de una ventana corta de deduplicación.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NotificationCoalescer {
+
+    static final String MESSAGE_SEPARATOR = "\n\n";
+
+    private final NotificationProperties properties;
+
+    private final ConcurrentHashMap<RecipientKey, PendingBatch> pending = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<RecipientKey, RecentSend> recent = new ConcurrentHashMap<>();
+
+    // Devuelve false si no se pudo encolar (deshabilitado o lleno): el llamador debe enviar directamente
+    public boolean offer(NotificationRequest request) {
+        return offer(request, System.currentTimeMillis());
+    }
+
+    boolean offer(NotificationRequest request, long nowMillis) {
+        if (!properties.isEnabled() || request.recipient() == null) {
+            return false;
+        }
+
+        RecipientKey key = new RecipientKey(request.recipient(), request.type(), request.subject());
+        boolean[] accepted = {true};
+
+        pending.compute(key, (k, batch) -> {
+            if (batch == null) {
+                if (pending.size() >= properties.getMaxPending()) {
+                    accepted[0] = false;
+                    return null;
+                }
+                batch = new PendingBatch(nowMillis);
+            }
+            if (!batch.messages.add(request.message())) {
+                log.debug("Duplicate notification dropped for {} via {}", k.recipient(), k.type());
+            }
+            return batch;
+        });
+
+        return accepted[0];
+    }
+
+    // Para los envíos inmediatos: devuelve false si el mismo mensaje ya salió hacia ese destinatario
+    // dentro de la ventana de deduplicación; en otro caso lo registra y el llamador lo envía ya
+    public boolean claimImmediate(NotificationRequest request) {
+        return claimImmediate(request, System.currentTimeMillis());
+    }
+
+    boolean claimImmediate(NotificationRequest request, long nowMillis) {
+        if (!properties.isEnabled() || request.recipient() == null || properties.getDedupeWindowMs() <= 0) {
+            return true;
+        }
+
+        RecipientKey key = new RecipientKey(request.recipient(), request.type(), request.subject());
+        boolean[] claimed = {true};
+
+        recent.compute(key, (k, last) -> {
+            if (last != null && last.message().equals(request.message())
+                    && nowMillis - last.sentAt() < properties.getDedupeWindowMs()) {
+                log.debug("Duplicate immediate notification dropped for {} via {}", k.recipient(), k.type());
+                claimed[0] = false;
+                return last;
+            }
+            // Sin cupo se envía igual, solo que sin deduplicar
+            if (last == null && recent.size() >= properties.getMaxPending()) {
+                return null;
+            }
+            return new RecentSend(request.message(), nowMillis);
+        });
+
+        return claimed[0];
+    }
+
+    // Si el envío inmediato falló, un reintento no debe tomarse por duplicado
+    public void releaseImmediate(NotificationRequest request) {
+        RecipientKey key = new RecipientKey(request.recipient(), request.type(), request.subject());
+        recent.computeIfPresent(key, (k, last) -> last.message().equals(request.message()) ? null : last);
+    }
+
+    // Extrae los grupos cuya ventana ya venció
+    public List<NotificationRequest> drainDue(long nowMillis) {
+        List<NotificationRequest> due = new ArrayList<>();
+        for (RecipientKey key : pending.keySet()) {
+            pending.computeIfPresent(key, (k, batch) -> {
+                if (nowMillis - batch.firstAt < properties.getWindowMs()) {
+                    return batch;
+                }
+                due.add(batch.toRequest(k));
+                return null;
+            });
+        }
+        recent.values().removeIf(sent -> nowMillis - sent.sentAt() >= properties.getDedupeWindowMs());
+        return due;
+    }
+
+    public List<NotificationRequest> drainAll() {
+        return drainDue(Long.MAX_VALUE);
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    private record RecipientKey(String recipient, NotificationType type, String subject) {}
+
+    private record RecentSend(String message, long sentAt) {}
+
+    private static final class PendingBatch {
+        private final long firstAt;
+        private final Set<String> messages = new LinkedHashSet<>();
+
+        private PendingBatch(long firstAt) {
+            this.firstAt = firstAt;
+        }
+
+        private NotificationRequest toRequest(RecipientKey key) {
+            return new NotificationRequest(
+                    key.recipient(),
+                    String.join(MESSAGE_SEPARATOR, messages),
+                    key.type(),
+                    key.subject()
+            );
+        }
+    }
+}
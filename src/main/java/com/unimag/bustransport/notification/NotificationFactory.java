@@ -1,8 +1,10 @@
 package com.unimag.bustransport.notification;
 
 import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
@@ -21,9 +23,12 @@ public class NotificationFactory {
 
     private final Map<NotificationType, NotificationService> servicesByType;
 
+    private final NotificationCoalescer coalescer;
+
     @Autowired
-    public NotificationFactory(List<NotificationService> notificationServices) {
+    public NotificationFactory(List<NotificationService> notificationServices, NotificationCoalescer coalescer) {
         this.notificationServices = notificationServices;
+        this.coalescer = coalescer;
         
         // Crear un mapa: NotificationType -> NotificationService
         this.servicesByType = notificationServices.stream()
@@ -56,10 +61,50 @@ public class NotificationFactory {
     }
     
 
+    // Valida el canal y encola en el coalescer; si no hay cupo, envía de inmediato
     public void send(NotificationRequest request) {
         NotificationService service = getService(request.type());
+        if (coalescer.offer(request)) {
+            return;
+        }
         service.send(request);
     }
+
+    // Envío inmediato sin esperar la ventana, para avisos que pierden valor si se retrasan; el mismo
+    // mensaje repetido al mismo destinatario dentro de la ventana de deduplicación se descarta
+    public void sendNow(NotificationRequest request) {
+        NotificationService service = getService(request.type());
+        if (!coalescer.claimImmediate(request)) {
+            return;
+        }
+        try {
+            service.send(request);
+        } catch (RuntimeException e) {
+            coalescer.releaseImmediate(request);
+            throw e;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${notification.coalescing.flush-interval-ms:5000}")
+    public void flushPending() {
+        deliver(coalescer.drainDue(System.currentTimeMillis()));
+    }
+
+    @PreDestroy
+    public void flushAll() {
+        deliver(coalescer.drainAll());
+    }
+
+    private void deliver(List<NotificationRequest> requests) {
+        for (NotificationRequest request : requests) {
+            try {
+                getService(request.type()).send(request);
+            } catch (Exception e) {
+                log.error("Failed to deliver coalesced notification to {} via {}: {}",
+                        request.recipient(), request.type(), e.getMessage());
+            }
+        }
+    }
     
 
     public boolean isAvailable(NotificationType type) {
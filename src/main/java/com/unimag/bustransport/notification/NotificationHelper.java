@@ -71,8 +71,9 @@ public class NotificationHelper {
 
         for (String phone : phones) {
             try {
+                // El pasajero tiene que cambiar de andén ya: no espera la ventana de agrupación
                 NotificationRequest request = new NotificationRequest(phone, message, type);
-                notificationFactory.send(request);
+                notificationFactory.sendNow(request);
             } catch (Exception e) {
                 log.error("Failed to send platform change notification to {}: {}",
                         phone, e.getMessage());
@@ -94,7 +95,7 @@ public class NotificationHelper {
         String phone = ticket.getPassenger().getPhoneNumber();
 
         NotificationRequest request = new NotificationRequest(phone, message, type);
-        notificationFactory.send(request);
+        notificationFactory.sendNow(request);
     }
 
     public void cancelTicket(Ticket ticket, NotificationType type) {
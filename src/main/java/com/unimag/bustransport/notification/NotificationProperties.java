@@ -0,0 +1,19 @@
+package com.unimag.bustransport.notification;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "notification.coalescing")
+@Getter
+@Setter
+public class NotificationProperties {
+
+    private boolean enabled = true;
+    private long windowMs = 30000;       // Ventana de agrupación por destinatario
+    private int maxPending = 10000;      // Máximo de destinatarios en espera
+    private long flushIntervalMs = 5000;
+    private long dedupeWindowMs = 60000; // Deduplicación de los avisos inmediatos, sin retrasarlos
+}
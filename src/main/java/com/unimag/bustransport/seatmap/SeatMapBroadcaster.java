@@ -0,0 +1,241 @@
+package com.unimag.bustransport.seatmap;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.unimag.bustransport.api.dto.SeatDtos;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Difunde por SSE los cambios del mapa de asientos. Hay un canal por viaje compartido por
+ * todos sus observadores: cada delta se serializa una sola vez y un hilo virtual por canal
+ * lo reparte en orden, así las conexiones abiertas no ocupan hilos de plataforma.
+ */
+@Slf4j
+@Component
+public class SeatMapBroadcaster {
+
+    private final SeatMapProperties properties;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService dispatcher;
+
+    private final Map<Long, TripChannel> channels = new ConcurrentHashMap<>();
+    private final AtomicInteger watchers = new AtomicInteger();
+
+    public SeatMapBroadcaster(SeatMapProperties properties, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.dispatcher = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    /**
+     * Registra un observador del viaje, o vacío si el streaming está apagado o no hay cupo; en
+     * ese caso no se llega a crear el emitter. La secuencia se toma antes de leer el snapshot y
+     * los deltas que llegan mientras tanto se retienen hasta enviarlo: el cliente siempre recibe
+     * primero el snapshot y después solo deltas con secuencia mayor a la suya.
+     */
+    public Optional<SseEmitter> subscribe(Long tripId, Supplier<List<SeatDtos.SeatResponse>> snapshot) {
+        if (!properties.isEnabled()) {
+            return Optional.empty();
+        }
+        if (watchers.incrementAndGet() > properties.getMaxWatchers()) {
+            watchers.decrementAndGet();
+            return Optional.empty();
+        }
+
+        SseEmitter emitter = createEmitter(properties.getEmitterTimeoutMs());
+        // Alta dentro del compute para no colarse en un canal que se está eliminando
+        TripChannel channel = channels.compute(tripId, (id, current) -> {
+            TripChannel target = current != null ? current : new TripChannel(id);
+            target.awaitingSnapshot.put(emitter, new ArrayList<>());
+            target.emitters.add(emitter);
+            return target;
+        });
+        Runnable remove = () -> remove(channel, emitter);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+
+        long sequence = channel.sequence.get();
+        List<SeatDtos.SeatResponse> seats;
+        try {
+            seats = snapshot.get();
+        } catch (RuntimeException e) {
+            remove.run();
+            throw e;
+        }
+        channel.enqueue(new Outbound(emitter, "snapshot", sequence,
+                toJson(new SeatDtos.SeatMapSnapshot(tripId, sequence, seats))));
+        return Optional.of(emitter);
+    }
+
+    // Sin transacción activa (jobs programados) el evento se difunde de inmediato
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void on(SeatMapEvent event) {
+        TripChannel channel = channels.get(event.tripId());
+        if (channel == null) {
+            return; // Nadie observa este viaje
+        }
+        try {
+            channel.publish(event);
+        } catch (Exception e) {
+            log.warn("Failed to broadcast seat map event {}: {}", event, e.getMessage());
+        }
+    }
+
+    // Comentario SSE periódico: detecta conexiones muertas y evita cortes por inactividad
+    @Scheduled(fixedDelayString = "${seatmap.stream.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        channels.values().forEach(channel -> channel.enqueue(Outbound.HEARTBEAT));
+    }
+
+    public int watcherCount() {
+        return watchers.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        channels.values().forEach(channel -> channel.emitters.forEach(SseEmitter::complete));
+        dispatcher.shutdown();
+    }
+
+    SseEmitter createEmitter(long timeoutMs) {
+        return new SseEmitter(timeoutMs);
+    }
+
+    private void remove(TripChannel channel, SseEmitter emitter) {
+        channel.awaitingSnapshot.remove(emitter);
+        if (!channel.emitters.remove(emitter)) {
+            return;
+        }
+        watchers.decrementAndGet();
+        channels.computeIfPresent(channel.tripId, (id, current) ->
+                current == channel && current.emitters.isEmpty() ? null : current);
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize seat map payload", e);
+        }
+    }
+
+    // target nulo = todos los observadores del canal
+    private record Outbound(SseEmitter target, String name, long sequence, String json) {
+        static final Outbound HEARTBEAT = new Outbound(null, null, 0, null);
+    }
+
+    private final class TripChannel {
+        private final Long tripId;
+        private final Set<SseEmitter> emitters = new CopyOnWriteArraySet<>();
+        // Deltas retenidos por observador hasta enviarle su snapshot; solo los toca el repartidor
+        private final Map<SseEmitter, List<Outbound>> awaitingSnapshot = new ConcurrentHashMap<>();
+        private final AtomicLong sequence = new AtomicLong();
+        private final Queue<Outbound> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private TripChannel(Long tripId) {
+            this.tripId = tripId;
+        }
+
+        // Secuencia y encolado juntos para que el orden de la cola sea el de la secuencia
+        private synchronized void publish(SeatMapEvent event) {
+            long next = sequence.incrementAndGet();
+            pending.add(new Outbound(null, "seat", next, toJson(new SeatDtos.SeatDelta(
+                    event.tripId(), next, event.seatNumber(), event.state().name(), event.occurredAt()))));
+            drain();
+        }
+
+        private void enqueue(Outbound message) {
+            pending.add(message);
+            drain();
+        }
+
+        // Un solo repartidor por canal; el que encola después de soltar la bandera lo relanza
+        private void drain() {
+            if (draining.compareAndSet(false, true)) {
+                dispatcher.execute(this::deliverPending);
+            }
+        }
+
+        private void deliverPending() {
+            do {
+                Outbound message;
+                while ((message = pending.poll()) != null) {
+                    if (message.target() != null) {
+                        sendSnapshot(message.target(), message);
+                    } else {
+                        for (SseEmitter emitter : emitters) {
+                            List<Outbound> held = awaitingSnapshot.get(emitter);
+                            if (held == null) {
+                                send(emitter, message);
+                            } else if (message != Outbound.HEARTBEAT) {
+                                held.add(message);
+                            }
+                        }
+                    }
+                }
+                draining.set(false);
+            } while (!pending.isEmpty() && draining.compareAndSet(false, true));
+        }
+
+        // Lo retenido que el snapshot ya refleja (secuencia menor o igual) no se reenvía
+        private void sendSnapshot(SseEmitter emitter, Outbound snapshot) {
+            List<Outbound> held = awaitingSnapshot.remove(emitter);
+            if (held == null) {
+                return; // Se desconectó antes de recibirlo
+            }
+            if (!send(emitter, snapshot)) {
+                return;
+            }
+            for (Outbound delta : held) {
+                if (delta.sequence() > snapshot.sequence() && !send(emitter, delta)) {
+                    return;
+                }
+            }
+        }
+
+        private boolean send(SseEmitter emitter, Outbound message) {
+            try {
+                if (message == Outbound.HEARTBEAT) {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                } else {
+                    emitter.send(SseEmitter.event()
+                            .id(String.valueOf(message.sequence()))
+                            .name(message.name())
+                            .data(message.json(), MediaType.APPLICATION_JSON));
+                }
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                // Cliente desconectado: se descarta sin frenar al resto del canal
+                remove(this, emitter);
+                emitter.completeWithError(e);
+                return false;
+            }
+        }
+    }
+}
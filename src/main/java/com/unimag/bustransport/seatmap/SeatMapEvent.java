@@ -0,0 +1,21 @@
+package com.unimag.bustransport.seatmap;
+
+import java.time.OffsetDateTime;
+
+// Cambio de estado de un asiento; lo publican holds, compras y tickets y se difunde al confirmar la transacción
+public record SeatMapEvent(Long tripId, String seatNumber, SeatState state, OffsetDateTime occurredAt) {
+
+    public enum SeatState { HELD, RELEASED, SOLD }
+
+    public static SeatMapEvent held(Long tripId, String seatNumber) {
+        return new SeatMapEvent(tripId, seatNumber, SeatState.HELD, OffsetDateTime.now());
+    }
+
+    public static SeatMapEvent released(Long tripId, String seatNumber) {
+        return new SeatMapEvent(tripId, seatNumber, SeatState.RELEASED, OffsetDateTime.now());
+    }
+
+    public static SeatMapEvent sold(Long tripId, String seatNumber) {
+        return new SeatMapEvent(tripId, seatNumber, SeatState.SOLD, OffsetDateTime.now());
+    }
+}
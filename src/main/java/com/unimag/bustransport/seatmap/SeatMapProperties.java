@@ -0,0 +1,18 @@
+package com.unimag.bustransport.seatmap;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "seatmap.stream")
+@Getter
+@Setter
+public class SeatMapProperties {
+
+    private boolean enabled = true;
+    private long emitterTimeoutMs = 1800000;   // El cliente reconecta y recibe un snapshot nuevo
+    private long heartbeatIntervalMs = 15000;  // Mantiene viva la conexión a través de proxies
+    private int maxWatchers = 20000;           // Tope global de conexiones abiertas en este nodo
+}
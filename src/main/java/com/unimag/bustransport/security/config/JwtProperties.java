@@ -15,4 +15,12 @@ public class JwtProperties {
     private String secret;
     private Long expiration;
     private Long refreshExpiration;
-}
\ No newline at end of file
+    private VerifiedCache verifiedCache = new VerifiedCache();
+
+    @Getter
+    @Setter
+    public static class VerifiedCache {
+        private boolean enabled = true;
+        private int maxSize = 10000;
+    }
+}
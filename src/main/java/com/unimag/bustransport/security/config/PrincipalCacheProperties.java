@@ -0,0 +1,18 @@
+package com.unimag.bustransport.security.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "security.principal-cache")
+@Getter
+@Setter
+public class PrincipalCacheProperties {
+
+    private boolean enabled = true;
+    private long ttlMs = 60000;             // Tiempo máximo que un principal vive en cache
+    private int maxSize = 10000;
+    private long pollIntervalMs = 5000;     // Frecuencia de lectura de invalidaciones de otros nodos
+}
@@ -0,0 +1,18 @@
+package com.unimag.bustransport.security.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "security.refresh-tokens")
+@Getter
+@Setter
+public class RefreshTokenProperties {
+
+    private long expectedRevocations = 1_000_000;   // Dimensiona el filtro de Bloom
+    private double falsePositiveRate = 0.01;
+    private long pollIntervalMs = 10000;            // Revocaciones hechas en otros nodos
+    private long rebuildIntervalMs = 3600000;       // Reconstrucción completa y limpieza de expirados
+}
@@ -1,6 +1,8 @@
 package com.unimag.bustransport.security.config;
 
 import com.unimag.bustransport.security.jwt.JwtAuthenticationFilter;
+import com.unimag.bustransport.security.ratelimit.RateLimitFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -26,6 +28,7 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final RateLimitFilter rateLimitFilter;
     private final UserDetailsService userDetailsService;
     private final PasswordEncoder passwordEncoder;
 
@@ -35,11 +38,17 @@ public class SecurityConfig {
                 .csrf(AbstractHttpConfigurer::disable)
 
                 .authorizeHttpRequests(auth -> auth
+                        // ========== DISPATCH ASÍNCRONO Y DE ERROR ==========
+                        // La petición original ya pasó la autorización; el filtro JWT no corre en
+                        // estos dispatch y sin sesión llegarían como anónimos (exportes en streaming)
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
+
                         // ========== ENDPOINTS PÚBLICOS ==========
                         .requestMatchers(
                                 "/api/v1/auth/register",
                                 "/api/v1/auth/login",
                                   "/api/v1/auth/refresh-token",
+                                "/api/v1/auth/logout",
                                 "/error"
                         ).permitAll()
 
@@ -81,6 +90,8 @@ public class SecurityConfig {
                         // ========== COMPRAS Y TICKETS ==========
                         .requestMatchers(HttpMethod.POST, "/api/v1/purchases/**")
                         .hasAnyRole("PASSENGER", "CLERK", "ADMIN")
+                        .requestMatchers(HttpMethod.GET, "/api/v1/purchases/export")
+                        .hasAnyRole("CLERK", "ADMIN")
                         .requestMatchers(HttpMethod.GET, "/api/v1/purchases/**")
                         .hasAnyRole("PASSENGER", "CLERK", "ADMIN")
 
@@ -89,6 +100,10 @@ public class SecurityConfig {
                         .requestMatchers("/api/v1/tickets/**")
                         .hasAnyRole("PASSENGER", "DRIVER", "DISPATCHER", "CLERK", "ADMIN")
 
+                        // ========== ABORDAJE ==========
+                        .requestMatchers("/api/v1/boarding/**")
+                        .hasAnyRole("DRIVER", "DISPATCHER", "CLERK", "ADMIN")
+
                         // ========== VIAJES Y RUTAS ==========
                         .requestMatchers(HttpMethod.GET, "/api/v1/trips/**").authenticated()
                         .requestMatchers(HttpMethod.POST, "/api/v1/trips/**")
@@ -135,10 +150,16 @@ public class SecurityConfig {
                         .hasAnyRole("PASSENGER", "CLERK", "ADMIN")
 
                         // ========== EQUIPAJE ==========
+                        .requestMatchers(HttpMethod.POST, "/api/v1/baggage/by-trip/*/batch")
+                        .hasAnyRole("CLERK", "ADMIN")
                         .requestMatchers("/api/v1/baggage/**")
                         .hasAnyRole("PASSENGER", "CLERK", "ADMIN")
 
                         // ========== ENCOMIENDAS/PAQUETES ==========
+                        .requestMatchers(HttpMethod.POST, "/api/v1/parcels/auto-assign")
+                        .hasAnyRole("DISPATCHER", "CLERK", "ADMIN")
+                        .requestMatchers(HttpMethod.POST, "/api/v1/parcels/scans")
+                        .hasAnyRole("DRIVER", "DISPATCHER", "CLERK", "ADMIN")
                         .requestMatchers(HttpMethod.GET, "/api/v1/parcels/**")
                         .hasAnyRole("PASSENGER", "DRIVER", "DISPATCHER", "CLERK", "ADMIN")
                         .requestMatchers(HttpMethod.POST, "/api/v1/parcels/**")
@@ -173,6 +194,10 @@ public class SecurityConfig {
                         .requestMatchers("/api/v1/kpis/**")
                         .hasRole("ADMIN")
 
+                        // ========== REPORTES ==========
+                        .requestMatchers("/api/v1/reports/**")
+                        .hasAnyRole("CLERK", "ADMIN")
+
                         // ========== CONFIGURACIONES ==========
                         .requestMatchers("/api/v1/configs/**")
                         .hasRole("ADMIN")
@@ -187,7 +212,8 @@ public class SecurityConfig {
 
                 .authenticationProvider(authenticationProvider())
 
-                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class);
 
         return http.build();
     }
@@ -37,6 +37,7 @@ public class AuthDtos {
     ) implements Serializable {}
     public record RefreshTokenResponse(
             String accessToken,
+            String refreshToken,
             String tokenType,
             Long expiresIn
     ) implements Serializable {}
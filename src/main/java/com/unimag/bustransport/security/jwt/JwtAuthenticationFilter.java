@@ -1,6 +1,7 @@
 package com.unimag.bustransport.security.jwt;
 
 import com.unimag.bustransport.security.user.CustomUserDetailsService;
+import com.unimag.bustransport.security.user.PrincipalCache;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -24,6 +25,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
     private final JwtService jwtService;
     private final CustomUserDetailsService userDetailsService;
+    private final PrincipalCache principalCache;
     
     @Override
     protected void doFilterInternal(
@@ -44,15 +46,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             // 2. Extraer el token (quitar el prefijo "Bearer ")
             final String jwt = authHeader.substring(7);  // "Bearer ".length() = 7
             
-            // 3. Extraer el userId del token
-            final Long userId = jwtService.extractUserId(jwt);
+            // 3. Verificar el token una sola vez y extraer el userId
+            final VerifiedToken token = jwtService.verify(jwt);
+            final Long userId = token.userId();
             
             if (userId != null && SecurityContextHolder.getContext().getAuthentication() == null) {
                 
-                // 5. Cargar el usuario de la base de datos
-                UserDetails userDetails = userDetailsService.loadUserById(userId);
+                // 4. Buscar el principal en cache (userId + iat) o cargarlo de la base de datos
+                final long issuedAt = token.issuedAt().toEpochMilli();
+                UserDetails userDetails = principalCache.get(userId, issuedAt);
+                if (userDetails == null) {
+                    userDetails = userDetailsService.loadUserById(userId);
+                    principalCache.put(userId, issuedAt, userDetails);
+                }
                 
-                if (jwtService.isTokenValid(jwt, userDetails)) {
+                if (jwtService.isTokenValid(token, userDetails)) {
                     
                      UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails,
@@ -3,17 +3,22 @@ package com.unimag.bustransport.security.jwt;
 import com.unimag.bustransport.security.config.JwtProperties;
 import com.unimag.bustransport.security.user.CustomUserDetails;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Slf4j
@@ -22,9 +27,17 @@ import java.util.function.Function;
 public class JwtService {
 
     private final JwtProperties jwtProperties;
+    private final VerifiedTokenCache verifiedTokenCache;
 
-   private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtProperties.getSecret().getBytes());
+    // La clave y el parser se construyen una sola vez al arrancar y se reutilizan (son thread-safe)
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    // Un secreto ausente o corto falla al arrancar y no en la primera petición autenticada
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtProperties.getSecret().getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser().verifyWith(signingKey).build();
     }
 
     public String generateAccessToken(CustomUserDetails userDetails) {
@@ -32,13 +45,18 @@ public class JwtService {
         claims.put("userId", userDetails.getUserId());
         claims.put("email", userDetails.getEmail());
         claims.put("role", userDetails.getRole());
+        claims.put("typ", VerifiedToken.TYPE_ACCESS);
 
         return createToken(claims, userDetails.getUsername(), jwtProperties.getExpiration());
     }
 
-   public String generateRefreshToken(CustomUserDetails userDetails) {
+    // El refresh token lleva la familia (sesión) y la generación para poder rotarlo y revocarlo
+    public String generateRefreshToken(CustomUserDetails userDetails, UUID familyId, int generation) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("userId", userDetails.getUserId());
+        claims.put("typ", VerifiedToken.TYPE_REFRESH);
+        claims.put("fid", familyId.toString());
+        claims.put("gen", generation);
 
         return createToken(claims, userDetails.getUsername(), jwtProperties.getRefreshExpiration());
     }
@@ -52,21 +70,36 @@ public class JwtService {
                 .setSubject(subject)                  // Email del usuario
                 .setIssuedAt(now)                     // Fecha de creación
                 .setExpiration(expiration)            // Fecha de expiración
-                .signWith(getSigningKey())            // Firma con clave secreta
+                .signWith(signingKey)                 // Firma con clave secreta
                 .compact();                           // Serializa a String
     }
 
 
+    // Verifica firma y expiración una sola vez; los tokens ya verificados se sirven desde cache
+    public VerifiedToken verify(String token) {
+        VerifiedToken cached = verifiedTokenCache.get(token);
+        if (cached != null) {
+            return cached;
+        }
+        VerifiedToken verified = VerifiedToken.from(extractAllClaims(token));
+        verifiedTokenCache.put(token, verified);
+        return verified;
+    }
+
     public Long extractUserId(String token) {
-        return extractClaim(token, claims -> claims.get("userId", Long.class));
+        return verify(token).userId();
     }
 
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).subject();
+    }
+
+    public Date extractIssuedAt(String token) {
+        return Date.from(verify(token).issuedAt());
     }
 
     public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+        return Date.from(verify(token).expiresAt());
     }
 
      public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
@@ -76,25 +109,30 @@ public class JwtService {
 
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
+        return parser
                 .parseSignedClaims(token)
                 .getPayload();
     }
 
     public boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        return verify(token).isExpired(Instant.now());
     }
 
      public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return isTokenValid(verify(token), userDetails);
+    }
+
+    // Un refresh token no sirve como token de acceso
+    public boolean isTokenValid(VerifiedToken token, UserDetails userDetails) {
+        return !token.isRefreshToken()
+                && token.subject().equals(userDetails.getUsername())
+                && !token.isExpired(Instant.now());
     }
 
    public boolean isRefreshTokenValid(String refreshToken) {
         try {
-            return !isTokenExpired(refreshToken);
+            VerifiedToken token = verify(refreshToken);
+            return token.isRefreshToken() && !token.isExpired(Instant.now());
         } catch (Exception e) {
             log.error("Invalid refresh token: {}", e.getMessage());
             return false;
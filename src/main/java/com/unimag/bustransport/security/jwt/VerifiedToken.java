@@ -0,0 +1,44 @@
+package com.unimag.bustransport.security.jwt;
+
+import io.jsonwebtoken.Claims;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// Resultado inmutable de verificar un JWT una sola vez (firma + expiración)
+public record VerifiedToken(
+        Long userId,
+        String subject,
+        String role,
+        String type,
+        UUID familyId,
+        Integer generation,
+        Instant issuedAt,
+        Instant expiresAt
+) {
+
+    public static final String TYPE_ACCESS = "access";
+    public static final String TYPE_REFRESH = "refresh";
+
+    static VerifiedToken from(Claims claims) {
+        String familyId = claims.get("fid", String.class);
+        return new VerifiedToken(
+                claims.get("userId", Long.class),
+                claims.getSubject(),
+                claims.get("role", String.class),
+                claims.get("typ", String.class),
+                familyId != null ? UUID.fromString(familyId) : null,
+                claims.get("gen", Integer.class),
+                claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : Instant.EPOCH,
+                claims.getExpiration().toInstant()
+        );
+    }
+
+    public boolean isRefreshToken() {
+        return TYPE_REFRESH.equals(type);
+    }
+
+    public boolean isExpired(Instant now) {
+        return !expiresAt.isAfter(now);
+    }
+}
@@ -0,0 +1,93 @@
+package com.unimag.bustransport.security.jwt;
+
+import com.unimag.bustransport.security.config.JwtProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Cache de tokens ya verificados, indexada por el SHA-256 del token (nunca guarda el token en claro).
+// Una entrada vive como máximo hasta la expiración del propio token. Es LRU: al llenarse, cada put
+// desaloja en O(1) el token usado hace más tiempo.
+@Component
+@RequiredArgsConstructor
+public class VerifiedTokenCache {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private final JwtProperties jwtProperties;
+
+    private final Map<String, VerifiedToken> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, VerifiedToken> eldest) {
+            return size() > jwtProperties.getVerifiedCache().getMaxSize();
+        }
+    };
+
+    public VerifiedToken get(String token) {
+        return get(token, Instant.now());
+    }
+
+    VerifiedToken get(String token, Instant now) {
+        if (!jwtProperties.getVerifiedCache().isEnabled()) {
+            return null;
+        }
+        String key = hash(token);
+        synchronized (entries) {
+            VerifiedToken verified = entries.get(key);
+            if (verified != null && verified.isExpired(now)) {
+                entries.remove(key);
+                return null;
+            }
+            return verified;
+        }
+    }
+
+    public void put(String token, VerifiedToken verified) {
+        put(token, verified, Instant.now());
+    }
+
+    void put(String token, VerifiedToken verified, Instant now) {
+        if (!jwtProperties.getVerifiedCache().isEnabled()) {
+            return;
+        }
+        String key = hash(token);
+        synchronized (entries) {
+            entries.put(key, verified);
+        }
+    }
+
+    public void evictExpired() {
+        evictExpired(Instant.now());
+    }
+
+    void evictExpired(Instant now) {
+        synchronized (entries) {
+            entries.values().removeIf(verified -> verified.isExpired(now));
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private static String hash(String token) {
+        MessageDigest digest = SHA_256.get();
+        digest.reset();
+        return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,10 @@
+package com.unimag.bustransport.security.qr;
+
+// Datos firmados dentro del QR: basta para validar viaje y tramo sin consultar la BD
+public record QrPayload(
+        Long ticketId,
+        Long tripId,
+        String seatNumber,
+        int fromStopOrder,
+        int toStopOrder
+) {}
@@ -0,0 +1,16 @@
+package com.unimag.bustransport.security.qr;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "ticket.qr")
+@Getter
+@Setter
+public class QrProperties {
+
+    private String secret;
+    private int signatureBytes = 16;    // HMAC-SHA256 truncado: 128 bits
+}
@@ -0,0 +1,125 @@
+package com.unimag.bustransport.security.qr;
+
+import com.unimag.bustransport.exception.InvalidCredentialsException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+
+// Codifica y firma (HMAC-SHA256) el contenido del QR: TK1.<payload base64url>.<firma base64url>
+// Los validadores en puerta solo necesitan la clave para rechazar QR falsos o de otro viaje.
+@Component
+@RequiredArgsConstructor
+public class TicketQrSigner {
+
+    public static final String PREFIX = "TK1.";
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final byte[] KEY_CONTEXT = "ticket-qr-v1".getBytes(StandardCharsets.UTF_8);
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final QrProperties properties;
+
+    private volatile SecretKeySpec key;
+    private final ThreadLocal<Mac> macs = ThreadLocal.withInitial(this::newMac);
+
+    public boolean isSigned(String qrCode) {
+        return qrCode != null && qrCode.startsWith(PREFIX);
+    }
+
+    public String sign(QrPayload payload) {
+        byte[] body = encode(payload);
+        String encodedBody = ENCODER.encodeToString(body);
+        return PREFIX + encodedBody + "." + ENCODER.encodeToString(signature(encodedBody));
+    }
+
+    public QrPayload verify(String qrCode) {
+        if (!isSigned(qrCode)) {
+            throw new InvalidCredentialsException("QR con formato inválido");
+        }
+        int separator = qrCode.indexOf('.', PREFIX.length());
+        if (separator < 0) {
+            throw new InvalidCredentialsException("QR con formato inválido");
+        }
+
+        String encodedBody = qrCode.substring(PREFIX.length(), separator);
+        byte[] presented;
+        try {
+            presented = DECODER.decode(qrCode.substring(separator + 1));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCredentialsException("QR con formato inválido");
+        }
+
+        if (!MessageDigest.isEqual(presented, signature(encodedBody))) {
+            throw new InvalidCredentialsException("Firma del QR inválida");
+        }
+
+        try {
+            return decode(DECODER.decode(encodedBody));
+        } catch (RuntimeException e) {
+            throw new InvalidCredentialsException("QR con formato inválido");
+        }
+    }
+
+    private byte[] signature(String encodedBody) {
+        Mac mac = macs.get();
+        byte[] full = mac.doFinal(encodedBody.getBytes(StandardCharsets.US_ASCII));
+        return Arrays.copyOf(full, properties.getSignatureBytes());
+    }
+
+    private static byte[] encode(QrPayload payload) {
+        byte[] seat = payload.seatNumber().getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(8 + 8 + 2 + 2 + 1 + seat.length)
+                .putLong(payload.ticketId())
+                .putLong(payload.tripId())
+                .putShort((short) payload.fromStopOrder())
+                .putShort((short) payload.toStopOrder())
+                .put((byte) seat.length)
+                .put(seat)
+                .array();
+    }
+
+    private static QrPayload decode(byte[] body) {
+        ByteBuffer buffer = ByteBuffer.wrap(body);
+        long ticketId = buffer.getLong();
+        long tripId = buffer.getLong();
+        int from = buffer.getShort();
+        int to = buffer.getShort();
+        byte[] seat = new byte[buffer.get() & 0xFF];
+        buffer.get(seat);
+        if (buffer.hasRemaining()) {
+            throw new IllegalArgumentException("Trailing bytes in QR payload");
+        }
+        return new QrPayload(ticketId, tripId, new String(seat, StandardCharsets.UTF_8), from, to);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(signingKey());
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot initialize QR signer", e);
+        }
+    }
+
+    // Clave derivada del secreto para no reutilizar la misma clave en otros contextos (p. ej. JWT)
+    private SecretKeySpec signingKey() throws GeneralSecurityException {
+        SecretKeySpec current = key;
+        if (current == null) {
+            Mac derivation = Mac.getInstance(ALGORITHM);
+            derivation.init(new SecretKeySpec(properties.getSecret().getBytes(StandardCharsets.UTF_8), ALGORITHM));
+            current = new SecretKeySpec(derivation.doFinal(KEY_CONTEXT), ALGORITHM);
+            key = current;
+        }
+        return current;
+    }
+}
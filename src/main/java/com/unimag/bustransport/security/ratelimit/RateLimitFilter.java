@@ -0,0 +1,54 @@
+package com.unimag.bustransport.security.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.unimag.bustransport.api.error.ApiError;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+// Corre después del filtro JWT para poder limitar por usuario autenticado
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        RateLimiter.Decision decision = rateLimiter.check(request);
+        if (decision.allowed()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        log.warn("Rate limit {} exceeded by {} on {}", decision.policy(), request.getRemoteAddr(), request.getRequestURI());
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(decision.retryAfterSeconds()));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), ApiError.of(
+                HttpStatus.TOO_MANY_REQUESTS,
+                "Too many requests, retry after " + decision.retryAfterSeconds() + " seconds",
+                "uri=" + request.getRequestURI(),
+                List.of()));
+    }
+}
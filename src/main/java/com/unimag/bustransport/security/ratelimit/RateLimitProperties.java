@@ -0,0 +1,36 @@
+package com.unimag.bustransport.security.ratelimit;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Component
+@ConfigurationProperties(prefix = "security.rate-limit")
+@Getter
+@Setter
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+    private long idleEvictMs = 600000;      // Buckets sin uso se eliminan pasado este tiempo
+    private int maxKeysPerPolicy = 100000;  // Por encima, las claves nuevas comparten un bucket de desborde
+    private Map<String, Policy> policies = new LinkedHashMap<>();
+
+    public enum KeyType {
+        IP,
+        USER_OR_IP
+    }
+
+    @Getter
+    @Setter
+    public static class Policy {
+        private String method;              // null = cualquier método
+        private String path;                // Patrón de ruta, p. ej. /api/v1/trips/search
+        private int capacity = 10;          // Ráfaga máxima
+        private int refillPerMinute = 60;
+        private KeyType key = KeyType.USER_OR_IP;
+    }
+}
@@ -0,0 +1,142 @@
+package com.unimag.bustransport.security.ratelimit;
+
+import com.unimag.bustransport.security.user.CustomUserDetails;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.server.PathContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Políticas de admisión por endpoint con un bucket por usuario o IP
+@Slf4j
+@Component
+public class RateLimiter {
+
+    private static final long NANOS_PER_MINUTE = TimeUnit.MINUTES.toNanos(1);
+
+    private final RateLimitProperties properties;
+    private final List<CompiledPolicy> policies = new ArrayList<>();
+
+    public record Decision(boolean allowed, String policy, long retryAfterSeconds) {
+        static final Decision ALLOWED = new Decision(true, null, 0);
+    }
+
+    public RateLimiter(RateLimitProperties properties) {
+        this.properties = properties;
+        for (Map.Entry<String, RateLimitProperties.Policy> entry : properties.getPolicies().entrySet()) {
+            RateLimitProperties.Policy policy = entry.getValue();
+            policies.add(new CompiledPolicy(
+                    entry.getKey(),
+                    policy.getMethod(),
+                    PathPatternParser.defaultInstance.parse(policy.getPath()),
+                    policy.getKey(),
+                    policy.getCapacity(),
+                    NANOS_PER_MINUTE / Math.max(1, policy.getRefillPerMinute())
+            ));
+        }
+    }
+
+    public Decision check(HttpServletRequest request) {
+        if (!properties.isEnabled() || policies.isEmpty()) {
+            return Decision.ALLOWED;
+        }
+
+        PathContainer path = null;
+        for (CompiledPolicy policy : policies) {
+            if (policy.method != null && !policy.method.equalsIgnoreCase(request.getMethod())) {
+                continue;
+            }
+            if (path == null) {
+                path = PathContainer.parsePath(request.getRequestURI());
+            }
+            if (!policy.pattern.matches(path)) {
+                continue;
+            }
+
+            long wait = policy.bucketFor(resolveKey(policy.keyType, request), properties.getMaxKeysPerPolicy())
+                    .tryAcquire(System.nanoTime());
+            if (wait > 0) {
+                return new Decision(false, policy.name, Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + 999_999_999)));
+            }
+        }
+        return Decision.ALLOWED;
+    }
+
+    @Scheduled(fixedDelayString = "${security.rate-limit.idle-evict-ms:600000}")
+    public void evictIdle() {
+        evictIdle(System.nanoTime());
+    }
+
+    void evictIdle(long now) {
+        long idleNanos = TimeUnit.MILLISECONDS.toNanos(properties.getIdleEvictMs());
+        for (CompiledPolicy policy : policies) {
+            int before = policy.buckets.size();
+            policy.buckets.values().removeIf(bucket -> bucket.isIdle(now, idleNanos));
+            if (before != policy.buckets.size()) {
+                log.debug("Rate limit policy {}: evicted {} idle keys", policy.name, before - policy.buckets.size());
+            }
+        }
+    }
+
+    int trackedKeys(String policyName) {
+        return policies.stream()
+                .filter(policy -> policy.name.equals(policyName))
+                .mapToInt(policy -> policy.buckets.size())
+                .sum();
+    }
+
+    private static String resolveKey(RateLimitProperties.KeyType keyType, HttpServletRequest request) {
+        if (keyType == RateLimitProperties.KeyType.USER_OR_IP) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication != null && authentication.getPrincipal() instanceof CustomUserDetails user) {
+                return "u:" + user.getUserId();
+            }
+        }
+        // Con server.forward-headers-strategy=native, Tomcat ya reemplazó la IP del proxy por la del cliente
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private static final class CompiledPolicy {
+        private final String name;
+        private final String method;
+        private final PathPattern pattern;
+        private final RateLimitProperties.KeyType keyType;
+        private final int capacity;
+        private final long emissionIntervalNanos;
+        // ConcurrentHashMap ya particiona internamente: no hay un lock global
+        private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+        private final TokenBucket overflow;
+
+        private CompiledPolicy(String name, String method, PathPattern pattern, RateLimitProperties.KeyType keyType,
+                               int capacity, long emissionIntervalNanos) {
+            this.name = name;
+            this.method = method;
+            this.pattern = pattern;
+            this.keyType = keyType;
+            this.capacity = capacity;
+            this.emissionIntervalNanos = emissionIntervalNanos;
+            this.overflow = new TokenBucket(capacity, emissionIntervalNanos);
+        }
+
+        private TokenBucket bucketFor(String key, int maxKeys) {
+            TokenBucket bucket = buckets.get(key);
+            if (bucket != null) {
+                return bucket;
+            }
+            if (buckets.size() >= maxKeys) {
+                return overflow;
+            }
+            return buckets.computeIfAbsent(key, k -> new TokenBucket(capacity, emissionIntervalNanos));
+        }
+    }
+}
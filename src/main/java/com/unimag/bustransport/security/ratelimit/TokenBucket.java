@@ -0,0 +1,38 @@
+package com.unimag.bustransport.security.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Token bucket sin locks (GCRA): todo el estado es un único long (tiempo teórico de llegada)
+// que se actualiza con CAS, así que no hay contención entre claves ni bloqueos dentro de una clave.
+final class TokenBucket {
+
+    private final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+    private final long emissionIntervalNanos;
+    private final long burstNanos;
+
+    TokenBucket(int capacity, long emissionIntervalNanos) {
+        this.emissionIntervalNanos = emissionIntervalNanos;
+        this.burstNanos = emissionIntervalNanos * capacity;
+    }
+
+    // Devuelve 0 si se concede el permiso, o los nanosegundos a esperar
+    long tryAcquire(long nowNanos) {
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long next = Math.max(tat, nowNanos) + emissionIntervalNanos;
+            long wait = next - nowNanos - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(tat, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // Lleno de nuevo y sin uso durante idleNanos
+    boolean isIdle(long nowNanos, long idleNanos) {
+        long tat = theoreticalArrival.get();
+        return tat == Long.MIN_VALUE || nowNanos - tat > idleNanos;
+    }
+}
@@ -0,0 +1,110 @@
+package com.unimag.bustransport.security.token;
+
+import com.unimag.bustransport.domain.entities.RefreshTokenFamily;
+import com.unimag.bustransport.domain.repositories.RefreshTokenFamilyRepository;
+import com.unimag.bustransport.security.config.JwtProperties;
+import com.unimag.bustransport.security.jwt.JwtService;
+import com.unimag.bustransport.security.jwt.VerifiedToken;
+import io.jsonwebtoken.JwtException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+// Estado de servidor de los refresh tokens: una familia por sesión, rotación por generación
+// y detección de reutilización (presentar una generación vieja revoca toda la familia).
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RefreshTokenStore {
+
+    private static final String INVALID_TOKEN = "Invalid or expired refresh token";
+
+    private final RefreshTokenFamilyRepository familyRepository;
+    private final RevokedFamilySet revokedFamilies;
+    private final JwtService jwtService;
+    private final JwtProperties jwtProperties;
+
+    public record Session(Long userId, UUID familyId, int generation) {}
+
+    @Transactional
+    public Session openSession(Long userId) {
+        OffsetDateTime now = OffsetDateTime.now();
+        RefreshTokenFamily family = familyRepository.save(RefreshTokenFamily.builder()
+                .familyId(UUID.randomUUID())
+                .userId(userId)
+                .generation(0)
+                .revoked(false)
+                .createdAt(now)
+                .expiresAt(now.plus(jwtProperties.getRefreshExpiration(), ChronoUnit.MILLIS))
+                .build());
+
+        log.debug("Refresh token family {} opened for user {}", family.getFamilyId(), userId);
+        return new Session(userId, family.getFamilyId(), 0);
+    }
+
+    // La revocación de la familia por reutilización debe persistir aunque se rechace la petición
+    @Transactional(noRollbackFor = IllegalArgumentException.class)
+    public Session rotate(String refreshToken) {
+        VerifiedToken token = parse(refreshToken);
+        UUID familyId = token.familyId();
+
+        if (revokedFamilies.mightBeRevoked(familyId) && familyRepository.existsByFamilyIdAndRevokedTrue(familyId)) {
+            log.warn("Refresh token of revoked family {} presented", familyId);
+            throw new IllegalArgumentException(INVALID_TOKEN);
+        }
+
+        OffsetDateTime now = OffsetDateTime.now();
+        int updated = familyRepository.rotate(familyId, token.generation(), now,
+                now.plus(jwtProperties.getRefreshExpiration(), ChronoUnit.MILLIS));
+
+        if (updated == 0) {
+            // Generación vieja o familia revocada en otro nodo: se revoca la familia completa
+            log.warn("Refresh token reuse detected for family {} (generation {})", familyId, token.generation());
+            revokeFamily(familyId, now);
+            throw new IllegalArgumentException(INVALID_TOKEN);
+        }
+
+        return new Session(token.userId(), familyId, token.generation() + 1);
+    }
+
+    @Transactional
+    public void revoke(String refreshToken) {
+        VerifiedToken token = parse(refreshToken);
+        revokeFamily(token.familyId(), OffsetDateTime.now());
+        log.info("Refresh token family {} revoked for user {}", token.familyId(), token.userId());
+    }
+
+    @Transactional
+    public void revokeAllForUser(Long userId) {
+        OffsetDateTime now = OffsetDateTime.now();
+        List<UUID> families = familyRepository.findActiveFamilyIdsByUserId(userId);
+        familyRepository.revokeAllByUserId(userId, now);
+        families.forEach(revokedFamilies::add);
+        log.info("Revoked {} refresh token families for user {}", families.size(), userId);
+    }
+
+    private void revokeFamily(UUID familyId, OffsetDateTime now) {
+        familyRepository.revoke(familyId, now);
+        revokedFamilies.add(familyId);
+    }
+
+    private VerifiedToken parse(String refreshToken) {
+        VerifiedToken token;
+        try {
+            token = jwtService.verify(refreshToken);
+        } catch (JwtException | IllegalArgumentException e) {
+            log.error("Invalid refresh token: {}", e.getMessage());
+            throw new IllegalArgumentException(INVALID_TOKEN);
+        }
+        if (!token.isRefreshToken() || token.familyId() == null || token.generation() == null) {
+            throw new IllegalArgumentException(INVALID_TOKEN);
+        }
+        return token;
+    }
+}
@@ -0,0 +1,101 @@
+package com.unimag.bustransport.security.token;
+
+import com.unimag.bustransport.domain.repositories.RefreshTokenFamilyRepository;
+import com.unimag.bustransport.security.config.RefreshTokenProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+// Conjunto compacto (filtro de Bloom) de familias revocadas.
+// Un negativo es definitivo y evita ir a BD; un positivo se confirma contra BD.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RevokedFamilySet {
+
+    private static final long POLL_OVERLAP_SECONDS = 30;
+
+    private final RefreshTokenFamilyRepository familyRepository;
+    private final RefreshTokenProperties properties;
+
+    private volatile BloomFilter filter;
+    private volatile OffsetDateTime lastPoll = OffsetDateTime.now();
+
+    public boolean mightBeRevoked(UUID familyId) {
+        return currentFilter().mightContain(familyId);
+    }
+
+    public void add(UUID familyId) {
+        currentFilter().put(familyId);
+    }
+
+    // Incorpora revocaciones hechas por otros nodos
+    @Scheduled(fixedDelayString = "${security.refresh-tokens.poll-interval-ms:10000}")
+    @Transactional(readOnly = true)
+    public void pollRevocations() {
+        try {
+            OffsetDateTime now = OffsetDateTime.now();
+            List<UUID> revoked = familyRepository.findRevokedSince(lastPoll.minusSeconds(POLL_OVERLAP_SECONDS));
+            BloomFilter current = currentFilter();
+            revoked.forEach(current::put);
+            lastPoll = now;
+        } catch (Exception e) {
+            log.error("Error polling refresh token revocations: {}", e.getMessage());
+        }
+    }
+
+    // Reconstruye el filtro sin las familias ya expiradas y elimina las filas vencidas
+    @Scheduled(fixedDelayString = "${security.refresh-tokens.rebuild-interval-ms:3600000}")
+    @Transactional
+    public void rebuild() {
+        try {
+            OffsetDateTime now = OffsetDateTime.now();
+            int deleted = familyRepository.deleteExpired(now);
+
+            long revokedCount = familyRepository.countRevokedNotExpired(now);
+            BloomFilter rebuilt = BloomFilter.create(
+                    Math.max(properties.getExpectedRevocations(), revokedCount * 2),
+                    properties.getFalsePositiveRate());
+
+            AtomicLong loaded = new AtomicLong();
+            try (Stream<UUID> revoked = familyRepository.streamRevokedNotExpired(now)) {
+                revoked.forEach(familyId -> {
+                    rebuilt.put(familyId);
+                    loaded.incrementAndGet();
+                });
+            }
+
+            filter = rebuilt;
+            // Lo revocado mientras se reconstruía se recupera en el siguiente poll
+            if (lastPoll.isAfter(now)) {
+                lastPoll = now;
+            }
+            log.info("Revoked refresh token set rebuilt: {} families, {} bits, {} expired families deleted",
+                    loaded.get(), rebuilt.bitSize(), deleted);
+        } catch (Exception e) {
+            log.error("Error rebuilding revoked refresh token set: {}", e.getMessage());
+        }
+    }
+
+    private BloomFilter currentFilter() {
+        BloomFilter current = filter;
+        if (current == null) {
+            synchronized (this) {
+                current = filter;
+                if (current == null) {
+                    current = BloomFilter.create(properties.getExpectedRevocations(), properties.getFalsePositiveRate());
+                    filter = current;
+                }
+            }
+        }
+        return current;
+    }
+}
@@ -0,0 +1,83 @@
+package com.unimag.bustransport.security.user;
+
+import com.unimag.bustransport.security.config.PrincipalCacheProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Cache acotada con TTL de principals por (userId, iat) para evitar ir a BD en cada request.
+// Es LRU: al llenarse, cada put desaloja en O(1) la entrada usada hace más tiempo.
+@Component
+@RequiredArgsConstructor
+public class PrincipalCache {
+
+    private final PrincipalCacheProperties properties;
+
+    private final Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+            return size() > properties.getMaxSize();
+        }
+    };
+
+    public UserDetails get(Long userId, long issuedAt) {
+        return get(userId, issuedAt, System.currentTimeMillis());
+    }
+
+    UserDetails get(Long userId, long issuedAt, long nowMillis) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        Key key = new Key(userId, issuedAt);
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt <= nowMillis) {
+                entries.remove(key);
+                return null;
+            }
+            return entry.userDetails;
+        }
+    }
+
+    public void put(Long userId, long issuedAt, UserDetails userDetails) {
+        put(userId, issuedAt, userDetails, System.currentTimeMillis());
+    }
+
+    void put(Long userId, long issuedAt, UserDetails userDetails, long nowMillis) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        synchronized (entries) {
+            entries.put(new Key(userId, issuedAt), new Entry(userDetails, nowMillis + properties.getTtlMs()));
+        }
+    }
+
+    // Elimina todas las entradas del usuario, sin importar el iat del token
+    public void invalidate(Long userId) {
+        synchronized (entries) {
+            entries.keySet().removeIf(key -> key.userId().equals(userId));
+        }
+    }
+
+    public void evictExpired(long nowMillis) {
+        synchronized (entries) {
+            entries.values().removeIf(entry -> entry.expiresAt <= nowMillis);
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private record Key(Long userId, long issuedAt) {}
+
+    private record Entry(UserDetails userDetails, long expiresAt) {}
+}
@@ -0,0 +1,69 @@
+package com.unimag.bustransport.security.user;
+
+import com.unimag.bustransport.domain.entities.PrincipalInvalidation;
+import com.unimag.bustransport.domain.repositories.PrincipalInvalidationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+// Invalida el principal cacheado de un usuario en este nodo y lo registra en BD
+// para que los demás nodos lo invaliden en su siguiente lectura
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PrincipalInvalidator {
+
+    private static final long RETENTION_HOURS = 24;
+    // Los ids se asignan al insertar pero las filas se ven al hacer commit, fuera de orden: se relee
+    // por fecha con solape para no perder las que confirman tarde ni las de nodos con el reloj atrasado
+    private static final long POLL_OVERLAP_SECONDS = 30;
+
+    private final PrincipalCache principalCache;
+    private final PrincipalInvalidationRepository invalidationRepository;
+
+    private volatile OffsetDateTime lastPoll = OffsetDateTime.now();
+
+    public void invalidate(Long userId) {
+        invalidationRepository.save(PrincipalInvalidation.builder()
+                .userId(userId)
+                .createdAt(OffsetDateTime.now())
+                .build());
+
+        principalCache.invalidate(userId);
+
+        // Se vuelve a invalidar tras el commit para descartar cargas concurrentes con datos viejos
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    principalCache.invalidate(userId);
+                }
+            });
+        }
+        log.debug("Principal cache invalidated for user {}", userId);
+    }
+
+    @Scheduled(fixedDelayString = "${security.principal-cache.poll-interval-ms:5000}")
+    @Transactional
+    public void pollRemoteInvalidations() {
+        try {
+            OffsetDateTime now = OffsetDateTime.now();
+            // Las invalidaciones del solape se repiten en varios polls; invalidar dos veces solo cuesta una carga
+            List<Long> userIds = invalidationRepository.findUserIdsInvalidatedSince(
+                    lastPoll.minusSeconds(POLL_OVERLAP_SECONDS));
+            userIds.forEach(principalCache::invalidate);
+            lastPoll = now;
+            principalCache.evictExpired(System.currentTimeMillis());
+            invalidationRepository.deleteOlderThan(OffsetDateTime.now().minusHours(RETENTION_HOURS));
+        } catch (Exception e) {
+            log.error("Error polling principal invalidations: {}", e.getMessage());
+        }
+    }
+}
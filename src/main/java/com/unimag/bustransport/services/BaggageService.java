@@ -7,6 +7,7 @@ import java.util.List;
 
 public interface BaggageService {
     BaggageDtos.BaggageResponse registerBaggage(BaggageDtos.BaggageCreateRequest request);
+    BaggageDtos.BaggageBatchResponse registerBaggageBatch(Long tripId, BaggageDtos.BaggageBatchRequest request);
     void updateBaggage(Long id,BaggageDtos.BaggageUpdateRequest request);
     List<BaggageDtos.BaggageResponse> getBaggageByTicket(Long ticketId);
     BigDecimal calculateBaggageFee(double weightKg);
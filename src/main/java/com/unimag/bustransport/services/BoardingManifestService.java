@@ -0,0 +1,11 @@
+package com.unimag.bustransport.services;
+
+import com.unimag.bustransport.api.dto.BoardingDtos;
+
+public interface BoardingManifestService {
+    BoardingDtos.ManifestResponse getManifest(Long tripId);
+    BoardingDtos.ScanResponse scan(Long tripId, String qrCode);
+    BoardingDtos.BatchScanResponse scanBatch(Long tripId, BoardingDtos.BatchScanRequest request);
+    void refreshManifests();
+    void releaseTrip(Long tripId);
+}
@@ -2,6 +2,7 @@ package com.unimag.bustransport.services;
 
 import com.unimag.bustransport.api.dto.BusDtos;
 import com.unimag.bustransport.api.dto.SeatDtos;
+import com.unimag.bustransport.api.dto.PageDtos;
 
 import java.util.List;
 
@@ -10,6 +11,6 @@ public interface BusService {
     void updateBus(Long id,BusDtos.BusUpdateRequest request);
     void deleteBus(Long id);
     BusDtos.BusResponse getBus(Long id);
-    List<BusDtos.BusResponse> getAllBus();
+    PageDtos.CursorPage<BusDtos.BusResponse> getAllBus(String cursor, Integer limit);
     List<SeatDtos.SeatResponse> getAllSeatsByBusId(Long id);
 }
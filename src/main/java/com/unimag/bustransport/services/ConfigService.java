@@ -22,4 +22,7 @@ public interface ConfigService {
     Integer getValueAsInt(String key);
 
     String getValueAsString(String key);
+
+    // Se publica al crear, editar o borrar una clave; lo escucha quien cachea valores
+    record ConfigChanged(String key) {}
 }
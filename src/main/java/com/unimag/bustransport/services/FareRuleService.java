@@ -1,6 +1,7 @@
 package com.unimag.bustransport.services;
 
 import com.unimag.bustransport.api.dto.FareRuleDtos;
+import com.unimag.bustransport.api.dto.PageDtos;
 import com.unimag.bustransport.domain.entities.FareRule;
 import com.unimag.bustransport.domain.entities.Passenger;
 
@@ -18,7 +19,7 @@ public interface FareRuleService {
 
     FareRuleDtos.FareRuleResponse getFareRule(Long id);
 
-    List<FareRuleDtos.FareRuleResponse> getAllFareRules();
+    PageDtos.CursorPage<FareRuleDtos.FareRuleResponse> getAllFareRules(String cursor, Integer limit);
 
     List<FareRuleDtos.FareRuleResponse> getFareRulesByRouteId(Long routeId);
 
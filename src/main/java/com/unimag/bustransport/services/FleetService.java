@@ -0,0 +1,7 @@
+package com.unimag.bustransport.services;
+
+import com.unimag.bustransport.api.dto.FleetDtos;
+
+public interface FleetService {
+    FleetDtos.FleetPlanResponse plan(FleetDtos.FleetPlanRequest request, boolean dryRun);
+}
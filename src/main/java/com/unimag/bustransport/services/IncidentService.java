@@ -1,6 +1,7 @@
 package com.unimag.bustransport.services;
 
 import com.unimag.bustransport.api.dto.IncidentDtos;
+import com.unimag.bustransport.api.dto.PageDtos;
 import com.unimag.bustransport.domain.entities.Incident;
 
 import java.util.List;
@@ -9,6 +10,6 @@ public interface IncidentService {
     IncidentDtos.IncidentResponse createIncident(IncidentDtos.IncidentCreateRequest request);
     void updateIncident(Long incidentId,IncidentDtos.IncidentUpdateRequest request);
     void deleteIncident(Long incidentId);
-    List<IncidentDtos.IncidentResponse> findByIncidentByType(Incident.EntityType type); //por tipo de entidad
+    PageDtos.CursorPage<IncidentDtos.IncidentResponse> findByIncidentByType(Incident.EntityType type, String cursor, Integer limit); //por tipo de entidad, más recientes primero
     List<IncidentDtos.IncidentResponse> findIncidentsRecentByType(Incident.Type type);
 }
@@ -1,7 +1,9 @@
 package com.unimag.bustransport.services;
 
 import com.unimag.bustransport.api.dto.KpiDtos;
+import com.unimag.bustransport.domain.entities.KpiSample;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 
 public interface KpiService {
@@ -10,4 +12,7 @@ public interface KpiService {
     void deleteKpi(Long kpiId);
     KpiDtos.KpiResponse getKpiByName(String kpiName);
     List<KpiDtos.KpiResponse> getKpiByRecentMetrics();
+    KpiDtos.KpiSeriesResponse getSeries(String name, OffsetDateTime from, OffsetDateTime to, KpiSample.Resolution resolution);
+    void downsampleSamples();
+    void purgeExpiredSamples();
 }
@@ -0,0 +1,8 @@
+package com.unimag.bustransport.services;
+
+import com.unimag.bustransport.api.dto.ParcelDtos;
+
+public interface ParcelDispatchService {
+
+    ParcelDtos.AutoAssignResponse autoAssignPendingParcels();
+}
@@ -1,6 +1,7 @@
 package com.unimag.bustransport.services;
 
 import com.unimag.bustransport.api.dto.ParcelDtos;
+import com.unimag.bustransport.api.dto.PageDtos;
 
 import java.util.List;
 
@@ -11,7 +12,7 @@ public interface ParcelService {
 
     void assignTrip(Long parcelId, Long tripId);
 
-    List<ParcelDtos.ParcelResponse> getParcelsBySender(String senderPhone);
+    PageDtos.CursorPage<ParcelDtos.ParcelResponse> getParcelsBySender(String senderPhone, String cursor, Integer limit);
 
     List<ParcelDtos.ParcelResponse> getParcelsByReceiver(String receiverPhone);
 
@@ -0,0 +1,10 @@
+package com.unimag.bustransport.services;
+
+import com.unimag.bustransport.api.dto.ParcelDtos;
+
+public interface ParcelTrackingService {
+
+    ParcelDtos.ScanBatchResponse applyScans(ParcelDtos.ScanBatchRequest request);
+
+    ParcelDtos.TrackingResponse track(String code);
+}
@@ -0,0 +1,12 @@
+package com.unimag.bustransport.services;
+
+import com.unimag.bustransport.api.dto.PurchaseDtos;
+
+import java.io.OutputStream;
+import java.time.OffsetDateTime;
+
+public interface PurchaseExportService {
+    void validateExportRange(OffsetDateTime start, OffsetDateTime end);
+
+    long exportByDateRange(OffsetDateTime start, OffsetDateTime end, PurchaseDtos.ExportFormat format, OutputStream out);
+}
@@ -1,6 +1,7 @@
 package com.unimag.bustransport.services;
 
 import com.unimag.bustransport.api.dto.PurchaseDtos;
+import com.unimag.bustransport.api.dto.PageDtos;
 
 import java.time.OffsetDateTime;
 import java.util.List;
@@ -10,7 +11,7 @@ public interface PurchaseService {
 
     PurchaseDtos.PurchaseResponse getPurchase(Long purchaseId);
 
-    List<PurchaseDtos.PurchaseResponse> getPurchasesByUserId(Long userId);
+    PageDtos.CursorPage<PurchaseDtos.PurchaseResponse> getPurchasesByUserId(Long userId, String cursor, Integer limit);
 
     void confirmPurchase(Long purchaseId, String PaymentReference);
 
@@ -0,0 +1,14 @@
+package com.unimag.bustransport.services;
+
+import com.unimag.bustransport.api.dto.ReportDtos;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface ReportService {
+    List<ReportDtos.RouteRevenueRow> getRevenueByRoute(LocalDate from, LocalDate to, Long routeId);
+    List<ReportDtos.TripOccupancyRow> getOccupancyByTrip(LocalDate from, LocalDate to, Long routeId);
+    List<ReportDtos.RefundPolicyRow> getRefundsByPolicy(LocalDate from, LocalDate to, Long routeId);
+    int refreshRollups();
+    int recomputeRollups();
+}
@@ -0,0 +1,13 @@
+package com.unimag.bustransport.services;
+
+import com.unimag.bustransport.api.dto.RosterDtos;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+public interface RosterService {
+    void checkDriverAvailability(Long driverId, OffsetDateTime departureAt, OffsetDateTime arrivalAt);
+    List<RosterDtos.RosterConflict> findConflicts(LocalDate date);
+    RosterDtos.AutoAssignResponse autoAssign(RosterDtos.AutoAssignRequest request, boolean dryRun);
+}
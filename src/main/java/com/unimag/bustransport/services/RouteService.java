@@ -2,6 +2,7 @@ package com.unimag.bustransport.services;
 
 import com.unimag.bustransport.api.dto.RouteDtos;
 import com.unimag.bustransport.api.dto.StopDtos;
+import com.unimag.bustransport.api.dto.PageDtos;
 
 import java.util.List;
 
@@ -9,7 +10,7 @@ public interface RouteService {
     RouteDtos.RouteResponse createRoute(RouteDtos.RouteCreateRequest request);
     void updateRoute(Long id,RouteDtos.RouteUpdateRequest request);
     void deleteRoute(Long id);
-    List<RouteDtos.RouteResponse> getAllRoutes();
+    PageDtos.CursorPage<RouteDtos.RouteResponse> getAllRoutes(String cursor, Integer limit);
     RouteDtos.RouteResponse getRouteById(Long id);
     List<StopDtos.StopResponse>  getStopsByRouteId(Long id);
     List<RouteDtos.RouteResponse> searchRoutes(String origin, String destination);
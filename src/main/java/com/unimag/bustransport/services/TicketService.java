@@ -1,6 +1,7 @@
 package com.unimag.bustransport.services;
 
 import com.unimag.bustransport.api.dto.TicketDtos;
+import com.unimag.bustransport.api.dto.PageDtos;
 
 import java.util.List;
 
@@ -8,11 +9,13 @@ public interface TicketService {
 
     TicketDtos.TicketResponse createTicket(TicketDtos.TicketCreateRequest request);
 
+    List<TicketDtos.TicketResponse> createTickets(List<TicketDtos.TicketCreateRequest> requests);
+
     void deleteTicket(Long id);
 
     TicketDtos.TicketResponse getTicket(Long id);
 
-    List<TicketDtos.TicketResponse> getTicketsByTrip(Long tripId);
+    PageDtos.CursorPage<TicketDtos.TicketResponse> getTicketsByTrip(Long tripId, String cursor, Integer limit);
 
     List<TicketDtos.TicketResponse> getTicketsByPurchase(Long purchaseId);
 
@@ -22,6 +25,8 @@ public interface TicketService {
 
     void validateQrForTicket(String qrCode);
 
+    void validateQrForTicket(String qrCode, Long tripId);
+
     void processNoshows();
 
     void refundTicket(Long ticketId, Long userId);
@@ -0,0 +1,10 @@
+package com.unimag.bustransport.services;
+
+import com.unimag.bustransport.api.dto.TimetableDtos;
+
+public interface TimetableService {
+
+    TimetableDtos.TimetableResponse preview(TimetableDtos.TimetableRequest request);
+
+    TimetableDtos.TimetableResponse generate(TimetableDtos.TimetableRequest request, boolean dryRun);
+}
@@ -1,6 +1,7 @@
 package com.unimag.bustransport.services;
 
 import com.unimag.bustransport.api.dto.UserDtos;
+import com.unimag.bustransport.api.dto.PageDtos;
 import com.unimag.bustransport.domain.entities.Role;
 import org.springframework.data.repository.query.Param;
 
@@ -16,5 +17,5 @@ public interface UserService {
     UserDtos.UserResponse getUserById(@Param("id") Long id);
     UserDtos.UserResponse getUserByEmail(@Param("email") String email);
     UserDtos.UserResponse getUserByPhone(@Param("phone") String phone);
-    List<UserDtos.UserResponse> getAllUsersByRole(Role role);
+    PageDtos.CursorPage<UserDtos.UserResponse> getAllUsersByRole(Role role, String cursor, Integer limit);
 }
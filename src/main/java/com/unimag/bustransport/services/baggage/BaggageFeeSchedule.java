@@ -0,0 +1,70 @@
+package com.unimag.bustransport.services.baggage;
+
+import com.unimag.bustransport.config.BaggageProperties;
+import com.unimag.bustransport.services.ConfigService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.Set;
+
+/**
+ * Tarifas y topes de equipaje leídos de la tabla de configuración. Antes cada maleta hacía
+ * hasta cuatro consultas a config; ahora se leen juntas una vez y se reutilizan hasta que
+ * vence baggage.fee-cache-ttl-ms o alguien edita una de estas claves.
+ */
+@Component
+@RequiredArgsConstructor
+public class BaggageFeeSchedule {
+
+    static final String FREE_LIMIT_KG = "BAGGAGE_FREE_LIMIT_KG";
+    static final String EXTRA_FEE_PER_KG = "BAGGAGE_EXTRA_FEE_PER_KG";
+    static final String MAX_WEIGHT_KG = "BAGGAGE_MAX_WEIGHT_KG";
+    static final String MAX_PER_TICKET = "MAX_BAGGAGE_PER_TICKET";
+    private static final Set<String> KEYS = Set.of(FREE_LIMIT_KG, EXTRA_FEE_PER_KG, MAX_WEIGHT_KG, MAX_PER_TICKET);
+
+    private final ConfigService configService;
+    private final BaggageProperties properties;
+
+    private volatile Fees cached;
+
+    public Fees current() {
+        Fees fees = cached;
+        if (fees == null || System.currentTimeMillis() - fees.loadedAt() >= properties.getFeeCacheTtlMs()) {
+            fees = new Fees(
+                    configService.getValueAsBigDecimal(FREE_LIMIT_KG),
+                    configService.getValueAsBigDecimal(EXTRA_FEE_PER_KG),
+                    configService.getValueAsBigDecimal(MAX_WEIGHT_KG),
+                    configService.getValueAsInt(MAX_PER_TICKET),
+                    System.currentTimeMillis());
+            cached = fees;
+        }
+        return fees;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void on(ConfigService.ConfigChanged event) {
+        if (KEYS.contains(event.key())) {
+            cached = null;
+        }
+    }
+
+    public record Fees(BigDecimal freeLimitKg, BigDecimal feePerKg, BigDecimal maxWeightKg,
+                       int maxBagsPerTicket, long loadedAt) {
+
+        // Solo se cobra el exceso sobre la franquicia
+        public BigDecimal feeFor(double weightKg) {
+            BigDecimal weight = BigDecimal.valueOf(weightKg);
+            if (weight.compareTo(freeLimitKg) <= 0) {
+                return BigDecimal.ZERO;
+            }
+            return weight.subtract(freeLimitKg).multiply(feePerKg);
+        }
+
+        public boolean exceedsMaxWeight(double weightKg) {
+            return BigDecimal.valueOf(weightKg).compareTo(maxWeightKg) > 0;
+        }
+    }
+}
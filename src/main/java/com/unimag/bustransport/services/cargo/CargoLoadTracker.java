@@ -0,0 +1,129 @@
+package com.unimag.bustransport.services.cargo;
+
+import com.unimag.bustransport.config.CargoProperties;
+import com.unimag.bustransport.domain.repositories.ParcelRepository;
+import com.unimag.bustransport.domain.repositories.StopRepository;
+import com.unimag.bustransport.domain.repositories.TripRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Carga de bodega por viaje y tramo para reservar sobre ella. Cada transacción que reserva
+ * bloquea las filas de sus viajes y arma la carga desde la BD (tres consultas en bloque), así
+ * cuenta lo que otro nodo confirmó antes y nadie más reserva sobre esos viajes hasta el commit.
+ * Dentro de la transacción la carga se reutiliza con las reservas que ya lleva.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CargoLoadTracker {
+
+    private final ParcelRepository parcelRepository;
+    private final TripRepository tripRepository;
+    private final StopRepository stopRepository;
+    private final CargoProperties properties;
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    // Reserva la encomienda en el viaje si cabe en todos sus tramos
+    public boolean tryLoad(Long tripId, Long parcelId, int fromOrder, int toOrder,
+                           BigDecimal weightKg, BigDecimal volumeLiters) {
+        if (!properties.isEnabled()) {
+            return true;
+        }
+        TripCargoLoad load = lockLoadsFor(List.of(tripId)).get(tripId);
+        return load != null && load.tryLoad(parcelId, fromOrder, toOrder, grams(weightKg), cubicCm(volumeLiters));
+    }
+
+    // Carga vigente de cada viaje con sus filas bloqueadas hasta el fin de la transacción en curso
+    public Map<Long, TripCargoLoad> lockLoadsFor(Collection<Long> tripIds) {
+        Map<Long, TripCargoLoad> locked = lockedInTransaction();
+        Map<Long, TripCargoLoad> result = new HashMap<>();
+        SortedSet<Long> missing = new TreeSet<>();
+        for (Long tripId : tripIds) {
+            TripCargoLoad load = locked.get(tripId);
+            if (load != null) {
+                result.put(tripId, load);
+            } else {
+                missing.add(tripId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            // En orden de id para que dos transacciones con viajes en común no se crucen
+            tripRepository.findAllByIdForUpdate(missing);
+            build(missing).forEach((tripId, built) -> {
+                locked.put(tripId, built);
+                result.put(tripId, built);
+            });
+        }
+        return result;
+    }
+
+    public long grams(BigDecimal weightKg) {
+        return TripCargoLoad.grams(weightKg != null ? weightKg : properties.getDefaultParcelWeightKg());
+    }
+
+    public long cubicCm(BigDecimal volumeLiters) {
+        return TripCargoLoad.cubicCm(volumeLiters != null ? volumeLiters : properties.getDefaultParcelVolumeLiters());
+    }
+
+    // Las reservas de un lote aún no están en la BD: se guardan por transacción y se sueltan al terminarla
+    @SuppressWarnings("unchecked")
+    private Map<Long, TripCargoLoad> lockedInTransaction() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Cargo reservations require an active transaction");
+        }
+        Map<Long, TripCargoLoad> locked = (Map<Long, TripCargoLoad>) TransactionSynchronizationManager.getResource(this);
+        if (locked == null) {
+            Map<Long, TripCargoLoad> created = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CargoLoadTracker.this);
+                }
+            });
+            locked = created;
+        }
+        return locked;
+    }
+
+    private Map<Long, TripCargoLoad> build(Collection<Long> tripIds) {
+        List<TripRepository.CargoTrip> trips = tripRepository.findCargoTrips(tripIds);
+        if (trips.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, int[]> stopOrders = stopRepository.findPositionsByRouteIds(
+                        trips.stream().map(TripRepository.CargoTrip::getRouteId).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.groupingBy(StopRepository.StopPosition::getRouteId,
+                        Collectors.collectingAndThen(Collectors.toList(), positions -> positions.stream()
+                                .mapToInt(StopRepository.StopPosition::getStopOrder).toArray())));
+
+        Map<Long, TripCargoLoad> built = new HashMap<>();
+        for (TripRepository.CargoTrip trip : trips) {
+            built.put(trip.getTripId(), new TripCargoLoad(
+                    trip.getTripId(),
+                    stopOrders.getOrDefault(trip.getRouteId(), new int[0]),
+                    TripCargoLoad.grams(trip.getCapacityKg() != null
+                            ? trip.getCapacityKg() : properties.getDefaultCapacityKg()),
+                    TripCargoLoad.cubicCm(trip.getCapacityLiters() != null
+                            ? trip.getCapacityLiters() : properties.getDefaultCapacityLiters())));
+        }
+        for (ParcelRepository.CargoParcel parcel : parcelRepository.findCargoOnTrips(built.keySet())) {
+            built.get(parcel.getTripId()).restore(parcel.getParcelId(), parcel.getFromOrder(), parcel.getToOrder(),
+                    grams(parcel.getWeightKg()), cubicCm(parcel.getVolumeLiters()));
+        }
+        log.debug("Built cargo load for {} trips", built.size());
+        return built;
+    }
+}
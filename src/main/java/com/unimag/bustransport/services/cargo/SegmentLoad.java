@@ -0,0 +1,101 @@
+package com.unimag.bustransport.services.cargo;
+
+/**
+ * Carga por tramo de un viaje con n tramos (tramo k = entre la parada k y la k+1).
+ * Se guarda el arreglo de diferencias: la carga del tramo k es la suma prefija de
+ * diff[0..k]. Cada nodo del árbol conoce la suma de su rango y la mayor suma prefija
+ * dentro de él, así "carga máxima entre los tramos i y j" y "sumar w de i a j" son O(log n).
+ */
+final class SegmentLoad {
+
+    private final int segments;
+    private final long[] sum;
+    private final long[] maxPrefix;
+
+    SegmentLoad(int segments) {
+        if (segments < 1) {
+            throw new IllegalArgumentException("A trip needs at least one segment");
+        }
+        this.segments = segments;
+        this.sum = new long[4 * segments];
+        this.maxPrefix = new long[4 * segments];
+    }
+
+    int segments() {
+        return segments;
+    }
+
+    // Suma amount a los tramos [from, to); amount negativo descarga
+    void add(int from, int to, long amount) {
+        checkRange(from, to);
+        update(1, 0, segments - 1, from, amount);
+        if (to < segments) {
+            update(1, 0, segments - 1, to, -amount);
+        }
+    }
+
+    // Mayor carga entre los tramos [from, to)
+    long max(int from, int to) {
+        checkRange(from, to);
+        long before = from == 0 ? 0 : prefixSum(1, 0, segments - 1, from - 1);
+        return before + maxPrefix(1, 0, segments - 1, from, to - 1, new long[1]);
+    }
+
+    long loadAt(int segment) {
+        return max(segment, segment + 1);
+    }
+
+    private void update(int node, int lo, int hi, int index, long delta) {
+        if (lo == hi) {
+            sum[node] += delta;
+            maxPrefix[node] = sum[node];
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        if (index <= mid) {
+            update(2 * node, lo, mid, index, delta);
+        } else {
+            update(2 * node + 1, mid + 1, hi, index, delta);
+        }
+        sum[node] = sum[2 * node] + sum[2 * node + 1];
+        maxPrefix[node] = Math.max(maxPrefix[2 * node], sum[2 * node] + maxPrefix[2 * node + 1]);
+    }
+
+    // Suma de diff[0..index]
+    private long prefixSum(int node, int lo, int hi, int index) {
+        if (hi <= index) {
+            return sum[node];
+        }
+        int mid = (lo + hi) >>> 1;
+        long result = prefixSum(2 * node, lo, mid, index);
+        if (index > mid) {
+            result += prefixSum(2 * node + 1, mid + 1, hi, index);
+        }
+        return result;
+    }
+
+    // Mayor suma prefija de diff[from..k] con k en [from, to]; acc lleva lo sumado a la izquierda
+    private long maxPrefix(int node, int lo, int hi, int from, int to, long[] acc) {
+        if (from <= lo && hi <= to) {
+            long best = acc[0] + maxPrefix[node];
+            acc[0] += sum[node];
+            return best;
+        }
+        int mid = (lo + hi) >>> 1;
+        long best = Long.MIN_VALUE;
+        if (from <= mid) {
+            best = maxPrefix(2 * node, lo, mid, from, to, acc);
+        }
+        if (to > mid) {
+            best = Math.max(best, maxPrefix(2 * node + 1, mid + 1, hi, from, to, acc));
+        }
+        return best;
+    }
+
+    private void checkRange(int from, int to) {
+        if (from < 0 || to > segments || from >= to) {
+            throw new IllegalArgumentException(
+                    String.format("Invalid segment range [%d, %d) for %d segments", from, to, segments));
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.unimag.bustransport.services.cargo;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Carga de bodega de un viaje por tramo, en peso (gramos) y volumen (cm³). Los tramos se
+ * identifican por el orden de las paradas de la ruta, que no tiene por qué ser consecutivo.
+ * Cada encomienda se recuerda para que descargarla o liberarla dos veces no descuadre la carga.
+ */
+public final class TripCargoLoad {
+
+    private final Long tripId;
+    private final int[] stopOrders;
+    private final long weightCapacity;
+    private final long volumeCapacity;
+    private final SegmentLoad weight;
+    private final SegmentLoad volume;
+    private final Map<Long, Cargo> parcels = new HashMap<>();
+
+    public TripCargoLoad(Long tripId, int[] stopOrders, long weightCapacity, long volumeCapacity) {
+        this.tripId = tripId;
+        this.stopOrders = stopOrders.clone();
+        Arrays.sort(this.stopOrders);
+        this.weightCapacity = weightCapacity;
+        this.volumeCapacity = volumeCapacity;
+        this.weight = new SegmentLoad(Math.max(1, this.stopOrders.length - 1));
+        this.volume = new SegmentLoad(Math.max(1, this.stopOrders.length - 1));
+    }
+
+    public Long tripId() {
+        return tripId;
+    }
+
+    /**
+     * Carga la encomienda si cabe en todos los tramos entre sus paradas.
+     *
+     * @return false si algún tramo se pasaría de peso o volumen, o si las paradas no son de la ruta
+     */
+    public synchronized boolean tryLoad(Long parcelId, int fromOrder, int toOrder, long grams, long cubicCm) {
+        if (parcels.containsKey(parcelId)) {
+            return true;
+        }
+        int from = segmentOf(fromOrder);
+        int to = segmentOf(toOrder);
+        if (from < 0 || to < 0 || from >= to) {
+            return false;
+        }
+        if (weight.max(from, to) + grams > weightCapacity || volume.max(from, to) + cubicCm > volumeCapacity) {
+            return false;
+        }
+        put(parcelId, from, to, grams, cubicCm);
+        return true;
+    }
+
+    // Carga ya confirmada en la BD: se registra aunque exceda el cupo (p. ej. cargada a mano)
+    synchronized void restore(Long parcelId, int fromOrder, int toOrder, long grams, long cubicCm) {
+        int from = segmentOf(fromOrder);
+        int to = segmentOf(toOrder);
+        if (from >= 0 && to >= 0 && from < to) {
+            put(parcelId, from, to, grams, cubicCm);
+        }
+    }
+
+    // Descargada en la parada atOrder: deja de ocupar los tramos desde ahí hasta su destino
+    public synchronized void unload(Long parcelId, int atOrder) {
+        Cargo cargo = parcels.get(parcelId);
+        int at = segmentOf(atOrder);
+        if (cargo == null || at < 0) {
+            return;
+        }
+        if (at <= cargo.from) {
+            release(parcelId);
+        } else if (at < cargo.to) {
+            weight.add(at, cargo.to, -cargo.grams);
+            volume.add(at, cargo.to, -cargo.cubicCm);
+            parcels.put(parcelId, new Cargo(cargo.from, at, cargo.grams, cargo.cubicCm));
+        }
+    }
+
+    // Entregada o fallida: libera todo su recorrido
+    public synchronized void release(Long parcelId) {
+        Cargo cargo = parcels.remove(parcelId);
+        if (cargo != null) {
+            weight.add(cargo.from, cargo.to, -cargo.grams);
+            volume.add(cargo.from, cargo.to, -cargo.cubicCm);
+        }
+    }
+
+    public synchronized long maxWeight(int fromOrder, int toOrder) {
+        int from = segmentOf(fromOrder);
+        int to = segmentOf(toOrder);
+        return from >= 0 && to > from ? weight.max(from, to) : 0;
+    }
+
+    public synchronized long maxVolume(int fromOrder, int toOrder) {
+        int from = segmentOf(fromOrder);
+        int to = segmentOf(toOrder);
+        return from >= 0 && to > from ? volume.max(from, to) : 0;
+    }
+
+    public static long grams(BigDecimal kg) {
+        return kg.movePointRight(3).longValue();
+    }
+
+    public static long cubicCm(BigDecimal liters) {
+        return liters.movePointRight(3).longValue();
+    }
+
+    private void put(Long parcelId, int from, int to, long grams, long cubicCm) {
+        weight.add(from, to, grams);
+        volume.add(from, to, cubicCm);
+        parcels.put(parcelId, new Cargo(from, to, grams, cubicCm));
+    }
+
+    // Índice de la parada dentro de la ruta, o -1 si no es de esta ruta
+    private int segmentOf(int stopOrder) {
+        int index = Arrays.binarySearch(stopOrders, stopOrder);
+        return index >= 0 ? index : -1;
+    }
+
+    private record Cargo(int from, int to, long grams, long cubicCm) {}
+}
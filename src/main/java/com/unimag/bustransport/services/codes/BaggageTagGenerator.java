@@ -0,0 +1,22 @@
+package com.unimag.bustransport.services.codes;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Etiquetas de equipaje BAG-YYYYMMDD-XXXXXXXXXX con el mismo esquema de las encomiendas
+ * (milisegundo | nodo | contador), así un mostrador puede etiquetar un bus entero sin
+ * consultar la BD. Comparte el node-id de CodeNodeLease: el prefijo ya las separa de los PAQ.
+ */
+@Component
+public class BaggageTagGenerator {
+
+    private final ParcelCodeGenerator codes;
+
+    public BaggageTagGenerator(CodeNodeLease lease) {
+        this.codes = new ParcelCodeGenerator("BAG", lease, System::currentTimeMillis);
+    }
+
+    public String next() {
+        return codes.next();
+    }
+}
@@ -0,0 +1,112 @@
+package com.unimag.bustransport.services.codes;
+
+import com.unimag.bustransport.config.ParcelCodeProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * node-id de los códigos PAQ/BAG de esta instancia. Si parcels.codes.node-id está configurado se
+ * usa tal cual; si no, se toma en code_node_leases el menor id libre o vencido y se renueva
+ * mientras el nodo vive, así dos instancias nunca generan con el mismo id. Sin id disponible el
+ * arranque falla en vez de arriesgar códigos repetidos.
+ */
+@Slf4j
+@Component
+public class CodeNodeLease {
+
+    private static final int ACQUIRE_ATTEMPTS = 3;
+
+    // Dos nodos pueden elegir el mismo id a la vez: el ON CONFLICT solo deja pasar al primero
+    static final String ACQUIRE_SQL = """
+            INSERT INTO code_node_leases (node_id, owner, expires_at)
+            SELECT n, ?, now() + CAST(? AS BIGINT) * INTERVAL '1 millisecond'
+            FROM generate_series(0, %d) AS n
+            WHERE NOT EXISTS (
+                SELECT 1 FROM code_node_leases l WHERE l.node_id = n AND l.expires_at > now()
+            )
+            ORDER BY n
+            LIMIT 1
+            ON CONFLICT (node_id) DO UPDATE
+                SET owner = EXCLUDED.owner, expires_at = EXCLUDED.expires_at
+                WHERE code_node_leases.expires_at <= now()
+            RETURNING node_id
+            """.formatted(ParcelCodeGenerator.MAX_NODE);
+
+    static final String RENEW_SQL = """
+            UPDATE code_node_leases
+            SET expires_at = now() + CAST(? AS BIGINT) * INTERVAL '1 millisecond'
+            WHERE node_id = ? AND owner = ?
+            """;
+
+    static final String RELEASE_SQL = "DELETE FROM code_node_leases WHERE node_id = ? AND owner = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ParcelCodeProperties properties;
+    private final String owner;
+    private volatile long nodeId = -1;
+
+    public CodeNodeLease(JdbcTemplate jdbcTemplate, ParcelCodeProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        // pid@host más un sufijo aleatorio: dos contenedores con el mismo hostname no comparten dueño
+        this.owner = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID();
+    }
+
+    @PostConstruct
+    public void init() {
+        int configured = properties.getNodeId();
+        if (configured > ParcelCodeGenerator.MAX_NODE) {
+            throw new IllegalArgumentException("Parcel code node id must be between 0 and " + ParcelCodeGenerator.MAX_NODE);
+        }
+        nodeId = configured >= 0 ? configured : acquire();
+    }
+
+    public long nodeId() {
+        return nodeId;
+    }
+
+    @Scheduled(fixedDelayString = "${parcels.codes.lease-renew-ms:60000}")
+    public void renew() {
+        if (!isLeased()) {
+            return;
+        }
+        int renewed = jdbcTemplate.update(RENEW_SQL, properties.getLeaseTtlMs(), nodeId, owner);
+        if (renewed == 0) {
+            // El lease venció y otro nodo lo tomó: se cambia de id antes de seguir generando
+            long lost = nodeId;
+            nodeId = acquire();
+            log.error("Parcel code node id {} was taken by another node, switched to {}", lost, nodeId);
+        }
+    }
+
+    @PreDestroy
+    public void release() {
+        if (isLeased()) {
+            jdbcTemplate.update(RELEASE_SQL, nodeId, owner);
+        }
+    }
+
+    private boolean isLeased() {
+        return properties.getNodeId() < 0 && nodeId >= 0;
+    }
+
+    private long acquire() {
+        for (int attempt = 0; attempt < ACQUIRE_ATTEMPTS; attempt++) {
+            List<Long> acquired = jdbcTemplate.queryForList(ACQUIRE_SQL, Long.class, owner, properties.getLeaseTtlMs());
+            if (!acquired.isEmpty()) {
+                log.info("Leased parcel code node id {}", acquired.get(0));
+                return acquired.get(0);
+            }
+        }
+        throw new IllegalStateException(
+                "No parcel code node id available: set parcels.codes.node-id or free a lease in code_node_leases");
+    }
+}
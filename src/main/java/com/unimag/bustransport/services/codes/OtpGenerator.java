@@ -0,0 +1,44 @@
+package com.unimag.bustransport.services.codes;
+
+import org.springframework.stereotype.Component;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+
+/**
+ * OTP de entrega de 6 dígitos con SecureRandom. Se reparte entre varias instancias DRBG
+ * independientes según el hilo, porque un único SecureRandom (o NativePRNG, que bloquea
+ * de forma global) serializa a todos los hilos que crean encomiendas a la vez.
+ */
+@Component
+public class OtpGenerator {
+
+    private static final int OTP_BOUND = 1_000_000;
+    private static final String PADDING = "000000";
+
+    private final SecureRandom[] stripes;
+    private final int mask;
+
+    public OtpGenerator() {
+        int size = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) * 2 - 1) << 1;
+        this.stripes = new SecureRandom[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = newDrbg();
+        }
+        this.mask = size - 1;
+    }
+
+    public String next() {
+        int value = stripes[(int) (Thread.currentThread().threadId() & mask)].nextInt(OTP_BOUND);
+        String digits = Integer.toString(value);
+        return PADDING.substring(digits.length()) + digits;
+    }
+
+    private static SecureRandom newDrbg() {
+        try {
+            return SecureRandom.getInstance("DRBG");
+        } catch (NoSuchAlgorithmException e) {
+            return new SecureRandom();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.unimag.bustransport.services.codes;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Códigos de encomienda PAQ-YYYYMMDD-XXXXXXXXXX sin consultar la BD. El sufijo es base 36 de
+ * (milisegundo del día | nodo | contador): 27 + 10 + 12 bits. El reloj lógico nunca retrocede
+ * y si el contador se desborda avanza al milisegundo siguiente, así dentro de un nodo no hay
+ * repetidos; entre nodos los separa el nodeId, configurado o tomado en lease (CodeNodeLease).
+ */
+@Component
+public class ParcelCodeGenerator {
+
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final long MAX_NODE = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final long DAY_MS = 86_400_000L;
+    private static final int SUFFIX_LENGTH = 10; // 36^10 > 2^49
+    private static final DateTimeFormatter DATE = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final String type;
+    private final LongSupplier node;
+    private final LongSupplier clock;
+    // (milisegundo lógico << SEQUENCE_BITS) | contador
+    private final AtomicLong state = new AtomicLong();
+    private volatile DayPrefix prefix = new DayPrefix(-1, "");
+
+    @Autowired
+    public ParcelCodeGenerator(CodeNodeLease lease) {
+        this("PAQ", lease, System::currentTimeMillis);
+    }
+
+    // El id se lee en cada código: si el lease se pierde, CodeNodeLease lo cambia sin reiniciar
+    ParcelCodeGenerator(String type, CodeNodeLease lease, LongSupplier clock) {
+        this.type = type;
+        this.node = lease::nodeId;
+        this.clock = clock;
+    }
+
+    ParcelCodeGenerator(long node, LongSupplier clock) {
+        this("PAQ", node, clock);
+    }
+
+    // Mismo esquema con otro prefijo (p. ej. etiquetas de equipaje)
+    ParcelCodeGenerator(String type, long node, LongSupplier clock) {
+        if (node < 0 || node > MAX_NODE) {
+            throw new IllegalArgumentException("Parcel code node id must be between 0 and " + MAX_NODE);
+        }
+        this.type = type;
+        this.node = () -> node;
+        this.clock = clock;
+    }
+
+    public String next() {
+        long previous;
+        long next;
+        do {
+            previous = state.get();
+            long now = clock.getAsLong();
+            // Reloj atrasado o mismo milisegundo: se sigue sobre el último valor (+1 arrastra al ms siguiente)
+            next = now > previous >>> SEQUENCE_BITS ? now << SEQUENCE_BITS : previous + 1;
+        } while (!state.compareAndSet(previous, next));
+        return format(next >>> SEQUENCE_BITS, next & SEQUENCE_MASK);
+    }
+
+    private String format(long millis, long sequence) {
+        long epochDay = Math.floorDiv(millis, DAY_MS);
+        long suffix = (Math.floorMod(millis, DAY_MS) << (NODE_BITS + SEQUENCE_BITS))
+                | (node.getAsLong() << SEQUENCE_BITS)
+                | sequence;
+
+        char[] digits = new char[SUFFIX_LENGTH];
+        for (int i = SUFFIX_LENGTH - 1; i >= 0; i--) {
+            digits[i] = Character.toUpperCase(Character.forDigit((int) (suffix % 36), 36));
+            suffix /= 36;
+        }
+        return dayPrefix(epochDay) + new String(digits);
+    }
+
+    // La fecha (UTC) solo cambia una vez al día; se formatea una vez y se reutiliza
+    private String dayPrefix(long epochDay) {
+        DayPrefix current = prefix;
+        if (current.epochDay() != epochDay) {
+            current = new DayPrefix(epochDay, type + "-" + LocalDate.ofEpochDay(epochDay).format(DATE) + "-");
+            prefix = current;
+        }
+        return current.value();
+    }
+
+    private record DayPrefix(long epochDay, String value) {}
+}
@@ -11,6 +11,7 @@ import com.unimag.bustransport.domain.repositories.UserRepository;
 import com.unimag.bustransport.exception.DuplicateResourceException;
 import com.unimag.bustransport.exception.NotFoundException;
 import com.unimag.bustransport.services.AssignmentService;
+import com.unimag.bustransport.services.RosterService;
 import com.unimag.bustransport.services.TripService;
 import com.unimag.bustransport.services.mapper.AssignmentMapper;
 import lombok.RequiredArgsConstructor;
@@ -31,6 +32,7 @@ public class AssignmentServiceImpl implements AssignmentService {
     private final AssignmentMapper mapper;
     private final TripService tripService;
     private final UserRepository  userRepository;
+    private final RosterService rosterService;
     @Override
     public AssignmentDtos.AssignmentResponse createAssignment(AssignmentDtos.AssignmentCreateRequest request) {
 
@@ -40,7 +42,9 @@ public class AssignmentServiceImpl implements AssignmentService {
         if (existingAssignment.isPresent()) {
             throw new DuplicateResourceException("Assignment already exists");
         }
-        User driver = userRepository.findById(assignment.getDriver().getId())
+        // Bloqueado hasta el commit: otra asignación o la auto-asignación del mismo conductor
+        // esperan a que esta quede guardada antes de verificar su disponibilidad
+        User driver = userRepository.findByIdForUpdate(assignment.getDriver().getId())
                 .orElseThrow(()-> new NotFoundException(String.format("Driver with ID %d not found", assignment.getDriver().getId())));
         if (driver.getRole() != Role.ROLE_DRIVER){
             throw new DuplicateResourceException("Invalid Driver");
@@ -57,6 +61,8 @@ public class AssignmentServiceImpl implements AssignmentService {
         if (dispatcher.getStatus() != User.Status.ACTIVE){
             throw new RuntimeException("Dispatcher is not active");
         }
+        // Cruces con otros viajes del conductor, descanso mínimo y tope diario de conducción
+        rosterService.checkDriverAvailability(driver.getId(), trip.departureAt(), trip.arrivalAt());
 
         assignment.setChecklistOk(false);
         Assignment assignmentSaved = repository.save(assignment);
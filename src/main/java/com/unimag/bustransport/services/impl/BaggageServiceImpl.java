@@ -5,9 +5,11 @@ import com.unimag.bustransport.domain.entities.Baggage;
 import com.unimag.bustransport.domain.entities.Ticket;
 import com.unimag.bustransport.domain.repositories.BaggageRepository;
 import com.unimag.bustransport.domain.repositories.TicketRepository;
+import com.unimag.bustransport.domain.repositories.TripRepository;
 import com.unimag.bustransport.exception.NotFoundException;
 import com.unimag.bustransport.services.BaggageService;
-import com.unimag.bustransport.services.ConfigService;
+import com.unimag.bustransport.services.baggage.BaggageFeeSchedule;
+import com.unimag.bustransport.services.codes.BaggageTagGenerator;
 import com.unimag.bustransport.services.mapper.BaggageMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -15,7 +17,11 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -26,8 +32,10 @@ public class BaggageServiceImpl implements BaggageService {
 
     private final BaggageRepository baggageRepository;
     private final TicketRepository ticketRepository;
+    private final TripRepository tripRepository;
     private final BaggageMapper baggageMapper;
-    private final ConfigService configService;
+    private final BaggageFeeSchedule feeSchedule;
+    private final BaggageTagGenerator tagGenerator;
 
     @Override
     public BaggageDtos.BaggageResponse registerBaggage(BaggageDtos.BaggageCreateRequest request) {
@@ -45,29 +53,30 @@ public class BaggageServiceImpl implements BaggageService {
             throw new IllegalArgumentException("Baggage weight must be greater than 0");
         }
 
-        BigDecimal maxWeightPerBag = configService.getValueAsBigDecimal("BAGGAGE_MAX_WEIGHT_KG");
-        if (BigDecimal.valueOf(request.weightKg()).compareTo(maxWeightPerBag) > 0) {
+        BaggageFeeSchedule.Fees fees = feeSchedule.current();
+        if (fees.exceedsMaxWeight(request.weightKg())) {
             throw new IllegalArgumentException(
-                    String.format("Baggage exceeds maximum weight per bag (%.2f kg)", maxWeightPerBag)
+                    String.format("Baggage exceeds maximum weight per bag (%.2f kg)", fees.maxWeightKg())
             );
         }
 
         int currentBaggageCount = baggageRepository.countByTicketId(ticket.getId());
-        int maxBaggagePerTicket = configService.getValueAsInt("MAX_BAGGAGE_PER_TICKET");
+        int maxBaggagePerTicket = fees.maxBagsPerTicket();
         if (currentBaggageCount >= maxBaggagePerTicket) {
             throw new IllegalStateException(
                     String.format("Ticket already has maximum allowed baggage (%d)", maxBaggagePerTicket)
             );
         }
 
-        BigDecimal fee = calculateBaggageFee(request.weightKg());
+        BigDecimal fee = fees.feeFor(request.weightKg());
 
         Baggage baggage = baggageMapper.toEntity(request);
         baggage.setTicket(ticket);
         baggage.setFee(fee);
-        baggage.setTagCode(generateTagCode(ticket.getId()));
+        baggage.setTagCode(tagGenerator.next());
 
         baggageRepository.save(baggage);
+        addTripWeight(ticket, request.weightKg());
         log.info("Baggage registered with ID {} for ticket {}", baggage.getId(), ticket.getId());
         return baggageMapper.toResponse(baggage);
     }
@@ -83,15 +92,17 @@ public class BaggageServiceImpl implements BaggageService {
                 throw new IllegalArgumentException("Baggage weight must be greater than 0");
             }
 
-            BigDecimal maxWeightPerBag = configService.getValueAsBigDecimal("BAGGAGE_MAX_WEIGHT_KG");
-            if (BigDecimal.valueOf(request.weightKg()).compareTo(maxWeightPerBag) > 0) {
+            BaggageFeeSchedule.Fees fees = feeSchedule.current();
+            if (fees.exceedsMaxWeight(request.weightKg())) {
                 throw new IllegalArgumentException(
-                        String.format("Baggage exceeds maximum weight per bag (%.2f kg)", maxWeightPerBag)
+                        String.format("Baggage exceeds maximum weight per bag (%.2f kg)", fees.maxWeightKg())
                 );
             }
 
+            double previousWeight = baggage.getWeightKg() != null ? baggage.getWeightKg() : 0;
             baggage.setWeightKg(request.weightKg());
-            baggage.setFee(calculateBaggageFee(request.weightKg()));
+            baggage.setFee(fees.feeFor(request.weightKg()));
+            addTripWeight(baggage.getTicket(), request.weightKg() - previousWeight);
         }
 
         if (request.tagCode() != null) {
@@ -115,17 +126,7 @@ public class BaggageServiceImpl implements BaggageService {
 
     @Override
     public BigDecimal calculateBaggageFee(double weightKg){
-        BigDecimal freeLimit = configService.getValueAsBigDecimal("BAGGAGE_FREE_LIMIT_KG");
-        BigDecimal feePerKg = configService.getValueAsBigDecimal("BAGGAGE_EXTRA_FEE_PER_KG");
-
-        BigDecimal weight = BigDecimal.valueOf(weightKg);
-
-        if (weight.compareTo(freeLimit) <= 0) {
-            return BigDecimal.ZERO;
-        }
-
-        BigDecimal excess = weight.subtract(freeLimit);
-        return excess.multiply(feePerKg);
+        return feeSchedule.current().feeFor(weightKg);
     }
 
     @Override
@@ -133,10 +134,102 @@ public class BaggageServiceImpl implements BaggageService {
         Baggage baggage = baggageRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException(String.format("Baggage with ID %d not found", id)));
         baggageRepository.delete(baggage);
+        if (baggage.getWeightKg() != null) {
+            addTripWeight(baggage.getTicket(), -baggage.getWeightKg());
+        }
         log.info("Baggage with ID {} deleted", id);
     }
 
-    private String generateTagCode(Long ticketId) {
-        return String.format("BAG-%08d-%d", ticketId, System.currentTimeMillis() % 100000);
+    /**
+     * Registra las maletas de un viaje en bloque: una consulta para los tickets y sus maletas
+     * actuales, tarifas desde la caché, etiquetas sin consultar la BD, un saveAll que Hibernate
+     * agrupa en batches JDBC (los ids salen de la secuencia agrupada) y una sola suma al peso del
+     * viaje. Las maletas inválidas se rechazan sin abortar el lote.
+     */
+    @Override
+    public BaggageDtos.BaggageBatchResponse registerBaggageBatch(Long tripId, BaggageDtos.BaggageBatchRequest request) {
+        if (!tripRepository.existsById(tripId)) {
+            throw new NotFoundException(String.format("Trip with ID %d not found", tripId));
+        }
+        List<BaggageDtos.BaggageBatchItem> bags = request.bags();
+        BaggageFeeSchedule.Fees fees = feeSchedule.current();
+
+        Map<Long, BaggageRepository.TicketBaggage> tickets = baggageRepository.findTicketBaggage(
+                        bags.stream().map(BaggageDtos.BaggageBatchItem::ticketId).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(BaggageRepository.TicketBaggage::getTicketId, Function.identity()));
+        Map<Long, Long> bagsPerTicket = new HashMap<>();
+        tickets.values().forEach(ticket -> bagsPerTicket.put(ticket.getTicketId(), ticket.getBags()));
+
+        List<BaggageDtos.BaggageTag> accepted = new ArrayList<>();
+        List<BaggageDtos.BaggageRejection> rejected = new ArrayList<>();
+        for (int i = 0; i < bags.size(); i++) {
+            BaggageDtos.BaggageBatchItem bag = bags.get(i);
+            String reason = validate(bag, tickets.get(bag.ticketId()), tripId, fees, bagsPerTicket);
+            if (reason != null) {
+                rejected.add(new BaggageDtos.BaggageRejection(i, bag.ticketId(), reason));
+                continue;
+            }
+            bagsPerTicket.merge(bag.ticketId(), 1L, Long::sum);
+            accepted.add(new BaggageDtos.BaggageTag(bag.ticketId(), bag.weightKg(),
+                    fees.feeFor(bag.weightKg()), tagGenerator.next()));
+        }
+
+        BigDecimal tripWeight = saveBatch(tripId, accepted);
+        BigDecimal totalFee = accepted.stream()
+                .map(BaggageDtos.BaggageTag::fee)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        log.info("Baggage batch for trip {}: {} received, {} registered, {} rejected",
+                tripId, bags.size(), accepted.size(), rejected.size());
+
+        return new BaggageDtos.BaggageBatchResponse(tripId, bags.size(), accepted.size(), totalFee,
+                tripWeight, accepted, rejected);
+    }
+
+    // Devuelve el motivo de rechazo, o null si la maleta se puede registrar
+    private String validate(BaggageDtos.BaggageBatchItem bag, BaggageRepository.TicketBaggage ticket, Long tripId,
+                            BaggageFeeSchedule.Fees fees, Map<Long, Long> bagsPerTicket) {
+        if (ticket == null) {
+            return String.format("Ticket with ID %d not found", bag.ticketId());
+        }
+        if (!tripId.equals(ticket.getTripId())) {
+            return "Ticket does not belong to this trip";
+        }
+        if (ticket.getStatus() != Ticket.Status.SOLD) {
+            return String.format("Cannot register baggage for ticket with status %s", ticket.getStatus());
+        }
+        if (fees.exceedsMaxWeight(bag.weightKg())) {
+            return String.format("Baggage exceeds maximum weight per bag (%.2f kg)", fees.maxWeightKg());
+        }
+        if (bagsPerTicket.getOrDefault(bag.ticketId(), 0L) >= fees.maxBagsPerTicket()) {
+            return String.format("Ticket already has maximum allowed baggage (%d)", fees.maxBagsPerTicket());
+        }
+        return null;
+    }
+
+    // Los INSERT salen en batch al hacer flush y el peso se suma en un solo UPDATE; devuelve el total del viaje
+    private BigDecimal saveBatch(Long tripId, List<BaggageDtos.BaggageTag> accepted) {
+        if (accepted.isEmpty()) {
+            return tripRepository.findBaggageWeightKg(tripId);
+        }
+        baggageRepository.saveAll(accepted.stream()
+                .map(bag -> Baggage.builder()
+                        .ticket(ticketRepository.getReferenceById(bag.ticketId()))
+                        .weightKg(bag.weightKg())
+                        .fee(bag.fee())
+                        .tagCode(bag.tagCode())
+                        .build())
+                .toList());
+        BigDecimal added = accepted.stream()
+                .map(bag -> BigDecimal.valueOf(bag.weightKg()))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return tripRepository.addBaggageWeight(tripId, added);
+    }
+
+    private void addTripWeight(Ticket ticket, double deltaKg) {
+        if (ticket != null && ticket.getTrip() != null && deltaKg != 0) {
+            tripRepository.addBaggageWeight(ticket.getTrip().getId(), BigDecimal.valueOf(deltaKg));
+        }
     }
 }
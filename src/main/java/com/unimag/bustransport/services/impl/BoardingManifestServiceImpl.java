@@ -0,0 +1,436 @@
+package com.unimag.bustransport.services.impl;
+
+import com.unimag.bustransport.api.dto.BoardingDtos;
+import com.unimag.bustransport.config.BoardingProperties;
+import com.unimag.bustransport.domain.entities.Ticket;
+import com.unimag.bustransport.domain.entities.Trip;
+import com.unimag.bustransport.domain.repositories.TicketRepository;
+import com.unimag.bustransport.domain.repositories.TripRepository;
+import com.unimag.bustransport.exception.InvalidCredentialsException;
+import com.unimag.bustransport.exception.NotFoundException;
+import com.unimag.bustransport.seatmap.SeatMapEvent;
+import com.unimag.bustransport.security.qr.QrPayload;
+import com.unimag.bustransport.security.qr.TicketQrSigner;
+import com.unimag.bustransport.services.BoardingManifestService;
+import com.unimag.bustransport.services.TicketService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Manifiesto de abordaje en memoria por viaje: índice QR -> estado del ticket.
+ * Es solo una cache de lectura: cada abordaje se reclama en la BD con un UPDATE condicional
+ * antes de confirmarse, así dos puertas o dos nodos no aceptan el mismo QR.
+ * Lo que no está en el manifiesto (ventas tardías, QR reemplazados) se valida contra la BD.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BoardingManifestServiceImpl implements BoardingManifestService {
+
+    private final TicketRepository ticketRepository;
+    private final TripRepository tripRepository;
+    private final TicketService ticketService;
+    private final TicketQrSigner qrSigner;
+    private final BoardingProperties properties;
+
+    private static final int MAX_REMEMBERED_UPLOADS = 256;
+
+    private final Map<Long, Manifest> manifests = new ConcurrentHashMap<>();
+
+    @Override
+    public BoardingDtos.ManifestResponse getManifest(Long tripId) {
+        Manifest manifest = manifests.get(tripId);
+        if (manifest == null) {
+            Trip trip = tripRepository.findById(tripId)
+                    .orElseThrow(() -> new NotFoundException(
+                            String.format("Trip with ID %d not found", tripId)
+                    ));
+            if (trip.getStatus() != Trip.Status.SCHEDULED && trip.getStatus() != Trip.Status.BOARDING) {
+                throw new IllegalStateException(
+                        String.format("El viaje no está en abordaje (status: %s)", trip.getStatus())
+                );
+            }
+            manifest = load(tripId);
+        }
+        return toResponse(manifest);
+    }
+
+    @Override
+    public BoardingDtos.ScanResponse scan(Long tripId, String qrCode) {
+        Manifest manifest = manifests.get(tripId);
+        Entry entry = manifest != null ? manifest.entries.get(qrCode) : null;
+        if (entry == null) {
+            return scanFromDatabase(tripId, qrCode);
+        }
+
+        // El manifiesto descarta sin BD lo que ya no es abordable; el abordaje lo decide la BD
+        if (entry.status.get() != Ticket.Status.SOLD) {
+            throw notActive(entry.status.get());
+        }
+        if (ticketRepository.markBoarded(entry.ticketId, qrCode) == 0) {
+            throw rejectedClaim(entry);
+        }
+        entry.status.set(Ticket.Status.BOARDED);
+        return new BoardingDtos.ScanResponse(true, entry.ticketId, entry.seatNumber, entry.passengerName, "Valid ticket");
+    }
+
+    @Override
+    public BoardingDtos.BatchScanResponse scanBatch(Long tripId, BoardingDtos.BatchScanRequest request) {
+        Manifest manifest = manifests.get(tripId);
+        String uploadId = request.uploadId();
+        if (manifest != null && uploadId != null) {
+            BoardingDtos.BatchScanResponse previous = manifest.uploads.get(uploadId);
+            if (previous != null) {
+                return previous;
+            }
+        }
+
+        List<BoardingDtos.BatchScanRequest.ScanItem> scans = request.scans();
+        BoardingDtos.BatchScanResponse.ScanResult[] results = new BoardingDtos.BatchScanResponse.ScanResult[scans.size()];
+        Map<String, Integer> firstSeen = new HashMap<>();
+        Map<Integer, Integer> duplicates = new HashMap<>();
+        Map<String, Integer> misses = new LinkedHashMap<>();
+        Map<Long, Integer> candidates = new LinkedHashMap<>();
+        Map<Long, Entry> cached = new HashMap<>();
+
+        // Se procesa en orden de escaneo (estable): ante QR repetidos gana el primero
+        List<Integer> order = IntStream.range(0, scans.size()).boxed()
+                .sorted(Comparator.comparing(i -> scans.get(i).scannedAt(),
+                        Comparator.nullsLast(Comparator.naturalOrder())))
+                .toList();
+
+        for (int i : order) {
+            String qrCode = scans.get(i).qrCode();
+            Integer first = firstSeen.putIfAbsent(qrCode, i);
+            if (first != null) {
+                duplicates.put(i, first);
+                continue;
+            }
+            Entry entry = manifest != null ? manifest.entries.get(qrCode) : null;
+            if (entry == null) {
+                misses.put(qrCode, i);
+                continue;
+            }
+            if (entry.status.get() == Ticket.Status.SOLD) {
+                candidates.put(entry.ticketId, i);
+                cached.put(entry.ticketId, entry);
+                results[i] = result(qrCode, BoardingDtos.ScanOutcome.BOARDED, entry.ticketId, entry.seatNumber, "Valid ticket");
+            } else {
+                results[i] = classify(qrCode, entry.ticketId, entry.seatNumber, entry.status.get());
+            }
+        }
+
+        candidates.putAll(resolveMisses(tripId, misses, results));
+        boolean persisted = claimBoarded(tripId, candidates, cached, results);
+
+        duplicates.forEach((i, first) -> results[i] = result(scans.get(i).qrCode(),
+                BoardingDtos.ScanOutcome.DUPLICATE, results[first].ticketId(), results[first].seatNumber(),
+                "QR repetido en el mismo envío"));
+
+        BoardingDtos.BatchScanResponse response = toBatchResponse(tripId, uploadId, Arrays.asList(results));
+        if (manifest != null && uploadId != null && persisted) {
+            manifest.uploads.put(uploadId, response);
+        }
+        return response;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${boarding.manifest.refresh-interval-ms:15000}")
+    public void refreshManifests() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        OffsetDateTime threshold = OffsetDateTime.now().plusMinutes(properties.getLeadMinutes());
+        Set<Long> active = new HashSet<>();
+        tripRepository.findByStatus(Trip.Status.BOARDING).forEach(trip -> active.add(trip.getId()));
+        tripRepository.findTripsNearDeparture(LocalDate.now(), threshold).forEach(trip -> active.add(trip.getId()));
+
+        for (Long tripId : active) {
+            try {
+                load(tripId);
+            } catch (Exception e) {
+                log.error("Failed to build boarding manifest for trip {}", tripId, e);
+            }
+        }
+
+        // Viajes que ya salieron o se cancelaron: se descartan sus manifiestos
+        for (Long tripId : List.copyOf(manifests.keySet())) {
+            if (!active.contains(tripId)) {
+                releaseTrip(tripId);
+            }
+        }
+    }
+
+    @Override
+    public void releaseTrip(Long tripId) {
+        if (manifests.remove(tripId) != null) {
+            log.info("Boarding manifest for trip {} released", tripId);
+        }
+    }
+
+    // Un ticket cancelado o reembolsado libera su asiento: se rehace el manifiesto del viaje para
+    // sacarlo ya y no a los 15 s del siguiente refresco. Los demás nodos lo sacan en su refresco
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onSeatReleased(SeatMapEvent event) {
+        if (event.state() != SeatMapEvent.SeatState.RELEASED || !manifests.containsKey(event.tripId())) {
+            return;
+        }
+        try {
+            List<Ticket> tickets = ticketRepository.findBoardingManifest(event.tripId());
+            // computeIfPresent: no revive un manifiesto liberado mientras se consultaba
+            manifests.computeIfPresent(event.tripId(), (id, previous) -> Manifest.merge(id, tickets, previous));
+        } catch (Exception e) {
+            log.error("Failed to rebuild boarding manifest for trip {}", event.tripId(), e);
+        }
+    }
+
+    private BoardingDtos.ScanResponse scanFromDatabase(Long tripId, String qrCode) {
+        ticketService.validateQrForTicket(qrCode, tripId);
+        if (qrSigner.isSigned(qrCode)) {
+            QrPayload payload = qrSigner.verify(qrCode);
+            return new BoardingDtos.ScanResponse(true, payload.ticketId(), payload.seatNumber(), null, "Valid ticket");
+        }
+        return new BoardingDtos.ScanResponse(true, null, null, null, "Valid ticket");
+    }
+
+    // QR fuera del manifiesto: una sola consulta para todo el envío
+    private Map<Long, Integer> resolveMisses(Long tripId, Map<String, Integer> misses,
+                                             BoardingDtos.BatchScanResponse.ScanResult[] results) {
+        Map<Long, Integer> soldIds = new LinkedHashMap<>();
+        if (misses.isEmpty()) {
+            return soldIds;
+        }
+        Map<String, Ticket> found = ticketRepository.findByTripIdAndQrCodeIn(tripId, misses.keySet()).stream()
+                .collect(Collectors.toMap(Ticket::getQrCode, Function.identity(), (a, b) -> a));
+
+        misses.forEach((qrCode, i) -> {
+            Ticket ticket = found.get(qrCode);
+            if (ticket == null) {
+                results[i] = result(qrCode, BoardingDtos.ScanOutcome.REJECTED, null, null, missingReason(tripId, qrCode));
+            } else if (ticket.getStatus() == Ticket.Status.SOLD) {
+                soldIds.put(ticket.getId(), i);
+                results[i] = result(qrCode, BoardingDtos.ScanOutcome.BOARDED, ticket.getId(), ticket.getSeatNumber(), "Valid ticket");
+            } else {
+                results[i] = classify(qrCode, ticket.getId(), ticket.getSeatNumber(), ticket.getStatus());
+            }
+        });
+        return soldIds;
+    }
+
+    private String missingReason(Long tripId, String qrCode) {
+        if (!qrSigner.isSigned(qrCode)) {
+            return String.format("Ticket con QR '%s' no encontrado", qrCode);
+        }
+        try {
+            QrPayload payload = qrSigner.verify(qrCode);
+            return tripId.equals(payload.tripId())
+                    ? "El QR fue reemplazado por uno más reciente"
+                    : "El ticket pertenece a otro viaje";
+        } catch (InvalidCredentialsException e) {
+            return e.getMessage();
+        }
+    }
+
+    // Reclama en una sola sentencia los tickets del envío que siguen SOLD. Solo se confirman los que
+    // devuelve la BD; el resto los abordó otra puerta u otro nodo, o cambiaron desde el último refresco
+    private boolean claimBoarded(Long tripId, Map<Long, Integer> candidates, Map<Long, Entry> cached,
+                                 BoardingDtos.BatchScanResponse.ScanResult[] results) {
+        if (candidates.isEmpty()) {
+            return true;
+        }
+        Set<Long> claimed;
+        try {
+            claimed = new HashSet<>(ticketRepository.markBoardedBatch(candidates.keySet()));
+        } catch (Exception e) {
+            log.error("Failed to board {} scanned tickets for trip {}", candidates.size(), tripId, e);
+            candidates.values().forEach(i -> results[i] = result(results[i].qrCode(),
+                    BoardingDtos.ScanOutcome.REJECTED, null, null, "No se pudo registrar el abordaje, reintente"));
+            return false;
+        }
+
+        List<Long> lost = new ArrayList<>();
+        candidates.forEach((ticketId, i) -> {
+            if (claimed.contains(ticketId)) {
+                Entry entry = cached.get(ticketId);
+                if (entry != null) {
+                    entry.status.set(Ticket.Status.BOARDED);
+                }
+            } else {
+                lost.add(ticketId);
+            }
+        });
+        if (lost.isEmpty()) {
+            return true;
+        }
+
+        // Solo para explicar el motivo de los que no se pudieron reclamar
+        Map<Long, Ticket.Status> current = ticketRepository.findAllById(lost).stream()
+                .collect(Collectors.toMap(Ticket::getId, Ticket::getStatus));
+        for (Long ticketId : lost) {
+            int i = candidates.get(ticketId);
+            Ticket.Status status = current.getOrDefault(ticketId, Ticket.Status.CANCELLED);
+            Entry entry = cached.get(ticketId);
+            if (entry != null) {
+                entry.status.set(status);
+            }
+            results[i] = classify(results[i].qrCode(), ticketId, results[i].seatNumber(), status);
+        }
+        return true;
+    }
+
+    // No se pudo reclamar un ticket del manifiesto: se consulta su estado actual para explicar el motivo
+    private InvalidCredentialsException rejectedClaim(Entry entry) {
+        Ticket ticket = ticketRepository.findById(entry.ticketId).orElse(null);
+        if (ticket == null) {
+            entry.status.set(Ticket.Status.CANCELLED);
+            return notActive(Ticket.Status.CANCELLED);
+        }
+        if (ticket.getStatus() == Ticket.Status.SOLD) {
+            return new InvalidCredentialsException("El QR fue reemplazado por uno más reciente");
+        }
+        entry.status.set(ticket.getStatus());
+        return notActive(ticket.getStatus());
+    }
+
+    private static InvalidCredentialsException notActive(Ticket.Status status) {
+        return new InvalidCredentialsException(
+                String.format("El ticket no está activo (status: %s)", status)
+        );
+    }
+
+    private static BoardingDtos.BatchScanResponse.ScanResult classify(String qrCode, Long ticketId,
+                                                                     String seatNumber, Ticket.Status status) {
+        if (status == Ticket.Status.BOARDED) {
+            return result(qrCode, BoardingDtos.ScanOutcome.ALREADY_BOARDED, ticketId, seatNumber, "El ticket ya abordó");
+        }
+        return result(qrCode, BoardingDtos.ScanOutcome.REJECTED, ticketId, seatNumber,
+                String.format("El ticket no está activo (status: %s)", status));
+    }
+
+    private static BoardingDtos.BatchScanResponse.ScanResult result(String qrCode, BoardingDtos.ScanOutcome outcome,
+                                                                   Long ticketId, String seatNumber, String message) {
+        return new BoardingDtos.BatchScanResponse.ScanResult(qrCode, outcome, ticketId, seatNumber, message);
+    }
+
+    private static BoardingDtos.BatchScanResponse toBatchResponse(Long tripId, String uploadId,
+                                                                  List<BoardingDtos.BatchScanResponse.ScanResult> results) {
+        Map<BoardingDtos.ScanOutcome, Long> counts = results.stream()
+                .collect(Collectors.groupingBy(BoardingDtos.BatchScanResponse.ScanResult::outcome, Collectors.counting()));
+        return new BoardingDtos.BatchScanResponse(
+                tripId,
+                uploadId,
+                counts.getOrDefault(BoardingDtos.ScanOutcome.BOARDED, 0L).intValue(),
+                counts.getOrDefault(BoardingDtos.ScanOutcome.ALREADY_BOARDED, 0L).intValue(),
+                counts.getOrDefault(BoardingDtos.ScanOutcome.REJECTED, 0L).intValue(),
+                results
+        );
+    }
+
+    // La consulta va fuera del compute; la fusión con el manifiesto anterior es solo en memoria
+    private Manifest load(Long tripId) {
+        List<Ticket> tickets = ticketRepository.findBoardingManifest(tripId);
+        return manifests.compute(tripId, (id, previous) -> Manifest.merge(id, tickets, previous));
+    }
+
+    private BoardingDtos.ManifestResponse toResponse(Manifest manifest) {
+        List<BoardingDtos.ManifestResponse.ManifestEntry> entries = manifest.entries.values().stream()
+                .sorted(Comparator.comparing(entry -> entry.seatNumber))
+                .map(entry -> new BoardingDtos.ManifestResponse.ManifestEntry(
+                        entry.ticketId,
+                        entry.seatNumber,
+                        entry.passengerName,
+                        entry.qrCode,
+                        entry.fromStopOrder,
+                        entry.toStopOrder,
+                        entry.status.get().name()
+                ))
+                .toList();
+        int boarded = (int) entries.stream()
+                .filter(entry -> Ticket.Status.BOARDED.name().equals(entry.status()))
+                .count();
+        return new BoardingDtos.ManifestResponse(manifest.tripId, manifest.builtAt, entries.size(), boarded, entries);
+    }
+
+    private static final class Manifest {
+        private final Long tripId;
+        private final Map<String, Entry> entries;
+        private final Map<String, BoardingDtos.BatchScanResponse> uploads;
+        private final OffsetDateTime builtAt;
+
+        private Manifest(Long tripId, Map<String, Entry> entries,
+                         Map<String, BoardingDtos.BatchScanResponse> uploads) {
+            this.tripId = tripId;
+            this.entries = entries;
+            this.uploads = uploads;
+            this.builtAt = OffsetDateTime.now();
+        }
+
+        // Reutiliza las entradas previas: un abordaje confirmado mientras se consultaba no vuelve a SOLD
+        private static Manifest merge(Long tripId, List<Ticket> tickets, Manifest previous) {
+            Map<String, Entry> entries = HashMap.newHashMap(tickets.size());
+            for (Ticket ticket : tickets) {
+                Entry entry = previous != null ? previous.entries.get(ticket.getQrCode()) : null;
+                if (entry == null || !entry.ticketId.equals(ticket.getId())) {
+                    entry = new Entry(ticket);
+                } else if (ticket.getStatus() == Ticket.Status.BOARDED) {
+                    entry.status.set(Ticket.Status.BOARDED);
+                }
+                entries.put(ticket.getQrCode(), entry);
+            }
+            if (previous != null) {
+                // Lo que ya no está vendido (cancelado, reembolsado) sale del manifiesto. Se baja a
+                // CANCELLED para que un escaneo que aún tiene la entrada vieja no pueda abordarlo
+                previous.entries.forEach((qrCode, entry) -> {
+                    if (entries.get(qrCode) != entry) {
+                        entry.status.compareAndSet(Ticket.Status.SOLD, Ticket.Status.CANCELLED);
+                    }
+                });
+                return new Manifest(tripId, entries, previous.uploads);
+            }
+            return new Manifest(tripId, entries, recentUploads());
+        }
+
+        // Últimas respuestas por uploadId, para contestar igual a un reenvío del mismo lote
+        private static Map<String, BoardingDtos.BatchScanResponse> recentUploads() {
+            return Collections.synchronizedMap(new LinkedHashMap<>() {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, BoardingDtos.BatchScanResponse> eldest) {
+                    return size() > MAX_REMEMBERED_UPLOADS;
+                }
+            });
+        }
+    }
+
+    private static final class Entry {
+        private final Long ticketId;
+        private final String seatNumber;
+        private final String passengerName;
+        private final String qrCode;
+        private final Integer fromStopOrder;
+        private final Integer toStopOrder;
+        private final AtomicReference<Ticket.Status> status;
+
+        private Entry(Ticket ticket) {
+            this.ticketId = ticket.getId();
+            this.seatNumber = ticket.getSeatNumber();
+            this.passengerName = ticket.getPassenger().getFullName();
+            this.qrCode = ticket.getQrCode();
+            this.fromStopOrder = ticket.getFromStop().getOrder();
+            this.toStopOrder = ticket.getToStop().getOrder();
+            this.status = new AtomicReference<>(ticket.getStatus());
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.unimag.bustransport.services.impl;
 
 import com.unimag.bustransport.api.dto.BusDtos;
 import com.unimag.bustransport.api.dto.SeatDtos;
+import com.unimag.bustransport.api.dto.PageDtos;
 import com.unimag.bustransport.domain.entities.Bus;
 import com.unimag.bustransport.domain.entities.Seat;
 import com.unimag.bustransport.domain.entities.Trip;
@@ -12,6 +13,7 @@ import com.unimag.bustransport.exception.NotFoundException;
 import com.unimag.bustransport.services.BusService;
 import com.unimag.bustransport.services.mapper.BusMapper;
 import com.unimag.bustransport.services.mapper.SeatMapper;
+import com.unimag.bustransport.services.pagination.KeysetPager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -135,12 +137,12 @@ public class BusServiceImpl implements BusService {
     }
 
     @Override
-    public List<BusDtos.BusResponse> getAllBus() {
-        List<Bus> buses = repository.findAll();
+    public PageDtos.CursorPage<BusDtos.BusResponse> getAllBus(String cursor, Integer limit) {
+        int pageSize = KeysetPager.limit(limit);
+        List<Bus> buses = repository.findByIdGreaterThanOrderByIdAsc(
+                KeysetPager.afterId(cursor), KeysetPager.fetchLimit(pageSize));
 
-        return buses.stream()
-                .map(mapper::toResponse)
-                .collect(Collectors.toList());
+        return KeysetPager.page(buses, pageSize, Bus::getId, mapper::toResponse);
     }
 
     @Override
@@ -8,6 +8,7 @@ import com.unimag.bustransport.services.ConfigService;
 import com.unimag.bustransport.services.mapper.ConfigMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,6 +23,7 @@ import java.util.stream.Collectors;
 public class ConfigServiceImpl implements ConfigService {
     private final ConfigRepository configRepository;
     private final ConfigMapper configMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public ConfigDtos.ConfigResponse createConfig(ConfigDtos.ConfigCreateRequest request) {
@@ -30,6 +32,7 @@ public class ConfigServiceImpl implements ConfigService {
         }
         Config config = configMapper.toEntity(request);
         configRepository.save(config);
+        eventPublisher.publishEvent(new ConfigChanged(config.getKey()));
         log.info("Config created with key: {}", config.getKey());
         return configMapper.toResponse(config);
     }
@@ -44,6 +47,7 @@ public class ConfigServiceImpl implements ConfigService {
         }
 
         configRepository.save(config);
+        eventPublisher.publishEvent(new ConfigChanged(config.getKey()));
         log.info("Config with ID {} updated", id);
     }
 
@@ -52,6 +56,7 @@ public class ConfigServiceImpl implements ConfigService {
         Config config = configRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException(String.format("Config with ID %d not found", id)));
         configRepository.delete(config);
+        eventPublisher.publishEvent(new ConfigChanged(config.getKey()));
         log.info("Config with ID {} deleted", id);
     }
 
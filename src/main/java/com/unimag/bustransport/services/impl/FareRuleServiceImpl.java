@@ -1,12 +1,14 @@
 package com.unimag.bustransport.services.impl;
 
 import com.unimag.bustransport.api.dto.FareRuleDtos;
+import com.unimag.bustransport.api.dto.PageDtos;
 import com.unimag.bustransport.domain.entities.*;
 import com.unimag.bustransport.domain.repositories.*;
 import com.unimag.bustransport.exception.NotFoundException;
 import com.unimag.bustransport.services.ConfigService;
 import com.unimag.bustransport.services.FareRuleService;
 import com.unimag.bustransport.services.mapper.FareRuleMapper;
+import com.unimag.bustransport.services.pagination.KeysetPager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -121,14 +123,14 @@ public class FareRuleServiceImpl implements FareRuleService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<FareRuleDtos.FareRuleResponse> getAllFareRules() {
-        List<FareRule> fareRules = fareRuleRepository.findAll();
+    public PageDtos.CursorPage<FareRuleDtos.FareRuleResponse> getAllFareRules(String cursor, Integer limit) {
+        int pageSize = KeysetPager.limit(limit);
+        List<FareRule> fareRules = fareRuleRepository.findByIdGreaterThanOrderByIdAsc(
+                KeysetPager.afterId(cursor), KeysetPager.fetchLimit(pageSize));
 
         log.info("Retrieved {} fare rules", fareRules.size());
 
-        return fareRules.stream()
-                .map(fareRuleMapper::toResponse)
-                .collect(Collectors.toList());
+        return KeysetPager.page(fareRules, pageSize, FareRule::getId, fareRuleMapper::toResponse);
     }
 
     @Override
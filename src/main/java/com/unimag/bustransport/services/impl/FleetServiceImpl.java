@@ -0,0 +1,172 @@
+package com.unimag.bustransport.services.impl;
+
+import com.unimag.bustransport.api.dto.FleetDtos;
+import com.unimag.bustransport.config.FleetProperties;
+import com.unimag.bustransport.domain.entities.Bus;
+import com.unimag.bustransport.domain.entities.Trip;
+import com.unimag.bustransport.domain.repositories.BusRepository;
+import com.unimag.bustransport.domain.repositories.TripRepository;
+import com.unimag.bustransport.exception.NotFoundException;
+import com.unimag.bustransport.services.FleetService;
+import com.unimag.bustransport.services.schedule.BusIntervalIndex;
+import com.unimag.bustransport.services.schedule.FleetPlanner;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class FleetServiceImpl implements FleetService {
+
+    private final TripRepository tripRepository;
+    private final BusRepository busRepository;
+    private final FleetProperties properties;
+
+    /**
+     * Una consulta para los viajes programados del día (con terminales y puestos ocupados), dos
+     * para los viajes fijos de los buses (los del rango y el último anterior, que dice dónde
+     * amanece cada bus) y el resto en memoria con {@link FleetPlanner}. Los viajes con puestos
+     * pendientes, vendidos o retenidos no se mueven: sus tiquetes y retenciones apuntan a asientos
+     * de ese bus, así que cuentan como fijos de su bus y salen en el plan sin cambio. La demanda de
+     * los demás es el cupo de su bus actual, para no pasarlos a uno más pequeño. Al aplicar solo se
+     * actualizan los viajes que cambian de bus, y únicamente si todos tienen bus: un plan parcial
+     * dejaría viajes sin asignar chocando con los que se movieron a su bus.
+     */
+    @Override
+    public FleetDtos.FleetPlanResponse plan(FleetDtos.FleetPlanRequest request, boolean dryRun) {
+        long started = System.nanoTime();
+        ZoneId zone = ZoneId.of(properties.getZone());
+        Duration turnaround = Duration.ofMinutes(request.turnaroundMinutes() != null
+                ? request.turnaroundMinutes() : properties.getTurnaroundMinutes());
+        Duration deadhead = Duration.ofMinutes(request.deadheadMinutes() != null
+                ? request.deadheadMinutes() : properties.getDeadheadMinutes());
+
+        Map<Long, Bus> buses = loadBuses(request.busIds(), !dryRun);
+        OffsetDateTime dayStart = request.date().atStartOfDay(zone).toOffsetDateTime();
+        OffsetDateTime dayEnd = request.date().plusDays(1).atStartOfDay(zone).toOffsetDateTime();
+        List<TripRepository.FleetTrip> trips = tripRepository.findFleetTrips(dayStart, dayEnd, OffsetDateTime.now());
+        Map<Boolean, List<TripRepository.FleetTrip>> byTickets = trips.stream()
+                .collect(Collectors.partitioningBy(trip -> trip.getSeatsTaken() > 0 || trip.getSeatsHeld() > 0));
+        List<TripRepository.FleetTrip> movable = byTickets.get(false);
+        List<TripRepository.FleetTrip> ticketed = byTickets.get(true);
+
+        // Los viajes con tiquetes quedan como fijos de su bus. Hasta la última llegada más alistamiento
+        // y vacío, que es lo más tarde que puede salir un fijo al que el plan deba alcanzar a llegar
+        List<FleetPlanner.PinnedTrip> pinned = List.of();
+        if (!movable.isEmpty() && !buses.isEmpty()) {
+            Set<Long> planned = movable.stream().map(TripRepository.FleetTrip::getTripId).collect(Collectors.toSet());
+            OffsetDateTime lastArrival = movable.stream().map(TripRepository.FleetTrip::getArrivalAt)
+                    .max(OffsetDateTime.timeLineOrder()).orElse(dayEnd);
+            OffsetDateTime from = dayStart.minus(turnaround);
+            OffsetDateTime to = lastArrival.plus(turnaround).plus(deadhead);
+            OffsetDateTime earliest = BusIntervalIndex.earliestDeparture(from);
+            List<TripRepository.BusTrip> busTrips = new ArrayList<>(
+                    tripRepository.findLastBusTrips(buses.keySet(), earliest));
+            busTrips.addAll(tripRepository.findBusTrips(buses.keySet(), earliest, to));
+            pinned = busTrips.stream()
+                    .filter(trip -> !planned.contains(trip.getTripId()))
+                    .map(trip -> new FleetPlanner.PinnedTrip(trip.getBusId(), trip.getTripId(), trip.getOrigin(),
+                            trip.getDestination(), trip.getDepartureAt(), trip.getArrivalAt()))
+                    .toList();
+        }
+
+        FleetPlanner.Plan plan = new FleetPlanner(turnaround, deadhead).plan(
+                movable.stream().map(trip -> new FleetPlanner.TripDemand(trip.getTripId(), trip.getOrigin(),
+                        trip.getDestination(), trip.getDepartureAt(), trip.getArrivalAt(),
+                        trip.getBusCapacity() != null ? trip.getBusCapacity() : 0)).toList(),
+                buses.values().stream().map(bus -> new FleetPlanner.Vehicle(bus.getId(), bus.getCapacity())).toList(),
+                pinned);
+
+        Map<Long, TripRepository.FleetTrip> tripsById = trips.stream()
+                .collect(Collectors.toMap(TripRepository.FleetTrip::getTripId, Function.identity()));
+        List<FleetDtos.FleetAssignment> assignments = new ArrayList<>(trips.size());
+        Map<Long, Long> changes = new HashMap<>();
+        for (FleetPlanner.Assignment assignment : plan.assignments()) {
+            TripRepository.FleetTrip trip = tripsById.get(assignment.tripId());
+            assignments.add(new FleetDtos.FleetAssignment(trip.getTripId(), trip.getDepartureAt(),
+                    assignment.busId(), trip.getBusId(), assignment.deadhead()));
+            if (!Objects.equals(trip.getBusId(), assignment.busId())) {
+                changes.put(trip.getTripId(), assignment.busId());
+            }
+        }
+        Set<Long> busesUsed = plan.assignments().stream().map(FleetPlanner.Assignment::busId)
+                .collect(Collectors.toCollection(HashSet::new));
+        for (TripRepository.FleetTrip trip : ticketed) {
+            assignments.add(new FleetDtos.FleetAssignment(trip.getTripId(), trip.getDepartureAt(),
+                    trip.getBusId(), trip.getBusId(), false));
+            if (buses.containsKey(trip.getBusId())) {
+                busesUsed.add(trip.getBusId());
+            }
+        }
+        assignments.sort(Comparator.comparing(FleetDtos.FleetAssignment::departureAt, OffsetDateTime.timeLineOrder())
+                .thenComparing(FleetDtos.FleetAssignment::tripId));
+        List<FleetDtos.FleetUnassigned> unassigned = plan.unassigned().stream()
+                .map(missing -> new FleetDtos.FleetUnassigned(missing.tripId(),
+                        tripsById.get(missing.tripId()).getDepartureAt(), missing.reason()))
+                .toList();
+
+        if (!dryRun) {
+            if (!unassigned.isEmpty()) {
+                throw new IllegalStateException(String.format(
+                        "%d trips could not get a bus, the fleet plan was not applied", unassigned.size()));
+            }
+            // Dirty checking: Hibernate agrupa los UPDATE en batches al hacer commit
+            for (Trip trip : tripRepository.findAllById(changes.keySet())) {
+                trip.setBus(buses.get(changes.get(trip.getId())));
+            }
+        }
+
+        long elapsed = Duration.ofNanos(System.nanoTime() - started).toMillis();
+        log.info("Fleet plan for {}{}: {} trips ({} kept for tickets) on {} of {} buses (lower bound {}), "
+                        + "{} deadheads, {} changed in {} ms",
+                request.date(), dryRun ? " (dry run)" : "", trips.size(), ticketed.size(), busesUsed.size(),
+                buses.size(), plan.lowerBound(), plan.deadheads(), changes.size(), elapsed);
+        return new FleetDtos.FleetPlanResponse(request.date(), dryRun, trips.size(), buses.size(), busesUsed.size(),
+                plan.lowerBound(), plan.deadheads(), changes.size(), assignments, unassigned, elapsed);
+    }
+
+    // Buses ACTIVE del plan, bloqueados en orden de id hasta el commit cuando se va a aplicar
+    private Map<Long, Bus> loadBuses(List<Long> busIds, boolean lock) {
+        if (busIds == null || busIds.isEmpty()) {
+            List<Bus> active = busRepository.findByStatus(Bus.Status.ACTIVE);
+            if (lock && !active.isEmpty()) {
+                // Se releen bloqueados; los que dejaron de estar ACTIVE entre tanto quedan fuera
+                active = busRepository.findAllByIdForUpdate(active.stream().map(Bus::getId).toList()).stream()
+                        .filter(bus -> bus.getStatus() == Bus.Status.ACTIVE)
+                        .toList();
+            }
+            return active.stream().collect(Collectors.toMap(Bus::getId, Function.identity()));
+        }
+
+        List<Long> ids = busIds.stream().distinct().toList();
+        List<Bus> found = lock ? busRepository.findAllByIdForUpdate(ids) : busRepository.findAllById(ids);
+        Map<Long, Bus> buses = found.stream().collect(Collectors.toMap(Bus::getId, Function.identity()));
+        for (Long busId : ids) {
+            Bus bus = buses.get(busId);
+            if (bus == null) {
+                throw new NotFoundException(String.format("Bus with ID %d not found", busId));
+            }
+            if (bus.getStatus() != Bus.Status.ACTIVE) {
+                throw new IllegalArgumentException(String.format("Bus with ID %d is not ACTIVE", busId));
+            }
+        }
+        return buses;
+    }
+}
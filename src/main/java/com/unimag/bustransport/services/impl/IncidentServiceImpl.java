@@ -1,13 +1,17 @@
 package com.unimag.bustransport.services.impl;
 
 import com.unimag.bustransport.api.dto.IncidentDtos;
+import com.unimag.bustransport.api.dto.PageDtos;
 import com.unimag.bustransport.domain.entities.Incident;
 import com.unimag.bustransport.domain.repositories.IncidentRepository;
 import com.unimag.bustransport.exception.NotFoundException;
+import com.unimag.bustransport.kpi.KpiEvent;
 import com.unimag.bustransport.services.IncidentService;
 import com.unimag.bustransport.services.mapper.IncidentMapper;
+import com.unimag.bustransport.services.pagination.KeysetPager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,11 +26,14 @@ public class IncidentServiceImpl implements IncidentService {
 
     private final IncidentRepository incidentRepository;
     private final IncidentMapper incidentMapper;
+    private final ApplicationEventPublisher eventPublisher;
     @Override
     public IncidentDtos.IncidentResponse createIncident(IncidentDtos.IncidentCreateRequest request) {
         Incident incident = incidentMapper.toEntity(request);
         incident.setCreatedAt(OffsetDateTime.now());
         Incident savedIncident = incidentRepository.save(incident);
+        eventPublisher.publishEvent(new KpiEvent.IncidentReported(
+                null, String.valueOf(incident.getType()), incident.getCreatedAt()));
         log.info("Incident created successfully");
         return incidentMapper.toResponse(savedIncident);
     }
@@ -46,10 +53,11 @@ public class IncidentServiceImpl implements IncidentService {
     }
 
     @Override
-    public List<IncidentDtos.IncidentResponse> findByIncidentByType(Incident.EntityType type) {
-        List<Incident> incidents = incidentRepository.findByEntityType(type);
-        return incidents.stream()
-                .map(incidentMapper::toResponse).toList();
+    public PageDtos.CursorPage<IncidentDtos.IncidentResponse> findByIncidentByType(Incident.EntityType type, String cursor, Integer limit) {
+        int pageSize = KeysetPager.limit(limit);
+        List<Incident> incidents = incidentRepository.findByEntityTypeAndIdLessThanOrderByIdDesc(
+                type, KeysetPager.beforeId(cursor), KeysetPager.fetchLimit(pageSize));
+        return KeysetPager.page(incidents, pageSize, Incident::getId, incidentMapper::toResponse);
     }
 
     @Override
@@ -2,15 +2,23 @@ package com.unimag.bustransport.services.impl;
 
 import com.unimag.bustransport.api.dto.KpiDtos;
 import com.unimag.bustransport.domain.entities.Kpi;
+import com.unimag.bustransport.domain.entities.KpiSample;
 import com.unimag.bustransport.domain.repositories.KpiRepository;
+import com.unimag.bustransport.domain.repositories.KpiSampleRepository;
 import com.unimag.bustransport.exception.NotFoundException;
+import com.unimag.bustransport.kpi.KpiProperties;
 import com.unimag.bustransport.services.KpiService;
 import com.unimag.bustransport.services.mapper.KpiMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 @Slf4j
 @Service
@@ -19,6 +27,8 @@ import java.util.List;
 public class KpiServiceImpl implements KpiService {
     private final KpiRepository repository;
     private final KpiMapper mapper;
+    private final KpiSampleRepository sampleRepository;
+    private final KpiProperties properties;
     @Override
     public KpiDtos.KpiResponse createKpi(KpiDtos.KpiCreateRequest request) {
         Kpi kpi = mapper.toEntity(request);
@@ -55,4 +65,84 @@ public class KpiServiceImpl implements KpiService {
     public List<KpiDtos.KpiResponse> getKpiByRecentMetrics() {
         return repository.findRecentMetrics().stream().map(mapper::toResponse).toList();
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public KpiDtos.KpiSeriesResponse getSeries(String name, OffsetDateTime from, OffsetDateTime to,
+                                               KpiSample.Resolution resolution) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+        KpiSample.Resolution chosen = resolution != null ? resolution : chooseResolution(from, to);
+        long points = Duration.between(from, to).toSeconds() / chosen.getSeconds();
+        if (points > properties.getSamples().getMaxPoints()) {
+            throw new IllegalArgumentException(String.format(
+                    "Range too large for %s resolution (%d points, max %d)",
+                    chosen, points, properties.getSamples().getMaxPoints()));
+        }
+
+        List<KpiDtos.KpiSeriesResponse.KpiPoint> series = sampleRepository.findSeries(name, chosen, from, to).stream()
+                .map(sample -> new KpiDtos.KpiSeriesResponse.KpiPoint(
+                        sample.getBucketStart(),
+                        sample.getValue(),
+                        sample.getMinValue(),
+                        sample.getMaxValue(),
+                        sample.getSampleCount()))
+                .toList();
+        return new KpiDtos.KpiSeriesResponse(name, chosen.name(), from, to, series);
+    }
+
+    // La resolución más fina que cabe en el tope de puntos y que la retención aún conserva
+    private KpiSample.Resolution chooseResolution(OffsetDateTime from, OffsetDateTime to) {
+        long seconds = Duration.between(from, to).toSeconds();
+        OffsetDateTime now = OffsetDateTime.now();
+        for (KpiSample.Resolution candidate : KpiSample.Resolution.values()) {
+            boolean fits = seconds / candidate.getSeconds() <= properties.getSamples().getMaxPoints();
+            boolean retained = !from.isBefore(now.minus(retention(candidate)));
+            if (fits && retained) {
+                return candidate;
+            }
+        }
+        return KpiSample.Resolution.DAY;
+    }
+
+    @Override
+    @Scheduled(cron = "0 */15 * * * *")
+    public void downsampleSamples() {
+        if (!properties.getSamples().isEnabled()) {
+            return;
+        }
+        // Se recalculan también el bucket en curso y el anterior: el resumen es idempotente
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        int hours = sampleRepository.rollup(
+                KpiSample.Resolution.MINUTE.name(), KpiSample.Resolution.HOUR.name(),
+                KpiSample.Resolution.HOUR.getSeconds(), now.truncatedTo(ChronoUnit.HOURS).minusHours(1), now);
+        int days = sampleRepository.rollup(
+                KpiSample.Resolution.HOUR.name(), KpiSample.Resolution.DAY.name(),
+                KpiSample.Resolution.DAY.getSeconds(), now.truncatedTo(ChronoUnit.DAYS).minusDays(1), now);
+        log.debug("KPI samples downsampled: {} hourly, {} daily buckets", hours, days);
+    }
+
+    @Override
+    @Scheduled(cron = "0 30 3 * * *")
+    public void purgeExpiredSamples() {
+        if (!properties.getSamples().isEnabled()) {
+            return;
+        }
+        OffsetDateTime now = OffsetDateTime.now();
+        int deleted = 0;
+        for (KpiSample.Resolution resolution : KpiSample.Resolution.values()) {
+            deleted += sampleRepository.deleteOlderThan(resolution, now.minus(retention(resolution)));
+        }
+        log.info("Purged {} expired KPI samples", deleted);
+    }
+
+    private Duration retention(KpiSample.Resolution resolution) {
+        KpiProperties.Samples samples = properties.getSamples();
+        return switch (resolution) {
+            case MINUTE -> Duration.ofHours(samples.getMinuteRetentionHours());
+            case HOUR -> Duration.ofDays(samples.getHourRetentionDays());
+            case DAY -> Duration.ofDays(samples.getDayRetentionDays());
+        };
+    }
 }
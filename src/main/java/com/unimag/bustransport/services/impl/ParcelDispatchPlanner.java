@@ -0,0 +1,80 @@
+package com.unimag.bustransport.services.impl;
+
+import com.unimag.bustransport.domain.repositories.ParcelRepository.PendingParcel;
+import com.unimag.bustransport.domain.repositories.StopRepository.StopPosition;
+import com.unimag.bustransport.domain.repositories.TripRepository.DispatchTrip;
+import com.unimag.bustransport.services.cargo.TripCargoLoad;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Reparte encomiendas pendientes entre viajes programados, solo en memoria. Cada ruta se
+ * planifica por separado (en paralelo): cada encomienda, de la más antigua a la más nueva,
+ * va al primer viaje por hora de salida con cupo de bodega en todos los tramos de su recorrido.
+ * La reserva queda hecha en la carga del viaje.
+ */
+final class ParcelDispatchPlanner {
+
+    // ruta -> parada -> orden dentro de la ruta
+    private final Map<Long, Map<Long, Integer>> stopOrders;
+    // Sin carga para un viaje (control de bodega deshabilitado) no se limita el cupo
+    private final Map<Long, TripCargoLoad> loads;
+
+    ParcelDispatchPlanner(List<StopPosition> positions, Map<Long, TripCargoLoad> loads) {
+        this.stopOrders = positions.stream().collect(Collectors.groupingBy(
+                StopPosition::getRouteId,
+                Collectors.toMap(StopPosition::getStopId, StopPosition::getStopOrder)));
+        this.loads = loads;
+    }
+
+    // La ruta del viaje recorre origen y destino de la encomienda en ese orden
+    boolean covers(Long routeId, Long fromStopId, Long toStopId) {
+        Map<Long, Integer> orders = stopOrders.get(routeId);
+        if (orders == null) {
+            return false;
+        }
+        Integer from = orders.get(fromStopId);
+        Integer to = orders.get(toStopId);
+        return from != null && to != null && from < to;
+    }
+
+    /**
+     * @param trips ordenados por salida
+     * @return viaje -> encomiendas a asignarle
+     */
+    Map<Long, List<Long>> plan(List<PendingParcel> pending, List<DispatchTrip> trips) {
+        Map<Long, List<DispatchTrip>> tripsByRoute = trips.stream()
+                .collect(Collectors.groupingBy(DispatchTrip::getRouteId));
+        Map<Long, List<PendingParcel>> parcelsByRoute = pending.stream()
+                .filter(parcel -> tripsByRoute.containsKey(parcel.getRouteId()))
+                .collect(Collectors.groupingBy(PendingParcel::getRouteId));
+
+        return parcelsByRoute.entrySet().parallelStream()
+                .map(entry -> planRoute(entry.getKey(), entry.getValue(), tripsByRoute.get(entry.getKey())))
+                .flatMap(assignments -> assignments.entrySet().stream())
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+    private Map<Long, List<Long>> planRoute(Long routeId, List<PendingParcel> parcels, List<DispatchTrip> trips) {
+        Map<Long, List<Long>> assignments = new LinkedHashMap<>();
+        Map<Long, Integer> orders = stopOrders.get(routeId);
+
+        for (PendingParcel parcel : parcels) {
+            if (!covers(routeId, parcel.getFromStopId(), parcel.getToStopId())) {
+                continue;
+            }
+            int fromOrder = orders.get(parcel.getFromStopId());
+            int toOrder = orders.get(parcel.getToStopId());
+            for (DispatchTrip trip : trips) {
+                TripCargoLoad load = loads.get(trip.getTripId());
+                if (load == null || load.tryLoad(parcel.getParcelId(), fromOrder, toOrder,
+                        TripCargoLoad.grams(parcel.getWeightKg()), TripCargoLoad.cubicCm(parcel.getVolumeLiters()))) {
+                    assignments.computeIfAbsent(trip.getTripId(), id -> new ArrayList<>()).add(parcel.getParcelId());
+                    break;
+                }
+            }
+        }
+        return assignments;
+    }
+}
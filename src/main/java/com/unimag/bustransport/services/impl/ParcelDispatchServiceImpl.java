@@ -0,0 +1,100 @@
+package com.unimag.bustransport.services.impl;
+
+import com.unimag.bustransport.api.dto.ParcelDtos;
+import com.unimag.bustransport.config.ParcelDispatchProperties;
+import com.unimag.bustransport.domain.entities.Trip;
+import com.unimag.bustransport.domain.repositories.ParcelEventRepository;
+import com.unimag.bustransport.domain.repositories.ParcelRepository;
+import com.unimag.bustransport.domain.repositories.StopRepository;
+import com.unimag.bustransport.domain.repositories.TripRepository;
+import com.unimag.bustransport.services.ParcelDispatchService;
+import com.unimag.bustransport.services.cargo.CargoLoadTracker;
+import com.unimag.bustransport.services.cargo.TripCargoLoad;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ParcelDispatchServiceImpl implements ParcelDispatchService {
+
+    static final String AUTO_ASSIGN_NOTE = "auto-assign";
+    // Clave del advisory lock: el job corre en todos los nodos pero solo uno despacha a la vez
+    static final long AUTO_ASSIGN_LOCK_KEY = 4_300_043L;
+
+    private final ParcelRepository parcelRepository;
+    private final ParcelEventRepository parcelEventRepository;
+    private final TripRepository tripRepository;
+    private final StopRepository stopRepository;
+    private final ParcelDispatchProperties properties;
+    private final CargoLoadTracker cargoLoadTracker;
+
+    // Reemplaza el assignTrip uno a uno: lecturas de proyecciones, el plan en memoria por ruta
+    // contra la carga por tramo de cada viaje y luego un UPDATE + un INSERT de eventos por
+    // viaje (en bloques de chunkSize)
+    @Override
+    @Transactional
+    @Scheduled(fixedDelayString = "${parcels.auto-assign.interval-ms:300000}")
+    public ParcelDtos.AutoAssignResponse autoAssignPendingParcels() {
+        long started = System.nanoTime();
+        if (!properties.isEnabled()) {
+            return new ParcelDtos.AutoAssignResponse(0, 0, 0, 0, 0);
+        }
+        if (!parcelRepository.tryAdvisoryXactLock(AUTO_ASSIGN_LOCK_KEY)) {
+            log.info("Parcel auto-assign skipped: already running on another node");
+            return new ParcelDtos.AutoAssignResponse(0, 0, 0, 0, elapsedMs(started));
+        }
+
+        List<ParcelRepository.PendingParcel> pending = parcelRepository.findPendingForDispatch();
+        if (pending.isEmpty()) {
+            return new ParcelDtos.AutoAssignResponse(0, 0, 0, 0, elapsedMs(started));
+        }
+
+        OffsetDateTime now = OffsetDateTime.now();
+        List<TripRepository.DispatchTrip> trips = tripRepository.findScheduledForDispatch(
+                now.plusMinutes(properties.getMinLeadMinutes()), now.plusHours(properties.getHorizonHours()));
+        if (trips.isEmpty()) {
+            return new ParcelDtos.AutoAssignResponse(pending.size(), 0, pending.size(), 0, elapsedMs(started));
+        }
+
+        Set<Long> routeIds = pending.stream()
+                .map(ParcelRepository.PendingParcel::getRouteId)
+                .collect(Collectors.toSet());
+        Map<Long, TripCargoLoad> loads = cargoLoadTracker.isEnabled()
+                ? cargoLoadTracker.lockLoadsFor(trips.stream().map(TripRepository.DispatchTrip::getTripId).toList())
+                : Map.of();
+
+        ParcelDispatchPlanner planner = new ParcelDispatchPlanner(stopRepository.findPositionsByRouteIds(routeIds), loads);
+        Map<Long, List<Long>> plan = planner.plan(pending, trips);
+
+        int assigned = 0;
+        for (Map.Entry<Long, List<Long>> entry : plan.entrySet()) {
+            Trip trip = tripRepository.getReferenceById(entry.getKey());
+            List<Long> parcelIds = entry.getValue();
+            for (int from = 0; from < parcelIds.size(); from += properties.getChunkSize()) {
+                List<Long> chunk = parcelIds.subList(from, Math.min(from + properties.getChunkSize(), parcelIds.size()));
+                assigned += parcelRepository.assignPendingToTrip(chunk, trip);
+                parcelEventRepository.appendLoadedForTrip(chunk, trip.getId(), AUTO_ASSIGN_NOTE);
+            }
+        }
+
+        long elapsed = elapsedMs(started);
+        log.info("Auto-assigned {} of {} pending parcels to {} trips in {} ms",
+                assigned, pending.size(), plan.size(), elapsed);
+        return new ParcelDtos.AutoAssignResponse(pending.size(), assigned, pending.size() - assigned, plan.size(), elapsed);
+    }
+
+    private static long elapsedMs(long started) {
+        return Duration.ofNanos(System.nanoTime() - started).toMillis();
+    }
+}
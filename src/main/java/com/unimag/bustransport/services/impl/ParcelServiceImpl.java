@@ -2,25 +2,33 @@ package com.unimag.bustransport.services.impl;
 
 import com.unimag.bustransport.api.dto.IncidentDtos;
 import com.unimag.bustransport.api.dto.ParcelDtos;
+import com.unimag.bustransport.api.dto.PageDtos;
+import com.unimag.bustransport.config.CargoProperties;
 import com.unimag.bustransport.domain.entities.Parcel;
+import com.unimag.bustransport.domain.entities.ParcelEvent;
 import com.unimag.bustransport.domain.entities.Stop;
 import com.unimag.bustransport.domain.entities.Trip;
+import com.unimag.bustransport.domain.repositories.ParcelEventRepository;
 import com.unimag.bustransport.domain.repositories.ParcelRepository;
 import com.unimag.bustransport.domain.repositories.StopRepository;
 import com.unimag.bustransport.domain.repositories.TripRepository;
 import com.unimag.bustransport.exception.NotFoundException;
+import com.unimag.bustransport.kpi.KpiEvent;
 import com.unimag.bustransport.services.IncidentService;
 import com.unimag.bustransport.services.ParcelService;
+import com.unimag.bustransport.services.cargo.CargoLoadTracker;
+import com.unimag.bustransport.services.codes.OtpGenerator;
+import com.unimag.bustransport.services.codes.ParcelCodeGenerator;
 import com.unimag.bustransport.services.mapper.ParcelMapper;
+import com.unimag.bustransport.services.pagination.KeysetPager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.time.OffsetDateTime;
 import java.util.List;
-import java.util.Random;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -30,17 +38,22 @@ import java.util.stream.Collectors;
 public class ParcelServiceImpl implements ParcelService {
 
     private final ParcelRepository parcelRepository;
+    private final ParcelEventRepository parcelEventRepository;
     private final StopRepository stopRepository;
     private final TripRepository tripRepository;
     private final IncidentService incidentService;
     private final ParcelMapper parcelMapper;
-    private final Random random = new Random();
+    private final ApplicationEventPublisher eventPublisher;
+    private final ParcelCodeGenerator parcelCodeGenerator;
+    private final OtpGenerator otpGenerator;
+    private final CargoLoadTracker cargoLoadTracker;
+    private final CargoProperties cargoProperties;
 
     @Override
     public ParcelDtos.ParcelResponse createParcel(ParcelDtos.ParcelCreateRequest request) {
         log.debug("Creating parcel");
 
-        String code = generateUniqueParcelCode();
+        String code = parcelCodeGenerator.next();
 
         log.debug("Generated parcel code: {}", code);
 
@@ -79,9 +92,16 @@ public class ParcelServiceImpl implements ParcelService {
         parcel.setFromStop(fromStop);
         parcel.setToStop(toStop);
         parcel.setStatus(Parcel.Status.CREATED);
+        if (parcel.getWeightKg() == null) {
+            parcel.setWeightKg(cargoProperties.getDefaultParcelWeightKg());
+        }
+        if (parcel.getVolumeLiters() == null) {
+            parcel.setVolumeLiters(cargoProperties.getDefaultParcelVolumeLiters());
+        }
 
+        Trip trip = null;
         if (request.tripId() != null) {
-            Trip trip = tripRepository.findById(request.tripId())
+            trip = tripRepository.findById(request.tripId())
                     .orElseThrow(() -> {
                         log.error("Trip not found with ID: {}", request.tripId());
                         return new NotFoundException(
@@ -108,10 +128,14 @@ public class ParcelServiceImpl implements ParcelService {
             log.info("Parcel assigned to trip {} and marked as IN_TRANSIT", trip.getId());
         }
 
-        String otp = generateOtp();
+        String otp = otpGenerator.next();
         parcel.setDeliveryOtp(otp);
 
         Parcel savedParcel = parcelRepository.save(parcel);
+        if (trip != null) {
+            loadCargo(trip, savedParcel);
+        }
+        parcelEventRepository.save(ParcelEvent.of(savedParcel, ParcelEvent.Type.CREATED, null));
         log.info("Parcel created with code: {} and OTP: {}", savedParcel.getCode(), otp);
         return parcelMapper.toResponse(savedParcel);
     }
@@ -240,24 +264,27 @@ public class ParcelServiceImpl implements ParcelService {
             );
         }
 
+        loadCargo(trip, parcel);
+
         parcel.setTrip(trip);
         parcel.setStatus(Parcel.Status.IN_TRANSIT);
         parcelRepository.save(parcel);
+        parcelEventRepository.save(ParcelEvent.of(parcel, ParcelEvent.Type.LOADED, null));
 
         log.info("Parcel {} assigned to trip {} and marked as IN_TRANSIT", parcelId, tripId);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<ParcelDtos.ParcelResponse> getParcelsBySender(String senderPhone) {
+    public PageDtos.CursorPage<ParcelDtos.ParcelResponse> getParcelsBySender(String senderPhone, String cursor, Integer limit) {
         log.debug("Getting parcels by sender phone: {}", senderPhone);
-        List<Parcel> parcels = parcelRepository.findBySenderPhone(senderPhone);
+        int pageSize = KeysetPager.limit(limit);
+        List<Parcel> parcels = parcelRepository.findBySenderPhoneAndIdGreaterThanOrderByIdAsc(
+                senderPhone, KeysetPager.afterId(cursor), KeysetPager.fetchLimit(pageSize));
 
         log.info("Found {} parcels for sender phone: {}", parcels.size(), senderPhone);
 
-        return parcels.stream()
-                .map(parcelMapper::toResponse)
-                .collect(Collectors.toList());
+        return KeysetPager.page(parcels, pageSize, Parcel::getId, parcelMapper::toResponse);
     }
 
     @Override
@@ -337,6 +364,8 @@ public class ParcelServiceImpl implements ParcelService {
         parcel.setStatus(Parcel.Status.DELIVERED);
         parcel.setProofPhotoUrl(proofPhotoUrl);
         parcelRepository.save(parcel);
+        parcelEventRepository.save(ParcelEvent.of(parcel, ParcelEvent.Type.DELIVERED, null));
+        eventPublisher.publishEvent(new KpiEvent.ParcelClosed(routeOf(parcel), true, OffsetDateTime.now()));
 
         log.info("Parcel delivery confirmed successfully for ID: {} with proof photo", parcelId);
     }
@@ -363,6 +392,8 @@ public class ParcelServiceImpl implements ParcelService {
 
         parcel.setStatus(Parcel.Status.FAILED);
         parcelRepository.save(parcel);
+        parcelEventRepository.save(ParcelEvent.of(parcel, ParcelEvent.Type.FAILED, failureReason));
+        eventPublisher.publishEvent(new KpiEvent.ParcelClosed(routeOf(parcel), false, OffsetDateTime.now()));
 
         log.info("Parcel {} marked as FAILED. Reason: {}", parcelId, failureReason);
 
@@ -381,31 +412,20 @@ public class ParcelServiceImpl implements ParcelService {
         }
     }
 
-    private String generateUniqueParcelCode() {
-        String code;
-        do {
-            code = generateParcelCode();
-        } while (parcelRepository.existsByCode((code))); //para no repetir un codigo
-
-        return code;
-    }
-
-    private String generateParcelCode() {
-        // Formato: PAQ-YYYYMMDD-NNNN
-        // Ejemplo: PAQ-20251109-0123
-
-        LocalDate now = LocalDate.now();
-        String datePart = now.format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-
-        // Número secuencial aleatorio de 4 dígitos
-        int sequenceNumber = random.nextInt(10000);
-        String sequencePart = String.format("%04d", sequenceNumber);
-
-        return String.format("PAQ-%s-%s", datePart, sequencePart);
+    // Reserva la encomienda en la bodega del viaje; si algún tramo de su recorrido no tiene
+    // cupo de peso o volumen se rechaza la asignación
+    private void loadCargo(Trip trip, Parcel parcel) {
+        if (!cargoLoadTracker.tryLoad(trip.getId(), parcel.getId(), parcel.getFromStop().getOrder(),
+                parcel.getToStop().getOrder(), parcel.getWeightKg(), parcel.getVolumeLiters())) {
+            log.error("Trip {} has no cargo capacity left for parcel {}", trip.getId(), parcel.getId());
+            throw new IllegalStateException(String.format(
+                    "Trip %d has no cargo capacity left between stops %s and %s",
+                    trip.getId(), parcel.getFromStop().getName(), parcel.getToStop().getName()));
+        }
     }
 
-    private String generateOtp() {
-        int otp = 100000 + random.nextInt(900000);
-        return String.valueOf(otp);
+    private Long routeOf(Parcel parcel) {
+        Stop fromStop = parcel.getFromStop();
+        return fromStop != null && fromStop.getRoute() != null ? fromStop.getRoute().getId() : null;
     }
 }
\ No newline at end of file
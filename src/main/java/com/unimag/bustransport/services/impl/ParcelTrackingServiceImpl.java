@@ -0,0 +1,311 @@
+package com.unimag.bustransport.services.impl;
+
+import com.unimag.bustransport.api.dto.IncidentDtos;
+import com.unimag.bustransport.api.dto.ParcelDtos;
+import com.unimag.bustransport.domain.entities.Parcel;
+import com.unimag.bustransport.domain.entities.ParcelEvent;
+import com.unimag.bustransport.domain.entities.Stop;
+import com.unimag.bustransport.domain.entities.Trip;
+import com.unimag.bustransport.domain.repositories.ParcelEventRepository;
+import com.unimag.bustransport.domain.repositories.ParcelRepository;
+import com.unimag.bustransport.domain.repositories.StopRepository;
+import com.unimag.bustransport.domain.repositories.TripRepository;
+import com.unimag.bustransport.exception.NotFoundException;
+import com.unimag.bustransport.kpi.KpiEvent;
+import com.unimag.bustransport.services.IncidentService;
+import com.unimag.bustransport.services.ParcelTrackingService;
+import com.unimag.bustransport.services.cargo.CargoLoadTracker;
+import com.unimag.bustransport.services.mapper.ParcelMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Escaneos de bodega por lotes. Todo el lote se resuelve con unas pocas consultas en bloque
+ * (encomiendas bloqueadas, rutas, viajes, paradas), las transiciones se evalúan en memoria en
+ * orden cronológico, los cambios de estado se aplican con un UPDATE por grupo y los eventos
+ * se insertan en un único batch JDBC. Cada carga a un viaje pasa por el cupo de bodega de
+ * {@link CargoLoadTracker}; la que no cabe se rechaza como cualquier otro escaneo inválido.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class ParcelTrackingServiceImpl implements ParcelTrackingService {
+
+    // El índice parcial descarta el reenvío de un escaneo que otro lote registró en paralelo
+    private static final String INSERT_EVENT_SQL = """
+            INSERT INTO parcel_events (parcel_id, parcel_code, event_type, parcel_status, trip_id, stop_id,
+                                       stop_name, device_id, scan_id, note, occurred_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (device_id, scan_id) WHERE scan_id IS NOT NULL DO NOTHING
+            """;
+
+    private final ParcelRepository parcelRepository;
+    private final ParcelEventRepository parcelEventRepository;
+    private final TripRepository tripRepository;
+    private final StopRepository stopRepository;
+    private final IncidentService incidentService;
+    private final ParcelMapper parcelMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CargoLoadTracker cargoLoadTracker;
+
+    @Override
+    public ParcelDtos.ScanBatchResponse applyScans(ParcelDtos.ScanBatchRequest request) {
+        OffsetDateTime receivedAt = OffsetDateTime.now();
+        List<ParcelDtos.ScanRequest> scans = request.scans();
+
+        // Bloquear primero: un lote concurrente con las mismas encomiendas espera y luego ve estos escaneos
+        Map<String, Parcel> parcels = parcelRepository.findByCodeInForUpdate(
+                        scans.stream().map(ParcelDtos.ScanRequest::code).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Parcel::getCode, Function.identity()));
+
+        Set<String> recorded = new HashSet<>(parcelEventRepository.findRecordedScanIds(
+                request.deviceId(),
+                scans.stream().map(ParcelDtos.ScanRequest::scanId).collect(Collectors.toSet())));
+        Set<String> seen = new HashSet<>();
+        List<ParcelDtos.ScanRequest> pending = new ArrayList<>();
+        int duplicates = 0;
+        for (ParcelDtos.ScanRequest scan : scans) {
+            if (recorded.contains(scan.scanId()) || !seen.add(scan.scanId())) {
+                duplicates++;
+            } else {
+                pending.add(scan);
+            }
+        }
+        // Los handhelds acumulan sin conexión: se aplica en el orden en que se escaneó
+        pending.sort(Comparator.comparing(scan -> occurredAt(scan, receivedAt)));
+
+        Map<Long, Long> routes = parcels.isEmpty() ? Map.of() : parcelRepository.findRoutes(
+                        parcels.values().stream().map(Parcel::getId).toList())
+                .stream()
+                .collect(Collectors.toMap(ParcelRepository.ParcelRoute::getParcelId,
+                        ParcelRepository.ParcelRoute::getRouteId));
+        Map<Long, Trip> trips = tripRepository.findAllById(idsOf(pending, ParcelDtos.ScanRequest::tripId))
+                .stream()
+                .collect(Collectors.toMap(Trip::getId, Function.identity()));
+        Map<Long, Stop> stops = stopRepository.findAllById(idsOf(pending, ParcelDtos.ScanRequest::stopId))
+                .stream()
+                .collect(Collectors.toMap(Stop::getId, Function.identity()));
+
+        Map<Long, ParcelState> states = new LinkedHashMap<>();
+        List<ParcelEvent> events = new ArrayList<>();
+        List<ParcelDtos.ScanRejection> rejected = new ArrayList<>();
+
+        for (ParcelDtos.ScanRequest scan : pending) {
+            Parcel parcel = parcels.get(scan.code());
+            if (parcel == null) {
+                rejected.add(new ParcelDtos.ScanRejection(scan.scanId(), scan.code(), "Parcel not found"));
+                continue;
+            }
+            ParcelState state = states.computeIfAbsent(parcel.getId(), id -> new ParcelState(parcel));
+            String reason = transition(scan, state, routes.get(parcel.getId()), trips, stops);
+            if (reason != null) {
+                rejected.add(new ParcelDtos.ScanRejection(scan.scanId(), scan.code(), reason));
+                continue;
+            }
+
+            Stop stop = scan.stopId() != null ? stops.get(scan.stopId()) : null;
+            events.add(ParcelEvent.builder()
+                    .parcelId(parcel.getId())
+                    .parcelCode(parcel.getCode())
+                    .type(scan.type())
+                    .parcelStatus(state.status)
+                    .tripId(state.trip != null ? state.trip.getId() : null)
+                    .stopId(stop != null ? stop.getId() : null)
+                    .stopName(stop != null ? stop.getName() : null)
+                    .deviceId(request.deviceId())
+                    .scanId(scan.scanId())
+                    .note(scan.note())
+                    .occurredAt(occurredAt(scan, receivedAt))
+                    .build());
+        }
+
+        applyStatusChanges(states.values());
+        insertEvents(events);
+        publishClosures(states.values(), routes);
+
+        log.info("Scan batch from device {}: {} received, {} applied, {} duplicates, {} rejected",
+                request.deviceId(), scans.size(), events.size(), duplicates, rejected.size());
+
+        return new ParcelDtos.ScanBatchResponse(scans.size(), events.size(), duplicates, rejected);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ParcelDtos.TrackingResponse track(String code) {
+        List<ParcelEvent> events = parcelEventRepository.findByParcelCodeOrderByIdAsc(code);
+        if (events.isEmpty()) {
+            throw new NotFoundException(String.format("Parcel with code %s not found", code));
+        }
+        return new ParcelDtos.TrackingResponse(
+                code,
+                events.get(events.size() - 1).getParcelStatus().name(),
+                events.stream().map(parcelMapper::toTrackingEvent).toList());
+    }
+
+    // Devuelve el motivo de rechazo, o null si el escaneo se aplicó sobre el estado en memoria
+    private String transition(ParcelDtos.ScanRequest scan, ParcelState state, Long routeId,
+                              Map<Long, Trip> trips, Map<Long, Stop> stops) {
+        switch (scan.type()) {
+            case CREATED -> {
+                return "CREATED is recorded when the parcel is registered";
+            }
+            case LOADED -> {
+                if (state.status != Parcel.Status.CREATED && state.status != Parcel.Status.IN_TRANSIT) {
+                    return "Cannot load parcel with status " + state.status;
+                }
+                Trip trip = scan.tripId() != null ? trips.get(scan.tripId()) : null;
+                if (trip == null) {
+                    return scan.tripId() == null ? "tripId is required to load a parcel"
+                            : String.format("Trip with ID %d not found", scan.tripId());
+                }
+                if (trip.getStatus() == Trip.Status.ARRIVED || trip.getStatus() == Trip.Status.CANCELLED) {
+                    return "Cannot load parcel on trip with status " + trip.getStatus();
+                }
+                if (routeId != null && !routeId.equals(trip.getRoute().getId())) {
+                    return "Trip must belong to the same route as the parcel stops";
+                }
+                // Mismo cupo que la asignación desde el mostrador; si ya va en ese viaje no reserva de nuevo
+                Parcel parcel = state.parcel;
+                if (!cargoLoadTracker.tryLoad(trip.getId(), parcel.getId(), parcel.getFromStop().getOrder(),
+                        parcel.getToStop().getOrder(), parcel.getWeightKg(), parcel.getVolumeLiters())) {
+                    return String.format("Trip %d has no cargo capacity left for the parcel", trip.getId());
+                }
+                state.status = Parcel.Status.IN_TRANSIT;
+                state.trip = trip;
+                state.tripChanged = true;
+            }
+            case UNLOADED -> {
+                if (state.status != Parcel.Status.IN_TRANSIT) {
+                    return "Cannot unload parcel with status " + state.status;
+                }
+                if (scan.stopId() == null || !stops.containsKey(scan.stopId())) {
+                    return scan.stopId() == null ? "stopId is required to unload a parcel"
+                            : String.format("Stop with ID %d not found", scan.stopId());
+                }
+            }
+            case DELIVERED -> {
+                if (state.status != Parcel.Status.IN_TRANSIT) {
+                    return "Cannot deliver parcel with status " + state.status;
+                }
+                if (state.parcel.getDeliveryOtp() == null || !state.parcel.getDeliveryOtp().equals(scan.otp())) {
+                    return "Invalid delivery OTP";
+                }
+                state.status = Parcel.Status.DELIVERED;
+            }
+            case FAILED -> {
+                if (state.status != Parcel.Status.IN_TRANSIT) {
+                    return "Can only mark IN_TRANSIT parcels as failed";
+                }
+                state.status = Parcel.Status.FAILED;
+            }
+        }
+        return null;
+    }
+
+    // Un UPDATE por combinación (estado final, viaje) en lugar de un save por encomienda
+    private void applyStatusChanges(Collection<ParcelState> states) {
+        Map<Parcel.Status, List<Long>> byStatus = new EnumMap<>(Parcel.Status.class);
+        Map<Long, Trip> trips = new HashMap<>();
+        Map<Long, Map<Parcel.Status, List<Long>>> byTrip = new HashMap<>();
+        for (ParcelState state : states) {
+            if (state.tripChanged) {
+                trips.put(state.trip.getId(), state.trip);
+                byTrip.computeIfAbsent(state.trip.getId(), id -> new EnumMap<>(Parcel.Status.class))
+                        .computeIfAbsent(state.status, status -> new ArrayList<>())
+                        .add(state.parcel.getId());
+            } else if (state.status != state.parcel.getStatus()) {
+                byStatus.computeIfAbsent(state.status, status -> new ArrayList<>()).add(state.parcel.getId());
+            }
+        }
+        byStatus.forEach((status, ids) -> parcelRepository.updateStatus(ids, status));
+        byTrip.forEach((tripId, groups) -> groups.forEach((status, ids) ->
+                parcelRepository.updateStatusAndTrip(ids, status, trips.get(tripId))));
+    }
+
+    private void insertEvents(List<ParcelEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_EVENT_SQL, events, events.size(), (ps, event) -> {
+            ps.setLong(1, event.getParcelId());
+            ps.setString(2, event.getParcelCode());
+            ps.setString(3, event.getType().name());
+            ps.setString(4, event.getParcelStatus().name());
+            setNullableLong(ps, 5, event.getTripId());
+            setNullableLong(ps, 6, event.getStopId());
+            ps.setString(7, event.getStopName());
+            ps.setString(8, event.getDeviceId());
+            ps.setString(9, event.getScanId());
+            ps.setString(10, event.getNote());
+            ps.setTimestamp(11, Timestamp.from(event.getOccurredAt().toInstant()));
+        });
+    }
+
+    // Mismo efecto que confirmDelivery/markAsFailed: KPI de cierre e incidente por cada fallo
+    private void publishClosures(Collection<ParcelState> states, Map<Long, Long> routes) {
+        OffsetDateTime now = OffsetDateTime.now();
+        for (ParcelState state : states) {
+            if (state.status == state.parcel.getStatus()) {
+                continue;
+            }
+            Long parcelId = state.parcel.getId();
+            if (state.status == Parcel.Status.DELIVERED) {
+                eventPublisher.publishEvent(new KpiEvent.ParcelClosed(routes.get(parcelId), true, now));
+            } else if (state.status == Parcel.Status.FAILED) {
+                eventPublisher.publishEvent(new KpiEvent.ParcelClosed(routes.get(parcelId), false, now));
+                try {
+                    incidentService.createIncident(new IncidentDtos.IncidentCreateRequest(
+                            "PARCEL", parcelId, "DELIVERY_FAIL", "Parcel delivery failed (depot scan)"));
+                } catch (Exception e) {
+                    log.error("Failed to create incident for parcel {}: {}", parcelId, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static OffsetDateTime occurredAt(ParcelDtos.ScanRequest scan, OffsetDateTime receivedAt) {
+        return scan.scannedAt() != null ? scan.scannedAt() : receivedAt;
+    }
+
+    private static Set<Long> idsOf(List<ParcelDtos.ScanRequest> scans, Function<ParcelDtos.ScanRequest, Long> id) {
+        return scans.stream().map(id).filter(Objects::nonNull).collect(Collectors.toSet());
+    }
+
+    private static void setNullableLong(PreparedStatement ps, int index, Long value) throws SQLException {
+        if (value != null) {
+            ps.setLong(index, value);
+        } else {
+            ps.setNull(index, Types.BIGINT);
+        }
+    }
+
+    // Estado de una encomienda mientras se recorre el lote
+    private static final class ParcelState {
+        private final Parcel parcel;
+        private Parcel.Status status;
+        private Trip trip;
+        private boolean tripChanged;
+
+        private ParcelState(Parcel parcel) {
+            this.parcel = parcel;
+            this.status = parcel.getStatus();
+            this.trip = parcel.getTrip();
+        }
+    }
+}
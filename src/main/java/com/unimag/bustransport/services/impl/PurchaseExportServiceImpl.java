@@ -0,0 +1,96 @@
+package com.unimag.bustransport.services.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.unimag.bustransport.api.dto.PurchaseDtos;
+import com.unimag.bustransport.config.ExportProperties;
+import com.unimag.bustransport.services.PurchaseExportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PurchaseExportServiceImpl implements PurchaseExportService {
+
+    // Ordenado solo por compra: basta para agrupar y el índice (created_at, id) evita el sort
+    private static final String EXPORT_SQL = """
+            SELECT p.id, p.total_amount, p.payment_method, p.payment_status, p.created_at,
+                   u.id AS user_id, u.name AS user_name, u.email AS user_email,
+                   t.id AS ticket_id, t.seat_number, t.price AS ticket_price, t.status AS ticket_status
+            FROM purchases p
+            JOIN users u ON u.id = p.user_id
+            LEFT JOIN tickets t ON t.purchase_id = p.id
+            WHERE p.created_at BETWEEN ? AND ?
+            ORDER BY p.created_at, p.id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final ExportProperties properties;
+
+    @Override
+    public void validateExportRange(OffsetDateTime start, OffsetDateTime end) {
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("Start date must be before end date");
+        }
+        if (Duration.between(start, end).toDays() > properties.getMaxRangeDays()) {
+            throw new IllegalArgumentException(
+                    String.format("Export range cannot exceed %d days", properties.getMaxRangeDays()));
+        }
+    }
+
+    // Cursor de solo avance: PostgreSQL solo respeta el fetch size dentro de una transacción,
+    // por eso readOnly y no autocommit. Cada fila se escribe a la salida sin acumularse.
+    @Override
+    @Transactional(readOnly = true)
+    public long exportByDateRange(OffsetDateTime start, OffsetDateTime end,
+                                  PurchaseDtos.ExportFormat format, OutputStream out) {
+        validateExportRange(start, end);
+
+        var writer = new PurchaseExportWriter(format,
+                new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)), objectMapper);
+        writer.start();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(EXPORT_SQL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(properties.getFetchSize());
+            ps.setObject(1, start);
+            ps.setObject(2, end);
+            return ps;
+        }, (RowCallbackHandler) rs -> writer.write(toRow(rs)));
+        writer.finish();
+
+        log.info("Exported {} purchases between {} and {} as {}", writer.getPurchases(), start, end, format);
+        return writer.getPurchases();
+    }
+
+    private static PurchaseExportWriter.Row toRow(ResultSet rs) throws SQLException {
+        return new PurchaseExportWriter.Row(
+                rs.getLong("id"),
+                rs.getBigDecimal("total_amount"),
+                rs.getString("payment_method"),
+                rs.getString("payment_status"),
+                rs.getObject("created_at", OffsetDateTime.class),
+                rs.getLong("user_id"),
+                rs.getString("user_name"),
+                rs.getString("user_email"),
+                rs.getObject("ticket_id", Long.class),
+                rs.getString("seat_number"),
+                rs.getBigDecimal("ticket_price"),
+                rs.getString("ticket_status"));
+    }
+}
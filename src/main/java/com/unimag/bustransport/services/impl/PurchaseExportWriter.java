@@ -0,0 +1,139 @@
+package com.unimag.bustransport.services.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.unimag.bustransport.api.dto.PurchaseDtos;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Escribe las filas del cursor de exportación a medida que llegan. En NDJSON agrupa las filas
+ * consecutivas de una misma compra (el cursor viene ordenado por compra) en una línea con la
+ * forma de PurchaseResponse; en CSV emite una línea por ticket. Solo retiene la compra en curso.
+ */
+class PurchaseExportWriter {
+
+    static final String CSV_HEADER = "purchase_id,created_at,user_id,user_name,user_email,payment_method,"
+            + "payment_status,total_amount,ticket_id,seat_number,ticket_price,ticket_status";
+
+    // Una fila del join purchases/users/tickets; los campos del ticket son null si la compra no tiene tickets
+    record Row(Long purchaseId, BigDecimal totalAmount, String paymentMethod, String paymentStatus,
+               OffsetDateTime createdAt, Long userId, String userName, String userEmail,
+               Long ticketId, String seatNumber, BigDecimal ticketPrice, String ticketStatus) {}
+
+    private final PurchaseDtos.ExportFormat format;
+    private final Writer out;
+    private final ObjectMapper objectMapper;
+
+    private Row current;
+    private final List<PurchaseDtos.PurchaseResponse.TicketSummary> currentTickets = new ArrayList<>();
+    private long purchases;
+
+    PurchaseExportWriter(PurchaseDtos.ExportFormat format, Writer out, ObjectMapper objectMapper) {
+        this.format = format;
+        this.out = out;
+        this.objectMapper = objectMapper;
+    }
+
+    void start() {
+        if (format == PurchaseDtos.ExportFormat.CSV) {
+            writeLine(CSV_HEADER);
+        }
+    }
+
+    void write(Row row) {
+        boolean newPurchase = current == null || !Objects.equals(current.purchaseId(), row.purchaseId());
+        if (newPurchase) {
+            flushPurchase();
+            current = row;
+            purchases++;
+        }
+        if (format == PurchaseDtos.ExportFormat.CSV) {
+            writeLine(toCsv(row));
+        } else if (row.ticketId() != null) {
+            currentTickets.add(new PurchaseDtos.PurchaseResponse.TicketSummary(
+                    row.ticketId(), row.seatNumber(), row.ticketPrice(), row.ticketStatus()));
+        }
+    }
+
+    void finish() {
+        flushPurchase();
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    long getPurchases() {
+        return purchases;
+    }
+
+    private void flushPurchase() {
+        if (current == null || format != PurchaseDtos.ExportFormat.NDJSON) {
+            return;
+        }
+        var response = new PurchaseDtos.PurchaseResponse(
+                current.purchaseId(),
+                current.totalAmount(),
+                current.paymentMethod(),
+                current.paymentStatus(),
+                current.createdAt(),
+                new PurchaseDtos.PurchaseResponse.UserSummary(current.userId(), current.userName(), current.userEmail()),
+                List.copyOf(currentTickets));
+        currentTickets.clear();
+        try {
+            writeLine(objectMapper.writeValueAsString(response));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize purchase " + current.purchaseId(), e);
+        }
+    }
+
+    private String toCsv(Row row) {
+        return String.join(",",
+                value(row.purchaseId()),
+                value(row.createdAt()),
+                value(row.userId()),
+                text(row.userName()),
+                text(row.userEmail()),
+                value(row.paymentMethod()),
+                value(row.paymentStatus()),
+                value(row.totalAmount() == null ? null : row.totalAmount().toPlainString()),
+                value(row.ticketId()),
+                text(row.seatNumber()),
+                value(row.ticketPrice() == null ? null : row.ticketPrice().toPlainString()),
+                value(row.ticketStatus()));
+    }
+
+    private static String value(Object value) {
+        return value == null ? "" : value.toString();
+    }
+
+    // Texto libre: se neutralizan fórmulas de hoja de cálculo y se escapan comas, comillas y saltos
+    private static String text(String value) {
+        if (value == null || value.isEmpty()) {
+            return "";
+        }
+        String safe = "=+-@".indexOf(value.charAt(0)) >= 0 ? "'" + value : value;
+        if (safe.contains(",") || safe.contains("\"") || safe.contains("\n") || safe.contains("\r")) {
+            return "\"" + safe.replace("\"", "\"\"") + "\"";
+        }
+        return safe;
+    }
+
+    private void writeLine(String line) {
+        try {
+            out.write(line);
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
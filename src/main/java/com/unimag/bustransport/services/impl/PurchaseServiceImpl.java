@@ -2,20 +2,26 @@ package com.unimag.bustransport.services.impl;
 
 import com.unimag.bustransport.api.dto.PurchaseDtos;
 import com.unimag.bustransport.api.dto.TicketDtos;
+import com.unimag.bustransport.api.dto.PageDtos;
 import com.unimag.bustransport.domain.entities.*;
 import com.unimag.bustransport.domain.repositories.*;
 import com.unimag.bustransport.exception.NotFoundException;
+import com.unimag.bustransport.kpi.KpiEvent;
 import com.unimag.bustransport.notification.NotificationHelper;
 import com.unimag.bustransport.notification.NotificationType;
+import com.unimag.bustransport.seatmap.SeatMapEvent;
 import com.unimag.bustransport.services.*;
 import com.unimag.bustransport.services.mapper.PurchaseMapper;
+import com.unimag.bustransport.services.pagination.KeysetPager;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -35,6 +41,7 @@ public class PurchaseServiceImpl implements PurchaseService {
     private final TicketService ticketService;
 
     private final NotificationHelper notificationHelper;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public PurchaseDtos.PurchaseResponse createPurchase(PurchaseDtos.PurchaseCreateRequest request) {
@@ -73,6 +80,7 @@ public class PurchaseServiceImpl implements PurchaseService {
         purchaseRepository.save(purchase);
 
         BigDecimal totalAmount = BigDecimal.ZERO;
+        List<TicketDtos.TicketCreateRequest> ticketCreateReqs = new ArrayList<>(request.tickets().size());
 
         for (PurchaseDtos.PurchaseCreateRequest.TicketRequest ticketReq : request.tickets()) {
 
@@ -88,7 +96,7 @@ public class PurchaseServiceImpl implements PurchaseService {
 
             totalAmount = totalAmount.add(ticketPrice);
 
-            TicketDtos.TicketCreateRequest ticketCreateReq = new TicketDtos.TicketCreateRequest(
+            ticketCreateReqs.add(new TicketDtos.TicketCreateRequest(
                     ticketReq.seatNumber(),
                     ticketPrice,
                     ticketReq.tripId(),
@@ -96,14 +104,15 @@ public class PurchaseServiceImpl implements PurchaseService {
                     ticketReq.fromStopId(),
                     ticketReq.toStopId(),
                     purchase.getId()
-            );
-
-            ticketService.createTicket(ticketCreateReq);
+            ));
 
-            log.info("Ticket PENDING created: seat={}, price={}",
+            log.info("Ticket PENDING priced: seat={}, price={}",
                     ticketReq.seatNumber(), ticketPrice);
         }
 
+        // Todos los tiquetes en un saveAll: los INSERT salen en un batch en lugar de uno por tarifa consultada
+        ticketService.createTickets(ticketCreateReqs);
+
         purchase.setTotalAmount(totalAmount);
         purchaseRepository.save(purchase);
 
@@ -125,18 +134,19 @@ public class PurchaseServiceImpl implements PurchaseService {
     }
 
     @Override
-    public List<PurchaseDtos.PurchaseResponse> getPurchasesByUserId(Long userId) {
+    public PageDtos.CursorPage<PurchaseDtos.PurchaseResponse> getPurchasesByUserId(Long userId, String cursor, Integer limit) {
         if (!userRepository.existsById(userId)) {
             throw new NotFoundException(String.format("User with ID %d not found", userId));
         }
 
-        List<Purchase> purchases = purchaseRepository.findByUserId(userId);
+        // Más recientes primero
+        int pageSize = KeysetPager.limit(limit);
+        List<Purchase> purchases = purchaseRepository.findByUserIdAndIdLessThanOrderByIdDesc(
+                userId, KeysetPager.beforeId(cursor), KeysetPager.fetchLimit(pageSize));
 
         log.info("Retrieved {} purchases for user ID {}", purchases.size(), userId);
 
-        return purchases.stream()
-                .map(purchaseMapper::toResponse)
-                .collect(Collectors.toList());
+        return KeysetPager.page(purchases, pageSize, Purchase::getId, purchaseMapper::toResponse);
     }
 
     @Override
@@ -175,6 +185,7 @@ public class PurchaseServiceImpl implements PurchaseService {
         purchase.getTickets().forEach(ticket -> {
             ticket.setStatus(Ticket.Status.SOLD);
             ticketService.generateQrForTicket(ticket.getId());
+            eventPublisher.publishEvent(SeatMapEvent.sold(ticket.getTrip().getId(), ticket.getSeatNumber()));
 
             seatHoldRepository.findByTripIdAndSeatNumberAndUserId(
                     ticket.getTrip().getId(),
@@ -190,6 +201,13 @@ public class PurchaseServiceImpl implements PurchaseService {
 
         purchaseRepository.save(purchase);
 
+        eventPublisher.publishEvent(new KpiEvent.TicketsSold(
+                purchase.getTickets().get(0).getTrip().getRoute().getId(),
+                purchase.getTickets().size(),
+                purchase.getTotalAmount(),
+                OffsetDateTime.now()
+        ));
+
         try {
             notificationHelper.sendPurchaseConfirmation(
                     purchase,
@@ -233,6 +251,7 @@ public class PurchaseServiceImpl implements PurchaseService {
             });
 
             ticket.setStatus(Ticket.Status.CANCELLED);
+            eventPublisher.publishEvent(SeatMapEvent.released(ticket.getTrip().getId(), ticket.getSeatNumber()));
         });
 
         purchase.setPaymentStatus(Purchase.PaymentStatus.CANCELLED);
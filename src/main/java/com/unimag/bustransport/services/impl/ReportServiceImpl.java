@@ -0,0 +1,152 @@
+package com.unimag.bustransport.services.impl;
+
+import com.unimag.bustransport.api.dto.ReportDtos;
+import com.unimag.bustransport.config.ReportProperties;
+import com.unimag.bustransport.domain.entities.ReportWatermark;
+import com.unimag.bustransport.domain.repositories.RefundDailyReportRepository;
+import com.unimag.bustransport.domain.repositories.ReportWatermarkRepository;
+import com.unimag.bustransport.domain.repositories.RouteDailyReportRepository;
+import com.unimag.bustransport.domain.repositories.TicketRepository;
+import com.unimag.bustransport.domain.repositories.TripOccupancyReportRepository;
+import com.unimag.bustransport.domain.repositories.TripRepository;
+import com.unimag.bustransport.services.ReportService;
+import com.unimag.bustransport.services.mapper.ReportMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class ReportServiceImpl implements ReportService {
+
+    static final String TICKETS_WATERMARK = "tickets";
+
+    private final RouteDailyReportRepository routeDailyRepository;
+    private final TripOccupancyReportRepository occupancyRepository;
+    private final RefundDailyReportRepository refundRepository;
+    private final ReportWatermarkRepository watermarkRepository;
+    private final TicketRepository ticketRepository;
+    private final TripRepository tripRepository;
+    private final ReportMapper mapper;
+    private final ReportProperties properties;
+
+    @Override
+    public List<ReportDtos.RouteRevenueRow> getRevenueByRoute(LocalDate from, LocalDate to, Long routeId) {
+        validateRange(from, to);
+        var rows = routeId == null
+                ? routeDailyRepository.findByServiceDateBetweenOrderByServiceDateAscRouteIdAsc(from, to)
+                : routeDailyRepository.findByRouteIdAndServiceDateBetweenOrderByServiceDateAsc(routeId, from, to);
+        return rows.stream().map(mapper::toRow).toList();
+    }
+
+    @Override
+    public List<ReportDtos.TripOccupancyRow> getOccupancyByTrip(LocalDate from, LocalDate to, Long routeId) {
+        validateRange(from, to);
+        var rows = routeId == null
+                ? occupancyRepository.findByServiceDateBetweenOrderByServiceDateAscTripIdAsc(from, to)
+                : occupancyRepository.findByRouteIdAndServiceDateBetweenOrderByServiceDateAscTripIdAsc(routeId, from, to);
+        return rows.stream().map(mapper::toRow).toList();
+    }
+
+    @Override
+    public List<ReportDtos.RefundPolicyRow> getRefundsByPolicy(LocalDate from, LocalDate to, Long routeId) {
+        validateRange(from, to);
+        var rows = routeId == null
+                ? refundRepository.findByRefundDateBetweenOrderByRefundDateAscRouteIdAscPolicyAsc(from, to)
+                : refundRepository.findByRouteIdAndRefundDateBetweenOrderByRefundDateAscPolicyAsc(routeId, from, to);
+        return rows.stream().map(mapper::toRow).toList();
+    }
+
+    // Incorpora a los resúmenes los tickets cambiados desde la última marca: solo se recalculan
+    // los viajes, (ruta, día) y grupos de reembolso tocados, y la marca avanza en la misma transacción
+    @Override
+    @Transactional
+    @Scheduled(fixedDelayString = "${reports.rollup.refresh-interval-ms:60000}")
+    public int refreshRollups() {
+        if (!properties.isEnabled()) {
+            return 0;
+        }
+        ReportWatermark watermark = watermarkRepository.findForUpdate(TICKETS_WATERMARK)
+                .orElseGet(() -> new ReportWatermark(TICKETS_WATERMARK,
+                        OffsetDateTime.ofInstant(Instant.EPOCH, ZoneOffset.UTC)));
+
+        OffsetDateTime from = watermark.getHighWater();
+        OffsetDateTime to = OffsetDateTime.now().minusSeconds(properties.getLagSeconds()).truncatedTo(ChronoUnit.MILLIS);
+        if (!to.isAfter(from)) {
+            return 0;
+        }
+
+        List<Long> tripIds = ticketRepository.findTripIdsChangedBetween(from, to);
+        int batchSize = Math.max(1, properties.getBatchSize());
+        for (int i = 0; i < tripIds.size(); i += batchSize) {
+            List<Long> chunk = tripIds.subList(i, Math.min(i + batchSize, tripIds.size()));
+            occupancyRepository.refreshForTrips(chunk);
+            routeDailyRepository.refreshForTrips(chunk);
+        }
+        if (!tripIds.isEmpty()) {
+            refundRepository.refreshChangedBetween(from, to);
+        }
+
+        watermark.setHighWater(to);
+        watermarkRepository.save(watermark);
+        if (!tripIds.isEmpty()) {
+            log.info("Report rollups refreshed for {} trips up to {}", tripIds.size(), to);
+        }
+        return tripIds.size();
+    }
+
+    // La marca solo ve tickets cambiados: no ve cambios de viajes, viajes nuevos sin tickets, borrados
+    // ni transacciones que confirman pasado el margen. Este pase recalcula todos los viajes por lotes,
+    // elimina las filas huérfanas y rehace los grupos de reembolso; la marca queda igual
+    @Override
+    @Transactional
+    @Scheduled(fixedDelayString = "${reports.rollup.full-refresh-interval-ms:3600000}",
+            initialDelayString = "${reports.rollup.full-refresh-interval-ms:3600000}")
+    public int recomputeRollups() {
+        if (!properties.isEnabled()) {
+            return 0;
+        }
+        // Bloquea la marca para no cruzarse con el refresco incremental
+        watermarkRepository.findForUpdate(TICKETS_WATERMARK);
+
+        int orphans = occupancyRepository.deleteOrphans() + routeDailyRepository.deleteOrphans()
+                + refundRepository.deleteOrphans();
+
+        int batchSize = Math.max(1, properties.getBatchSize());
+        int trips = 0;
+        List<Long> chunk = tripRepository.findIdsAfter(0L, batchSize);
+        while (!chunk.isEmpty()) {
+            occupancyRepository.refreshForTrips(chunk);
+            routeDailyRepository.refreshForTrips(chunk);
+            trips += chunk.size();
+            chunk = chunk.size() < batchSize ? List.of()
+                    : tripRepository.findIdsAfter(chunk.get(chunk.size() - 1), batchSize);
+        }
+        refundRepository.refreshChangedBetween(OffsetDateTime.ofInstant(Instant.EPOCH, ZoneOffset.UTC),
+                OffsetDateTime.now());
+
+        log.info("Report rollups recomputed for {} trips, {} orphan rows deleted", trips, orphans);
+        return trips;
+    }
+
+    private void validateRange(LocalDate from, LocalDate to) {
+        if (from == null || to == null || to.isBefore(from)) {
+            throw new IllegalArgumentException("Invalid date range");
+        }
+        if (ChronoUnit.DAYS.between(from, to) > properties.getMaxRangeDays()) {
+            throw new IllegalArgumentException(
+                    String.format("Date range cannot exceed %d days", properties.getMaxRangeDays()));
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.unimag.bustransport.services.impl;
+
+import com.unimag.bustransport.api.dto.RosterDtos;
+import com.unimag.bustransport.config.RosterProperties;
+import com.unimag.bustransport.domain.entities.Assignment;
+import com.unimag.bustransport.domain.entities.Role;
+import com.unimag.bustransport.domain.entities.Trip;
+import com.unimag.bustransport.domain.entities.User;
+import com.unimag.bustransport.domain.repositories.AssignmentRepository;
+import com.unimag.bustransport.domain.repositories.TripRepository;
+import com.unimag.bustransport.domain.repositories.UserRepository;
+import com.unimag.bustransport.exception.DuplicateResourceException;
+import com.unimag.bustransport.exception.NotFoundException;
+import com.unimag.bustransport.services.RosterService;
+import com.unimag.bustransport.services.schedule.BusIntervalIndex;
+import com.unimag.bustransport.services.schedule.DriverTimeline;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class RosterServiceImpl implements RosterService {
+
+    // Mejor ajuste: el conductor que terminó más cerca de la salida, luego el que menos ha conducido
+    private static final Comparator<Candidate> BEST_FIT = Comparator
+            .comparing(Candidate::previousArrival,
+                    Comparator.nullsLast(Comparator.comparing(OffsetDateTime::toInstant, Comparator.reverseOrder())))
+            .thenComparingLong(Candidate::drivenMinutes)
+            .thenComparing(candidate -> candidate.driver().getId());
+
+    private final AssignmentRepository assignmentRepository;
+    private final TripRepository tripRepository;
+    private final UserRepository userRepository;
+    private final RosterProperties properties;
+
+    @Override
+    @Transactional(readOnly = true)
+    public void checkDriverAvailability(Long driverId, OffsetDateTime departureAt, OffsetDateTime arrivalAt) {
+        DriverTimeline timeline = newTimeline();
+        LocalDate day = timeline.dayOf(departureAt);
+        OffsetDateTime from = startOf(day).minus(minRest());
+        OffsetDateTime to = latest(startOf(day.plusDays(1)), arrivalAt).plus(minRest());
+        timeline.addAll(assignmentRepository.findDriverDuties(List.of(driverId),
+                BusIntervalIndex.earliestDeparture(from), from, to));
+
+        timeline.check(driverId, departureAt, arrivalAt).ifPresent(conflict -> {
+            throw conflict.violation() == DriverTimeline.Violation.OVERLAP
+                    ? new DuplicateResourceException(conflict.message())
+                    : new IllegalStateException(conflict.message());
+        });
+    }
+
+    /**
+     * Recorre los turnos en orden de salida y verifica cada uno contra los anteriores antes de
+     * agregarlo, así cada choque se reporta una sola vez (en el viaje que sale después).
+     * Entran los turnos del día anterior que terminan a menos del descanso mínimo del inicio.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<RosterDtos.RosterConflict> findConflicts(LocalDate date) {
+        DriverTimeline timeline = newTimeline();
+        OffsetDateTime dayStart = startOf(date);
+        OffsetDateTime from = dayStart.minus(minRest());
+        List<AssignmentRepository.DriverDuty> duties = assignmentRepository.findAllDuties(
+                BusIntervalIndex.earliestDeparture(from), from, startOf(date.plusDays(1)));
+
+        List<RosterDtos.RosterConflict> conflicts = new ArrayList<>();
+        for (AssignmentRepository.DriverDuty duty : duties) {
+            if (!duty.getDepartureAt().isBefore(dayStart)) {
+                timeline.check(duty.getDriverId(), duty.getDepartureAt(), duty.getArrivalAt())
+                        .ifPresent(conflict -> conflicts.add(new RosterDtos.RosterConflict(duty.getDriverId(),
+                                duty.getTripId(), conflict.conflictingTripId(), conflict.violation().name(),
+                                conflict.message())));
+            }
+            timeline.add(duty.getDriverId(), duty.getTripId(), duty.getDepartureAt(), duty.getArrivalAt());
+        }
+        return conflicts;
+    }
+
+    /**
+     * Particionado de intervalos voraz: los viajes sin conductor del día, en orden de salida,
+     * toman al conductor libre de mejor ajuste según {@link #BEST_FIT}. Así se reutilizan los
+     * conductores que ya trabajan antes de sumar uno nuevo. Cada prueba es O(log n) sobre el
+     * timeline, en total O(viajes x conductores x log n) y una sola consulta de turnos.
+     */
+    @Override
+    public RosterDtos.AutoAssignResponse autoAssign(RosterDtos.AutoAssignRequest request, boolean dryRun) {
+        long started = System.nanoTime();
+        User dispatcher = findDispatcher(request.dispatcherId());
+        List<User> drivers = loadDrivers(request.driverIds(), !dryRun);
+
+        DriverTimeline timeline = newTimeline();
+        OffsetDateTime dayStart = startOf(request.date());
+        OffsetDateTime dayEnd = startOf(request.date().plusDays(1));
+        List<Trip> trips = tripRepository.findUnassignedScheduled(dayStart, dayEnd);
+
+        if (!trips.isEmpty() && !drivers.isEmpty()) {
+            // Hasta la última llegada más el descanso, por si un viaje nocturno choca con un turno del día siguiente
+            OffsetDateTime lastArrival = trips.stream().map(Trip::getArrivalAt)
+                    .max(OffsetDateTime.timeLineOrder()).orElse(dayEnd);
+            OffsetDateTime from = dayStart.minus(minRest());
+            OffsetDateTime to = latest(dayEnd, lastArrival).plus(minRest());
+            timeline.addAll(assignmentRepository.findDriverDuties(drivers.stream().map(User::getId).toList(),
+                    BusIntervalIndex.earliestDeparture(from), from, to));
+        }
+
+        List<RosterDtos.DriverAssignment> planned = new ArrayList<>();
+        List<RosterDtos.UnassignedTrip> unassigned = new ArrayList<>();
+        List<Assignment> assignments = new ArrayList<>();
+        for (Trip trip : trips) {
+            Candidate best = null;
+            for (User driver : drivers) {
+                if (timeline.check(driver.getId(), trip.getDepartureAt(), trip.getArrivalAt()).isPresent()) {
+                    continue;
+                }
+                Candidate candidate = new Candidate(driver,
+                        timeline.previousArrival(driver.getId(), trip.getDepartureAt()).orElse(null),
+                        timeline.drivenOn(driver.getId(), timeline.dayOf(trip.getDepartureAt())));
+                if (best == null || BEST_FIT.compare(candidate, best) < 0) {
+                    best = candidate;
+                }
+            }
+            if (best == null) {
+                unassigned.add(new RosterDtos.UnassignedTrip(trip.getId(), trip.getDepartureAt(),
+                        "No driver is available"));
+                continue;
+            }
+            timeline.add(best.driver().getId(), trip.getId(), trip.getDepartureAt(), trip.getArrivalAt());
+            planned.add(new RosterDtos.DriverAssignment(trip.getId(), best.driver().getId(),
+                    trip.getDepartureAt(), trip.getArrivalAt()));
+            assignments.add(Assignment.builder()
+                    .trip(trip)
+                    .driver(best.driver())
+                    .dispatcher(dispatcher)
+                    .checklistOk(false)
+                    .assignedAt(OffsetDateTime.now())
+                    .build());
+        }
+
+        if (!dryRun && !assignments.isEmpty()) {
+            assignmentRepository.saveAll(assignments);
+        }
+
+        long elapsed = Duration.ofNanos(System.nanoTime() - started).toMillis();
+        log.info("Auto-assign for {}{}: {} of {} trips assigned to {} drivers in {} ms", request.date(),
+                dryRun ? " (dry run)" : "", planned.size(), trips.size(), drivers.size(), elapsed);
+        return new RosterDtos.AutoAssignResponse(request.date(), dryRun, trips.size(), planned.size(),
+                planned, unassigned, elapsed);
+    }
+
+    private User findDispatcher(Long dispatcherId) {
+        User dispatcher = userRepository.findById(dispatcherId)
+                .orElseThrow(() -> new NotFoundException(String.format("Dispatcher with ID %d not found", dispatcherId)));
+        if (dispatcher.getRole() != Role.ROLE_DISPATCHER) {
+            throw new IllegalArgumentException("Invalid Dispatcher");
+        }
+        if (dispatcher.getStatus() != User.Status.ACTIVE) {
+            throw new IllegalArgumentException("Dispatcher is not active");
+        }
+        return dispatcher;
+    }
+
+    // Conductores activos, bloqueados hasta el commit cuando la corrida va a escribir. Con una
+    // lista solo se bloquean esos, siempre en orden de id para no cruzarse con otras corridas
+    private List<User> loadDrivers(List<Long> driverIds, boolean lock) {
+        if (driverIds == null || driverIds.isEmpty()) {
+            return lock
+                    ? userRepository.findByRoleAndStatusForUpdate(Role.ROLE_DRIVER, User.Status.ACTIVE)
+                    : userRepository.findByRoleAndStatus(Role.ROLE_DRIVER, User.Status.ACTIVE);
+        }
+        List<Long> ids = driverIds.stream().distinct().sorted().toList();
+        List<User> found = lock ? userRepository.findAllByIdForUpdate(ids) : userRepository.findAllById(ids);
+        Map<Long, User> byId = found.stream()
+                .filter(user -> user.getRole() == Role.ROLE_DRIVER && user.getStatus() == User.Status.ACTIVE)
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        List<User> drivers = new ArrayList<>();
+        for (Long driverId : ids) {
+            User driver = byId.get(driverId);
+            if (driver == null) {
+                throw new IllegalArgumentException(String.format("Driver with ID %d is not an active driver", driverId));
+            }
+            drivers.add(driver);
+        }
+        return drivers;
+    }
+
+    private DriverTimeline newTimeline() {
+        return new DriverTimeline(minRest(), Duration.ofMinutes(properties.getMaxDailyDrivingMinutes()), zone());
+    }
+
+    private Duration minRest() {
+        return Duration.ofMinutes(properties.getMinRestMinutes());
+    }
+
+    private ZoneId zone() {
+        return ZoneId.of(properties.getZone());
+    }
+
+    private OffsetDateTime startOf(LocalDate day) {
+        return day.atStartOfDay(zone()).toOffsetDateTime();
+    }
+
+    private static OffsetDateTime latest(OffsetDateTime a, OffsetDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private record Candidate(User driver, OffsetDateTime previousArrival, long drivenMinutes) {}
+}
@@ -2,6 +2,7 @@ package com.unimag.bustransport.services.impl;
 
 import com.unimag.bustransport.api.dto.RouteDtos;
 import com.unimag.bustransport.api.dto.StopDtos;
+import com.unimag.bustransport.api.dto.PageDtos;
 import com.unimag.bustransport.domain.entities.Route;
 import com.unimag.bustransport.domain.entities.Stop;
 import com.unimag.bustransport.domain.repositories.RouteRepository;
@@ -10,6 +11,7 @@ import com.unimag.bustransport.exception.NotFoundException;
 import com.unimag.bustransport.services.RouteService;
 import com.unimag.bustransport.services.mapper.RouteMapper;
 import com.unimag.bustransport.services.mapper.StopMapper;
+import com.unimag.bustransport.services.pagination.KeysetPager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -78,8 +80,11 @@ public class RouteServiceImpl implements RouteService {
     }
 
     @Override
-    public List<RouteDtos.RouteResponse> getAllRoutes() {
-        return routeRepository.findAll().stream().map(routeMapper::toResponse).collect(Collectors.toList());
+    public PageDtos.CursorPage<RouteDtos.RouteResponse> getAllRoutes(String cursor, Integer limit) {
+        int pageSize = KeysetPager.limit(limit);
+        List<Route> routes = routeRepository.findByIdGreaterThanOrderByIdAsc(
+                KeysetPager.afterId(cursor), KeysetPager.fetchLimit(pageSize));
+        return KeysetPager.page(routes, pageSize, Route::getId, routeMapper::toResponse);
     }
 
     @Override
@@ -8,11 +8,13 @@ import com.unimag.bustransport.domain.repositories.SeatHoldRepository;
 import com.unimag.bustransport.domain.repositories.TripRepository;
 import com.unimag.bustransport.domain.repositories.UserRepository;
 import com.unimag.bustransport.exception.NotFoundException;
+import com.unimag.bustransport.seatmap.SeatMapEvent;
 import com.unimag.bustransport.services.ConfigService;
 import com.unimag.bustransport.services.SeatHoldService;
 import com.unimag.bustransport.services.mapper.SeatHoldMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -31,6 +33,7 @@ public class SeatHoldServiceImpl implements SeatHoldService {
     private final UserRepository userRepository;
     private final SeatHoldMapper seatHoldMapper;
     private final ConfigService configService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public SeatHoldDtos.SeatHoldResponse createSeatHold(SeatHoldDtos.SeatHoldCreateRequest request) {
@@ -55,6 +58,7 @@ public class SeatHoldServiceImpl implements SeatHoldService {
         seatHold.setStatus(SeatHold.Status.HOLD);
 
         seatHoldRepository.save(seatHold);
+        eventPublisher.publishEvent(SeatMapEvent.held(trip.getId(), seatHold.getSeatNumber()));
         log.info("Seat hold created with ID {} for seat {} on trip {}", seatHold.getId(), request.seatNumber(), request.tripId());
         return seatHoldMapper.toResponse(seatHold);
     }
@@ -66,6 +70,7 @@ public class SeatHoldServiceImpl implements SeatHoldService {
 
         seatHold.setStatus(SeatHold.Status.EXPIRED);
         seatHoldRepository.save(seatHold);
+        eventPublisher.publishEvent(SeatMapEvent.released(seatHold.getTrip().getId(), seatHold.getSeatNumber()));
         log.info("Seat hold with ID {} released", holdId);
     }
 
@@ -143,6 +148,8 @@ public class SeatHoldServiceImpl implements SeatHoldService {
 
         expiredHolds.forEach(hold -> hold.setStatus(SeatHold.Status.EXPIRED));
         seatHoldRepository.saveAll(expiredHolds);
+        expiredHolds.forEach(hold -> eventPublisher.publishEvent(
+                SeatMapEvent.released(hold.getTrip().getId(), hold.getSeatNumber())));
 
         log.info("Marked {} seat holds as EXPIRED", expiredHolds.size());
         return expiredHolds.size();
@@ -1,27 +1,41 @@
 package com.unimag.bustransport.services.impl;
 
 import com.unimag.bustransport.api.dto.TicketDtos;
+import com.unimag.bustransport.api.dto.PageDtos;
 import com.unimag.bustransport.domain.entities.*;
 import com.unimag.bustransport.domain.repositories.*;
 import com.unimag.bustransport.exception.DuplicateResourceException;
 import com.unimag.bustransport.exception.InvalidCredentialsException;
 import com.unimag.bustransport.exception.NotFoundException;
+import com.unimag.bustransport.kpi.KpiEvent;
 import com.unimag.bustransport.notification.NotificationHelper;
 import com.unimag.bustransport.notification.NotificationType;
+import com.unimag.bustransport.seatmap.SeatMapEvent;
+import com.unimag.bustransport.security.qr.QrPayload;
+import com.unimag.bustransport.security.qr.TicketQrSigner;
+import com.unimag.bustransport.services.BoardingManifestService;
 import com.unimag.bustransport.services.ConfigService;
 import com.unimag.bustransport.services.TicketService;
 import com.unimag.bustransport.services.mapper.TicketMapper;
+import com.unimag.bustransport.services.pagination.KeysetPager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.Duration;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -39,7 +53,15 @@ public class TicketServiceImpl implements TicketService {
     private final TicketMapper ticketMapper;
 
     private static final int TICKET_CLEANUP_MINUTES = 15;
+    private static final int NO_SHOW_THRESHOLD_MINUTES = 5;
+    private static final String NO_SHOW_RATE_KPI = "no_show_rate_30d";
     private final NotificationHelper notificationHelper;
+    private final TicketQrSigner qrSigner;
+    private final KpiRepository kpiRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    // Lazy: el manifiesto valida contra este servicio los QR que no tiene en memoria
+    @Lazy
+    private final BoardingManifestService boardingManifestService;
 
     @Override
     public TicketDtos.TicketResponse createTicket(TicketDtos.TicketCreateRequest request) {
@@ -84,6 +106,50 @@ public class TicketServiceImpl implements TicketService {
                     );
                 });
 
+        Ticket savedTicket = ticketRepository.save(newPendingTicket(request, trip, passenger, fromStop, toStop, purchase));
+        log.info("Ticket created successfully with ID: {} in PENDING status",
+                savedTicket.getId());
+
+        return ticketMapper.toResponse(savedTicket);
+    }
+
+    /**
+     * Crea en bloque los tiquetes PENDING de una compra: una consulta por cada tipo de entidad
+     * referenciada, las mismas validaciones de {@link #createTicket} y un único saveAll al final.
+     * Así los INSERT salen juntos en un batch JDBC en lugar de intercalarse con las consultas de
+     * validación del siguiente tiquete, que forzaban un flush por cada uno.
+     */
+    @Override
+    public List<TicketDtos.TicketResponse> createTickets(List<TicketDtos.TicketCreateRequest> requests) {
+        Map<Long, Trip> trips = byId(tripRepository.findAllById(
+                idsOf(requests, TicketDtos.TicketCreateRequest::tripId)), Trip::getId);
+        Map<Long, Passenger> passengers = byId(passengerRepository.findAllById(
+                idsOf(requests, TicketDtos.TicketCreateRequest::passengerId)), Passenger::getId);
+        Set<Long> stopIds = idsOf(requests, TicketDtos.TicketCreateRequest::fromStopId);
+        stopIds.addAll(idsOf(requests, TicketDtos.TicketCreateRequest::toStopId));
+        Map<Long, Stop> stops = byId(stopRepository.findAllById(stopIds), Stop::getId);
+        Map<Long, Purchase> purchases = byId(purchaseRepository.findAllById(
+                idsOf(requests, TicketDtos.TicketCreateRequest::purchaseId)), Purchase::getId);
+
+        List<Ticket> tickets = new ArrayList<>(requests.size());
+        for (TicketDtos.TicketCreateRequest request : requests) {
+            tickets.add(newPendingTicket(request,
+                    required(trips, request.tripId(), "Trip"),
+                    required(passengers, request.passengerId(), "Passenger"),
+                    required(stops, request.fromStopId(), "Stop"),
+                    required(stops, request.toStopId(), "Stop"),
+                    required(purchases, request.purchaseId(), "Purchase")));
+        }
+
+        List<Ticket> savedTickets = ticketRepository.saveAll(tickets);
+        log.info("{} tickets created successfully in PENDING status", savedTickets.size());
+
+        return savedTickets.stream().map(ticketMapper::toResponse).toList();
+    }
+
+    // Valida el tramo contra la ruta del viaje y los tiquetes vendidos, y arma el tiquete sin guardarlo
+    private Ticket newPendingTicket(TicketDtos.TicketCreateRequest request, Trip trip, Passenger passenger,
+                                    Stop fromStop, Stop toStop, Purchase purchase) {
         if (!fromStop.getRoute().getId().equals(trip.getRoute().getId())) {
             log.error("The origin stop does not belong to the trip route");
             throw new IllegalArgumentException(
@@ -130,12 +196,7 @@ public class TicketServiceImpl implements TicketService {
         ticket.setToStop(toStop);
         ticket.setPurchase(purchase);
         ticket.setStatus(Ticket.Status.PENDING);
-
-        Ticket savedTicket = ticketRepository.save(ticket);
-        log.info("Ticket created successfully with ID: {} in PENDING status",
-                savedTicket.getId());
-
-        return ticketMapper.toResponse(savedTicket);
+        return ticket;
     }
 
     @Override
@@ -151,6 +212,7 @@ public class TicketServiceImpl implements TicketService {
 
         ticket.setStatus(Ticket.Status.CANCELLED);
         ticketRepository.save(ticket);
+        eventPublisher.publishEvent(SeatMapEvent.released(ticket.getTrip().getId(), ticket.getSeatNumber()));
 
         log.info("Ticket ID: {} cancelado exitosamente", id);
     }
@@ -169,15 +231,14 @@ public class TicketServiceImpl implements TicketService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<TicketDtos.TicketResponse> getTicketsByTrip(Long tripId) {
-
-        List<Ticket> tickets = ticketRepository.findByTripId(tripId);
+    public PageDtos.CursorPage<TicketDtos.TicketResponse> getTicketsByTrip(Long tripId, String cursor, Integer limit) {
+        int pageSize = KeysetPager.limit(limit);
+        List<Ticket> tickets = ticketRepository.findByTripIdAndIdGreaterThanOrderByIdAsc(
+                tripId, KeysetPager.afterId(cursor), KeysetPager.fetchLimit(pageSize));
 
         log.info("Se encontraron {} tickets para el trip ID: {}", tickets.size(), tripId);
 
-        return tickets.stream()
-                .map(ticketMapper::toResponse)
-                .collect(Collectors.toList());
+        return KeysetPager.page(tickets, pageSize, Ticket::getId, ticketMapper::toResponse);
     }
 
     @Override
@@ -214,7 +275,13 @@ public class TicketServiceImpl implements TicketService {
                         String.format("Ticket con ID %d no encontrado", ticketId)
                 ));
 
-        String newQrCode = generateUniqueQrCode();
+        String newQrCode = qrSigner.sign(new QrPayload(
+                ticket.getId(),
+                ticket.getTrip().getId(),
+                ticket.getSeatNumber(),
+                ticket.getFromStop().getOrder(),
+                ticket.getToStop().getOrder()
+        ));
         ticket.setQrCode(newQrCode);
         ticketRepository.save(ticket);
 
@@ -222,9 +289,19 @@ public class TicketServiceImpl implements TicketService {
     }
 
     @Override
-    @Transactional(readOnly = true)
     public void validateQrForTicket(String qrCode) {
+        validateQrForTicket(qrCode, null);
+    }
+
+    @Override
+    public void validateQrForTicket(String qrCode, Long tripId) {
 
+        if (qrSigner.isSigned(qrCode)) {
+            validateSignedQr(qrCode, tripId);
+            return;
+        }
+
+        // QR antiguos (TICKET-<UUID>): requieren buscar por código
         Ticket ticket = ticketRepository.findByQrCode(qrCode)
                 .orElseThrow(() -> new NotFoundException(
                         String.format("Ticket con QR '%s' no encontrado", qrCode)
@@ -236,37 +313,93 @@ public class TicketServiceImpl implements TicketService {
             );
         }
 
+        if (tripId != null && !tripId.equals(ticket.getTrip().getId())) {
+            throw new InvalidCredentialsException("El ticket pertenece a otro viaje");
+        }
+
         ticket.setStatus(Ticket.Status.BOARDED);
         ticketRepository.save(ticket);
         log.info("QR validated successfully for ticket ID: {}", ticket.getId());
     }
 
-    @Override
-    @Scheduled(fixedRate = 60000, initialDelay = 30000)
-    public void processNoshows() {
-        try {
-            OffsetDateTime threshold = OffsetDateTime.now().plusMinutes(5);
-            List<Ticket> tickets = ticketRepository.findTicketNoShow(threshold);
+    // Firma y viaje se validan sin BD; la BD solo se toca para marcar BOARDED
+    private void validateSignedQr(String qrCode, Long tripId) {
+        QrPayload payload = qrSigner.verify(qrCode);
 
-            for (Ticket ticket : tickets) {
-                try {
+        if (tripId != null && !tripId.equals(payload.tripId())) {
+            throw new InvalidCredentialsException("El ticket pertenece a otro viaje");
+        }
 
-                    if (ticket.getStatus() != Ticket.Status.SOLD) {
-                        log.debug("Ticket {} status is {} -> skipping", ticket.getId(), ticket.getStatus());
-                        continue;
-                    }
+        if (ticketRepository.markBoarded(payload.ticketId(), qrCode) == 1) {
+            log.info("QR validated successfully for ticket ID: {}", payload.ticketId());
+            return;
+        }
 
-                    ticket.setStatus(Ticket.Status.NO_SHOW);
+        // No se actualizó: se busca el ticket solo para explicar el motivo
+        Ticket ticket = ticketRepository.findById(payload.ticketId())
+                .orElseThrow(() -> new NotFoundException(
+                        String.format("Ticket con ID %d no encontrado", payload.ticketId())
+                ));
+        if (!qrCode.equals(ticket.getQrCode())) {
+            throw new InvalidCredentialsException("El QR fue reemplazado por uno más reciente");
+        }
+        throw new InvalidCredentialsException(
+                String.format("El ticket no está activo (status: %s)", ticket.getStatus())
+        );
+    }
 
-                    ticketRepository.save(ticket);
+    @Override
+    @Scheduled(fixedRate = 60000, initialDelay = 30000)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void processNoshows() {
+        OffsetDateTime now = OffsetDateTime.now();
+        List<Long> tripIds = tripRepository.findTripIdsPendingNoShow(now.plusMinutes(NO_SHOW_THRESHOLD_MINUTES));
+        if (tripIds.isEmpty()) {
+            return;
+        }
 
-                } catch (Exception e) {
-                    log.error("Failed to process ticket noshow", e);
+        // Costo constante por viaje: una sentencia para los tickets y otra para los contadores
+        int processed = 0;
+        for (Long tripId : tripIds) {
+            try {
+                // Los abordajes ya están en la BD al confirmarse; solo se descarta el manifiesto
+                boardingManifestService.releaseTrip(tripId);
+                int noShows = ticketRepository.markNoShowByTrip(tripId);
+                // El job corre en todos los nodos: solo el que cierra el viaje publica el evento
+                if (tripRepository.recordNoShowCounters(tripId, now) == 0) {
+                    continue;
                 }
+                tripRepository.findById(tripId).ifPresent(trip -> eventPublisher.publishEvent(
+                        new KpiEvent.TripClosed(
+                                trip.getRoute().getId(),
+                                tripId,
+                                trip.getBus().getCapacity(),
+                                trip.getBoardedCount(),
+                                trip.getNoShowCount(),
+                                now
+                        )));
+                processed++;
+                log.info("Trip {}: {} tickets marked as NO_SHOW", tripId, noShows);
+            } catch (Exception e) {
+                log.error("Failed to process no-shows for trip {}", tripId, e);
             }
-        }catch (Exception e) {
-            log.error("Error processing ", e);
         }
+
+        if (processed > 0) {
+            updateNoShowRate(now);
+        }
+    }
+
+    private void updateNoShowRate(OffsetDateTime now) {
+        Double rate = tripRepository.noShowRateSince(now.minusDays(30));
+        if (rate == null) {
+            return;
+        }
+        Kpi kpi = kpiRepository.findByName(NO_SHOW_RATE_KPI)
+                .orElseGet(() -> Kpi.builder().name(NO_SHOW_RATE_KPI).build());
+        kpi.setValue(rate);
+        kpi.setCalculatedAt(now);
+        kpiRepository.save(kpi);
     }
 
     @Override
@@ -293,12 +426,16 @@ public class TicketServiceImpl implements TicketService {
                 .toMinutes();
 
         BigDecimal refundPercent;
+        Ticket.RefundPolicy refundPolicy;
         if (minutesDiff >= 24 * 60) {
             refundPercent = configService.getValueAsBigDecimal("refund.>24");
+            refundPolicy = Ticket.RefundPolicy.OVER_24H;
         } else if (minutesDiff >= 2 * 60) {
             refundPercent = configService.getValueAsBigDecimal("refund.2to24");
+            refundPolicy = Ticket.RefundPolicy.FROM_2H_TO_24H;
         } else {
             refundPercent = configService.getValueAsBigDecimal("refund.<2");
+            refundPolicy = Ticket.RefundPolicy.UNDER_2H;
         }
 
         BigDecimal refundAmount = ticket.getPrice().multiply(refundPercent);
@@ -308,8 +445,15 @@ public class TicketServiceImpl implements TicketService {
         purchaseRepository.save(purchase);
 
         ticket.setStatus(Ticket.Status.CANCELLED);
+        ticket.setRefundAmount(refundAmount);
+        ticket.setRefundPolicy(refundPolicy);
+        ticket.setRefundedAt(OffsetDateTime.now());
         ticketRepository.save(ticket);
 
+        eventPublisher.publishEvent(new KpiEvent.TicketsRefunded(
+                trip.getRoute().getId(), 1, refundAmount, OffsetDateTime.now()));
+        eventPublisher.publishEvent(SeatMapEvent.released(trip.getId(), ticket.getSeatNumber()));
+
         try {
         notificationHelper.cancelTicket(ticket, NotificationType.WHATSAPP);
         } catch (Exception e){
@@ -340,7 +484,21 @@ public class TicketServiceImpl implements TicketService {
         return expiredTickets.size();
     }
 
-    private String generateUniqueQrCode() {
-        return "TICKET-" + UUID.randomUUID().toString().toUpperCase();
+    private static Set<Long> idsOf(List<TicketDtos.TicketCreateRequest> requests,
+                                   Function<TicketDtos.TicketCreateRequest, Long> id) {
+        return requests.stream().map(id).collect(Collectors.toCollection(HashSet::new));
+    }
+
+    private static <T> Map<Long, T> byId(List<T> entities, Function<T, Long> id) {
+        return entities.stream().collect(Collectors.toMap(id, Function.identity()));
+    }
+
+    private static <T> T required(Map<Long, T> entities, Long id, String type) {
+        T entity = entities.get(id);
+        if (entity == null) {
+            log.error("{} not found with ID: {}", type, id);
+            throw new NotFoundException(String.format("%s with ID %d not found", type, id));
+        }
+        return entity;
     }
 }
\ No newline at end of file
@@ -0,0 +1,80 @@
+package com.unimag.bustransport.services.impl;
+
+import com.unimag.bustransport.api.dto.TimetableDtos;
+import com.unimag.bustransport.domain.repositories.TripRepository;
+import com.unimag.bustransport.services.schedule.BusIntervalIndex;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Expande un patrón de horario en viajes concretos sin tocar la BD. Cada salida toma el bus
+ * que sigue en la rotación; si está ocupado (por un viaje existente o por uno ya planeado en
+ * esta misma expansión) prueba los siguientes, y si ninguno está libre la salida queda como
+ * conflicto. Cada prueba es una consulta O(log n) al índice de intervalos por bus.
+ */
+final class TimetablePlanner {
+
+    private final BusIntervalIndex index;
+
+    TimetablePlanner(List<TripRepository.BusInterval> existing) {
+        this.index = BusIntervalIndex.of(existing);
+    }
+
+    Plan plan(LocalDate startDate, LocalDate endDate, Set<DayOfWeek> days, List<LocalTime> departureTimes,
+              int durationMinutes, List<Long> busIds, ZoneId zone) {
+        List<LocalTime> times = departureTimes.stream().distinct().sorted().toList();
+        List<TimetableDtos.PlannedTrip> planned = new ArrayList<>();
+        List<TimetableDtos.TimetableConflict> conflicts = new ArrayList<>();
+        int rotation = 0;
+
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            if (!days.contains(date.getDayOfWeek())) {
+                continue;
+            }
+            for (LocalTime time : times) {
+                // atZone resuelve los huecos y solapes de horario de verano según la zona
+                OffsetDateTime departureAt = date.atTime(time).atZone(zone).toOffsetDateTime();
+                OffsetDateTime arrivalAt = departureAt.plusMinutes(durationMinutes);
+
+                Long busId = null;
+                for (int k = 0; k < busIds.size() && busId == null; k++) {
+                    Long candidate = busIds.get((rotation + k) % busIds.size());
+                    if (index.isFree(candidate, departureAt, arrivalAt)) {
+                        busId = candidate;
+                        rotation = (rotation + k + 1) % busIds.size();
+                    }
+                }
+                if (busId == null) {
+                    conflicts.add(new TimetableDtos.TimetableConflict(date, departureAt,
+                            "No bus in the rotation is available"));
+                    continue;
+                }
+                index.add(busId, null, departureAt, arrivalAt);
+                planned.add(new TimetableDtos.PlannedTrip(date, departureAt, arrivalAt, busId));
+            }
+        }
+        return new Plan(planned, conflicts);
+    }
+
+    // Salidas que produciría el patrón, para rechazar solicitudes demasiado grandes antes de planear
+    static long countDepartures(LocalDate startDate, LocalDate endDate, Set<DayOfWeek> days,
+                                List<LocalTime> departureTimes) {
+        long perDay = departureTimes.stream().distinct().count();
+        long count = 0;
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            if (days.contains(date.getDayOfWeek())) {
+                count += perDay;
+            }
+        }
+        return count;
+    }
+
+    record Plan(List<TimetableDtos.PlannedTrip> trips, List<TimetableDtos.TimetableConflict> conflicts) {}
+}
@@ -0,0 +1,157 @@
+package com.unimag.bustransport.services.impl;
+
+import com.unimag.bustransport.api.dto.TimetableDtos;
+import com.unimag.bustransport.config.TimetableProperties;
+import com.unimag.bustransport.domain.entities.Bus;
+import com.unimag.bustransport.domain.entities.Route;
+import com.unimag.bustransport.domain.entities.Trip;
+import com.unimag.bustransport.domain.repositories.BusRepository;
+import com.unimag.bustransport.domain.repositories.RouteRepository;
+import com.unimag.bustransport.domain.repositories.TripRepository;
+import com.unimag.bustransport.exception.NotFoundException;
+import com.unimag.bustransport.services.TimetableService;
+import com.unimag.bustransport.services.schedule.BusIntervalIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class TimetableServiceImpl implements TimetableService {
+
+    // Mismo tope de duración que TripServiceImpl al crear un viaje suelto
+    private static final int MAX_DURATION_MINUTES = 32 * 60;
+
+    private final TripRepository tripRepository;
+    private final RouteRepository routeRepository;
+    private final BusRepository busRepository;
+    private final TimetableProperties properties;
+
+    @Override
+    @Transactional(readOnly = true)
+    public TimetableDtos.TimetableResponse preview(TimetableDtos.TimetableRequest request) {
+        long started = System.nanoTime();
+        validate(request);
+        findRoute(request.routeId());
+        TimetablePlanner.Plan plan = plan(request, loadBuses(request.busIds(), false));
+        return new TimetableDtos.TimetableResponse(request.routeId(), true, plan.trips().size(), 0,
+                plan.trips(), plan.conflicts(), elapsedMs(started));
+    }
+
+    /**
+     * Reemplaza miles de llamadas a createTrip: una consulta por rango para los viajes activos
+     * de los buses, la expansión y los choques en memoria y un saveAll que Hibernate agrupa en
+     * batches. Los buses quedan bloqueados hasta el commit para que otra carga no se cruce.
+     */
+    @Override
+    public TimetableDtos.TimetableResponse generate(TimetableDtos.TimetableRequest request, boolean dryRun) {
+        long started = System.nanoTime();
+        validate(request);
+        Route route = findRoute(request.routeId());
+        Map<Long, Bus> buses = loadBuses(request.busIds(), !dryRun);
+        TimetablePlanner.Plan plan = plan(request, buses);
+
+        int created = 0;
+        if (!dryRun && !plan.trips().isEmpty()) {
+            List<Trip> trips = plan.trips().stream()
+                    .map(planned -> Trip.builder()
+                            .route(route)
+                            .bus(buses.get(planned.busId()))
+                            .date(planned.date())
+                            .departureAt(planned.departureAt())
+                            .arrivalAt(planned.arrivalAt())
+                            .overbookingPercent(request.overbookingPercent())
+                            .status(Trip.Status.SCHEDULED)
+                            .build())
+                    .toList();
+            created = tripRepository.saveAll(trips).size();
+        }
+
+        long elapsed = elapsedMs(started);
+        log.info("Timetable for route {}{}: {} trips planned, {} created, {} conflicts in {} ms",
+                request.routeId(), dryRun ? " (dry run)" : "", plan.trips().size(), created,
+                plan.conflicts().size(), elapsed);
+        return new TimetableDtos.TimetableResponse(request.routeId(), dryRun, plan.trips().size(), created,
+                List.of(), plan.conflicts(), elapsed);
+    }
+
+    private TimetablePlanner.Plan plan(TimetableDtos.TimetableRequest request, Map<Long, Bus> buses) {
+        ZoneId zone = request.zone() != null ? request.zone() : ZoneId.of(properties.getZone());
+
+        // Ventana con un día de margen para los viajes que cruzan la medianoche o cambian de offset
+        OffsetDateTime windowStart = request.startDate().minusDays(1).atStartOfDay(zone).toOffsetDateTime();
+        OffsetDateTime windowEnd = request.endDate().plusDays(1).atStartOfDay(zone).toOffsetDateTime()
+                .plusMinutes(request.durationMinutes());
+        List<TripRepository.BusInterval> busy = tripRepository.findBusyIntervals(buses.keySet(),
+                BusIntervalIndex.earliestDeparture(windowStart), windowStart, windowEnd);
+
+        return new TimetablePlanner(busy).plan(request.startDate(), request.endDate(), request.daysOfWeek(),
+                request.departureTimes(), request.durationMinutes(), request.busIds(), zone);
+    }
+
+    private void validate(TimetableDtos.TimetableRequest request) {
+        if (request.endDate().isBefore(request.startDate())) {
+            throw new IllegalArgumentException("End date must not be before start date");
+        }
+        if (request.startDate().isBefore(LocalDate.now())) {
+            throw new IllegalArgumentException("Cannot create trips in the past");
+        }
+        if (ChronoUnit.DAYS.between(request.startDate(), request.endDate()) + 1 > properties.getMaxDays()) {
+            throw new IllegalArgumentException(
+                    String.format("Timetable cannot span more than %d days", properties.getMaxDays()));
+        }
+        if (request.durationMinutes() > MAX_DURATION_MINUTES) {
+            throw new IllegalArgumentException("Trip duration must be less than 32 hours");
+        }
+        if (request.overbookingPercent() != null
+                && (request.overbookingPercent() < 0 || request.overbookingPercent() > 15)) {
+            throw new IllegalArgumentException("Overbooking percent must be between 0 and 15");
+        }
+        long departures = TimetablePlanner.countDepartures(request.startDate(), request.endDate(),
+                request.daysOfWeek(), request.departureTimes());
+        if (departures > properties.getMaxTrips()) {
+            throw new IllegalArgumentException(String.format(
+                    "Timetable would create %d trips, the maximum per request is %d", departures, properties.getMaxTrips()));
+        }
+    }
+
+    private Route findRoute(Long routeId) {
+        return routeRepository.findById(routeId)
+                .orElseThrow(() -> new NotFoundException(String.format("Route with ID %d not found", routeId)));
+    }
+
+    private Map<Long, Bus> loadBuses(List<Long> busIds, boolean lock) {
+        if (busIds.stream().distinct().count() != busIds.size()) {
+            throw new IllegalArgumentException("Bus rotation cannot repeat a bus");
+        }
+        List<Bus> found = lock ? busRepository.findAllByIdForUpdate(busIds) : busRepository.findAllById(busIds);
+        Map<Long, Bus> buses = found.stream().collect(Collectors.toMap(Bus::getId, Function.identity()));
+        for (Long busId : busIds) {
+            Bus bus = buses.get(busId);
+            if (bus == null) {
+                throw new NotFoundException(String.format("Bus with ID %d not found", busId));
+            }
+            if (bus.getStatus() != Bus.Status.ACTIVE) {
+                throw new IllegalArgumentException(String.format("Bus with ID %d is not ACTIVE", busId));
+            }
+        }
+        return buses;
+    }
+
+    private static long elapsedMs(long started) {
+        return Duration.ofNanos(System.nanoTime() - started).toMillis();
+    }
+}
@@ -9,6 +9,7 @@ import com.unimag.bustransport.domain.repositories.TripRepository;
 import com.unimag.bustransport.exception.DuplicateResourceException;
 import com.unimag.bustransport.exception.NotFoundException;
 import com.unimag.bustransport.services.TripService;
+import com.unimag.bustransport.services.schedule.BusIntervalIndex;
 import com.unimag.bustransport.services.mapper.TripMapper;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
@@ -225,33 +226,15 @@ public class TripServiceImpl implements TripService {
         }
     }
 
+    // Una consulta por rango (índice parcial por bus y salida) en vez de cargar todos los viajes activos del bus
     private void validateBusAvailability(Long busId, OffsetDateTime departureAt, OffsetDateTime arrivalAt, Long excludeTripId){
-        List<Trip> activeTrips = repository.findByBusIdAndStatus(busId, Trip.Status.SCHEDULED);
-        activeTrips.addAll(repository.findByBusIdAndStatus(busId, Trip.Status.BOARDING));
-        activeTrips.addAll(repository.findByBusIdAndStatus(busId, Trip.Status.DEPARTED));
-
-        if (excludeTripId != null) {
-            activeTrips = activeTrips.stream()
-                    .filter(trip -> !trip.getId().equals(excludeTripId))
-                    .collect(Collectors.toList());
-        }
-        for (Trip existingTrip : activeTrips) {
-            boolean hasOverlap = checkTimeOverlap(departureAt,arrivalAt
-                    ,existingTrip.getDepartureAt(), existingTrip.getArrivalAt());
-            if (hasOverlap) {
-                throw new DuplicateResourceException(String.format("Bus is not available. It has Another trip (ID : %d) from %s to %s", existingTrip
-                        .getId(), existingTrip.getDepartureAt(), existingTrip.getArrivalAt()));
-
-            }
-        }
-
-    }
-
-
+        BusIntervalIndex index = BusIntervalIndex.of(repository.findBusyIntervals(
+                List.of(busId), BusIntervalIndex.earliestDeparture(departureAt), departureAt, arrivalAt));
 
-    private boolean checkTimeOverlap(OffsetDateTime start1, OffsetDateTime end1,
-                                     OffsetDateTime start2, OffsetDateTime end2) {
-        return start1.isBefore(end2) && end1.isAfter(start2);
+        index.findOverlap(busId, departureAt, arrivalAt, excludeTripId).ifPresent(existingTrip -> {
+            throw new DuplicateResourceException(String.format("Bus is not available. It has Another trip (ID : %d) from %s to %s", existingTrip
+                    .tripId(), existingTrip.departureAt(), existingTrip.arrivalAt()));
+        });
     }
 
     private void validateStatusTransition(Trip.Status cStatus, Trip.Status newStatus, Long soldTickets) {
@@ -1,14 +1,18 @@
 package com.unimag.bustransport.services.impl;
 
 import com.unimag.bustransport.api.dto.UserDtos;
+import com.unimag.bustransport.api.dto.PageDtos;
 import com.unimag.bustransport.domain.entities.Role;
 import com.unimag.bustransport.domain.entities.User;
 import com.unimag.bustransport.domain.repositories.UserRepository;
 import com.unimag.bustransport.exception.DuplicateResourceException;
 import com.unimag.bustransport.exception.InvalidCredentialsException;
 import com.unimag.bustransport.exception.NotFoundException;
+import com.unimag.bustransport.security.token.RefreshTokenStore;
+import com.unimag.bustransport.security.user.PrincipalInvalidator;
 import com.unimag.bustransport.services.UserService;
 import com.unimag.bustransport.services.mapper.UserMapper;
+import com.unimag.bustransport.services.pagination.KeysetPager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -29,6 +33,8 @@ public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
     private final UserMapper userMapper;
     private final PasswordEncoder passwordEncoder;
+    private final PrincipalInvalidator principalInvalidator;
+    private final RefreshTokenStore refreshTokenStore;
 
     @Override
     public UserDtos.UserResponse registerUser(UserDtos.UserCreateRequest request) {
@@ -157,6 +163,7 @@ public class UserServiceImpl implements UserService {
         }
 
         userRepository.save(user);
+        principalInvalidator.invalidate(id);
 
         log.info("User updated successfully with ID: {}", id);
     }
@@ -187,6 +194,8 @@ public class UserServiceImpl implements UserService {
 
         user.setPasswordHash(passwordEncoder.encode(newPassword));
         userRepository.save(user);
+        principalInvalidator.invalidate(id);
+        refreshTokenStore.revokeAllForUser(id);
 
         log.info("Password changed successfully for user ID: {}", id);
     }
@@ -212,6 +221,8 @@ public class UserServiceImpl implements UserService {
 
         user.setStatus(User.Status.INACTIVE);
         userRepository.save(user);
+        principalInvalidator.invalidate(id);
+        refreshTokenStore.revokeAllForUser(id);
 
         log.info("User deactivated successfully with ID: {}", id);
     }
@@ -237,6 +248,7 @@ public class UserServiceImpl implements UserService {
 
         user.setStatus(User.Status.ACTIVE);
         userRepository.save(user);
+        principalInvalidator.invalidate(id);
 
         log.info("User reactivated successfully with ID: {}", id);
     }
@@ -292,16 +304,16 @@ public class UserServiceImpl implements UserService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<UserDtos.UserResponse> getAllUsersByRole(Role role) {
+    public PageDtos.CursorPage<UserDtos.UserResponse> getAllUsersByRole(Role role, String cursor, Integer limit) {
         log.debug("Getting all users by role: {}", role);
 
-        List<User> users = userRepository.findByRoleAndStatus((role), User.Status.ACTIVE);
+        int pageSize = KeysetPager.limit(limit);
+        List<User> users = userRepository.findByRoleAndStatusAndIdGreaterThanOrderByIdAsc(
+                role, User.Status.ACTIVE, KeysetPager.afterId(cursor), KeysetPager.fetchLimit(pageSize));
 
         log.info("Found {} users with role: {}", users.size(), role);
 
-        return users.stream()
-                .map(userMapper::toResponse)
-                .collect(Collectors.toList());
+        return KeysetPager.page(users, pageSize, User::getId, userMapper::toResponse);
     }
 
     private void validateEmail(String email) {
@@ -2,6 +2,7 @@ package com.unimag.bustransport.services.mapper;
 
 import com.unimag.bustransport.api.dto.ParcelDtos;
 import com.unimag.bustransport.domain.entities.Parcel;
+import com.unimag.bustransport.domain.entities.ParcelEvent;
 import org.mapstruct.*;
 
 @Mapper (componentModel = "spring")
@@ -28,4 +29,7 @@ public interface ParcelMapper {
 
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     void updateEntityFromRequest(ParcelDtos.ParcelUpdateRequest request, @MappingTarget Parcel parcel);
+
+    @Mapping(source = "parcelStatus", target = "status")
+    ParcelDtos.TrackingEvent toTrackingEvent(ParcelEvent event);
 }
@@ -0,0 +1,16 @@
+package com.unimag.bustransport.services.mapper;
+
+import com.unimag.bustransport.api.dto.ReportDtos;
+import com.unimag.bustransport.domain.entities.RefundDailyReport;
+import com.unimag.bustransport.domain.entities.RouteDailyReport;
+import com.unimag.bustransport.domain.entities.TripOccupancyReport;
+import org.mapstruct.Mapper;
+
+@Mapper(componentModel = "spring")
+public interface ReportMapper {
+    ReportDtos.RouteRevenueRow toRow(RouteDailyReport report);
+
+    ReportDtos.TripOccupancyRow toRow(TripOccupancyReport report);
+
+    ReportDtos.RefundPolicyRow toRow(RefundDailyReport report);
+}
@@ -15,6 +15,9 @@ public interface TicketMapper {
     @Mapping(target = "purchase", ignore = true)
     @Mapping(target = "status", ignore = true)
     @Mapping(target = "qrCode", ignore = true)
+    @Mapping(target = "refundAmount", ignore = true)
+    @Mapping(target = "refundPolicy", ignore = true)
+    @Mapping(target = "refundedAt", ignore = true)
     Ticket toEntity(TicketDtos.TicketCreateRequest request);
 
     @Mapping(target = "status", expression = "java(ticket.getStatus().toString())")
@@ -34,6 +37,9 @@ public interface TicketMapper {
     TicketDtos.TicketResponse toResponse(Ticket ticket);
 
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "refundAmount", ignore = true)
+    @Mapping(target = "refundPolicy", ignore = true)
+    @Mapping(target = "refundedAt", ignore = true)
     @Mapping(target = "status", expression = "java(request.status() != null ? com.unimag.bustransport.domain.entities.Ticket.Status.valueOf(request.status()) : null)")
     void updateEntityFromRequest(TicketDtos.TicketUpdateRequest request, @MappingTarget Ticket ticket);
 }
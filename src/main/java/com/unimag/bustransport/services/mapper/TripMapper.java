@@ -14,6 +14,10 @@ public interface TripMapper {
     @Mapping(target = "seatHolds", ignore = true)
     @Mapping(target = "tickets", ignore = true)
     @Mapping(target = "parcels", ignore = true)
+    @Mapping(target = "noShowCount", ignore = true)
+    @Mapping(target = "boardedCount", ignore = true)
+    @Mapping(target = "noShowProcessedAt", ignore = true)
+    @Mapping(target = "baggageWeightKg", ignore = true)
     Trip toEntity(TripDtos.TripCreateRequest request);
 
     @Mapping(target = "status", expression = "java(trip.getStatus().toString())")
@@ -42,6 +46,10 @@ public interface TripMapper {
     @Mapping(target = "tickets", ignore = true)
     @Mapping(target = "parcels", ignore = true)
     @Mapping(target = "id", ignore = true)
+    @Mapping(target = "noShowCount", ignore = true)
+    @Mapping(target = "boardedCount", ignore = true)
+    @Mapping(target = "noShowProcessedAt", ignore = true)
+    @Mapping(target = "baggageWeightKg", ignore = true)
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     void updateEntityFromRequest(TripDtos.TripUpdateRequest request, @MappingTarget Trip trip);
 }
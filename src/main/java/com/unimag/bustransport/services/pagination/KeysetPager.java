@@ -0,0 +1,72 @@
+package com.unimag.bustransport.services.pagination;
+
+import com.unimag.bustransport.api.dto.PageDtos;
+import org.springframework.data.domain.Limit;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Paginación por keyset ("seek") sobre el id: cada página filtra por id mayor (o menor) que el
+ * último entregado y ordena por id, así una página profunda cuesta lo mismo que la primera.
+ * Se pide un registro de más para saber si hay página siguiente sin hacer COUNT.
+ */
+public final class KeysetPager {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 200;
+
+    private static final String CURSOR_PREFIX = "id:";
+
+    private KeysetPager() {
+    }
+
+    public static int limit(Integer requested) {
+        if (requested == null) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.max(1, Math.min(requested, MAX_LIMIT));
+    }
+
+    public static Limit fetchLimit(int limit) {
+        return Limit.of(limit + 1);
+    }
+
+    // Orden ascendente: la primera página arranca después del id 0
+    public static long afterId(String cursor) {
+        return cursor == null || cursor.isBlank() ? 0L : decode(cursor);
+    }
+
+    // Orden descendente (más recientes primero): la primera página arranca antes del máximo
+    public static long beforeId(String cursor) {
+        return cursor == null || cursor.isBlank() ? Long.MAX_VALUE : decode(cursor);
+    }
+
+    public static <E, R> PageDtos.CursorPage<R> page(List<E> fetched, int limit,
+                                                     Function<E, Long> idOf, Function<E, R> mapper) {
+        boolean hasMore = fetched.size() > limit;
+        List<E> items = hasMore ? fetched.subList(0, limit) : fetched;
+        String nextCursor = hasMore ? encode(idOf.apply(items.get(items.size() - 1))) : null;
+        return new PageDtos.CursorPage<>(items.stream().map(mapper).toList(), limit, hasMore, nextCursor);
+    }
+
+    static String encode(Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((CURSOR_PREFIX + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static long decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!raw.startsWith(CURSOR_PREFIX)) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return Long.parseLong(raw.substring(CURSOR_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException también es IllegalArgumentException
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.unimag.bustransport.services.schedule;
+
+import com.unimag.bustransport.domain.repositories.TripRepository;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.TreeSet;
+
+/**
+ * Ocupación de buses como intervalos [salida, llegada). Por bus guarda los viajes ordenados
+ * por salida; como ningún viaje dura más de {@link #MAX_TRIP_DURATION}, los únicos que pueden
+ * cruzarse con [s, e) salen entre s - MAX_TRIP_DURATION y e, así cada consulta es O(log n + k)
+ * sin importar cuánto historial tenga el bus. La consulta a la BD usa la misma cota
+ * ({@link #earliestDeparture}) sobre el índice (bus_id, departure_at).
+ * No es thread-safe: se arma por solicitud a partir de esa consulta.
+ */
+public final class BusIntervalIndex {
+
+    // createTrip rechaza más de 32 horas completas, así que ningún viaje llega a 33
+    public static final Duration MAX_TRIP_DURATION = Duration.ofHours(33);
+
+    private static final Comparator<Entry> ORDER = Comparator
+            .comparing((Entry entry) -> entry.booking().departureAt(), OffsetDateTime.timeLineOrder())
+            .thenComparingLong(Entry::order);
+
+    private final Map<Long, NavigableSet<Entry>> byBus = new HashMap<>();
+    // Desempata viajes del mismo bus con la misma salida
+    private long order;
+
+    public static BusIntervalIndex of(Collection<TripRepository.BusInterval> intervals) {
+        BusIntervalIndex index = new BusIntervalIndex();
+        for (TripRepository.BusInterval interval : intervals) {
+            index.add(interval.getBusId(), interval.getTripId(), interval.getDepartureAt(), interval.getArrivalAt());
+        }
+        return index;
+    }
+
+    // Límite inferior de salida para traer de la BD todo lo que puede chocar desde departureAt
+    public static OffsetDateTime earliestDeparture(OffsetDateTime departureAt) {
+        return departureAt.minus(MAX_TRIP_DURATION);
+    }
+
+    /** tripId puede ser nulo para viajes planeados que aún no existen en la BD. */
+    public void add(Long busId, Long tripId, OffsetDateTime departureAt, OffsetDateTime arrivalAt) {
+        byBus.computeIfAbsent(busId, id -> new TreeSet<>(ORDER))
+                .add(new Entry(new Booking(tripId, departureAt, arrivalAt), order++));
+    }
+
+    /** Primer viaje del bus que se cruza con [departureAt, arrivalAt), ignorando excludeTripId. */
+    public Optional<Booking> findOverlap(Long busId, OffsetDateTime departureAt, OffsetDateTime arrivalAt,
+                                         Long excludeTripId) {
+        NavigableSet<Entry> entries = byBus.get(busId);
+        if (entries == null) {
+            return Optional.empty();
+        }
+        Entry from = bound(earliestDeparture(departureAt));
+        Entry to = bound(arrivalAt);
+        for (Entry entry : entries.subSet(from, false, to, false)) {
+            Booking booking = entry.booking();
+            if (booking.arrivalAt().isAfter(departureAt)
+                    && (excludeTripId == null || !excludeTripId.equals(booking.tripId()))) {
+                return Optional.of(booking);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /** Último viaje del bus que sale antes de departureAt, o vacío si no hay ninguno. */
+    public Optional<Booking> findPrevious(Long busId, OffsetDateTime departureAt) {
+        NavigableSet<Entry> entries = byBus.get(busId);
+        if (entries == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(entries.lower(bound(departureAt))).map(Entry::booking);
+    }
+
+    public boolean isFree(Long busId, OffsetDateTime departureAt, OffsetDateTime arrivalAt) {
+        return findOverlap(busId, departureAt, arrivalAt, null).isEmpty();
+    }
+
+    public int size() {
+        return byBus.values().stream().mapToInt(NavigableSet::size).sum();
+    }
+
+    // Centinela anterior a cualquier viaje con esa salida
+    private static Entry bound(OffsetDateTime at) {
+        return new Entry(new Booking(null, at, at), Long.MIN_VALUE);
+    }
+
+    public record Booking(Long tripId, OffsetDateTime departureAt, OffsetDateTime arrivalAt) {}
+
+    private record Entry(Booking booking, long order) {}
+}
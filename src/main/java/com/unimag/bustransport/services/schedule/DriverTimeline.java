@@ -0,0 +1,94 @@
+package com.unimag.bustransport.services.schedule;
+
+import com.unimag.bustransport.domain.repositories.AssignmentRepository;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Turnos de cada conductor como intervalos [salida, llegada) sobre el mismo índice por clave
+ * que usan los buses, más los minutos conducidos por día. Un turno nuevo choca si se cruza con
+ * otro, si deja menos de minRest de descanso con el anterior o el siguiente, o si el día de la
+ * salida supera maxDailyDriving. Cada verificación es O(log n + k).
+ * No es thread-safe: se arma por solicitud a partir de la consulta de turnos.
+ */
+public final class DriverTimeline {
+
+    public enum Violation { OVERLAP, REST, DAILY_LIMIT }
+
+    public record Conflict(Violation violation, Long conflictingTripId, String message) {}
+
+    private final BusIntervalIndex duties = new BusIntervalIndex();
+    private final Map<Long, Map<LocalDate, Long>> drivenMinutes = new HashMap<>();
+    private final Duration minRest;
+    private final Duration maxDailyDriving;
+    private final ZoneId zone;
+
+    public DriverTimeline(Duration minRest, Duration maxDailyDriving, ZoneId zone) {
+        this.minRest = minRest;
+        this.maxDailyDriving = maxDailyDriving;
+        this.zone = zone;
+    }
+
+    public DriverTimeline addAll(Collection<AssignmentRepository.DriverDuty> existing) {
+        for (AssignmentRepository.DriverDuty duty : existing) {
+            add(duty.getDriverId(), duty.getTripId(), duty.getDepartureAt(), duty.getArrivalAt());
+        }
+        return this;
+    }
+
+    public void add(Long driverId, Long tripId, OffsetDateTime departureAt, OffsetDateTime arrivalAt) {
+        duties.add(driverId, tripId, departureAt, arrivalAt);
+        drivenMinutes.computeIfAbsent(driverId, id -> new HashMap<>())
+                .merge(dayOf(departureAt), minutes(departureAt, arrivalAt), Long::sum);
+    }
+
+    /** Primer problema que tendría el conductor al tomar el viaje, o vacío si puede tomarlo. */
+    public Optional<Conflict> check(Long driverId, OffsetDateTime departureAt, OffsetDateTime arrivalAt) {
+        Optional<BusIntervalIndex.Booking> overlap = duties.findOverlap(driverId, departureAt, arrivalAt, null);
+        if (overlap.isPresent()) {
+            return Optional.of(new Conflict(Violation.OVERLAP, overlap.get().tripId(), String.format(
+                    "Driver already has trip %d between %s and %s",
+                    overlap.get().tripId(), overlap.get().departureAt(), overlap.get().arrivalAt())));
+        }
+        // Con el intervalo ampliado por el descanso mínimo, cualquier cruce es un descanso corto
+        Optional<BusIntervalIndex.Booking> tooClose = duties.findOverlap(driverId,
+                departureAt.minus(minRest), arrivalAt.plus(minRest), null);
+        if (tooClose.isPresent()) {
+            return Optional.of(new Conflict(Violation.REST, tooClose.get().tripId(), String.format(
+                    "Driver needs at least %d minutes of rest around trip %d",
+                    minRest.toMinutes(), tooClose.get().tripId())));
+        }
+        long total = drivenOn(driverId, dayOf(departureAt)) + minutes(departureAt, arrivalAt);
+        if (total > maxDailyDriving.toMinutes()) {
+            return Optional.of(new Conflict(Violation.DAILY_LIMIT, null, String.format(
+                    "Driver would drive %d minutes on %s, the daily limit is %d",
+                    total, dayOf(departureAt), maxDailyDriving.toMinutes())));
+        }
+        return Optional.empty();
+    }
+
+    // Fin del turno anterior a departureAt; el auto-asignador prefiere al que menos tiempo queda ocioso
+    public Optional<OffsetDateTime> previousArrival(Long driverId, OffsetDateTime departureAt) {
+        return duties.findPrevious(driverId, departureAt).map(BusIntervalIndex.Booking::arrivalAt);
+    }
+
+    // Los minutos cuentan completos para el día local de la salida, aunque el viaje cruce la medianoche
+    public long drivenOn(Long driverId, LocalDate day) {
+        return drivenMinutes.getOrDefault(driverId, Map.of()).getOrDefault(day, 0L);
+    }
+
+    public LocalDate dayOf(OffsetDateTime departureAt) {
+        return departureAt.atZoneSameInstant(zone).toLocalDate();
+    }
+
+    private static long minutes(OffsetDateTime departureAt, OffsetDateTime arrivalAt) {
+        return Duration.between(departureAt, arrivalAt).toMinutes();
+    }
+}
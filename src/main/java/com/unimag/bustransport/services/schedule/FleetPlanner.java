@@ -0,0 +1,217 @@
+package com.unimag.bustransport.services.schedule;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Asigna buses a los viajes de un día como coloreo voraz de un grafo de intervalos: los viajes
+ * se recorren por hora de salida y cada uno toma, en este orden,
+ * <ol>
+ *   <li>un bus libre que ya está en el origen (sin vacío),</li>
+ *   <li>un bus libre en otro terminal que alcanza a llegar en {@code deadhead} (viaje en vacío),</li>
+ *   <li>un bus todavía sin usar,</li>
+ * </ol>
+ * y dentro de cada grupo el de menor capacidad que cubre la demanda, para guardar los grandes.
+ * Los viajes fijos entran al mismo barrido: al salir ocupan su bus y lo dejan libre en su destino,
+ * así la ubicación y la hora en que queda libre cada bus salen de ellos. Un bus solo toma un viaje
+ * si después alcanza a llegar (directo o en vacío) al origen de su siguiente viaje fijo. Solo los
+ * buses sin ningún viaje conocido cuentan como disponibles en cualquier terminal.
+ * Sin restricciones de capacidad ni de terminal el barrido usa exactamente tantos buses como el
+ * máximo de viajes simultáneos ({@link Plan#lowerBound()}), que es el óptimo del grafo de intervalos.
+ * Los buses vuelven a estar libres por eventos en un heap, así cada viaje cuesta O(log n).
+ * No es thread-safe.
+ */
+public final class FleetPlanner {
+
+    private static final Comparator<Vehicle> BY_CAPACITY =
+            Comparator.comparingInt(Vehicle::capacity).thenComparing(Vehicle::busId);
+
+    private static final Comparator<TripDemand> BY_DEPARTURE = Comparator
+            .comparing(TripDemand::departureAt, OffsetDateTime.timeLineOrder())
+            .thenComparing(TripDemand::tripId);
+
+    private static final Comparator<PinnedTrip> PINNED_BY_DEPARTURE = Comparator
+            .comparing(PinnedTrip::departureAt, OffsetDateTime.timeLineOrder())
+            .thenComparing(PinnedTrip::tripId, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final Duration turnaround;
+    private final Duration deadhead;
+
+    public FleetPlanner(Duration turnaround, Duration deadhead) {
+        this.turnaround = turnaround;
+        this.deadhead = deadhead;
+    }
+
+    /**
+     * pinned son los viajes de los buses que no entran en el plan (con tiquetes, ya en curso, de
+     * otro día), incluido el último anterior de cada bus para saber dónde amanece.
+     */
+    public Plan plan(List<TripDemand> trips, List<Vehicle> buses, List<PinnedTrip> pinned) {
+        List<TripDemand> ordered = trips.stream().sorted(BY_DEPARTURE).toList();
+        Map<Long, Vehicle> vehicles = new HashMap<>();
+        buses.forEach(bus -> vehicles.put(bus.busId(), bus));
+        List<PinnedTrip> fixed = pinned.stream()
+                .filter(trip -> vehicles.containsKey(trip.busId()))
+                .sorted(PINNED_BY_DEPARTURE)
+                .toList();
+        Map<Long, NavigableSet<PinnedTrip>> fixedByBus = new HashMap<>();
+        fixed.forEach(trip -> fixedByBus.computeIfAbsent(trip.busId(), id -> new TreeSet<>(PINNED_BY_DEPARTURE)).add(trip));
+
+        Fleet fleet = new Fleet(buses);
+        List<Assignment> assignments = new ArrayList<>(ordered.size());
+        List<Unassigned> unassigned = new ArrayList<>();
+        Set<Long> used = new HashSet<>();
+        int deadheads = 0;
+        int nextFixed = 0;
+
+        for (TripDemand trip : ordered) {
+            // Los viajes fijos que ya salieron ocupan su bus igual que una asignación del plan
+            while (nextFixed < fixed.size() && !fixed.get(nextFixed).departureAt().isAfter(trip.departureAt())) {
+                PinnedTrip pinnedTrip = fixed.get(nextFixed++);
+                fleet.occupy(vehicles.get(pinnedTrip.busId()), pinnedTrip.destination(), pinnedTrip.arrivalAt());
+            }
+            fleet.releaseUntil(trip.departureAt());
+
+            boolean isDeadhead = false;
+            Vehicle chosen = firstFit(fleet.idleAt.get(trip.origin()), trip, fixedByBus);
+            if (chosen == null) {
+                chosen = firstFit(fleet.idleAnywhere, trip, fixedByBus);
+                isDeadhead = chosen != null;
+            }
+            if (chosen == null) {
+                chosen = firstFit(fleet.unused, trip, fixedByBus);
+            }
+            if (chosen == null) {
+                unassigned.add(new Unassigned(trip.tripId(),
+                        String.format("No bus with %d seats is available", trip.seats())));
+                continue;
+            }
+
+            Long busId = chosen.busId();
+            fleet.occupy(chosen, trip.destination(), trip.arrivalAt());
+
+            used.add(busId);
+            if (isDeadhead) {
+                deadheads++;
+            }
+            assignments.add(new Assignment(trip.tripId(), busId, isDeadhead));
+        }
+        return new Plan(assignments, unassigned, used.size(), deadheads, lowerBound(ordered));
+    }
+
+    // Máximo de viajes simultáneos contando el alistamiento: ningún plan puede usar menos buses
+    private int lowerBound(List<TripDemand> ordered) {
+        PriorityQueue<OffsetDateTime> busyUntil = new PriorityQueue<>(OffsetDateTime.timeLineOrder());
+        int max = 0;
+        for (TripDemand trip : ordered) {
+            while (!busyUntil.isEmpty() && !busyUntil.peek().isAfter(trip.departureAt())) {
+                busyUntil.poll();
+            }
+            busyUntil.add(trip.arrivalAt().plus(turnaround));
+            max = Math.max(max, busyUntil.size());
+        }
+        return max;
+    }
+
+    // El de menor capacidad que cubre la demanda y alcanza a llegar a su siguiente viaje fijo
+    private Vehicle firstFit(NavigableSet<Vehicle> candidates, TripDemand trip,
+                             Map<Long, NavigableSet<PinnedTrip>> fixedByBus) {
+        if (candidates == null) {
+            return null;
+        }
+        for (Vehicle vehicle : candidates.tailSet(new Vehicle(Long.MIN_VALUE, trip.seats()), true)) {
+            if (reachesNextFixed(fixedByBus.get(vehicle.busId()), trip)) {
+                return vehicle;
+            }
+        }
+        return null;
+    }
+
+    // Los fijos anteriores ya los resolvió el barrido (el bus está libre y donde debe); falta el siguiente
+    private boolean reachesNextFixed(NavigableSet<PinnedTrip> fixed, TripDemand trip) {
+        if (fixed == null) {
+            return true;
+        }
+        PinnedTrip next = fixed.higher(new PinnedTrip(null, null, null, null, trip.departureAt(), trip.departureAt()));
+        if (next == null) {
+            return true;
+        }
+        OffsetDateTime ready = trip.arrivalAt().plus(turnaround);
+        if (!trip.destination().equals(next.origin())) {
+            ready = ready.plus(deadhead);
+        }
+        return !ready.isAfter(next.departureAt());
+    }
+
+    public record TripDemand(Long tripId, String origin, String destination, OffsetDateTime departureAt,
+                             OffsetDateTime arrivalAt, int seats) {}
+
+    public record Vehicle(Long busId, int capacity) {}
+
+    public record PinnedTrip(Long busId, Long tripId, String origin, String destination,
+                             OffsetDateTime departureAt, OffsetDateTime arrivalAt) {}
+
+    public record Assignment(Long tripId, Long busId, boolean deadhead) {}
+
+    public record Unassigned(Long tripId, String reason) {}
+
+    public record Plan(List<Assignment> assignments, List<Unassigned> unassigned, int busesUsed, int deadheads,
+                       int lowerBound) {}
+
+    // anywhere: el bus ya alcanza a llegar en vacío a cualquier terminal
+    private record Release(OffsetDateTime at, Vehicle vehicle, String location, boolean anywhere, int generation) {}
+
+    // Estado del barrido: dónde está libre cada bus y cuándo vuelve a estarlo
+    private final class Fleet {
+        private final NavigableSet<Vehicle> unused = new TreeSet<>(BY_CAPACITY);
+        private final Map<String, NavigableSet<Vehicle>> idleAt = new HashMap<>();
+        private final NavigableSet<Vehicle> idleAnywhere = new TreeSet<>(BY_CAPACITY);
+        private final Map<Long, String> location = new HashMap<>();
+        // Cada viaje invalida los eventos pendientes del viaje anterior del bus
+        private final Map<Long, Integer> generation = new HashMap<>();
+        private final PriorityQueue<Release> releases = new PriorityQueue<>(
+                Comparator.comparing(Release::at, OffsetDateTime.timeLineOrder()));
+
+        private Fleet(List<Vehicle> buses) {
+            unused.addAll(buses);
+        }
+
+        private void releaseUntil(OffsetDateTime at) {
+            while (!releases.isEmpty() && !releases.peek().at().isAfter(at)) {
+                Release release = releases.poll();
+                if (release.generation() != generation.get(release.vehicle().busId())) {
+                    continue;
+                }
+                if (release.anywhere()) {
+                    idleAnywhere.add(release.vehicle());
+                } else {
+                    idleAt.computeIfAbsent(release.location(), key -> new TreeSet<>(BY_CAPACITY)).add(release.vehicle());
+                }
+            }
+        }
+
+        private void occupy(Vehicle vehicle, String destination, OffsetDateTime arrivalAt) {
+            Long busId = vehicle.busId();
+            unused.remove(vehicle);
+            idleAnywhere.remove(vehicle);
+            String previous = location.put(busId, destination);
+            if (previous != null && idleAt.containsKey(previous)) {
+                idleAt.get(previous).remove(vehicle);
+            }
+            int next = generation.merge(busId, 1, Integer::sum);
+            OffsetDateTime ready = arrivalAt.plus(turnaround);
+            releases.add(new Release(ready, vehicle, destination, false, next));
+            releases.add(new Release(ready.plus(deadhead), vehicle, destination, true, next));
+        }
+    }
+}
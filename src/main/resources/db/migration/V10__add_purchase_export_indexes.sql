@@ -0,0 +1,6 @@
+-- V10__add_purchase_export_indexes.sql
+-- La exportación por rango recorre purchases en orden de created_at con un cursor y trae
+-- los tickets de cada compra; sin estos índices cada exportación era un barrido completo.
+
+CREATE INDEX IF NOT EXISTS idx_purchases_created_at ON purchases(created_at, id);
+CREATE INDEX IF NOT EXISTS idx_tickets_purchase ON tickets(purchase_id);
@@ -0,0 +1,14 @@
+-- V11__add_keyset_pagination_indexes.sql
+-- Índices (filtro, id) para la paginación por keyset: cada página es un rango del índice
+-- que empieza en el cursor, así las páginas profundas cuestan lo mismo que la primera.
+-- Los listados sin filtro (buses, rutas, tarifas) usan directamente la llave primaria.
+
+CREATE INDEX IF NOT EXISTS idx_tickets_trip_id ON tickets(trip_id, id);
+CREATE INDEX IF NOT EXISTS idx_purchases_user_id ON purchases(user_id, id);
+CREATE INDEX IF NOT EXISTS idx_parcels_sender_id ON parcels(sender_phone, id);
+CREATE INDEX IF NOT EXISTS idx_incidents_entity_type_id ON incidents(entity_type, id);
+CREATE INDEX IF NOT EXISTS idx_users_role_status_id ON users(role, status, id);
+
+-- Quedan cubiertos por los anteriores
+DROP INDEX IF EXISTS idx_tickets_trip;
+DROP INDEX IF EXISTS idx_purchases_user;
@@ -0,0 +1,52 @@
+-- V12__create_parcel_events.sql
+-- Bitácora de escaneos y eventos de encomiendas (solo inserción). Guarda el código, la parada y
+-- el estado resultante desnormalizados para que el rastreo por código no necesite joins.
+
+CREATE TABLE IF NOT EXISTS parcel_events (
+    id BIGSERIAL PRIMARY KEY,
+    parcel_id BIGINT NOT NULL,
+    parcel_code VARCHAR(100) NOT NULL,
+    event_type VARCHAR(20) NOT NULL,
+    parcel_status VARCHAR(30) NOT NULL,
+    trip_id BIGINT,
+    stop_id BIGINT,
+    stop_name VARCHAR(200),
+    device_id VARCHAR(100),
+    scan_id VARCHAR(100),
+    note VARCHAR(500),
+    occurred_at TIMESTAMPTZ NOT NULL,
+    recorded_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    CONSTRAINT fk_parcel_event_parcel FOREIGN KEY (parcel_id) REFERENCES parcels(id) ON DELETE CASCADE
+    );
+
+-- Rastreo: historial de un código en orden de registro
+CREATE INDEX IF NOT EXISTS idx_parcel_events_code ON parcel_events(parcel_code, id);
+
+-- Reenvíos del handheld: un mismo escaneo no se registra dos veces
+CREATE UNIQUE INDEX IF NOT EXISTS uq_parcel_events_scan ON parcel_events(device_id, scan_id)
+    WHERE scan_id IS NOT NULL;
+
+-- Los eventos no se corrigen: se agrega uno nuevo
+CREATE OR REPLACE FUNCTION reject_parcel_event_update() RETURNS TRIGGER AS $$
+BEGIN
+    RAISE EXCEPTION 'parcel_events is append-only';
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_parcel_events_append_only ON parcel_events;
+CREATE TRIGGER trg_parcel_events_append_only
+    BEFORE UPDATE ON parcel_events
+    FOR EACH ROW EXECUTE FUNCTION reject_parcel_event_update();
+
+-- Un evento por encomienda existente con su estado actual, para que el rastreo no quede vacío
+INSERT INTO parcel_events (parcel_id, parcel_code, event_type, parcel_status, trip_id, note, occurred_at)
+SELECT p.id, p.code,
+       CASE p.status
+           WHEN 'IN_TRANSIT' THEN 'LOADED'
+           WHEN 'DELIVERED' THEN 'DELIVERED'
+           WHEN 'FAILED' THEN 'FAILED'
+           ELSE 'CREATED'
+           END,
+       p.status, p.trip_id, 'backfill', now()
+FROM parcels p
+WHERE NOT EXISTS (SELECT 1 FROM parcel_events e WHERE e.parcel_id = p.id);
@@ -0,0 +1,13 @@
+-- V13__add_parcel_cargo_load.sql
+-- Peso y volumen de cada encomienda y cupo de bodega de cada bus, para controlar la carga
+-- por tramo de los viajes. Las encomiendas existentes toman las medidas por defecto.
+
+ALTER TABLE parcels ADD COLUMN IF NOT EXISTS weight_kg NUMERIC(8,2) NOT NULL DEFAULT 5;
+ALTER TABLE parcels ADD COLUMN IF NOT EXISTS volume_liters NUMERIC(8,2) NOT NULL DEFAULT 20;
+
+-- Nulo = se usa el cupo por defecto configurado (parcels.cargo.default-capacity-*)
+ALTER TABLE buses ADD COLUMN IF NOT EXISTS cargo_capacity_kg NUMERIC(8,2);
+ALTER TABLE buses ADD COLUMN IF NOT EXISTS cargo_capacity_liters NUMERIC(10,2);
+
+-- Descargas por encomienda al reconstruir la carga de un viaje
+CREATE INDEX IF NOT EXISTS idx_parcel_events_parcel ON parcel_events(parcel_id, event_type);
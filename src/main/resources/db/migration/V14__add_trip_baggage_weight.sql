@@ -0,0 +1,16 @@
+-- V14__add_trip_baggage_weight.sql
+-- Peso total de equipaje por viaje, mantenido con sumas atómicas al registrar, editar o borrar
+-- maletas; evita agregar la tabla baggage para conocer la carga de un bus.
+
+ALTER TABLE trips ADD COLUMN IF NOT EXISTS baggage_weight_kg NUMERIC(10,2) NOT NULL DEFAULT 0;
+
+UPDATE trips t
+SET baggage_weight_kg = s.total
+FROM (
+    SELECT ti.trip_id, SUM(b.weight_kg) AS total
+    FROM baggage b
+    JOIN tickets ti ON ti.id = b.ticket_id
+    WHERE b.weight_kg IS NOT NULL
+    GROUP BY ti.trip_id
+) s
+WHERE s.trip_id = t.id;
@@ -0,0 +1,12 @@
+-- V15__pooled_id_sequences.sql
+-- Las entidades de alto volumen pasan de IDENTITY a secuencias agrupadas (allocationSize = 50):
+-- Hibernate reserva 50 ids con un solo nextval y puede agrupar los INSERT en batches JDBC.
+-- El incremento debe coincidir con allocationSize. Los DEFAULT de las columnas siguen usando
+-- la misma secuencia, así los INSERT nativos no chocan con los bloques ya reservados.
+
+ALTER SEQUENCE IF EXISTS seats_id_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS tickets_id_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS seat_holds_id_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS baggage_id_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS parcels_id_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS incidents_id_seq INCREMENT BY 50;
@@ -0,0 +1,5 @@
+-- V16__pooled_trip_sequence.sql
+-- Los horarios recurrentes crean miles de viajes de una vez: trips pasa también a secuencia
+-- agrupada (allocationSize = 50) para que esos INSERT salgan en batch, igual que en V15.
+
+ALTER SEQUENCE IF EXISTS trips_id_seq INCREMENT BY 50;
@@ -0,0 +1,7 @@
+-- V17__add_trip_bus_interval_index.sql
+-- Disponibilidad de buses por rango: solo los viajes activos entran al índice y la salida
+-- se acota por la duración máxima de un viaje, así la consulta no crece con el historial.
+-- arrival_at va incluido para resolver el cruce sin leer la tabla.
+
+CREATE INDEX IF NOT EXISTS idx_trips_bus_active ON trips(bus_id, departure_at) INCLUDE (arrival_at)
+    WHERE status IN ('SCHEDULED', 'BOARDING', 'DEPARTED');
@@ -0,0 +1,5 @@
+-- V18__add_assignment_driver_index.sql
+-- Turnos por conductor para el roster: la verificación de choques filtra por driver_id y
+-- une con trips por trip_id, que queda en el índice para no leer la tabla de asignaciones.
+
+CREATE INDEX IF NOT EXISTS idx_assignments_driver ON assignments(driver_id, trip_id);
@@ -0,0 +1,5 @@
+-- V19__make_parcel_trip_nullable.sql
+-- Las encomiendas quedan en CREATED sin viaje hasta que el despacho automático las asigna;
+-- V1 declaró trip_id NOT NULL, así que ninguna podía llegar a ese estado.
+
+ALTER TABLE parcels ALTER COLUMN trip_id DROP NOT NULL;
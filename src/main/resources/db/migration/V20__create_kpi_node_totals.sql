@@ -0,0 +1,15 @@
+-- V20__create_kpi_node_totals.sql
+-- Totales crudos de las ventanas de KPIs por nodo. Cada nodo reemplaza solo sus filas y la
+-- tabla kpis se arma sumando las de los nodos que reportaron hace poco; antes cada nodo
+-- sobrescribía kpis con su propia ventana y ganaba el último en escribir.
+
+CREATE TABLE IF NOT EXISTS kpi_node_totals (
+    node_id VARCHAR(100) NOT NULL,
+    "name" VARCHAR(100) NOT NULL,
+    "value" BIGINT NOT NULL,
+    calculated_at TIMESTAMPTZ NOT NULL,
+    PRIMARY KEY (node_id, "name")
+    );
+
+-- Suma de los nodos vigentes y limpieza de los que dejaron de reportar
+CREATE INDEX IF NOT EXISTS idx_kpi_node_totals_calculated ON kpi_node_totals(calculated_at);
@@ -0,0 +1,10 @@
+-- V21__create_code_node_leases.sql
+-- Reparto de los node-id (0..1023) de los códigos PAQ/BAG entre instancias. Un nodo sin
+-- parcels.codes.node-id toma el menor id libre o vencido y renueva el lease mientras vive;
+-- antes lo derivaba del hostname y dos nodos podían caer en el mismo id y repetir códigos.
+
+CREATE TABLE IF NOT EXISTS code_node_leases (
+    node_id INTEGER PRIMARY KEY CHECK (node_id BETWEEN 0 AND 1023),
+    owner VARCHAR(200) NOT NULL,
+    expires_at TIMESTAMPTZ NOT NULL
+    );
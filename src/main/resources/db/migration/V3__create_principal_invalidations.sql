@@ -0,0 +1,10 @@
+-- V3__create_principal_invalidations.sql
+-- Registro de invalidaciones de usuario para que todos los nodos limpien su cache de principals
+
+CREATE TABLE IF NOT EXISTS principal_invalidations (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT now()
+    );
+
+CREATE INDEX IF NOT EXISTS idx_principal_inv_created ON principal_invalidations(created_at);
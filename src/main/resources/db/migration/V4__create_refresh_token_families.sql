@@ -0,0 +1,20 @@
+-- V4__create_refresh_token_families.sql
+-- Una fila por sesión (familia de refresh tokens). Cada rotación incrementa generation;
+-- presentar una generación vieja se trata como reutilización y revoca la familia.
+
+CREATE TABLE IF NOT EXISTS refresh_token_families (
+    id BIGSERIAL PRIMARY KEY,
+    family_id UUID NOT NULL UNIQUE,
+    user_id BIGINT NOT NULL,
+    generation INT NOT NULL DEFAULT 0,
+    revoked BOOLEAN NOT NULL DEFAULT FALSE,
+    revoked_at TIMESTAMPTZ,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    last_used_at TIMESTAMPTZ,
+    expires_at TIMESTAMPTZ NOT NULL,
+    CONSTRAINT fk_refresh_family_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+    );
+
+CREATE INDEX IF NOT EXISTS idx_refresh_family_user ON refresh_token_families(user_id) WHERE revoked = FALSE;
+CREATE INDEX IF NOT EXISTS idx_refresh_family_revoked_at ON refresh_token_families(revoked_at) WHERE revoked = TRUE;
+CREATE INDEX IF NOT EXISTS idx_refresh_family_expires ON refresh_token_families(expires_at);
@@ -0,0 +1,3 @@
+-- V5__add_ticket_qr_index.sql
+-- Los QR antiguos (TICKET-<UUID>) se siguen validando por código
+CREATE INDEX IF NOT EXISTS idx_tickets_qr_code ON tickets(qr_code);
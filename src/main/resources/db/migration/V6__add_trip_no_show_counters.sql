@@ -0,0 +1,12 @@
+-- V6__add_trip_no_show_counters.sql
+-- Contadores por viaje que deja el proceso de no-shows (una pasada por viaje)
+ALTER TABLE trips
+    ADD COLUMN IF NOT EXISTS no_show_count INT NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS boarded_count INT NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS no_show_processed_at TIMESTAMPTZ;
+
+-- Los viajes que ya salieron no entran al proceso
+UPDATE trips SET no_show_processed_at = now() WHERE departure_at < now();
+
+CREATE INDEX IF NOT EXISTS idx_trips_no_show_pending ON trips(departure_at) WHERE no_show_processed_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_trips_no_show_processed ON trips(no_show_processed_at) WHERE no_show_processed_at IS NOT NULL;
@@ -0,0 +1,3 @@
+-- V7__widen_kpi_values.sql
+-- Los snapshots del motor de KPIs incluyen ingresos, que no caben en NUMERIC(10,4)
+ALTER TABLE kpis ALTER COLUMN "value" TYPE NUMERIC(18,4);
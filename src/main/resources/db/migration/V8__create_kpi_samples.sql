@@ -0,0 +1,18 @@
+-- V8__create_kpi_samples.sql
+-- Serie de tiempo de KPIs: muestras por minuto que se resumen a hora y a día.
+-- El índice único sirve las consultas por nombre y rango; el BRIN, los barridos por tiempo
+-- (resumen y retención), ya que las filas llegan en orden de bucket_start.
+
+CREATE TABLE IF NOT EXISTS kpi_samples (
+    id BIGSERIAL PRIMARY KEY,
+    "name" VARCHAR(100) NOT NULL,
+    resolution VARCHAR(10) NOT NULL,
+    bucket_start TIMESTAMPTZ NOT NULL,
+    "value" NUMERIC(18,4) NOT NULL,
+    min_value NUMERIC(18,4) NOT NULL,
+    max_value NUMERIC(18,4) NOT NULL,
+    sample_count INT NOT NULL DEFAULT 1,
+    CONSTRAINT uq_kpi_sample UNIQUE ("name", resolution, bucket_start)
+    );
+
+CREATE INDEX IF NOT EXISTS idx_kpi_samples_bucket_brin ON kpi_samples USING BRIN (bucket_start);
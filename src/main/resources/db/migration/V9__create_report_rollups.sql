@@ -0,0 +1,93 @@
+-- V9__create_report_rollups.sql
+-- Tablas resumen para los reportes de gerencia (ingresos por ruta y día, ocupación por viaje,
+-- reembolsos por tramo de política). Se refrescan de forma incremental a partir de una marca
+-- de agua sobre tickets.updated_at, así los reportes nunca leen purchases/tickets.
+
+-- Datos del reembolso; antes solo quedaba el ticket en CANCELLED
+ALTER TABLE tickets ADD COLUMN IF NOT EXISTS refund_amount NUMERIC(12,2);
+ALTER TABLE tickets ADD COLUMN IF NOT EXISTS refund_policy VARCHAR(20);
+ALTER TABLE tickets ADD COLUMN IF NOT EXISTS refunded_at TIMESTAMPTZ;
+
+-- Marca de cambio; la mantiene el trigger para cubrir también los UPDATE masivos
+ALTER TABLE tickets ADD COLUMN IF NOT EXISTS updated_at TIMESTAMPTZ NOT NULL DEFAULT now();
+
+CREATE OR REPLACE FUNCTION touch_updated_at() RETURNS TRIGGER AS $$
+BEGIN
+    NEW.updated_at = now();
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_tickets_updated_at ON tickets;
+CREATE TRIGGER trg_tickets_updated_at
+    BEFORE UPDATE ON tickets
+    FOR EACH ROW EXECUTE FUNCTION touch_updated_at();
+
+CREATE INDEX IF NOT EXISTS idx_tickets_updated_at ON tickets(updated_at);
+
+CREATE TABLE IF NOT EXISTS report_route_daily (
+    id BIGSERIAL PRIMARY KEY,
+    route_id BIGINT NOT NULL,
+    service_date DATE NOT NULL,
+    trips INT NOT NULL DEFAULT 0,
+    tickets_sold INT NOT NULL DEFAULT 0,
+    revenue NUMERIC(14,2) NOT NULL DEFAULT 0,
+    refreshed_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    CONSTRAINT uq_report_route_daily UNIQUE (service_date, route_id)
+    );
+
+CREATE TABLE IF NOT EXISTS report_trip_occupancy (
+    id BIGSERIAL PRIMARY KEY,
+    trip_id BIGINT NOT NULL,
+    route_id BIGINT NOT NULL,
+    service_date DATE NOT NULL,
+    capacity INT NOT NULL,
+    seats_sold INT NOT NULL DEFAULT 0,
+    boarded INT NOT NULL DEFAULT 0,
+    no_shows INT NOT NULL DEFAULT 0,
+    occupancy NUMERIC(6,4) NOT NULL DEFAULT 0,
+    refreshed_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    CONSTRAINT uq_report_trip_occupancy UNIQUE (trip_id)
+    );
+
+CREATE INDEX IF NOT EXISTS idx_report_trip_occupancy_date ON report_trip_occupancy(service_date, route_id);
+
+CREATE TABLE IF NOT EXISTS report_refunds_daily (
+    id BIGSERIAL PRIMARY KEY,
+    route_id BIGINT NOT NULL,
+    refund_date DATE NOT NULL,
+    policy VARCHAR(20) NOT NULL,
+    refunds INT NOT NULL DEFAULT 0,
+    refunded_amount NUMERIC(14,2) NOT NULL DEFAULT 0,
+    refreshed_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    CONSTRAINT uq_report_refunds_daily UNIQUE (refund_date, route_id, policy)
+    );
+
+CREATE TABLE IF NOT EXISTS report_watermarks (
+    "name" VARCHAR(50) PRIMARY KEY,
+    high_water TIMESTAMPTZ NOT NULL
+    );
+
+-- Carga inicial; a partir de aquí el refresco solo toca lo cambiado después de la marca
+INSERT INTO report_route_daily (route_id, service_date, trips, tickets_sold, revenue)
+SELECT tr.route_id, tr."date", COUNT(DISTINCT tr.id), COUNT(ti.id), COALESCE(SUM(ti.price), 0)
+FROM trips tr
+LEFT JOIN tickets ti ON ti.trip_id = tr.id AND ti.status IN ('SOLD', 'BOARDED', 'NO_SHOW')
+GROUP BY tr.route_id, tr."date"
+ON CONFLICT DO NOTHING;
+
+INSERT INTO report_trip_occupancy (trip_id, route_id, service_date, capacity, seats_sold, boarded, no_shows, occupancy)
+SELECT tr.id, tr.route_id, tr."date", b.capacity,
+       COUNT(ti.id) FILTER (WHERE ti.status IN ('SOLD', 'BOARDED', 'NO_SHOW')),
+       COUNT(ti.id) FILTER (WHERE ti.status = 'BOARDED'),
+       COUNT(ti.id) FILTER (WHERE ti.status = 'NO_SHOW'),
+       LEAST(COUNT(ti.id) FILTER (WHERE ti.status IN ('SOLD', 'BOARDED', 'NO_SHOW'))::NUMERIC / b.capacity, 99)
+FROM trips tr
+JOIN buses b ON b.id = tr.bus_id
+LEFT JOIN tickets ti ON ti.trip_id = tr.id
+GROUP BY tr.id, tr.route_id, tr."date", b.capacity
+ON CONFLICT DO NOTHING;
+
+INSERT INTO report_watermarks ("name", high_water)
+VALUES ('tickets', now())
+ON CONFLICT DO NOTHING;
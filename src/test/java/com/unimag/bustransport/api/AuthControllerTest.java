@@ -6,6 +6,7 @@ import com.unimag.bustransport.config.TestSecurityConfig;
 import com.unimag.bustransport.domain.entities.Role;
 import com.unimag.bustransport.security.dto.AuthDtos;
 import com.unimag.bustransport.security.jwt.JwtService;
+import com.unimag.bustransport.security.token.RefreshTokenStore;
 import com.unimag.bustransport.security.user.CustomUserDetails;
 import com.unimag.bustransport.security.user.CustomUserDetailsService;
 import com.unimag.bustransport.services.UserService;
@@ -25,9 +26,10 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.time.OffsetDateTime;
 import java.util.Date;
+import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -54,9 +56,14 @@ class AuthControllerTest {
     @MockitoBean
     private CustomUserDetailsService userDetailsService;
 
+    @MockitoBean
+    private RefreshTokenStore refreshTokenStore;
+
     @MockitoBean
     private CustomUserDetails userDetails;
 
+    private final UUID familyId = UUID.randomUUID();
+
     @BeforeEach
     void setUp() {
         userDetails = new CustomUserDetails(
@@ -188,7 +195,8 @@ class AuthControllerTest {
                 .thenReturn(authentication);
 
         when(jwtService.generateAccessToken(userDetails)).thenReturn("access-token-123");
-        when(jwtService.generateRefreshToken(userDetails)).thenReturn("refresh-token-456");
+        when(refreshTokenStore.openSession(1L)).thenReturn(new RefreshTokenStore.Session(1L, familyId, 0));
+        when(jwtService.generateRefreshToken(userDetails, familyId, 0)).thenReturn("refresh-token-456");
         when(jwtService.extractExpiration("access-token-123")).thenReturn(new Date(System.currentTimeMillis() + 3600000));
 
         // When & Then
@@ -205,7 +213,8 @@ class AuthControllerTest {
 
         verify(authenticationManager, times(1)).authenticate(any(UsernamePasswordAuthenticationToken.class));
         verify(jwtService, times(1)).generateAccessToken(userDetails);
-        verify(jwtService, times(1)).generateRefreshToken(userDetails);
+        verify(refreshTokenStore, times(1)).openSession(1L);
+        verify(jwtService, times(1)).generateRefreshToken(userDetails, familyId, 0);
     }
 
     @Test
@@ -227,7 +236,8 @@ class AuthControllerTest {
                 .andExpect(status().isUnauthorized());
 
         verify(jwtService, never()).generateAccessToken(any());
-        verify(jwtService, never()).generateRefreshToken(any());
+        verify(refreshTokenStore, never()).openSession(any());
+        verify(jwtService, never()).generateRefreshToken(any(), any(), anyInt());
     }
 
     @Test
@@ -257,10 +267,10 @@ class AuthControllerTest {
                 "refresh-token-456"
         );
 
-        when(jwtService.isRefreshTokenValid("refresh-token-456")).thenReturn(true);
-        when(jwtService.extractUserId("refresh-token-456")).thenReturn(1L);
+        when(refreshTokenStore.rotate("refresh-token-456")).thenReturn(new RefreshTokenStore.Session(1L, familyId, 1));
         when(userDetailsService.loadUserById(1L)).thenReturn(userDetails);
         when(jwtService.generateAccessToken(userDetails)).thenReturn("new-access-token-789");
+        when(jwtService.generateRefreshToken(userDetails, familyId, 1)).thenReturn("new-refresh-token-790");
         when(jwtService.extractExpiration("new-access-token-789")).thenReturn(new Date(System.currentTimeMillis() + 3600000));
 
         // When & Then
@@ -269,11 +279,11 @@ class AuthControllerTest {
                         .content(om.writeValueAsString(request)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.accessToken").value("new-access-token-789"))
+                .andExpect(jsonPath("$.refreshToken").value("new-refresh-token-790"))
                 .andExpect(jsonPath("$.tokenType").value("Bearer"))
                 .andExpect(jsonPath("$.expiresIn").isNumber());
 
-        verify(jwtService, times(1)).isRefreshTokenValid("refresh-token-456");
-        verify(jwtService, times(1)).extractUserId("refresh-token-456");
+        verify(refreshTokenStore, times(1)).rotate("refresh-token-456");
         verify(jwtService, times(1)).generateAccessToken(userDetails);
     }
 
@@ -285,7 +295,8 @@ class AuthControllerTest {
                 "invalid-refresh-token"
         );
 
-        when(jwtService.isRefreshTokenValid("invalid-refresh-token")).thenReturn(false);
+        when(refreshTokenStore.rotate("invalid-refresh-token"))
+                .thenThrow(new IllegalArgumentException("Invalid or expired refresh token"));
 
         // When & Then
         mvc.perform(post("/api/v1/auth/refresh-token")
@@ -294,7 +305,7 @@ class AuthControllerTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.message").value("Invalid or expired refresh token"));
 
-        verify(jwtService, times(1)).isRefreshTokenValid("invalid-refresh-token");
+        verify(refreshTokenStore, times(1)).rotate("invalid-refresh-token");
         verify(jwtService, never()).generateAccessToken(any());
     }
 
@@ -306,7 +317,8 @@ class AuthControllerTest {
                 "expired-refresh-token"
         );
 
-        when(jwtService.isRefreshTokenValid("expired-refresh-token")).thenReturn(false);
+        when(refreshTokenStore.rotate("expired-refresh-token"))
+                .thenThrow(new IllegalArgumentException("Invalid or expired refresh token"));
 
         // When & Then
         mvc.perform(post("/api/v1/auth/refresh-token")
@@ -314,7 +326,24 @@ class AuthControllerTest {
                         .content(om.writeValueAsString(request)))
                 .andExpect(status().isBadRequest());
 
-        verify(jwtService, never()).extractUserId(anyString());
+        verify(userDetailsService, never()).loadUserById(any());
+    }
+
+    @Test
+    @DisplayName("Debe cerrar sesión revocando la familia del refresh token")
+    void testLogout_Success() throws Exception {
+        // Given
+        AuthDtos.RefreshTokenRequest request = new AuthDtos.RefreshTokenRequest(
+                "refresh-token-456"
+        );
+
+        // When & Then
+        mvc.perform(post("/api/v1/auth/logout")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(request)))
+                .andExpect(status().isNoContent());
+
+        verify(refreshTokenStore, times(1)).revoke("refresh-token-456");
     }
 
     @Test
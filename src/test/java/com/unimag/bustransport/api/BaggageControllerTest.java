@@ -108,6 +108,33 @@ class BaggageControllerTest {
         verify(service).deleteBaggage(1L);
     }
 
+    @Test
+    void batch_shouldReturn200WithTagsAndRejections() throws Exception {
+        var req = new BaggageBatchRequest(List.of(new BaggageBatchItem(1L, 25.0), new BaggageBatchItem(2L, 8.0)));
+        var resp = new BaggageBatchResponse(10L, 2, 1, new BigDecimal("15000.00"), new BigDecimal("125.00"),
+                List.of(new BaggageTag(1L, 25.0, new BigDecimal("15000.00"), "BAG-20251112-0001")),
+                List.of(new BaggageRejection(1, 2L, "Ticket does not belong to this trip")));
+
+        when(service.registerBaggageBatch(eq(10L), any())).thenReturn(resp);
+
+        mvc.perform(post("/api/v1/baggage/by-trip/10/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(req)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.registered").value(1))
+                .andExpect(jsonPath("$.tripBaggageWeightKg").value(125.00))
+                .andExpect(jsonPath("$.tags[0].tagCode").value("BAG-20251112-0001"))
+                .andExpect(jsonPath("$.rejected[0].index").value(1));
+    }
+
+    @Test
+    void batch_shouldReturn400WhenEmpty() throws Exception {
+        mvc.perform(post("/api/v1/baggage/by-trip/10/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(new BaggageBatchRequest(List.of()))))
+                .andExpect(status().isBadRequest());
+    }
+
     // Helper
     private BaggageResponse baggageResponse(Long id, Double weightKg, BigDecimal fee, String tagCode, Long ticketId) {
         var ticketSummary = new BaggageResponse.TicketSummary(ticketId, "A12", "QR-" + ticketId);
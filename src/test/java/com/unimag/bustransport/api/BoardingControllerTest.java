@@ -0,0 +1,116 @@
+package com.unimag.bustransport.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.unimag.bustransport.api.dto.BoardingDtos.*;
+import com.unimag.bustransport.config.TestSecurityConfig;
+import com.unimag.bustransport.exception.InvalidCredentialsException;
+import com.unimag.bustransport.security.jwt.JwtService;
+import com.unimag.bustransport.security.user.CustomUserDetailsService;
+import com.unimag.bustransport.services.BoardingManifestService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(BoardingController.class)
+@Import(TestSecurityConfig.class)
+class BoardingControllerTest {
+
+    @Autowired MockMvc mvc;
+    @Autowired ObjectMapper om;
+    @MockitoBean BoardingManifestService service;
+
+    @MockitoBean
+    private JwtService jwtService;
+
+    @MockitoBean
+    private AuthenticationManager authenticationManager;
+
+    @MockitoBean
+    private CustomUserDetailsService userDetailsService;
+
+    @Test
+    void manifest_shouldReturn200() throws Exception {
+        var entry = new ManifestResponse.ManifestEntry(10L, "1A", "Juan Pérez", "TK1.abc", 0, 3, "SOLD");
+        when(service.getManifest(1L))
+                .thenReturn(new ManifestResponse(1L, OffsetDateTime.now(), 1, 0, List.of(entry)));
+
+        mvc.perform(get("/api/v1/boarding/trips/1/manifest"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tripId").value(1))
+                .andExpect(jsonPath("$.totalTickets").value(1))
+                .andExpect(jsonPath("$.entries[0].qrCode").value("TK1.abc"));
+    }
+
+    @Test
+    void scan_shouldReturnValid() throws Exception {
+        when(service.scan(1L, "TK1.abc"))
+                .thenReturn(new ScanResponse(true, 10L, "1A", "Juan Pérez", "Valid ticket"));
+
+        mvc.perform(post("/api/v1/boarding/trips/1/scan")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(new ScanRequest("TK1.abc"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.valid").value(true))
+                .andExpect(jsonPath("$.seatNumber").value("1A"));
+    }
+
+    @Test
+    void scan_shouldReturn401WhenRejected() throws Exception {
+        when(service.scan(1L, "TK1.abc"))
+                .thenThrow(new InvalidCredentialsException("El ticket no está activo (status: BOARDED)"));
+
+        mvc.perform(post("/api/v1/boarding/trips/1/scan")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(new ScanRequest("TK1.abc"))))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.message").value("El ticket no está activo (status: BOARDED)"));
+    }
+
+    @Test
+    void scan_shouldReturn500WhenScanFails() throws Exception {
+        when(service.scan(1L, "TK1.abc"))
+                .thenThrow(new DataAccessResourceFailureException("connection refused"));
+
+        mvc.perform(post("/api/v1/boarding/trips/1/scan")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(new ScanRequest("TK1.abc"))))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.message").value("Unexpected error"));
+    }
+
+    @Test
+    void scanBatch_shouldReturn200() throws Exception {
+        var req = new BatchScanRequest("gate-1", List.of(new BatchScanRequest.ScanItem("TK1.abc", null)));
+        var result = new BatchScanResponse.ScanResult("TK1.abc", ScanOutcome.BOARDED, 10L, "1A", "Valid ticket");
+        when(service.scanBatch(1L, req))
+                .thenReturn(new BatchScanResponse(1L, "gate-1", 1, 0, 0, List.of(result)));
+
+        mvc.perform(post("/api/v1/boarding/trips/1/scans")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(req)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.boarded").value(1))
+                .andExpect(jsonPath("$.results[0].outcome").value("BOARDED"));
+    }
+
+    @Test
+    void scanBatch_shouldReturn400WhenEmpty() throws Exception {
+        mvc.perform(post("/api/v1/boarding/trips/1/scans")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(new BatchScanRequest("gate-1", List.of()))))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -3,6 +3,7 @@ package com.unimag.bustransport.api;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.unimag.bustransport.api.dto.BusDtos.*;
 import com.unimag.bustransport.api.dto.SeatDtos.SeatResponse;
+import com.unimag.bustransport.api.dto.PageDtos.CursorPage;
 import com.unimag.bustransport.config.TestSecurityConfig;
 import com.unimag.bustransport.domain.entities.Bus;
 import com.unimag.bustransport.exception.NotFoundException;
@@ -18,6 +19,7 @@ import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
@@ -47,8 +49,8 @@ class BusControllerTest {
 
     @Test
     void create_shouldReturn201AndLocation() throws Exception {
-        var req = new BusCreateRequest("ABC-123", 40, List.of("WiFi", "Aire acondicionado"), Bus.Status.ACTIVE);
-        var resp = new BusResponse(1L, "ABC-123", 40, List.of("WiFi", "Aire acondicionado"), "ACTIVE", 40);
+        var req = new BusCreateRequest("ABC-123", 40, List.of("WiFi", "Aire acondicionado"), Bus.Status.ACTIVE, null, null);
+        var resp = new BusResponse(1L, "ABC-123", 40, List.of("WiFi", "Aire acondicionado"), "ACTIVE", 40, null, null);
 
         when(service.createBus(any())).thenReturn(resp);
 
@@ -65,7 +67,7 @@ class BusControllerTest {
     @Test
     void get_shouldReturn200() throws Exception {
         when(service.getBus(5L))
-                .thenReturn(new BusResponse(5L, "XYZ-789", 45, List.of("WiFi", "Baño"), "ACTIVE", 45));
+                .thenReturn(new BusResponse(5L, "XYZ-789", 45, List.of("WiFi", "Baño"), "ACTIVE", 45, null, null));
 
         mvc.perform(get("/api/v1/buses/5"))
                 .andExpect(status().isOk())
@@ -86,16 +88,17 @@ class BusControllerTest {
     @Test
     void getAll_shouldReturn200() throws Exception {
         var buses = List.of(
-                new BusResponse(1L, "ABC-123", 40, List.of("WiFi"), "ACTIVE", 40),
-                new BusResponse(2L, "DEF-456", 42, List.of("WiFi", "Aire acondicionado"), "ACTIVE", 42)
+                new BusResponse(1L, "ABC-123", 40, List.of("WiFi"), "ACTIVE", 40, null, null),
+                new BusResponse(2L, "DEF-456", 42, List.of("WiFi", "Aire acondicionado"), "ACTIVE", 42, null, null)
         );
 
-        when(service.getAllBus()).thenReturn(buses);
+        when(service.getAllBus(null, null)).thenReturn(new CursorPage<>(buses, 50, false, null));
 
         mvc.perform(get("/api/v1/buses"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isArray())
-                .andExpect(jsonPath("$.length()").value(2));
+                .andExpect(jsonPath("$.items").isArray())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.hasMore").value(false));
     }
 
     @Test
@@ -115,7 +118,8 @@ class BusControllerTest {
 
     @Test
     void update_shouldReturn204() throws Exception {
-        var req = new BusUpdateRequest(42, List.of("WiFi", "Aire acondicionado", "Baño"), Bus.Status.IN_REPAIR);
+        var req = new BusUpdateRequest(42, List.of("WiFi", "Aire acondicionado", "Baño"), Bus.Status.IN_REPAIR,
+                new BigDecimal("800.0"), null);
 
         mvc.perform(patch("/api/v1/buses/1")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -2,6 +2,7 @@ package com.unimag.bustransport.api;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.unimag.bustransport.api.dto.FareRuleDtos.*;
+import com.unimag.bustransport.api.dto.PageDtos.CursorPage;
 import com.unimag.bustransport.config.TestSecurityConfig;
 import com.unimag.bustransport.domain.entities.FareRule;
 import com.unimag.bustransport.security.jwt.JwtService;
@@ -82,12 +83,13 @@ class FareRuleControllerTest {
                 fareRuleResponse(2L, 1L, 1L, 2L, new BigDecimal("25000.00"), Map.of("SENIOR", 0.30))
         );
 
-        when(service.getAllFareRules()).thenReturn(fareRules);
+        when(service.getAllFareRules(null, null)).thenReturn(new CursorPage<>(fareRules, 50, false, null));
 
         mvc.perform(get("/api/v1/fare-rules"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isArray())
-                .andExpect(jsonPath("$.length()").value(2));
+                .andExpect(jsonPath("$.items").isArray())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.hasMore").value(false));
     }
 
     @Test
@@ -0,0 +1,69 @@
+package com.unimag.bustransport.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.unimag.bustransport.api.dto.FleetDtos.*;
+import com.unimag.bustransport.config.TestSecurityConfig;
+import com.unimag.bustransport.security.jwt.JwtService;
+import com.unimag.bustransport.security.user.CustomUserDetailsService;
+import com.unimag.bustransport.services.FleetService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(FleetController.class)
+@Import(TestSecurityConfig.class)
+class FleetControllerTest {
+
+    @Autowired MockMvc mvc;
+    @Autowired ObjectMapper om;
+    @MockitoBean FleetService service;
+
+    @MockitoBean
+    private JwtService jwtService;
+
+    @MockitoBean
+    private AuthenticationManager authenticationManager;
+
+    @MockitoBean
+    private CustomUserDetailsService userDetailsService;
+
+    @Test
+    void plan_dryRun_shouldReturn200() throws Exception {
+        var departure = OffsetDateTime.parse("2030-01-07T06:00:00-05:00");
+        when(service.plan(any(), eq(true))).thenReturn(new FleetPlanResponse(LocalDate.of(2030, 1, 7), true,
+                1, 3, 1, 1, 0, 1, List.of(new FleetAssignment(10L, departure, 2L, 1L, false)), List.of(), 2));
+
+        mvc.perform(post("/api/v1/trips/fleet-plan").param("dryRun", "true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(new FleetPlanRequest(LocalDate.of(2030, 1, 7), null, null, null))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.busesUsed").value(1))
+                .andExpect(jsonPath("$.assignments[0].previousBusId").value(1));
+    }
+
+    @Test
+    void plan_withNegativeTurnaround_shouldReturn400() throws Exception {
+        mvc.perform(post("/api/v1/trips/fleet-plan")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(new FleetPlanRequest(LocalDate.of(2030, 1, 7), null, -5, null))))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(service);
+    }
+}
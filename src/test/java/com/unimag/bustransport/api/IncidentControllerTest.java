@@ -2,6 +2,7 @@ package com.unimag.bustransport.api;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.unimag.bustransport.api.dto.IncidentDtos.*;
+import com.unimag.bustransport.api.dto.PageDtos.CursorPage;
 import com.unimag.bustransport.config.TestSecurityConfig;
 import com.unimag.bustransport.domain.entities.Incident;
 import com.unimag.bustransport.security.jwt.JwtService;
@@ -69,12 +70,13 @@ class IncidentControllerTest {
                 incidentResponse(2L, "TRIP", 11L, "DELAY", "Retraso de 30 minutos por tráfico")
         );
 
-        when(service.findByIncidentByType(Incident.EntityType.TRIP)).thenReturn(incidents);
+        when(service.findByIncidentByType(Incident.EntityType.TRIP, null, null)).thenReturn(new CursorPage<>(incidents, 50, false, null));
 
         mvc.perform(get("/api/v1/incidents/by-entity-type/TRIP"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isArray())
-                .andExpect(jsonPath("$.length()").value(2));
+                .andExpect(jsonPath("$.items").isArray())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.hasMore").value(false));
     }
 
     @Test
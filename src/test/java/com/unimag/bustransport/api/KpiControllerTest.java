@@ -123,4 +123,21 @@ class KpiControllerTest {
         return new KpiResponse(id, name, value,
                 OffsetDateTime.parse("2025-11-20T00:00:00-05:00"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getSeries_shouldReturn200() throws Exception {
+        var from = OffsetDateTime.parse("2025-11-01T00:00:00Z");
+        var to = OffsetDateTime.parse("2025-12-01T00:00:00Z");
+        var point = new KpiSeriesResponse.KpiPoint(from, 0.8, 0.7, 0.9, 60);
+        when(service.getSeries(eq("occupancy.24h"), any(), any(), eq(null)))
+                .thenReturn(new KpiSeriesResponse("occupancy.24h", "HOUR", from, to, List.of(point)));
+
+        mvc.perform(get("/api/v1/kpis/series")
+                        .param("name", "occupancy.24h")
+                        .param("from", "2025-11-01T00:00:00Z")
+                        .param("to", "2025-12-01T00:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.resolution").value("HOUR"))
+                .andExpect(jsonPath("$.points[0].value").value(0.8));
+    }
+}
@@ -2,11 +2,15 @@ package com.unimag.bustransport.api;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.unimag.bustransport.api.dto.ParcelDtos.*;
+import com.unimag.bustransport.api.dto.PageDtos.CursorPage;
 import com.unimag.bustransport.config.TestSecurityConfig;
 import com.unimag.bustransport.exception.NotFoundException;
 import com.unimag.bustransport.security.jwt.JwtService;
 import com.unimag.bustransport.security.user.CustomUserDetailsService;
+import com.unimag.bustransport.domain.entities.ParcelEvent;
+import com.unimag.bustransport.services.ParcelDispatchService;
 import com.unimag.bustransport.services.ParcelService;
+import com.unimag.bustransport.services.ParcelTrackingService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -17,6 +21,7 @@ import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
+import java.time.OffsetDateTime;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
@@ -33,6 +38,8 @@ class ParcelControllerTest {
     @Autowired MockMvc mvc;
     @Autowired ObjectMapper om;
     @MockitoBean ParcelService service;
+    @MockitoBean ParcelTrackingService trackingService;
+    @MockitoBean ParcelDispatchService dispatchService;
 
     @MockitoBean
     private JwtService jwtService;
@@ -47,7 +54,7 @@ class ParcelControllerTest {
     @Test
     void create_shouldReturn201AndLocation() throws Exception {
         var req = new ParcelCreateRequest(new BigDecimal("25000.00"), "Robert Martínez", "+573001234567",
-                "Claudia López", "+573007654321", 1L, 3L, 10L);
+                "Claudia López", "+573007654321", 1L, 3L, 10L, new BigDecimal("3.5"), new BigDecimal("12"));
         var resp = parcelResponse(1L, "PCL-001", "PENDING");
 
         when(service.createParcel(any())).thenReturn(resp);
@@ -90,13 +97,14 @@ class ParcelControllerTest {
                 parcelResponse(2L, "PCL-002", "DELIVERED")
         );
 
-        when(service.getParcelsBySender("+573001234567")).thenReturn(parcels);
+        when(service.getParcelsBySender("+573001234567", null, null)).thenReturn(new CursorPage<>(parcels, 50, false, null));
 
         mvc.perform(get("/api/v1/parcels/by-sender")
                         .param("phone", "+573001234567"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isArray())
-                .andExpect(jsonPath("$.length()").value(2));
+                .andExpect(jsonPath("$.items").isArray())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.hasMore").value(false));
     }
 
     @Test
@@ -178,6 +186,65 @@ class ParcelControllerTest {
         verify(service).markAsFailed(1L, "Destinatario no encontrado");
     }
 
+    @Test
+    void track_shouldReturn200() throws Exception {
+        var at = OffsetDateTime.parse("2025-11-12T08:00:00-05:00");
+        when(trackingService.track("PAQ-1")).thenReturn(new TrackingResponse("PAQ-1", "IN_TRANSIT", List.of(
+                new TrackingEvent("CREATED", "CREATED", null, null, null, at),
+                new TrackingEvent("LOADED", "IN_TRANSIT", 10L, null, null, at.plusHours(1))
+        )));
+
+        mvc.perform(get("/api/v1/parcels/track/PAQ-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("IN_TRANSIT"))
+                .andExpect(jsonPath("$.events.length()").value(2))
+                .andExpect(jsonPath("$.events[1].tripId").value(10));
+    }
+
+    @Test
+    void track_shouldReturn404WhenUnknownCode() throws Exception {
+        when(trackingService.track("NOPE")).thenThrow(new NotFoundException("Parcel with code NOPE not found"));
+
+        mvc.perform(get("/api/v1/parcels/track/NOPE"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void scans_shouldReturn200WithRejections() throws Exception {
+        var req = new ScanBatchRequest("HH-01", List.of(
+                new ScanRequest("s1", "PAQ-1", ParcelEvent.Type.LOADED, 10L, null, null, null, null),
+                new ScanRequest("s2", "PAQ-X", ParcelEvent.Type.UNLOADED, null, 3L, null, null, null)
+        ));
+        when(trackingService.applyScans(any())).thenReturn(new ScanBatchResponse(2, 1, 0,
+                List.of(new ScanRejection("s2", "PAQ-X", "Parcel not found"))));
+
+        mvc.perform(post("/api/v1/parcels/scans")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(req)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.applied").value(1))
+                .andExpect(jsonPath("$.rejected[0].reason").value("Parcel not found"));
+    }
+
+    @Test
+    void scans_shouldReturn400WhenBatchEmpty() throws Exception {
+        mvc.perform(post("/api/v1/parcels/scans")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(new ScanBatchRequest("HH-01", List.of()))))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void autoAssign_shouldReturn200() throws Exception {
+        when(dispatchService.autoAssignPendingParcels()).thenReturn(new AutoAssignResponse(50, 45, 5, 2, 12));
+
+        mvc.perform(post("/api/v1/parcels/auto-assign"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.assigned").value(45))
+                .andExpect(jsonPath("$.unassigned").value(5))
+                .andExpect(jsonPath("$.trips").value(2));
+    }
+
     // Helper
     private ParcelResponse parcelResponse(Long id, String code, String status) {
         var tripSummary = new ParcelResponse.TripSummary(10L, "Santa Marta", "Barranquilla");
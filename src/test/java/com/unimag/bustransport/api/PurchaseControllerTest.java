@@ -2,10 +2,12 @@ package com.unimag.bustransport.api;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.unimag.bustransport.api.dto.PurchaseDtos.*;
+import com.unimag.bustransport.api.dto.PageDtos.CursorPage;
 import com.unimag.bustransport.config.TestSecurityConfig;
 import com.unimag.bustransport.exception.NotFoundException;
 import com.unimag.bustransport.security.jwt.JwtService;
 import com.unimag.bustransport.security.user.CustomUserDetailsService;
+import com.unimag.bustransport.services.PurchaseExportService;
 import com.unimag.bustransport.services.PurchaseService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,16 +18,22 @@ import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.OffsetDateTime;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 
 @WebMvcTest(PurchaseController.class)
 @Import(TestSecurityConfig.class)
@@ -34,6 +42,7 @@ class PurchaseControllerTest {
     @Autowired MockMvc mvc;
     @Autowired ObjectMapper om;
     @MockitoBean PurchaseService service;
+    @MockitoBean PurchaseExportService exportService;
 
     @MockitoBean
     private JwtService jwtService;
@@ -45,6 +54,42 @@ class PurchaseControllerTest {
     private CustomUserDetailsService userDetailsService;
 
 
+    @Test
+    void export_shouldStreamNdjson() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(3);
+            out.write("{\"id\":1}\n{\"id\":2}\n".getBytes(StandardCharsets.UTF_8));
+            return 2L;
+        }).when(exportService).exportByDateRange(any(), any(), eq(ExportFormat.NDJSON), any());
+
+        var result = mvc.perform(get("/api/v1/purchases/export")
+                        .param("start", "2025-06-01T00:00:00-05:00")
+                        .param("end", "2025-06-30T23:59:59-05:00"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(header().string("Content-Disposition",
+                        "attachment; filename=\"purchases-2025-06-01-2025-06-30.ndjson\""))
+                .andExpect(content().string("{\"id\":1}\n{\"id\":2}\n"));
+    }
+
+    @Test
+    void export_invalidRange_shouldReturn400BeforeStreaming() throws Exception {
+        doThrow(new IllegalArgumentException("Start date must be before end date"))
+                .when(exportService).validateExportRange(any(), any());
+
+        mvc.perform(get("/api/v1/purchases/export")
+                        .param("start", "2025-06-30T00:00:00-05:00")
+                        .param("end", "2025-06-01T00:00:00-05:00")
+                        .param("format", "CSV"))
+                .andExpect(status().isBadRequest());
+
+        verify(exportService, never()).exportByDateRange(any(), any(), any(), any());
+    }
+
     @Test
     void create_shouldReturn201AndLocation() throws Exception {
         var ticketReq = new PurchaseCreateRequest.TicketRequest(
@@ -93,12 +138,13 @@ class PurchaseControllerTest {
                 purchaseResponse(2L, new BigDecimal("90000.00"), "CASH", "CONFIRMED")
         );
 
-        when(service.getPurchasesByUserId(5L)).thenReturn(purchases);
+        when(service.getPurchasesByUserId(5L, null, null)).thenReturn(new CursorPage<>(purchases, 50, false, null));
 
         mvc.perform(get("/api/v1/purchases/by-user/5"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isArray())
-                .andExpect(jsonPath("$.length()").value(2));
+                .andExpect(jsonPath("$.items").isArray())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.hasMore").value(false));
     }
 
     @Test
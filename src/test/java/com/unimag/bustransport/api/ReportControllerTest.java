@@ -0,0 +1,100 @@
+package com.unimag.bustransport.api;
+
+import com.unimag.bustransport.api.dto.ReportDtos.RefundPolicyRow;
+import com.unimag.bustransport.api.dto.ReportDtos.RouteRevenueRow;
+import com.unimag.bustransport.api.dto.ReportDtos.TripOccupancyRow;
+import com.unimag.bustransport.config.TestSecurityConfig;
+import com.unimag.bustransport.security.jwt.JwtService;
+import com.unimag.bustransport.security.user.CustomUserDetailsService;
+import com.unimag.bustransport.services.ReportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ReportController.class)
+@Import(TestSecurityConfig.class)
+class ReportControllerTest {
+
+    @Autowired MockMvc mvc;
+    @MockitoBean ReportService service;
+
+    @MockitoBean
+    private JwtService jwtService;
+
+    @MockitoBean
+    private AuthenticationManager authenticationManager;
+
+    @MockitoBean
+    private CustomUserDetailsService userDetailsService;
+
+    @Test
+    void revenueByRoute_shouldReturn200() throws Exception {
+        var day = LocalDate.of(2025, 6, 1);
+        when(service.getRevenueByRoute(day, LocalDate.of(2025, 6, 30), null)).thenReturn(List.of(
+                new RouteRevenueRow(1L, day, 4, 120, BigDecimal.valueOf(6000000), OffsetDateTime.now())));
+
+        mvc.perform(get("/api/v1/reports/revenue-by-route")
+                        .param("from", "2025-06-01")
+                        .param("to", "2025-06-30"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].routeId").value(1))
+                .andExpect(jsonPath("$[0].serviceDate").value("2025-06-01"))
+                .andExpect(jsonPath("$[0].ticketsSold").value(120));
+    }
+
+    @Test
+    void occupancyByTrip_withRoute_shouldReturn200() throws Exception {
+        var day = LocalDate.of(2025, 6, 1);
+        when(service.getOccupancyByTrip(day, day, 3L)).thenReturn(List.of(
+                new TripOccupancyRow(10L, 3L, day, 40, 30, 28, 2, new BigDecimal("0.7500"), OffsetDateTime.now())));
+
+        mvc.perform(get("/api/v1/reports/occupancy-by-trip")
+                        .param("from", "2025-06-01")
+                        .param("to", "2025-06-01")
+                        .param("routeId", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].tripId").value(10))
+                .andExpect(jsonPath("$[0].occupancy").value(0.75));
+    }
+
+    @Test
+    void refundsByPolicy_shouldReturn200() throws Exception {
+        var day = LocalDate.of(2025, 6, 1);
+        when(service.getRefundsByPolicy(eq(day), eq(day), isNull())).thenReturn(List.of(
+                new RefundPolicyRow(3L, day, "OVER_24H", 5, BigDecimal.valueOf(450000), OffsetDateTime.now())));
+
+        mvc.perform(get("/api/v1/reports/refunds-by-policy")
+                        .param("from", "2025-06-01")
+                        .param("to", "2025-06-01"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].policy").value("OVER_24H"))
+                .andExpect(jsonPath("$[0].refunds").value(5));
+    }
+
+    @Test
+    void revenueByRoute_invalidRange_shouldReturn400() throws Exception {
+        when(service.getRevenueByRoute(any(), any(), any()))
+                .thenThrow(new IllegalArgumentException("Invalid date range"));
+
+        mvc.perform(get("/api/v1/reports/revenue-by-route")
+                        .param("from", "2025-06-30")
+                        .param("to", "2025-06-01"))
+                .andExpect(status().isBadRequest());
+    }
+}
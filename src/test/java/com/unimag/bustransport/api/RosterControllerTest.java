@@ -0,0 +1,93 @@
+package com.unimag.bustransport.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.unimag.bustransport.api.dto.RosterDtos.*;
+import com.unimag.bustransport.config.TestSecurityConfig;
+import com.unimag.bustransport.security.jwt.JwtService;
+import com.unimag.bustransport.security.user.CustomUserDetailsService;
+import com.unimag.bustransport.services.RosterService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(RosterController.class)
+@Import(TestSecurityConfig.class)
+class RosterControllerTest {
+
+    @Autowired MockMvc mvc;
+    @Autowired ObjectMapper om;
+    @MockitoBean RosterService service;
+
+    @MockitoBean
+    private JwtService jwtService;
+
+    @MockitoBean
+    private AuthenticationManager authenticationManager;
+
+    @MockitoBean
+    private CustomUserDetailsService userDetailsService;
+
+    @Test
+    void conflicts_shouldReturn200() throws Exception {
+        when(service.findConflicts(LocalDate.of(2030, 1, 7))).thenReturn(List.of(
+                new RosterConflict(1L, 43L, 42L, "OVERLAP", "Driver already has trip 42")));
+
+        mvc.perform(get("/api/v1/assignments/roster/conflicts").param("date", "2030-01-07"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].tripId").value(43))
+                .andExpect(jsonPath("$[0].violation").value("OVERLAP"));
+    }
+
+    @Test
+    void autoAssign_shouldReturn201() throws Exception {
+        var departure = OffsetDateTime.parse("2030-01-07T06:00:00-05:00");
+        when(service.autoAssign(any(), eq(false))).thenReturn(new AutoAssignResponse(LocalDate.of(2030, 1, 7), false,
+                1, 1, List.of(new DriverAssignment(101L, 1L, departure, departure.plusHours(2))), List.of(), 4));
+
+        mvc.perform(post("/api/v1/assignments/roster/auto-assign")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(new AutoAssignRequest(LocalDate.of(2030, 1, 7), 9L, null))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.assigned").value(1))
+                .andExpect(jsonPath("$.assignments[0].driverId").value(1));
+    }
+
+    @Test
+    void autoAssign_dryRun_shouldReturn200() throws Exception {
+        when(service.autoAssign(any(), eq(true))).thenReturn(new AutoAssignResponse(LocalDate.of(2030, 1, 7), true,
+                0, 0, List.of(), List.of(), 1));
+
+        mvc.perform(post("/api/v1/assignments/roster/auto-assign").param("dryRun", "true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(new AutoAssignRequest(LocalDate.of(2030, 1, 7), 9L, null))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.dryRun").value(true));
+    }
+
+    @Test
+    void autoAssign_withoutDate_shouldReturn400() throws Exception {
+        mvc.perform(post("/api/v1/assignments/roster/auto-assign")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"dispatcherId\":9}"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(service);
+    }
+}
@@ -3,6 +3,7 @@ package com.unimag.bustransport.api;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.unimag.bustransport.api.dto.RouteDtos.*;
 import com.unimag.bustransport.api.dto.StopDtos.*;
+import com.unimag.bustransport.api.dto.PageDtos.CursorPage;
 import com.unimag.bustransport.config.TestSecurityConfig;
 import com.unimag.bustransport.exception.NotFoundException;
 import com.unimag.bustransport.security.jwt.JwtService;
@@ -93,12 +94,13 @@ class RouteControllerTest {
                 routeResponse(2L, "BAQ-CTG-01", "Ruta BAQ-CTG", "Barranquilla", "Cartagena", 110.0, 150)
         );
 
-        when(service.getAllRoutes()).thenReturn(routes);
+        when(service.getAllRoutes(null, null)).thenReturn(new CursorPage<>(routes, 50, false, null));
 
         mvc.perform(get("/api/v1/routes"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isArray())
-                .andExpect(jsonPath("$.length()").value(2));
+                .andExpect(jsonPath("$.items").isArray())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.hasMore").value(false));
     }
 
     @Test
@@ -2,6 +2,7 @@ package com.unimag.bustransport.api;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.unimag.bustransport.api.dto.TicketDtos.*;
+import com.unimag.bustransport.api.dto.PageDtos.CursorPage;
 import com.unimag.bustransport.config.TestSecurityConfig;
 import com.unimag.bustransport.exception.NotFoundException;
 import com.unimag.bustransport.security.jwt.JwtService;
@@ -71,12 +72,16 @@ class TicketControllerTest {
                 ticketResponse(2L, "A13", new BigDecimal("45000.00"), "SOLD")
         );
 
-        when(service.getTicketsByTrip(1L)).thenReturn(tickets);
+        when(service.getTicketsByTrip(1L, "aWQ6MTA", 2)).thenReturn(new CursorPage<>(tickets, 2, true, "aWQ6Mg"));
 
-        mvc.perform(get("/api/v1/tickets/by-trip/1"))
+        mvc.perform(get("/api/v1/tickets/by-trip/1")
+                        .param("cursor", "aWQ6MTA")
+                        .param("limit", "2"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isArray())
-                .andExpect(jsonPath("$.length()").value(2));
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.limit").value(2))
+                .andExpect(jsonPath("$.hasMore").value(true))
+                .andExpect(jsonPath("$.nextCursor").value("aWQ6Mg"));
     }
 
     @Test
@@ -127,7 +132,7 @@ class TicketControllerTest {
     @Test
     void validateQr_shouldReturn200WithInvalidTicket() throws Exception {
         doThrow(new IllegalStateException("Ticket already used"))
-                .when(service).validateQrForTicket("QR-INVALID-999");
+                .when(service).validateQrForTicket("QR-INVALID-999", null);
 
         mvc.perform(post("/api/v1/tickets/validate-qr")
                         .param("qrCode", "QR-INVALID-999"))
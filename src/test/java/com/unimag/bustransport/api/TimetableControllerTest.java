@@ -0,0 +1,111 @@
+package com.unimag.bustransport.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.unimag.bustransport.api.dto.TimetableDtos.*;
+import com.unimag.bustransport.config.TestSecurityConfig;
+import com.unimag.bustransport.security.jwt.JwtService;
+import com.unimag.bustransport.security.user.CustomUserDetailsService;
+import com.unimag.bustransport.services.TimetableService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(TimetableController.class)
+@Import(TestSecurityConfig.class)
+class TimetableControllerTest {
+
+    @Autowired MockMvc mvc;
+    @Autowired ObjectMapper om;
+    @MockitoBean TimetableService service;
+
+    @MockitoBean
+    private JwtService jwtService;
+
+    @MockitoBean
+    private AuthenticationManager authenticationManager;
+
+    @MockitoBean
+    private CustomUserDetailsService userDetailsService;
+
+    private TimetableRequest request() {
+        return new TimetableRequest(1L, LocalDate.of(2030, 1, 7), LocalDate.of(2030, 3, 31),
+                Set.of(DayOfWeek.MONDAY, DayOfWeek.FRIDAY), List.of(LocalTime.of(6, 0), LocalTime.of(14, 30)),
+                240, List.of(5L, 6L), ZoneId.of("America/Bogota"), null);
+    }
+
+    @Test
+    void preview_shouldReturn200WithPlannedTrips() throws Exception {
+        var departure = OffsetDateTime.parse("2030-01-07T06:00:00-05:00");
+        var resp = new TimetableResponse(1L, true, 1, 0,
+                List.of(new PlannedTrip(LocalDate.of(2030, 1, 7), departure, departure.plusHours(4), 5L)),
+                List.of(), 3);
+
+        when(service.preview(any())).thenReturn(resp);
+
+        mvc.perform(post("/api/v1/trips/timetable/preview")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(request())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.planned").value(1))
+                .andExpect(jsonPath("$.trips[0].busId").value(5));
+    }
+
+    @Test
+    void generate_shouldReturn201() throws Exception {
+        when(service.generate(any(), eq(false))).thenReturn(new TimetableResponse(1L, false, 50, 50, List.of(), List.of(), 40));
+
+        mvc.perform(post("/api/v1/trips/timetable")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(request())))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.created").value(50));
+    }
+
+    @Test
+    void generate_dryRunShouldReturn200() throws Exception {
+        when(service.generate(any(), eq(true))).thenReturn(new TimetableResponse(1L, true, 50, 0, List.of(), List.of(), 40));
+
+        mvc.perform(post("/api/v1/trips/timetable")
+                        .param("dryRun", "true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(request())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.dryRun").value(true));
+
+        verify(service).generate(any(), eq(true));
+    }
+
+    @Test
+    void generate_shouldReturn400WhenNoBuses() throws Exception {
+        var req = new TimetableRequest(1L, LocalDate.of(2030, 1, 7), LocalDate.of(2030, 3, 31),
+                Set.of(DayOfWeek.MONDAY), List.of(LocalTime.of(6, 0)), 240, List.of(), null, null);
+
+        mvc.perform(post("/api/v1/trips/timetable")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(req)))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(service);
+    }
+}
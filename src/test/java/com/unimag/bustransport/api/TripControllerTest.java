@@ -6,6 +6,7 @@ import com.unimag.bustransport.api.dto.TripDtos.*;
 import com.unimag.bustransport.config.TestSecurityConfig;
 import com.unimag.bustransport.domain.entities.Trip;
 import com.unimag.bustransport.exception.NotFoundException;
+import com.unimag.bustransport.seatmap.SeatMapBroadcaster;
 import com.unimag.bustransport.security.jwt.JwtService;
 import com.unimag.bustransport.security.user.CustomUserDetailsService;
 import com.unimag.bustransport.services.TripService;
@@ -17,10 +18,12 @@ import org.springframework.http.MediaType;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -36,6 +39,7 @@ class TripControllerTest {
     @Autowired MockMvc mvc;
     @Autowired ObjectMapper om;
     @MockitoBean TripService service;
+    @MockitoBean SeatMapBroadcaster seatMapBroadcaster;
 
     @MockitoBean
     private JwtService jwtService;
@@ -108,6 +112,36 @@ class TripControllerTest {
                 .andExpect(jsonPath("$.length()").value(2));
     }
 
+    @Test
+    void streamSeats_shouldOpenEventStream() throws Exception {
+        when(seatMapBroadcaster.subscribe(eq(1L), any())).thenReturn(Optional.of(new SseEmitter()));
+
+        mvc.perform(get("/api/v1/trips/1/seats/stream").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+
+        verify(seatMapBroadcaster).subscribe(eq(1L), any());
+    }
+
+    @Test
+    void streamSeats_overCapacity_shouldReturn503WithoutBody() throws Exception {
+        when(seatMapBroadcaster.subscribe(eq(1L), any())).thenReturn(Optional.empty());
+
+        mvc.perform(get("/api/v1/trips/1/seats/stream").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "5"))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void streamSeats_shouldReturn404WhenTripNotFound() throws Exception {
+        when(seatMapBroadcaster.subscribe(eq(99L), any()))
+                .thenThrow(new NotFoundException("Trip 99 not found"));
+
+        mvc.perform(get("/api/v1/trips/99/seats/stream").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void getSeats_shouldReturn200() throws Exception {
         var seats = List.of(
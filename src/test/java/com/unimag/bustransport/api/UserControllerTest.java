@@ -2,6 +2,7 @@ package com.unimag.bustransport.api;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.unimag.bustransport.api.dto.UserDtos.*;
+import com.unimag.bustransport.api.dto.PageDtos.CursorPage;
 import com.unimag.bustransport.config.TestSecurityConfig;
 import com.unimag.bustransport.domain.entities.Role;
 import com.unimag.bustransport.exception.NotFoundException;
@@ -98,13 +99,14 @@ class UserControllerTest {
                 userResponse(11L, "carlos@bustransport.com", "Carlos Pérez", "+573201112233", Role.ROLE_DRIVER)
         );
 
-        when(service.getAllUsersByRole(Role.ROLE_DRIVER)).thenReturn(drivers);
+        when(service.getAllUsersByRole(Role.ROLE_DRIVER, null, null)).thenReturn(new CursorPage<>(drivers, 50, false, null));
 
         mvc.perform(get("/api/v1/users/by-role/ROLE_DRIVER"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isArray())
-                .andExpect(jsonPath("$.length()").value(2))
-                .andExpect(jsonPath("$[0].role").value("ROLE_DRIVER"));
+                .andExpect(jsonPath("$.items").isArray())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.hasMore").value(false))
+                .andExpect(jsonPath("$.items[0].role").value("ROLE_DRIVER"));
     }
 
     @Test
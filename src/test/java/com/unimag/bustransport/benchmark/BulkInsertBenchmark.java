@@ -0,0 +1,249 @@
+package com.unimag.bustransport.benchmark;
+
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Filas por segundo en las dos rutas de escritura en bloque (25 padres x 40 filas por invocación)
+// contra un PostgreSQL real con las migraciones aplicadas: asientos al crear buses y tiquetes al
+// crear compras (con el trigger de updated_at y los índices de tickets). Reproduce las sentencias
+// que emite Hibernate: con IDENTITY un INSERT ... RETURNING id por fila; con la secuencia agrupada
+// un nextval cada 50 filas y executeBatch, con y sin reWriteBatchedInserts en el driver.
+// Requiere Docker. Ejecutar: mvn test-compile && java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+//   com.unimag.bustransport.benchmark.BulkInsertBenchmark
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BulkInsertBenchmark {
+
+    private static final int PARENTS = 25;
+    private static final int ROWS_PER_PARENT = 40;
+    private static final int ROWS = PARENTS * ROWS_PER_PARENT;
+    // Debe coincidir con allocationSize y con el INCREMENT BY de V15
+    private static final int ALLOCATION_SIZE = 50;
+
+    private static final String INSERT_BUS_SQL =
+            "INSERT INTO buses (plate, capacity, status) VALUES (?, ?, 'ACTIVE') RETURNING id";
+    private static final String INSERT_TRIP_SQL = """
+            INSERT INTO trips (route_id, bus_id, "date", departure_at, arrival_at, status)
+            VALUES (?, ?, CURRENT_DATE, now(), now() + interval '2 hours', 'SCHEDULED') RETURNING id
+            """;
+    private static final String SEAT_COLUMNS = "bus_id, number, type";
+    private static final String SEAT_VALUES = "?, ?, 'STANDARD'";
+    private static final String TICKET_COLUMNS =
+            "trip_id, seat_number, passenger_id, from_stop_id, to_stop_id, purchase_id, price, status";
+    private static final String TICKET_VALUES = "?, ?, ?, ?, ?, ?, 50000, 'PENDING'";
+
+    @Param({"seats", "tickets"})
+    public String table;
+
+    private PostgreSQLContainer<?> postgres;
+    private Connection plain;
+    private Connection rewritten;
+    private final AtomicLong plates = new AtomicLong();
+    // Filas fijas a las que apuntan los tiquetes; se recrean en cada iteración
+    private long routeId;
+    private long busId;
+    private long fromStopId;
+    private long toStopId;
+    private long passengerId;
+    private long purchaseId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+        postgres.start();
+        Flyway.configure()
+                .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+        plain = connect(false);
+        rewritten = connect(true);
+    }
+
+    @Setup(Level.Iteration)
+    public void insertFixtures() throws SQLException {
+        routeId = insertReturningId("INSERT INTO routes (code, origin, destination) "
+                + "VALUES ('BM-R', 'Santa Marta', 'Barranquilla') RETURNING id");
+        fromStopId = insertReturningId("INSERT INTO stops (route_id, name, \"order\") "
+                + "VALUES (" + routeId + ", 'Origen', 0) RETURNING id");
+        toStopId = insertReturningId("INSERT INTO stops (route_id, name, \"order\") "
+                + "VALUES (" + routeId + ", 'Destino', 1) RETURNING id");
+        busId = insertReturningId("INSERT INTO buses (plate, capacity) VALUES ('BM-BUS', 40) RETURNING id");
+        long userId = insertReturningId("INSERT INTO users (name, email, password_hash, role) "
+                + "VALUES ('Benchmark', 'bm@test.com', 'x', 'ROLE_CLERK') RETURNING id");
+        passengerId = insertReturningId("INSERT INTO passengers (user_id, full_name) "
+                + "VALUES (" + userId + ", 'Benchmark') RETURNING id");
+        purchaseId = insertReturningId("INSERT INTO purchases (user_id, total_amount, payment_method) "
+                + "VALUES (" + userId + ", 0, 'CASH') RETURNING id");
+        plain.commit();
+    }
+
+    @TearDown(Level.Iteration)
+    public void truncate() throws SQLException {
+        try (Statement statement = plain.createStatement()) {
+            statement.execute("TRUNCATE tickets, seats, trips, purchases, passengers, users, stops, routes, buses CASCADE");
+        }
+        plain.commit();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        plain.close();
+        rewritten.close();
+        postgres.stop();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long identityRowByRow() throws SQLException {
+        long checksum = 0;
+        try (PreparedStatement insert = plain.prepareStatement(insertSql(false))) {
+            for (long parentId : insertParents(plain)) {
+                for (int row = 1; row <= ROWS_PER_PARENT; row++) {
+                    bind(insert, parentId, row);
+                    try (ResultSet keys = insert.executeQuery()) {
+                        keys.next();
+                        checksum += keys.getLong(1);
+                    }
+                }
+            }
+        }
+        plain.commit();
+        return checksum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long pooledSequenceBatched() throws SQLException {
+        return insertBatched(plain);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long pooledSequenceBatchedRewritten() throws SQLException {
+        return insertBatched(rewritten);
+    }
+
+    // Un nextval reserva ALLOCATION_SIZE ids (hi - 49 .. hi), igual que el optimizador pooled
+    private long insertBatched(Connection connection) throws SQLException {
+        long checksum = 0;
+        long next = 0;
+        long hi = -1;
+        int pending = 0;
+        try (PreparedStatement insert = connection.prepareStatement(insertSql(true));
+             PreparedStatement sequence = connection.prepareStatement("SELECT nextval('" + table + "_id_seq')")) {
+            for (long parentId : insertParents(connection)) {
+                for (int row = 1; row <= ROWS_PER_PARENT; row++) {
+                    if (next > hi) {
+                        try (ResultSet rs = sequence.executeQuery()) {
+                            rs.next();
+                            hi = rs.getLong(1);
+                        }
+                        next = hi - ALLOCATION_SIZE + 1;
+                    }
+                    int idIndex = bind(insert, parentId, row);
+                    insert.setLong(idIndex, next);
+                    insert.addBatch();
+                    checksum += next++;
+                    if (++pending == ALLOCATION_SIZE) {
+                        insert.executeBatch();
+                        pending = 0;
+                    }
+                }
+            }
+            if (pending > 0) {
+                insert.executeBatch();
+            }
+        }
+        connection.commit();
+        return checksum;
+    }
+
+    private String insertSql(boolean withId) {
+        boolean seats = "seats".equals(table);
+        String columns = seats ? SEAT_COLUMNS : TICKET_COLUMNS;
+        String values = seats ? SEAT_VALUES : TICKET_VALUES;
+        return withId
+                ? "INSERT INTO " + table + " (" + columns + ", id) VALUES (" + values + ", ?)"
+                : "INSERT INTO " + table + " (" + columns + ") VALUES (" + values + ") RETURNING id";
+    }
+
+    // Llena las columnas de la fila y devuelve el índice del parámetro del id
+    private int bind(PreparedStatement insert, long parentId, int row) throws SQLException {
+        insert.setLong(1, parentId);
+        insert.setString(2, "S" + row);
+        if ("seats".equals(table)) {
+            return 3;
+        }
+        insert.setLong(3, passengerId);
+        insert.setLong(4, fromStopId);
+        insert.setLong(5, toStopId);
+        insert.setLong(6, purchaseId);
+        return 7;
+    }
+
+    // Los padres (buses o viajes) se insertan igual en todas las variantes; solo cambia la forma de
+    // guardar las filas hijas
+    private long[] insertParents(Connection connection) throws SQLException {
+        boolean seats = "seats".equals(table);
+        long[] ids = new long[PARENTS];
+        try (PreparedStatement insert = connection.prepareStatement(seats ? INSERT_BUS_SQL : INSERT_TRIP_SQL)) {
+            for (int i = 0; i < PARENTS; i++) {
+                if (seats) {
+                    insert.setString(1, "BM-" + plates.incrementAndGet());
+                    insert.setInt(2, ROWS_PER_PARENT);
+                } else {
+                    insert.setLong(1, routeId);
+                    insert.setLong(2, busId);
+                }
+                try (ResultSet keys = insert.executeQuery()) {
+                    keys.next();
+                    ids[i] = keys.getLong(1);
+                }
+            }
+        }
+        return ids;
+    }
+
+    private long insertReturningId(String sql) throws SQLException {
+        try (Statement statement = plain.createStatement();
+             ResultSet keys = statement.executeQuery(sql)) {
+            keys.next();
+            return keys.getLong(1);
+        }
+    }
+
+    private Connection connect(boolean rewriteBatchedInserts) throws SQLException {
+        Properties properties = new Properties();
+        properties.setProperty("user", postgres.getUsername());
+        properties.setProperty("password", postgres.getPassword());
+        properties.setProperty("reWriteBatchedInserts", String.valueOf(rewriteBatchedInserts));
+        Connection connection = DriverManager.getConnection(postgres.getJdbcUrl(), properties);
+        connection.setAutoCommit(false);
+        return connection;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BulkInsertBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,90 @@
+package com.unimag.bustransport.benchmark;
+
+import com.unimag.bustransport.services.schedule.FleetPlanner;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Plan de flota de un día: el barrido con heap de liberaciones contra el voraz ingenuo que, por
+// cada viaje, recorre todos los buses buscando uno libre (O(viajes x buses)), de 1k a 20k viajes
+// con 30 terminales y buses de 3 capacidades. Sin viajes fijos: aquí se mide solo el algoritmo,
+// las consultas del servicio son fijas por día.
+// Ejecutar: mvn test-compile && java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+//   com.unimag.bustransport.benchmark.FleetPlannerBenchmark
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FleetPlannerBenchmark {
+
+    private static final Duration TURNAROUND = Duration.ofMinutes(20);
+    private static final Duration DEADHEAD = Duration.ofMinutes(90);
+    private static final int[] CAPACITIES = {32, 40, 50};
+
+    @Param({"1000", "5000", "20000"})
+    public int trips;
+
+    private List<FleetPlanner.TripDemand> demand;
+    private List<FleetPlanner.Vehicle> buses;
+    private final List<FleetPlanner.PinnedTrip> pinned = List.of();
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        OffsetDateTime day = OffsetDateTime.parse("2030-01-07T00:00:00-05:00");
+        demand = new ArrayList<>(trips);
+        for (long id = 1; id <= trips; id++) {
+            OffsetDateTime departure = day.plusMinutes(random.nextInt(24 * 60));
+            demand.add(new FleetPlanner.TripDemand(id, "T" + random.nextInt(30), "T" + random.nextInt(30),
+                    departure, departure.plusMinutes(45 + random.nextInt(6 * 60)), random.nextInt(48)));
+        }
+        // Flota holgada: la mitad de los viajes, suficiente para que no queden viajes sin bus
+        buses = new ArrayList<>(trips / 2);
+        for (long id = 1; id <= trips / 2; id++) {
+            buses.add(new FleetPlanner.Vehicle(id, CAPACITIES[(int) (id % CAPACITIES.length)]));
+        }
+    }
+
+    @Benchmark
+    public FleetPlanner.Plan sweepLine() {
+        return new FleetPlanner(TURNAROUND, DEADHEAD).plan(demand, buses, pinned);
+    }
+
+    // Referencia: primer bus libre recorriendo toda la flota por viaje, sin terminales ni mejor ajuste
+    @Benchmark
+    public int naiveScan() {
+        List<FleetPlanner.TripDemand> ordered = demand.stream()
+                .sorted((a, b) -> a.departureAt().compareTo(b.departureAt())).toList();
+        OffsetDateTime[] freeAt = new OffsetDateTime[buses.size()];
+        int used = 0;
+        for (FleetPlanner.TripDemand trip : ordered) {
+            for (int i = 0; i < buses.size(); i++) {
+                if (buses.get(i).capacity() >= trip.seats()
+                        && (freeAt[i] == null || !freeAt[i].isAfter(trip.departureAt()))) {
+                    if (freeAt[i] == null) {
+                        used++;
+                    }
+                    freeAt[i] = trip.arrivalAt().plus(TURNAROUND);
+                    break;
+                }
+            }
+        }
+        return used;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FleetPlannerBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,147 @@
+package com.unimag.bustransport.benchmark;
+
+import com.unimag.bustransport.security.config.JwtProperties;
+import com.unimag.bustransport.security.config.PrincipalCacheProperties;
+import com.unimag.bustransport.security.jwt.JwtAuthenticationFilter;
+import com.unimag.bustransport.security.jwt.JwtService;
+import com.unimag.bustransport.security.jwt.VerifiedTokenCache;
+import com.unimag.bustransport.security.user.CustomUserDetails;
+import com.unimag.bustransport.security.user.CustomUserDetailsService;
+import com.unimag.bustransport.security.user.PrincipalCache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+// Camino completo del filtro JWT por request (header, verificación, principal, SecurityContext):
+// antes (4 parseos con clave y parser nuevos cada vez) contra el filtro actual sin cache de tokens
+// y con ella. El principal sale siempre de la PrincipalCache, como en producción en caliente, así
+// que la diferencia es solo la verificación del token.
+// Ejecutar: mvn test-compile && java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+//   com.unimag.bustransport.benchmark.JwtVerificationBenchmark
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret-0123456789";
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    private final CustomUserDetails user = new CustomUserDetails(
+            42L, "bench@bustransport.com", "Bench", "hash", "ROLE_PASSENGER", true);
+
+    private PrincipalCache principalCache;
+    private JwtAuthenticationFilter uncachedFilter;
+    private JwtAuthenticationFilter cachedFilter;
+    private String authorization;
+
+    @Setup
+    public void setUp() {
+        principalCache = new PrincipalCache(new PrincipalCacheProperties());
+        // Sin base de datos: la primera carga del principal devuelve el usuario fijo y queda en cache
+        CustomUserDetailsService userDetailsService = new CustomUserDetailsService(null) {
+            @Override
+            public UserDetails loadUserById(Long userId) {
+                return user;
+            }
+        };
+
+        JwtService uncachedService = jwtService(false);
+        uncachedFilter = new JwtAuthenticationFilter(uncachedService, userDetailsService, principalCache);
+        cachedFilter = new JwtAuthenticationFilter(jwtService(true), userDetailsService, principalCache);
+        authorization = "Bearer " + uncachedService.generateAccessToken(user);
+    }
+
+    @Benchmark
+    public Authentication legacyFilter() {
+        MockHttpServletRequest request = request();
+        // Réplica del filtro anterior: extractUserId, extractIssuedAt y luego isTokenValid(jwt), que
+        // volvía a parsear para el subject y la expiración, cada parseo con su clave y su parser
+        String jwt = request.getHeader("Authorization").substring(7);
+        Long userId = legacyParse(jwt).get("userId", Long.class);
+        long issuedAt = legacyParse(jwt).getIssuedAt().getTime();
+        UserDetails userDetails = principalCache.get(userId, issuedAt);
+        if (userDetails == null) {
+            userDetails = user;
+            principalCache.put(userId, issuedAt, userDetails);
+        }
+        String username = legacyParse(jwt).getSubject();
+        boolean expired = legacyParse(jwt).getExpiration().before(new Date());
+        if (username.equals(userDetails.getUsername()) && !expired) {
+            UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                    userDetails, null, userDetails.getAuthorities());
+            authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(authToken);
+        }
+        return authenticated();
+    }
+
+    @Benchmark
+    public Authentication singleParseFilter() throws Exception {
+        uncachedFilter.doFilter(request(), new MockHttpServletResponse(), NO_OP_CHAIN);
+        return authenticated();
+    }
+
+    @Benchmark
+    public Authentication cachedFilter() throws Exception {
+        cachedFilter.doFilter(request(), new MockHttpServletResponse(), NO_OP_CHAIN);
+        return authenticated();
+    }
+
+    // El filtro solo autentica si el contexto está vacío: se limpia tras cada request
+    private static Authentication authenticated() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+
+    // Request nuevo por llamada: OncePerRequestFilter marca el request ya filtrado
+    private MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/trips");
+        request.addHeader("Authorization", authorization);
+        return request;
+    }
+
+    private static Claims legacyParse(String token) {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    private static JwtService jwtService(boolean cacheEnabled) {
+        JwtProperties properties = new JwtProperties();
+        properties.setSecret(SECRET);
+        properties.setExpiration(3600000L);
+        properties.setRefreshExpiration(86400000L);
+        properties.getVerifiedCache().setEnabled(cacheEnabled);
+        JwtService service = new JwtService(properties, new VerifiedTokenCache(properties));
+        service.init();
+        return service;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtVerificationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,103 @@
+package com.unimag.bustransport.benchmark;
+
+import com.unimag.bustransport.config.ParcelCodeProperties;
+import com.unimag.bustransport.services.codes.CodeNodeLease;
+import com.unimag.bustransport.services.codes.OtpGenerator;
+import com.unimag.bustransport.services.codes.ParcelCodeGenerator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.security.SecureRandom;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Generación de códigos de encomienda: antes (Random compartido + existsByCode en bucle, aquí un
+// HashSet en memoria que subestima el costo real de la ida a la BD) contra el generador por
+// tiempo+nodo+contador, a 1M de códigos. También compara las fuentes de OTP con 8 hilos.
+// Ejecutar: mvn test-compile && java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+//   com.unimag.bustransport.benchmark.ParcelCodeBenchmark
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParcelCodeBenchmark {
+
+    private static final int MILLION = 1_000_000;
+    // El formato anterior solo admite 10k códigos por día; se mide llenando el 95 %
+    private static final int LEGACY_DAILY_VOLUME = 9_500;
+
+    private ParcelCodeGenerator generator;
+    private OtpGenerator otpGenerator;
+    private final Random sharedRandom = new Random();
+    private final SecureRandom sharedSecureRandom = new SecureRandom();
+
+    @Setup
+    public void setUp() {
+        ParcelCodeProperties properties = new ParcelCodeProperties();
+        properties.setNodeId(1);
+        // Con node-id configurado el lease no toca la BD
+        CodeNodeLease lease = new CodeNodeLease(null, properties);
+        lease.init();
+        generator = new ParcelCodeGenerator(lease);
+        otpGenerator = new OtpGenerator();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MILLION)
+    public void snowflakeMillionCodes(Blackhole blackhole) {
+        for (int i = 0; i < MILLION; i++) {
+            blackhole.consume(generator.next());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LEGACY_DAILY_VOLUME)
+    public void legacyRandomWithExistsCheck(Blackhole blackhole) {
+        Set<String> existing = new HashSet<>();
+        long lookups = 0;
+        String datePart = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
+        for (int i = 0; i < LEGACY_DAILY_VOLUME; i++) {
+            String code;
+            do {
+                code = String.format("PAQ-%s-%s", datePart, String.format("%04d", sharedRandom.nextInt(10000)));
+                lookups++;
+            } while (existing.contains(code));
+            existing.add(code);
+        }
+        // Cada lookup es una ida a la BD en producción
+        blackhole.consume(lookups);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String legacySharedRandomOtp() {
+        return String.valueOf(100000 + sharedRandom.nextInt(900000));
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String sharedSecureRandomOtp() {
+        return String.format("%06d", sharedSecureRandom.nextInt(1_000_000));
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String stripedDrbgOtp() {
+        return otpGenerator.next();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ParcelCodeBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -1,7 +1,11 @@
 package com.unimag.bustransport.config;
 
 import com.unimag.bustransport.security.config.JwtProperties;
+import com.unimag.bustransport.security.config.PrincipalCacheProperties;
 import com.unimag.bustransport.security.jwt.JwtAuthenticationFilter;
+import com.unimag.bustransport.security.ratelimit.RateLimitProperties;
+import com.unimag.bustransport.security.ratelimit.RateLimiter;
+import com.unimag.bustransport.security.user.PrincipalCache;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.security.authentication.AuthenticationProvider;
@@ -23,6 +27,22 @@ public class TestSecurityConfig {
     @MockitoBean private AuthenticationProvider authenticationProvider;
     @MockitoBean private JwtProperties jwtProperties;
 
+    // Cache de principals deshabilitada: el filtro JWT real se construye en los @WebMvcTest
+    @Bean
+    public PrincipalCache principalCache() {
+        PrincipalCacheProperties properties = new PrincipalCacheProperties();
+        properties.setEnabled(false);
+        return new PrincipalCache(properties);
+    }
+
+    // Rate limiting deshabilitado: el RateLimitFilter real también se registra en MockMvc
+    @Bean
+    public RateLimiter rateLimiter() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setEnabled(false);
+        return new RateLimiter(properties);
+    }
+
     @Bean
     public SecurityFilterChain testSecurityFilterChain(HttpSecurity http) throws Exception {
         // Deshabilita seguridad para los tests
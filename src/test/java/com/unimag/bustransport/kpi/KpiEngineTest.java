@@ -0,0 +1,145 @@
+package com.unimag.bustransport.kpi;
+
+import com.unimag.bustransport.domain.entities.Kpi;
+import com.unimag.bustransport.domain.repositories.KpiRepository;
+import com.unimag.bustransport.domain.repositories.KpiSampleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class KpiEngineTest {
+
+    @Mock
+    private KpiRepository kpiRepository;
+    @Mock
+    private KpiSampleRepository kpiSampleRepository;
+    @Mock
+    private KpiNodeTotals nodeTotals;
+
+    private KpiEngine engine;
+    private final Instant now = Instant.parse("2025-12-25T12:00:00Z");
+
+    @BeforeEach
+    void setUp() {
+        engine = new KpiEngine(kpiRepository, kpiSampleRepository, nodeTotals, new KpiProperties());
+    }
+
+    @Test
+    @DisplayName("Debe acumular ingresos netos global y por ruta")
+    void record_AggregatesRevenueByRoute() {
+        engine.record(new KpiEvent.TicketsSold(7L, 2, new BigDecimal("150000.00"), at(now.minusSeconds(60))), now);
+        engine.record(new KpiEvent.TicketsSold(8L, 1, new BigDecimal("50000.00"), at(now.minusSeconds(60))), now);
+        engine.record(new KpiEvent.TicketsRefunded(7L, 1, new BigDecimal("37500.00"), at(now.minusSeconds(30))), now);
+
+        Map<String, Double> snapshot = engine.snapshot(now);
+
+        assertThat(snapshot)
+                .containsEntry("revenue.1h", 162500.0)
+                .containsEntry("tickets_sold.24h", 3.0)
+                .containsEntry("route.7.revenue.1h", 112500.0)
+                .containsEntry("route.8.tickets_sold.1h", 1.0);
+    }
+
+    @Test
+    @DisplayName("Debe separar la ventana de una hora de la de 24 horas")
+    void snapshot_RollingWindows() {
+        engine.record(new KpiEvent.TicketsSold(7L, 1, BigDecimal.TEN, at(now.minus(Duration.ofHours(3)))), now);
+        engine.record(new KpiEvent.TicketsSold(7L, 1, BigDecimal.TEN, at(now.minusSeconds(120))), now);
+
+        Map<String, Double> snapshot = engine.snapshot(now);
+
+        assertThat(snapshot)
+                .containsEntry("tickets_sold.1h", 1.0)
+                .containsEntry("tickets_sold.24h", 2.0);
+    }
+
+    @Test
+    @DisplayName("Debe calcular ocupación, no-show y entregas, y omitir tasas sin denominador")
+    void snapshot_ComputesRates() {
+        engine.record(new KpiEvent.TripClosed(7L, 1L, 40, 30, 10, at(now.minusSeconds(60))), now);
+        engine.record(new KpiEvent.TripClosed(7L, 2L, 40, 20, 0, at(now.minusSeconds(60))), now);
+        engine.record(new KpiEvent.ParcelClosed(7L, true, at(now.minusSeconds(60))), now);
+        engine.record(new KpiEvent.ParcelClosed(7L, false, at(now.minusSeconds(60))), now);
+        engine.record(new KpiEvent.IncidentReported(null, "VEHICLE", at(now.minusSeconds(60))), now);
+
+        Map<String, Double> snapshot = engine.snapshot(now);
+
+        assertThat(snapshot.get("route.7.occupancy.24h")).isCloseTo(0.625, within(1e-9));
+        assertThat(snapshot.get("no_show_rate.1h")).isCloseTo(10.0 / 60, within(1e-9));
+        assertThat(snapshot).containsEntry("parcel_delivery_rate.24h", 0.5)
+                .containsEntry("incidents.1h", 1.0)
+                .containsEntry("route.7.incidents.1h", 0.0);
+
+        KpiEngine empty = new KpiEngine(kpiRepository, kpiSampleRepository, nodeTotals, new KpiProperties());
+        assertThat(empty.snapshot(now)).doesNotContainKeys("occupancy.1h", "no_show_rate.1h", "parcel_delivery_rate.1h");
+    }
+
+    @Test
+    @DisplayName("Debe descartar eventos y cubetas fuera de la retención")
+    void record_IgnoresExpiredEvents() {
+        engine.record(new KpiEvent.TicketsSold(7L, 1, BigDecimal.TEN, at(now.minus(Duration.ofHours(25)))), now);
+        assertThat(engine.snapshot(now)).containsEntry("tickets_sold.24h", 0.0);
+
+        engine.record(new KpiEvent.TicketsSold(7L, 1, BigDecimal.TEN, at(now.minusSeconds(60))), now);
+        Instant later = now.plus(Duration.ofHours(25));
+        engine.evictExpired(later);
+
+        assertThat(engine.snapshot(later)).containsEntry("tickets_sold.24h", 0.0);
+    }
+
+    @Test
+    @DisplayName("Debe guardar los totales del nodo y publicar la suma de todos los nodos")
+    void persistSnapshots_PublishesClusterTotals() {
+        engine.record(new KpiEvent.TicketsSold(7L, 1, BigDecimal.TEN, at(Instant.now())), Instant.now());
+        Kpi existing = Kpi.builder().id(5L).name("revenue.1h").value(1.0).build();
+        when(kpiRepository.findByNameIn(anyCollection())).thenReturn(List.of(existing));
+        // Este nodo vendió 10.00 en la ruta 7; otro nodo, 5.00 y cerró un viaje con 30 de 40 a bordo
+        when(nodeTotals.sumSince(any())).thenReturn(Map.of(
+                "revenue_cents.1h", 1500L, "tickets_sold.1h", 2L,
+                "boarded.1h", 30L, "seat_capacity.1h", 40L,
+                "route.7.tickets_sold.24h", 1L));
+
+        engine.persistSnapshots();
+
+        ArgumentCaptor<Map<String, Long>> saved = ArgumentCaptor.forClass(Map.class);
+        verify(nodeTotals).save(saved.capture(), any());
+        assertThat(saved.getValue()).containsEntry("revenue_cents.1h", 1000L)
+                .containsEntry("route.7.tickets_sold.24h", 1L);
+        verify(nodeTotals).deleteOlderThan(any());
+
+        ArgumentCaptor<List<Kpi>> captor = ArgumentCaptor.forClass(List.class);
+        verify(kpiRepository, times(1)).findByNameIn(anyCollection());
+        verify(kpiRepository, times(1)).saveAll(captor.capture());
+        assertThat(captor.getValue()).contains(existing);
+        assertThat(existing.getValue()).isEqualTo(15.0);
+        assertThat(captor.getValue()).filteredOn(kpi -> kpi.getName().equals("occupancy.1h"))
+                .singleElement().extracting(Kpi::getValue).isEqualTo(0.75);
+        assertThat(captor.getValue()).extracting(Kpi::getName).contains("route.7.tickets_sold.24h");
+        assertThat(captor.getValue()).allSatisfy(kpi -> assertThat(kpi.getCalculatedAt()).isNotNull());
+        verify(kpiSampleRepository).upsertMinuteSample(eq("revenue.1h"),
+                argThat(minute -> minute.getSecond() == 0 && minute.getNano() == 0), eq(15.0));
+    }
+
+    private static OffsetDateTime at(Instant instant) {
+        return instant.atOffset(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,132 @@
+package com.unimag.bustransport.notification;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NotificationCoalescerTest {
+
+    private NotificationProperties properties;
+    private NotificationCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        properties = new NotificationProperties();
+        properties.setWindowMs(1000);
+        properties.setMaxPending(2);
+        coalescer = new NotificationCoalescer(properties);
+    }
+
+    @Test
+    @DisplayName("Debe descartar mensajes duplicados dentro de la ventana")
+    void testOffer_DeduplicatesIdenticalMessages() {
+        NotificationRequest request = request("3001234567", "Su bus llega pronto");
+
+        assertThat(coalescer.offer(request, 0)).isTrue();
+        assertThat(coalescer.offer(request, 100)).isTrue();
+
+        List<NotificationRequest> due = coalescer.drainDue(1000);
+        assertThat(due).hasSize(1);
+        assertThat(due.get(0).message()).isEqualTo("Su bus llega pronto");
+    }
+
+    @Test
+    @DisplayName("Debe fusionar mensajes distintos del mismo destinatario")
+    void testOffer_MergesDistinctMessages() {
+        coalescer.offer(request("3001234567", "Cambio de andén: 4"), 0);
+        coalescer.offer(request("3001234567", "Su bus llega pronto"), 200);
+
+        List<NotificationRequest> due = coalescer.drainDue(1500);
+        assertThat(due).hasSize(1);
+        assertThat(due.get(0).message())
+                .isEqualTo("Cambio de andén: 4" + NotificationCoalescer.MESSAGE_SEPARATOR + "Su bus llega pronto");
+        assertThat(coalescer.pendingCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Debe enviar por separado los mensajes con asuntos distintos")
+    void testOffer_KeepsSubjectsApart() {
+        coalescer.offer(new NotificationRequest("3001234567", "Compra PUR-1", NotificationType.WHATSAPP, "Compra confirmada"), 0);
+        coalescer.offer(new NotificationRequest("3001234567", "Ticket cancelado", NotificationType.WHATSAPP, "Ticket cancelado"), 100);
+        coalescer.offer(new NotificationRequest("3001234567", "Compra PUR-2", NotificationType.WHATSAPP, "Compra confirmada"), 200);
+
+        List<NotificationRequest> due = coalescer.drainDue(1500);
+        assertThat(due).extracting(NotificationRequest::subject)
+                .containsExactlyInAnyOrder("Compra confirmada", "Ticket cancelado");
+        assertThat(due).filteredOn(request -> request.subject().equals("Compra confirmada"))
+                .extracting(NotificationRequest::message)
+                .containsExactly("Compra PUR-1" + NotificationCoalescer.MESSAGE_SEPARATOR + "Compra PUR-2");
+    }
+
+    @Test
+    @DisplayName("No debe liberar grupos antes de que venza la ventana")
+    void testDrainDue_RespectsWindow() {
+        coalescer.offer(request("3001234567", "Mensaje"), 0);
+
+        assertThat(coalescer.drainDue(999)).isEmpty();
+        assertThat(coalescer.drainDue(1000)).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Debe rechazar nuevos destinatarios cuando se alcanza el límite")
+    void testOffer_RejectsWhenFull() {
+        assertThat(coalescer.offer(request("1", "a"), 0)).isTrue();
+        assertThat(coalescer.offer(request("2", "b"), 0)).isTrue();
+
+        assertThat(coalescer.offer(request("3", "c"), 0)).isFalse();
+        // Un destinatario ya en espera sigue aceptando mensajes
+        assertThat(coalescer.offer(request("1", "d"), 0)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Debe rechazar todo cuando está deshabilitado")
+    void testOffer_Disabled() {
+        properties.setEnabled(false);
+
+        assertThat(coalescer.offer(request("1", "a"), 0)).isFalse();
+        assertThat(coalescer.pendingCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Debe descartar el mismo aviso inmediato repetido dentro de la ventana de deduplicación")
+    void testClaimImmediate_DeduplicatesWithinWindow() {
+        properties.setDedupeWindowMs(1000);
+        NotificationRequest request = request("3001234567", "Su bus llega pronto");
+
+        assertThat(coalescer.claimImmediate(request, 0)).isTrue();
+        assertThat(coalescer.claimImmediate(request, 500)).isFalse();
+        assertThat(coalescer.claimImmediate(request, 1000)).isTrue();
+        // Nunca se encola: el aviso sale en el momento
+        assertThat(coalescer.pendingCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Debe dejar pasar avisos inmediatos distintos al mismo destinatario")
+    void testClaimImmediate_AllowsDistinctMessages() {
+        properties.setDedupeWindowMs(1000);
+
+        assertThat(coalescer.claimImmediate(request("3001234567", "Cambio de andén: 4"), 0)).isTrue();
+        assertThat(coalescer.claimImmediate(request("3001234567", "Cambio de andén: 6"), 100)).isTrue();
+        assertThat(coalescer.claimImmediate(request("3009876543", "Cambio de andén: 6"), 100)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Debe permitir reintentar un aviso inmediato cuyo envío falló")
+    void testReleaseImmediate_AllowsRetry() {
+        properties.setDedupeWindowMs(1000);
+        NotificationRequest request = request("3001234567", "Su bus llega pronto");
+        coalescer.claimImmediate(request, 0);
+
+        coalescer.releaseImmediate(request);
+
+        assertThat(coalescer.claimImmediate(request, 100)).isTrue();
+    }
+
+    private NotificationRequest request(String recipient, String message) {
+        return new NotificationRequest(recipient, message, NotificationType.WHATSAPP, null);
+    }
+}
@@ -14,6 +14,7 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
@@ -96,6 +97,30 @@ class NotificationHelperTest {
 
 
 
+    @Test
+    @DisplayName("Debe enviar el cambio de andén de inmediato, sin agrupar")
+    void testSendPlatformChange_BypassesCoalescing() {
+        // When
+        notificationHelper.sendPlatformChange(trip, "7", List.of("3001111111", "3002222222"),
+                NotificationType.WHATSAPP);
+
+        // Then
+        verify(notificationFactory, times(2)).sendNow(argThat(request -> request.message().contains("7")));
+        verify(notificationFactory, never()).send(any());
+    }
+
+    @Test
+    @DisplayName("Debe enviar el aviso de llegada de inmediato, sin agrupar")
+    void testSendArrivalSoon_BypassesCoalescing() {
+        // When
+        notificationHelper.sendArrivalSoon(ticket1, "3", NotificationType.SMS);
+
+        // Then
+        verify(notificationFactory).sendNow(argThat(request ->
+                request.recipient().equals("3009876543") && request.message().contains("1A")));
+        verify(notificationFactory, never()).send(any());
+    }
+
     @Test
     @DisplayName("Debe enviar notificación con tipo SMS correctamente")
     void testSendNotification_WithSMSType() {
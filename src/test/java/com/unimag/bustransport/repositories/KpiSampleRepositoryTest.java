@@ -0,0 +1,51 @@
+package com.unimag.bustransport.repositories;
+
+import com.unimag.bustransport.domain.entities.KpiSample;
+import com.unimag.bustransport.domain.repositories.KpiSampleRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class KpiSampleRepositoryTest extends AbstractRepositoryTI {
+
+    @Autowired
+    private KpiSampleRepository kpiSampleRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final OffsetDateTime minute = OffsetDateTime.parse("2025-12-25T12:00:00Z");
+
+    @BeforeEach
+    void setUp() {
+        kpiSampleRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Debe sumar las muestras del mismo minuto en lugar de reemplazarlas")
+    void shouldMergeSamplesOfSameMinute() {
+        // When: dos nodos escriben el mismo minuto
+        kpiSampleRepository.upsertMinuteSample("revenue.1h", minute, 100.0);
+        kpiSampleRepository.upsertMinuteSample("revenue.1h", minute, 140.0);
+        kpiSampleRepository.upsertMinuteSample("revenue.1h", minute, 120.0);
+        entityManager.clear();
+
+        // Then
+        List<KpiSample> series = kpiSampleRepository.findSeries("revenue.1h", KpiSample.Resolution.MINUTE,
+                minute, minute.plusMinutes(1));
+        assertThat(series).hasSize(1);
+        KpiSample sample = series.get(0);
+        assertThat(sample.getSampleCount()).isEqualTo(3);
+        assertThat(sample.getValue()).isCloseTo(120.0, within(1e-4));
+        assertThat(sample.getMinValue()).isEqualTo(100.0);
+        assertThat(sample.getMaxValue()).isEqualTo(140.0);
+    }
+}
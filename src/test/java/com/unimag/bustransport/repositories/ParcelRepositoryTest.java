@@ -2,6 +2,7 @@ package com.unimag.bustransport.repositories;
 
 import com.unimag.bustransport.domain.entities.*;
 import com.unimag.bustransport.domain.repositories.*;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -31,6 +32,9 @@ public class ParcelRepositoryTest extends AbstractRepositoryTI{
     @Autowired
     private BusRepository busRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
     @BeforeEach
     void setUp() {
         parcelRepository.deleteAll();
@@ -235,4 +239,38 @@ public class ParcelRepositoryTest extends AbstractRepositoryTI{
         assertThat(exists).isTrue();
         assertThat(notExists).isFalse();
     }
+
+    @Test
+    @DisplayName("Debe asignar a un viaje las parcels pendientes que aún no tienen uno")
+    void shouldAssignPendingParcelsWithoutTrip() {
+        // Given
+        Trip trip = givenTrip();
+        Stop fromStop = givenStop(trip.getRoute(), "Stop A", 1);
+        Stop toStop = givenStop(trip.getRoute(), "Stop B", 2);
+
+        Parcel parcel = Parcel.builder()
+                .code("PCL-001")
+                .price(BigDecimal.valueOf(20000))
+                .status(Parcel.Status.CREATED)
+                .senderName("Esteban Puello")
+                .receiverName("Jose Rodriguez")
+                .fromStop(fromStop)
+                .toStop(toStop)
+                .build();
+        parcelRepository.saveAndFlush(parcel);
+        assertThat(parcelRepository.findPendingForDispatch())
+                .extracting(ParcelRepository.PendingParcel::getParcelId)
+                .containsExactly(parcel.getId());
+
+        // When
+        int updated = parcelRepository.assignPendingToTrip(List.of(parcel.getId()), trip);
+        entityManager.clear();
+
+        // Then
+        assertThat(updated).isEqualTo(1);
+        Parcel found = parcelRepository.findById(parcel.getId()).orElseThrow();
+        assertThat(found.getTrip().getId()).isEqualTo(trip.getId());
+        assertThat(found.getStatus()).isEqualTo(Parcel.Status.IN_TRANSIT);
+        assertThat(parcelRepository.findPendingForDispatch()).isEmpty();
+    }
 }
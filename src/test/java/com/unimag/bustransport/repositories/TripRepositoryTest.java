@@ -318,6 +318,58 @@ class TripRepositoryTest extends AbstractRepositoryTI {
         assertThat(soldCount).isZero();
     }
 
+    @Test
+    @DisplayName("Debe sumar el peso de equipaje de forma atómica y devolver el nuevo total")
+    void addBaggageWeight_ShouldReturnUpdatedTotal() {
+        // Given
+        entityManager.flush();
+
+        // When
+        BigDecimal first = tripRepository.addBaggageWeight(trip1.getId(), new BigDecimal("25.50"));
+        BigDecimal second = tripRepository.addBaggageWeight(trip1.getId(), new BigDecimal("-5.50"));
+
+        // Then
+        assertThat(first).isEqualByComparingTo("25.50");
+        assertThat(second).isEqualByComparingTo("20.00");
+        entityManager.clear();
+        assertThat(tripRepository.findBaggageWeightKg(trip1.getId())).isEqualByComparingTo("20.00");
+    }
+
+    @Test
+    @DisplayName("Debe cerrar los no-shows de un viaje una sola vez aunque varios nodos lo intenten")
+    void recordNoShowCounters_ShouldCloseTripOnlyOnce() {
+        // Given
+        OffsetDateTime threshold = OffsetDateTime.of(today.atTime(15, 0), ZoneOffset.UTC);
+        OffsetDateTime processedAt = OffsetDateTime.now();
+        entityManager.flush();
+
+        // When
+        List<Long> pending = tripRepository.findTripIdsPendingNoShow(threshold);
+        int first = tripRepository.recordNoShowCounters(trip1.getId(), processedAt);
+        int second = tripRepository.recordNoShowCounters(trip1.getId(), processedAt);
+
+        // Then
+        assertThat(pending).containsExactly(trip1.getId(), trip2.getId());
+        assertThat(first).isEqualTo(1);
+        assertThat(second).isZero();
+        assertThat(tripRepository.findTripIdsPendingNoShow(threshold)).containsExactly(trip2.getId());
+    }
+
+    @Test
+    @DisplayName("Debe paginar los ids de viaje por clave en orden ascendente")
+    void findIdsAfter_ShouldPageByKey() {
+        // Given
+        entityManager.flush();
+
+        // When
+        List<Long> firstPage = tripRepository.findIdsAfter(0L, 3);
+        List<Long> secondPage = tripRepository.findIdsAfter(firstPage.get(2), 3);
+
+        // Then
+        assertThat(firstPage).containsExactly(trip1.getId(), trip2.getId(), trip3.getId());
+        assertThat(secondPage).containsExactly(trip4.getId(), trip5.getId());
+    }
+
     private Route createRoute(String code, String origin, String destination, Double distanceKm) {
         Route route = Route.builder()
                 .code(code)
@@ -0,0 +1,179 @@
+package com.unimag.bustransport.seatmap;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.unimag.bustransport.api.dto.SeatDtos;
+import com.unimag.bustransport.exception.NotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+class SeatMapBroadcasterTest {
+
+    private SeatMapProperties properties;
+    private SeatMapBroadcaster broadcaster;
+    private final List<CapturingEmitter> emitters = new CopyOnWriteArrayList<>();
+
+    private final List<SeatDtos.SeatResponse> seats = List.of(
+            new SeatDtos.SeatResponse(1L, "A1", "STANDARD", 5L, "ABC-123", false),
+            new SeatDtos.SeatResponse(2L, "A2", "STANDARD", 5L, "ABC-123", true)
+    );
+
+    @BeforeEach
+    void setUp() {
+        properties = new SeatMapProperties();
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        broadcaster = new SeatMapBroadcaster(properties, objectMapper) {
+            @Override
+            SseEmitter createEmitter(long timeoutMs) {
+                CapturingEmitter emitter = new CapturingEmitter();
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+    }
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.shutdown();
+    }
+
+    @Test
+    @DisplayName("Debe enviar snapshot al suscribirse y luego los deltas en orden")
+    void shouldSendSnapshotThenOrderedDeltas() {
+        broadcaster.subscribe(1L, () -> seats);
+        CapturingEmitter emitter = emitters.get(0);
+
+        broadcaster.on(SeatMapEvent.held(1L, "A1"));
+        broadcaster.on(SeatMapEvent.sold(1L, "A1"));
+        broadcaster.on(SeatMapEvent.released(1L, "A2"));
+
+        List<String> frames = emitter.awaitFrames(4);
+        assertThat(frames.get(0)).contains("event:snapshot").contains("\"sequence\":0").contains("\"A2\"");
+        assertThat(frames.get(1)).contains("id:1").contains("event:seat").contains("\"state\":\"HELD\"");
+        assertThat(frames.get(2)).contains("id:2").contains("\"state\":\"SOLD\"");
+        assertThat(frames.get(3)).contains("id:3").contains("\"seatNumber\":\"A2\"").contains("\"state\":\"RELEASED\"");
+    }
+
+    @Test
+    @DisplayName("Debe retener los deltas que llegan mientras se lee el snapshot y enviarlos después")
+    void shouldHoldDeltasUntilSnapshotIsSent() {
+        broadcaster.subscribe(1L, () -> {
+            // Confirmado después de tomar la secuencia: no está en el snapshot y sale tras él
+            broadcaster.on(SeatMapEvent.held(1L, "A1"));
+            return seats;
+        });
+        CapturingEmitter emitter = emitters.get(0);
+        broadcaster.on(SeatMapEvent.sold(1L, "A1"));
+
+        List<String> frames = emitter.awaitFrames(3);
+        assertThat(frames.get(0)).contains("event:snapshot").contains("\"sequence\":0");
+        assertThat(frames.get(1)).contains("id:1").contains("\"state\":\"HELD\"");
+        assertThat(frames.get(2)).contains("id:2").contains("\"state\":\"SOLD\"");
+    }
+
+    @Test
+    @DisplayName("Debe compartir el canal del viaje entre observadores y no mezclar viajes")
+    void shouldFanOutPerTrip() {
+        broadcaster.subscribe(1L, () -> seats);
+        broadcaster.subscribe(1L, () -> seats);
+        broadcaster.subscribe(2L, () -> seats);
+
+        broadcaster.on(SeatMapEvent.held(1L, "A1"));
+
+        assertThat(emitters.get(0).awaitFrames(2).get(1)).contains("id:1");
+        assertThat(emitters.get(1).awaitFrames(2).get(1)).contains("id:1");
+        assertThat(emitters.get(2).awaitFrames(1)).hasSize(1);
+        assertThat(broadcaster.watcherCount()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Debe ignorar eventos de viajes sin observadores")
+    void shouldIgnoreEventsWithoutWatchers() {
+        broadcaster.on(SeatMapEvent.held(7L, "A1"));
+        broadcaster.subscribe(7L, () -> seats);
+
+        // La secuencia no avanzó: el snapshot arranca en 0
+        assertThat(emitters.get(0).awaitFrames(1).get(0)).contains("\"sequence\":0");
+    }
+
+    @Test
+    @DisplayName("Debe descartar al observador que se desconecta sin afectar al resto")
+    void shouldDropBrokenEmitter() {
+        broadcaster.subscribe(1L, () -> seats);
+        broadcaster.subscribe(1L, () -> seats);
+        emitters.get(0).awaitFrames(1);
+        emitters.get(0).broken = true;
+
+        broadcaster.on(SeatMapEvent.held(1L, "A1"));
+
+        assertThat(emitters.get(1).awaitFrames(2).get(1)).contains("\"state\":\"HELD\"");
+        awaitWatchers(1);
+    }
+
+    @Test
+    @DisplayName("Debe liberar el cupo cuando falla el snapshot")
+    void shouldReleaseWatcherWhenSnapshotFails() {
+        assertThatThrownBy(() -> broadcaster.subscribe(9L, () -> {
+            throw new NotFoundException("Trip 9 not found");
+        })).isInstanceOf(NotFoundException.class);
+
+        assertThat(broadcaster.watcherCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Debe rechazar suscripciones sobre el tope de observadores sin crear el emitter")
+    void shouldRejectOverCapacity() {
+        properties.setMaxWatchers(1);
+        broadcaster.subscribe(1L, () -> seats);
+
+        assertThat(broadcaster.subscribe(2L, () -> seats)).isEmpty();
+        assertThat(emitters).hasSize(1);
+        assertThat(broadcaster.watcherCount()).isEqualTo(1);
+    }
+
+    private void awaitWatchers(int expected) {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (broadcaster.watcherCount() != expected && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertThat(broadcaster.watcherCount()).isEqualTo(expected);
+    }
+
+    // Captura cada evento SSE como texto; "broken" simula un cliente desconectado
+    static class CapturingEmitter extends SseEmitter {
+        final List<String> frames = new CopyOnWriteArrayList<>();
+        volatile boolean broken;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (broken) {
+                throw new IOException("Broken pipe");
+            }
+            frames.add(builder.build().stream()
+                    .map(part -> String.valueOf(part.getData()))
+                    .collect(Collectors.joining()));
+        }
+
+        List<String> awaitFrames(int count) {
+            long deadline = System.currentTimeMillis() + 2000;
+            while (frames.size() < count && System.currentTimeMillis() < deadline) {
+                Thread.onSpinWait();
+            }
+            assertThat(frames).hasSizeGreaterThanOrEqualTo(count);
+            return frames;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.unimag.bustransport.security.config;
+
+import com.unimag.bustransport.api.PurchaseController;
+import com.unimag.bustransport.api.TripController;
+import com.unimag.bustransport.api.dto.PurchaseDtos.ExportFormat;
+import com.unimag.bustransport.seatmap.SeatMapBroadcaster;
+import com.unimag.bustransport.security.jwt.JwtService;
+import com.unimag.bustransport.security.jwt.VerifiedToken;
+import com.unimag.bustransport.security.ratelimit.RateLimitProperties;
+import com.unimag.bustransport.security.ratelimit.RateLimiter;
+import com.unimag.bustransport.security.user.CustomUserDetails;
+import com.unimag.bustransport.security.user.CustomUserDetailsService;
+import com.unimag.bustransport.security.user.PrincipalCache;
+import com.unimag.bustransport.services.PurchaseExportService;
+import com.unimag.bustransport.services.PurchaseService;
+import com.unimag.bustransport.services.TripService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Cadena de seguridad real (filtro JWT incluido) para las respuestas asíncronas: el filtro JWT no
+// corre en el dispatch ASYNC y la sesión es STATELESS, así que ese dispatch llega sin usuario
+@WebMvcTest({PurchaseController.class, TripController.class})
+@Import({SecurityConfig.class, SecurityConfigTest.Beans.class})
+class SecurityConfigTest {
+
+    private static final String TOKEN = "clerk-token";
+
+    @Autowired MockMvc mvc;
+    @MockitoBean PurchaseService purchaseService;
+    @MockitoBean PurchaseExportService exportService;
+    @MockitoBean TripService tripService;
+    @MockitoBean SeatMapBroadcaster seatMapBroadcaster;
+
+    @MockitoBean
+    private JwtService jwtService;
+
+    @MockitoBean
+    private CustomUserDetailsService userDetailsService;
+
+    @MockitoBean
+    private PasswordEncoder passwordEncoder;
+
+    @TestConfiguration
+    static class Beans {
+
+        @Bean
+        PrincipalCache principalCache() {
+            PrincipalCacheProperties properties = new PrincipalCacheProperties();
+            properties.setEnabled(false);
+            return new PrincipalCache(properties);
+        }
+
+        @Bean
+        RateLimiter rateLimiter() {
+            RateLimitProperties properties = new RateLimitProperties();
+            properties.setEnabled(false);
+            return new RateLimiter(properties);
+        }
+    }
+
+    @BeforeEach
+    void authenticateClerk() {
+        Instant now = Instant.now();
+        VerifiedToken token = new VerifiedToken(7L, "clerk@bus.co", "ROLE_CLERK", VerifiedToken.TYPE_ACCESS,
+                null, null, now, now.plusSeconds(600));
+        CustomUserDetails clerk = new CustomUserDetails(7L, "clerk@bus.co", "Clerk", "hash", "ROLE_CLERK", true);
+        when(jwtService.verify(TOKEN)).thenReturn(token);
+        when(userDetailsService.loadUserById(7L)).thenReturn(clerk);
+        when(jwtService.isTokenValid(token, clerk)).thenReturn(true);
+    }
+
+    @Test
+    void export_withToken_shouldStreamOnAsyncDispatch() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(3);
+            out.write("{\"id\":1}\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        }).when(exportService).exportByDateRange(any(), any(), eq(ExportFormat.NDJSON), any());
+
+        var result = mvc.perform(get("/api/v1/purchases/export")
+                        .header("Authorization", "Bearer " + TOKEN)
+                        .param("start", "2025-06-01T00:00:00-05:00")
+                        .param("end", "2025-06-30T23:59:59-05:00"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string("{\"id\":1}\n"));
+    }
+
+    @Test
+    void streamSeats_withToken_shouldDeliverEventsOnAsyncDispatch() throws Exception {
+        SseEmitter emitter = new SseEmitter();
+        when(seatMapBroadcaster.subscribe(eq(1L), any())).thenReturn(Optional.of(emitter));
+
+        var result = mvc.perform(get("/api/v1/trips/1/seats/stream")
+                        .header("Authorization", "Bearer " + TOKEN)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        emitter.send(SseEmitter.event().name("snapshot").data("{}"));
+        emitter.complete();
+
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string("event:snapshot\ndata:{}\n\n"));
+    }
+
+    @Test
+    void export_withoutToken_shouldBeRejectedBeforeStreaming() throws Exception {
+        mvc.perform(get("/api/v1/purchases/export")
+                        .param("start", "2025-06-01T00:00:00-05:00")
+                        .param("end", "2025-06-30T23:59:59-05:00"))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isForbidden());
+    }
+}
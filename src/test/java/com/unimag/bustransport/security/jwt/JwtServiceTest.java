@@ -0,0 +1,124 @@
+package com.unimag.bustransport.security.jwt;
+
+import com.unimag.bustransport.security.config.JwtProperties;
+import com.unimag.bustransport.security.user.CustomUserDetails;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import io.jsonwebtoken.security.WeakKeyException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtServiceTest {
+
+    private static final String SECRET = "test-secret-test-secret-test-secret-0123456789";
+
+    private final CustomUserDetails user =
+            new CustomUserDetails(42L, "user@test.com", "User", "hash", "ROLE_PASSENGER", true);
+
+    private VerifiedTokenCache cache;
+    private JwtService jwtService;
+
+    @BeforeEach
+    void setUp() {
+        JwtProperties properties = givenProperties(SECRET, 3600000L, true);
+        cache = new VerifiedTokenCache(properties);
+        jwtService = givenService(properties, cache);
+    }
+
+    @Test
+    @DisplayName("Debe verificar el token de acceso y exponer sus claims")
+    void shouldVerifyAccessToken() {
+        VerifiedToken token = jwtService.verify(jwtService.generateAccessToken(user));
+
+        assertThat(token.userId()).isEqualTo(42L);
+        assertThat(token.subject()).isEqualTo("user@test.com");
+        assertThat(token.role()).isEqualTo("ROLE_PASSENGER");
+        assertThat(token.isRefreshToken()).isFalse();
+        assertThat(jwtService.isTokenValid(token, user)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Debe servir el segundo verify desde la cache sin volver a parsear")
+    void shouldServeRepeatedVerifyFromCache() {
+        String token = jwtService.generateAccessToken(user);
+
+        VerifiedToken first = jwtService.verify(token);
+        VerifiedToken second = jwtService.verify(token);
+
+        assertThat(second).isSameAs(first);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Debe verificar la firma en cada llamada con la cache deshabilitada")
+    void shouldParseEveryTimeWithoutCache() {
+        JwtProperties properties = givenProperties(SECRET, 3600000L, false);
+        JwtService uncached = givenService(properties, new VerifiedTokenCache(properties));
+        String token = uncached.generateAccessToken(user);
+
+        VerifiedToken first = uncached.verify(token);
+        VerifiedToken second = uncached.verify(token);
+
+        assertThat(second).isEqualTo(first).isNotSameAs(first);
+    }
+
+    @Test
+    @DisplayName("Debe rechazar un token vencido y no cachearlo")
+    void shouldRejectExpiredToken() {
+        JwtProperties properties = givenProperties(SECRET, -1000L, true);
+        String expired = givenService(properties, new VerifiedTokenCache(properties)).generateAccessToken(user);
+
+        assertThatThrownBy(() -> jwtService.verify(expired)).isInstanceOf(ExpiredJwtException.class);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Debe rechazar un token firmado con otra clave y no cachearlo")
+    void shouldRejectTokenWithBadSignature() {
+        // Mismo largo que el secreto real: misma variante de HMAC, distinta clave
+        JwtProperties properties = givenProperties(SECRET.replace("test", "fake"), 3600000L, true);
+        String forged = givenService(properties, new VerifiedTokenCache(properties)).generateAccessToken(user);
+
+        assertThatThrownBy(() -> jwtService.verify(forged)).isInstanceOf(SignatureException.class);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("No debe aceptar un refresh token como token de acceso")
+    void shouldNotAcceptRefreshTokenAsAccessToken() {
+        String refresh = jwtService.generateRefreshToken(user, UUID.randomUUID(), 1);
+
+        assertThat(jwtService.isRefreshTokenValid(refresh)).isTrue();
+        assertThat(jwtService.isTokenValid(refresh, user)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Debe fallar al arrancar si el secreto es demasiado corto para HS256")
+    void shouldFailOnStartupWithWeakSecret() {
+        JwtProperties properties = givenProperties("short", 3600000L, true);
+        JwtService service = new JwtService(properties, new VerifiedTokenCache(properties));
+
+        assertThatThrownBy(service::init).isInstanceOf(WeakKeyException.class);
+    }
+
+    private static JwtService givenService(JwtProperties properties, VerifiedTokenCache cache) {
+        JwtService service = new JwtService(properties, cache);
+        service.init();
+        return service;
+    }
+
+    private static JwtProperties givenProperties(String secret, long expiration, boolean cacheEnabled) {
+        JwtProperties properties = new JwtProperties();
+        properties.setSecret(secret);
+        properties.setExpiration(expiration);
+        properties.setRefreshExpiration(86400000L);
+        properties.getVerifiedCache().setEnabled(cacheEnabled);
+        return properties;
+    }
+}
@@ -0,0 +1,83 @@
+package com.unimag.bustransport.security.jwt;
+
+import com.unimag.bustransport.security.config.JwtProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VerifiedTokenCacheTest {
+
+    private final Instant t0 = Instant.parse("2030-01-07T12:00:00Z");
+
+    private JwtProperties properties;
+    private VerifiedTokenCache cache;
+
+    @BeforeEach
+    void setUp() {
+        properties = new JwtProperties();
+        properties.getVerifiedCache().setMaxSize(2);
+        cache = new VerifiedTokenCache(properties);
+    }
+
+    @Test
+    @DisplayName("Debe servir el token verificado hasta su expiración y descartarlo al vencer")
+    void shouldServeTokenUntilItExpires() {
+        VerifiedToken verified = givenToken(1L, t0.plusSeconds(60));
+        cache.put("token-1", verified, t0);
+
+        assertThat(cache.get("token-1", t0.plusSeconds(59))).isSameAs(verified);
+        assertThat(cache.get("token-2", t0.plusSeconds(59))).isNull();
+
+        assertThat(cache.get("token-1", t0.plusSeconds(60))).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Debe desalojar el token menos usado cuando la cache está llena")
+    void shouldEvictLeastRecentlyUsedWhenFull() {
+        cache.put("token-1", givenToken(1L, t0.plusSeconds(60)), t0);
+        cache.put("token-2", givenToken(2L, t0.plusSeconds(60)), t0);
+        // El token 1 se vuelve a usar: el menos usado pasa a ser el 2
+        cache.get("token-1", t0.plusSeconds(1));
+
+        // Llena y sin vencidas: el tercero entra igual y sale el 2, que se volverá a verificar con la firma
+        cache.put("token-3", givenToken(3L, t0.plusSeconds(60)), t0.plusSeconds(5));
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get("token-3", t0.plusSeconds(5))).isNotNull();
+        assertThat(cache.get("token-1", t0.plusSeconds(5))).isNotNull();
+        assertThat(cache.get("token-2", t0.plusSeconds(5))).isNull();
+    }
+
+    @Test
+    @DisplayName("Debe eliminar en bloque las entradas vencidas")
+    void shouldEvictExpiredInBulk() {
+        cache.put("token-1", givenToken(1L, t0.plusSeconds(10)), t0);
+        cache.put("token-2", givenToken(2L, t0.plusSeconds(60)), t0);
+
+        cache.evictExpired(t0.plusSeconds(30));
+
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.get("token-2", t0.plusSeconds(30))).isNotNull();
+    }
+
+    @Test
+    @DisplayName("No debe guardar ni servir tokens con la cache deshabilitada")
+    void shouldBypassWhenDisabled() {
+        properties.getVerifiedCache().setEnabled(false);
+
+        cache.put("token-1", givenToken(1L, t0.plusSeconds(60)), t0);
+
+        assertThat(cache.get("token-1", t0)).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    private VerifiedToken givenToken(Long userId, Instant expiresAt) {
+        return new VerifiedToken(userId, "user" + userId + "@test.com", "ROLE_PASSENGER",
+                VerifiedToken.TYPE_ACCESS, null, null, t0, expiresAt);
+    }
+}
@@ -0,0 +1,122 @@
+package com.unimag.bustransport.security.ratelimit;
+
+import com.unimag.bustransport.security.user.CustomUserDetails;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimiterTest {
+
+    private RateLimitProperties properties;
+    private RateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties.Policy login = new RateLimitProperties.Policy();
+        login.setMethod("POST");
+        login.setPath("/api/v1/auth/login");
+        login.setCapacity(3);
+        login.setRefillPerMinute(1);
+        login.setKey(RateLimitProperties.KeyType.IP);
+
+        RateLimitProperties.Policy search = new RateLimitProperties.Policy();
+        search.setMethod("GET");
+        search.setPath("/api/v1/trips/search");
+        search.setCapacity(2);
+        search.setRefillPerMinute(1);
+
+        properties = new RateLimitProperties();
+        properties.getPolicies().put("login", login);
+        properties.getPolicies().put("trip-search", search);
+        rateLimiter = new RateLimiter(properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Debe permitir la ráfaga configurada y luego responder con Retry-After")
+    void shouldThrottleAfterBurst() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(rateLimiter.check(request("POST", "/api/v1/auth/login", "10.0.0.1")).allowed()).isTrue();
+        }
+
+        RateLimiter.Decision decision = rateLimiter.check(request("POST", "/api/v1/auth/login", "10.0.0.1"));
+
+        assertThat(decision.allowed()).isFalse();
+        assertThat(decision.policy()).isEqualTo("login");
+        assertThat(decision.retryAfterSeconds()).isBetween(1L, 60L);
+    }
+
+    @Test
+    @DisplayName("Debe llevar buckets independientes por IP")
+    void shouldIsolateKeys() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.check(request("POST", "/api/v1/auth/login", "10.0.0.1"));
+        }
+
+        assertThat(rateLimiter.check(request("POST", "/api/v1/auth/login", "10.0.0.2")).allowed()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Debe usar el usuario autenticado como clave cuando existe")
+    void shouldKeyByUserWhenAuthenticated() {
+        CustomUserDetails user = new CustomUserDetails(7L, "a@test.com", "A", "hash", "ROLE_PASSENGER", true);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+
+        // Misma persona desde tres IPs comparte el bucket
+        assertThat(rateLimiter.check(request("GET", "/api/v1/trips/search", "10.0.0.1")).allowed()).isTrue();
+        assertThat(rateLimiter.check(request("GET", "/api/v1/trips/search", "10.0.0.2")).allowed()).isTrue();
+        assertThat(rateLimiter.check(request("GET", "/api/v1/trips/search", "10.0.0.3")).allowed()).isFalse();
+    }
+
+    @Test
+    @DisplayName("No debe limitar rutas o métodos sin política")
+    void shouldIgnoreUnmatchedRequests() {
+        for (int i = 0; i < 10; i++) {
+            assertThat(rateLimiter.check(request("GET", "/api/v1/auth/login", "10.0.0.1")).allowed()).isTrue();
+            assertThat(rateLimiter.check(request("GET", "/api/v1/trips/1", "10.0.0.1")).allowed()).isTrue();
+        }
+        assertThat(rateLimiter.trackedKeys("login")).isZero();
+    }
+
+    @Test
+    @DisplayName("Debe desalojar las claves inactivas")
+    void shouldEvictIdleKeys() {
+        properties.setIdleEvictMs(60000);
+        rateLimiter.check(request("POST", "/api/v1/auth/login", "10.0.0.1"));
+
+        rateLimiter.evictIdle();
+        assertThat(rateLimiter.trackedKeys("login")).isEqualTo(1);
+
+        // Pasado el tiempo de recarga más el de inactividad, la clave se elimina
+        rateLimiter.evictIdle(System.nanoTime() + TimeUnit.MINUTES.toNanos(5));
+        assertThat(rateLimiter.trackedKeys("login")).isZero();
+    }
+
+    @Test
+    @DisplayName("No debe limitar cuando está deshabilitado")
+    void shouldAllowEverythingWhenDisabled() {
+        properties.setEnabled(false);
+        for (int i = 0; i < 10; i++) {
+            assertThat(rateLimiter.check(request("POST", "/api/v1/auth/login", "10.0.0.1")).allowed()).isTrue();
+        }
+    }
+
+    private MockHttpServletRequest request(String method, String uri, String ip) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setRemoteAddr(ip);
+        return request;
+    }
+}
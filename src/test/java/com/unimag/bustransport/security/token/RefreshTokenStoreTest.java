@@ -0,0 +1,144 @@
+package com.unimag.bustransport.security.token;
+
+import com.unimag.bustransport.domain.entities.RefreshTokenFamily;
+import com.unimag.bustransport.domain.repositories.RefreshTokenFamilyRepository;
+import com.unimag.bustransport.security.config.JwtProperties;
+import com.unimag.bustransport.security.jwt.JwtService;
+import com.unimag.bustransport.security.jwt.VerifiedToken;
+import io.jsonwebtoken.ExpiredJwtException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenStoreTest {
+
+    @Mock
+    private RefreshTokenFamilyRepository familyRepository;
+    @Mock
+    private RevokedFamilySet revokedFamilies;
+    @Mock
+    private JwtService jwtService;
+    @Mock
+    private JwtProperties jwtProperties;
+
+    @InjectMocks
+    private RefreshTokenStore store;
+
+    private final UUID familyId = UUID.randomUUID();
+
+    private VerifiedToken givenRefreshToken(int generation) {
+        return new VerifiedToken(1L, "test@example.com", null, VerifiedToken.TYPE_REFRESH,
+                familyId, generation, Instant.now(), Instant.now().plusSeconds(3600));
+    }
+
+    @Test
+    @DisplayName("Debe abrir una familia nueva en generación 0")
+    void shouldOpenSession() {
+        when(jwtProperties.getRefreshExpiration()).thenReturn(86400000L);
+        when(familyRepository.save(any(RefreshTokenFamily.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        RefreshTokenStore.Session session = store.openSession(1L);
+
+        assertThat(session.userId()).isEqualTo(1L);
+        assertThat(session.generation()).isZero();
+        assertThat(session.familyId()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Debe rotar sin consultar revocación en BD cuando el filtro da negativo")
+    void shouldRotateWithoutRevocationLookup() {
+        when(jwtService.verify("rt")).thenReturn(givenRefreshToken(3));
+        when(revokedFamilies.mightBeRevoked(familyId)).thenReturn(false);
+        when(jwtProperties.getRefreshExpiration()).thenReturn(86400000L);
+        when(familyRepository.rotate(eq(familyId), eq(3), any(), any())).thenReturn(1);
+
+        RefreshTokenStore.Session session = store.rotate("rt");
+
+        assertThat(session.generation()).isEqualTo(4);
+        verify(familyRepository, never()).existsByFamilyIdAndRevokedTrue(any());
+    }
+
+    @Test
+    @DisplayName("Debe rechazar una familia revocada confirmada en BD")
+    void shouldRejectRevokedFamily() {
+        when(jwtService.verify("rt")).thenReturn(givenRefreshToken(0));
+        when(revokedFamilies.mightBeRevoked(familyId)).thenReturn(true);
+        when(familyRepository.existsByFamilyIdAndRevokedTrue(familyId)).thenReturn(true);
+
+        assertThatThrownBy(() -> store.rotate("rt"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid or expired refresh token");
+
+        verify(familyRepository, never()).rotate(any(), anyInt(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Debe revocar la familia al detectar reutilización de un token ya rotado")
+    void shouldRevokeFamilyOnReuse() {
+        when(jwtService.verify("old-rt")).thenReturn(givenRefreshToken(1));
+        when(revokedFamilies.mightBeRevoked(familyId)).thenReturn(false);
+        when(jwtProperties.getRefreshExpiration()).thenReturn(86400000L);
+        when(familyRepository.rotate(eq(familyId), eq(1), any(), any())).thenReturn(0);
+
+        assertThatThrownBy(() -> store.rotate("old-rt"))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        verify(familyRepository).revoke(eq(familyId), any());
+        verify(revokedFamilies).add(familyId);
+    }
+
+    @Test
+    @DisplayName("Debe rechazar tokens de acceso y tokens expirados")
+    void shouldRejectNonRefreshTokens() {
+        VerifiedToken access = new VerifiedToken(1L, "test@example.com", "ROLE_PASSENGER", VerifiedToken.TYPE_ACCESS,
+                null, null, Instant.now(), Instant.now().plusSeconds(60));
+        when(jwtService.verify("access")).thenReturn(access);
+        when(jwtService.verify("expired")).thenThrow(new ExpiredJwtException(null, null, "expired"));
+
+        assertThatThrownBy(() -> store.rotate("access")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> store.rotate("expired")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Debe revocar todas las sesiones del usuario")
+    void shouldRevokeAllForUser() {
+        UUID other = UUID.randomUUID();
+        when(familyRepository.findActiveFamilyIdsByUserId(1L)).thenReturn(List.of(familyId, other));
+
+        store.revokeAllForUser(1L);
+
+        verify(familyRepository).revokeAllByUserId(eq(1L), any());
+        verify(revokedFamilies).add(familyId);
+        verify(revokedFamilies).add(other);
+    }
+
+    @Test
+    @DisplayName("El filtro de Bloom no debe tener falsos negativos")
+    void bloomFilterHasNoFalseNegatives() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        List<UUID> inserted = Stream.generate(UUID::randomUUID).limit(10_000).toList();
+        inserted.forEach(filter::put);
+
+        assertThat(inserted).allMatch(filter::mightContain);
+
+        long falsePositives = Stream.generate(UUID::randomUUID).limit(10_000)
+                .filter(filter::mightContain).count();
+        assertThat(falsePositives).isLessThan(300);
+    }
+}
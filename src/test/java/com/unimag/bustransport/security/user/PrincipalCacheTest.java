@@ -0,0 +1,73 @@
+package com.unimag.bustransport.security.user;
+
+import com.unimag.bustransport.security.config.PrincipalCacheProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrincipalCacheTest {
+
+    private PrincipalCacheProperties properties;
+    private PrincipalCache cache;
+
+    @BeforeEach
+    void setUp() {
+        properties = new PrincipalCacheProperties();
+        properties.setTtlMs(1000);
+        properties.setMaxSize(2);
+        cache = new PrincipalCache(properties);
+    }
+
+    @Test
+    @DisplayName("Debe devolver el principal cacheado para el mismo userId e iat")
+    void shouldReturnCachedPrincipal() {
+        CustomUserDetails details = givenDetails(1L);
+        cache.put(1L, 100L, details, 0);
+
+        assertThat(cache.get(1L, 100L, 500)).isSameAs(details);
+        assertThat(cache.get(1L, 200L, 500)).isNull();
+    }
+
+    @Test
+    @DisplayName("Debe expirar las entradas al vencer el TTL")
+    void shouldExpireEntries() {
+        cache.put(1L, 100L, givenDetails(1L), 0);
+
+        assertThat(cache.get(1L, 100L, 1000)).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Debe invalidar todas las entradas del usuario")
+    void shouldInvalidateAllTokensOfUser() {
+        cache.put(1L, 100L, givenDetails(1L), 0);
+        cache.put(1L, 200L, givenDetails(1L), 0);
+
+        cache.invalidate(1L);
+
+        assertThat(cache.get(1L, 100L, 10)).isNull();
+        assertThat(cache.get(1L, 200L, 10)).isNull();
+    }
+
+    @Test
+    @DisplayName("No debe superar el tamaño máximo y debe desalojar la entrada menos usada")
+    void shouldEvictLeastRecentlyUsedWhenFull() {
+        cache.put(1L, 100L, givenDetails(1L), 0);
+        cache.put(2L, 100L, givenDetails(2L), 0);
+        // El usuario 1 se vuelve a leer: el menos usado pasa a ser el 2
+        cache.get(1L, 100L, 5);
+
+        cache.put(3L, 100L, givenDetails(3L), 10);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get(3L, 100L, 10)).isNotNull();
+        assertThat(cache.get(1L, 100L, 10)).isNotNull();
+        assertThat(cache.get(2L, 100L, 10)).isNull();
+    }
+
+    private CustomUserDetails givenDetails(Long userId) {
+        return new CustomUserDetails(userId, "user" + userId + "@test.com", "User", "hash", "ROLE_PASSENGER", true);
+    }
+}
@@ -0,0 +1,57 @@
+package com.unimag.bustransport.security.user;
+
+import com.unimag.bustransport.domain.repositories.PrincipalInvalidationRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PrincipalInvalidatorTest {
+
+    @Mock
+    private PrincipalCache principalCache;
+
+    @Mock
+    private PrincipalInvalidationRepository invalidationRepository;
+
+    @InjectMocks
+    private PrincipalInvalidator invalidator;
+
+    @Test
+    @DisplayName("Debe releer las invalidaciones con solape para no perder las que confirman tarde")
+    void shouldPollWithOverlapWindow() {
+        when(invalidationRepository.findUserIdsInvalidatedSince(any())).thenReturn(List.of(1L, 2L));
+        OffsetDateTime before = OffsetDateTime.now();
+
+        invalidator.pollRemoteInvalidations();
+
+        ArgumentCaptor<OffsetDateTime> since = ArgumentCaptor.forClass(OffsetDateTime.class);
+        verify(invalidationRepository).findUserIdsInvalidatedSince(since.capture());
+        assertThat(since.getValue()).isBefore(before.minusSeconds(29));
+        verify(principalCache).invalidate(1L);
+        verify(principalCache).invalidate(2L);
+    }
+
+    @Test
+    @DisplayName("Debe tolerar la misma invalidación en polls consecutivos")
+    void shouldInvalidateAgainOnOverlappingPolls() {
+        when(invalidationRepository.findUserIdsInvalidatedSince(any())).thenReturn(List.of(1L));
+
+        invalidator.pollRemoteInvalidations();
+        invalidator.pollRemoteInvalidations();
+
+        verify(principalCache, times(2)).invalidate(1L);
+        verify(principalCache, times(2)).evictExpired(anyLong());
+    }
+}
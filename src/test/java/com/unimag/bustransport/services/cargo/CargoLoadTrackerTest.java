@@ -0,0 +1,150 @@
+package com.unimag.bustransport.services.cargo;
+
+import com.unimag.bustransport.config.CargoProperties;
+import com.unimag.bustransport.domain.repositories.ParcelRepository;
+import com.unimag.bustransport.domain.repositories.StopRepository;
+import com.unimag.bustransport.domain.repositories.TripRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CargoLoadTrackerTest {
+
+    @Mock
+    private ParcelRepository parcelRepository;
+    @Mock
+    private TripRepository tripRepository;
+    @Mock
+    private StopRepository stopRepository;
+    @Spy
+    private CargoProperties properties = new CargoProperties();
+    @InjectMocks
+    private CargoLoadTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        completeTransaction();
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    @DisplayName("Debe bloquear el viaje y contar la carga que otro nodo ya confirmó en la BD")
+    void shouldLockTripAndRebuildFromDatabase() {
+        // Cupo 100 kg; otro nodo ya cargó 80 kg entre las paradas 1 y 3
+        givenTrip(10L, 100);
+        when(parcelRepository.findCargoOnTrips(anyCollection())).thenReturn(List.of(parcel(99L, 10L, 1, 3, 80)));
+
+        boolean loaded = tracker.tryLoad(10L, 1L, 1, 2, BigDecimal.valueOf(30), BigDecimal.ONE);
+
+        assertThat(loaded).isFalse();
+        verify(tripRepository).findAllByIdForUpdate(Set.of(10L));
+    }
+
+    @Test
+    @DisplayName("Debe reutilizar la carga bloqueada dentro de la transacción con las reservas que lleva")
+    void shouldReuseLockedLoadWithinTransaction() {
+        givenTrip(10L, 100);
+        when(parcelRepository.findCargoOnTrips(anyCollection())).thenReturn(List.of());
+
+        assertThat(tracker.tryLoad(10L, 1L, 1, 3, BigDecimal.valueOf(60), BigDecimal.ONE)).isTrue();
+        // La primera reserva aún no está en la BD: la segunda la ve por la carga de la transacción
+        assertThat(tracker.tryLoad(10L, 2L, 1, 3, BigDecimal.valueOf(60), BigDecimal.ONE)).isFalse();
+
+        verify(tripRepository, times(1)).findAllByIdForUpdate(anyCollection());
+        verify(parcelRepository, times(1)).findCargoOnTrips(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Debe volver a leer la BD en la siguiente transacción")
+    void shouldRebuildInNextTransaction() {
+        givenTrip(10L, 100);
+        when(parcelRepository.findCargoOnTrips(anyCollection())).thenReturn(List.of());
+        tracker.tryLoad(10L, 1L, 1, 3, BigDecimal.valueOf(60), BigDecimal.ONE);
+
+        completeTransaction();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.initSynchronization();
+        tracker.tryLoad(10L, 2L, 1, 3, BigDecimal.valueOf(60), BigDecimal.ONE);
+
+        verify(tripRepository, times(2)).findAllByIdForUpdate(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Debe exigir una transacción para reservar")
+    void shouldRequireTransaction() {
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertThatThrownBy(() -> tracker.tryLoad(10L, 1L, 1, 2, BigDecimal.ONE, BigDecimal.ONE))
+                .isInstanceOf(IllegalStateException.class);
+        verifyNoInteractions(tripRepository);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @Test
+    @DisplayName("No debe tocar la BD cuando el control de bodega está deshabilitado")
+    void shouldSkipWhenDisabled() {
+        properties.setEnabled(false);
+
+        assertThat(tracker.tryLoad(10L, 1L, 1, 2, BigDecimal.ONE, BigDecimal.ONE)).isTrue();
+        verifyNoInteractions(tripRepository, parcelRepository, stopRepository);
+    }
+
+    private void completeTransaction() {
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+    }
+
+    // Ruta 1 con paradas 1..3 (dos tramos)
+    private void givenTrip(Long tripId, int capacityKg) {
+        when(tripRepository.findCargoTrips(anyCollection())).thenReturn(List.of(new TripRepository.CargoTrip() {
+            @Override public Long getTripId() { return tripId; }
+            @Override public Long getRouteId() { return 1L; }
+            @Override public BigDecimal getCapacityKg() { return BigDecimal.valueOf(capacityKg); }
+            @Override public BigDecimal getCapacityLiters() { return BigDecimal.valueOf(1000); }
+        }));
+        when(stopRepository.findPositionsByRouteIds(anyCollection())).thenReturn(List.of(
+                stop(1), stop(2), stop(3)));
+    }
+
+    private static StopRepository.StopPosition stop(int order) {
+        return new StopRepository.StopPosition() {
+            @Override public Long getStopId() { return (long) order; }
+            @Override public Long getRouteId() { return 1L; }
+            @Override public Integer getStopOrder() { return order; }
+        };
+    }
+
+    private static ParcelRepository.CargoParcel parcel(Long parcelId, Long tripId, int from, int to, int weightKg) {
+        return new ParcelRepository.CargoParcel() {
+            @Override public Long getParcelId() { return parcelId; }
+            @Override public Long getTripId() { return tripId; }
+            @Override public Integer getFromOrder() { return from; }
+            @Override public Integer getToOrder() { return to; }
+            @Override public BigDecimal getWeightKg() { return BigDecimal.valueOf(weightKg); }
+            @Override public BigDecimal getVolumeLiters() { return BigDecimal.ONE; }
+        };
+    }
+}
@@ -0,0 +1,120 @@
+package com.unimag.bustransport.services.cargo;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TripCargoLoadTest {
+
+    // Ruta con paradas de orden 1, 2, 4, 5 (tres tramos); cupo 100 kg y 1000 L
+    private TripCargoLoad givenLoad() {
+        return new TripCargoLoad(10L, new int[]{5, 1, 4, 2},
+                TripCargoLoad.grams(BigDecimal.valueOf(100)), TripCargoLoad.cubicCm(BigDecimal.valueOf(1000)));
+    }
+
+    private long kg(int kg) {
+        return TripCargoLoad.grams(BigDecimal.valueOf(kg));
+    }
+
+    @Test
+    @DisplayName("Debe aceptar encomiendas en tramos distintos aunque juntas superen el cupo")
+    void shouldFitDisjointSegments() {
+        TripCargoLoad load = givenLoad();
+
+        assertThat(load.tryLoad(1L, 1, 4, kg(80), 0)).isTrue();
+        assertThat(load.tryLoad(2L, 4, 5, kg(80), 0)).isTrue();
+        assertThat(load.tryLoad(3L, 2, 5, kg(30), 0)).isFalse(); // Tramo 2->4 quedaría en 110
+        assertThat(load.tryLoad(4L, 1, 2, kg(20), 0)).isTrue();
+
+        assertThat(load.maxWeight(1, 5)).isEqualTo(kg(100));
+        assertThat(load.maxWeight(4, 5)).isEqualTo(kg(80));
+    }
+
+    @Test
+    @DisplayName("Debe rechazar por volumen aunque el peso tenga cupo")
+    void shouldRejectByVolume() {
+        TripCargoLoad load = givenLoad();
+
+        assertThat(load.tryLoad(1L, 1, 5, kg(1), TripCargoLoad.cubicCm(BigDecimal.valueOf(900)))).isTrue();
+        assertThat(load.tryLoad(2L, 2, 4, kg(1), TripCargoLoad.cubicCm(BigDecimal.valueOf(101)))).isFalse();
+        assertThat(load.maxVolume(1, 5)).isEqualTo(TripCargoLoad.cubicCm(BigDecimal.valueOf(900)));
+    }
+
+    @Test
+    @DisplayName("Debe rechazar paradas que no son de la ruta o en sentido contrario")
+    void shouldRejectInvalidStops() {
+        TripCargoLoad load = givenLoad();
+
+        assertThat(load.tryLoad(1L, 3, 5, kg(1), 0)).isFalse();
+        assertThat(load.tryLoad(2L, 5, 1, kg(1), 0)).isFalse();
+        assertThat(load.maxWeight(1, 5)).isZero();
+    }
+
+    @Test
+    @DisplayName("Debe liberar los tramos restantes al descargar y todo al cerrar, sin descontar dos veces")
+    void shouldUnloadAndReleaseOnce() {
+        TripCargoLoad load = givenLoad();
+        load.tryLoad(1L, 1, 5, kg(60), 0);
+        load.tryLoad(2L, 1, 5, kg(40), 0);
+
+        load.unload(1L, 4);
+        assertThat(load.maxWeight(1, 4)).isEqualTo(kg(100));
+        assertThat(load.maxWeight(4, 5)).isEqualTo(kg(40));
+
+        load.release(2L);
+        load.release(2L);
+        assertThat(load.maxWeight(1, 5)).isEqualTo(kg(60));
+        assertThat(load.tryLoad(3L, 2, 5, kg(40), 0)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Debe tratar como ya cargada una encomienda repetida")
+    void shouldBeIdempotentPerParcel() {
+        TripCargoLoad load = givenLoad();
+
+        assertThat(load.tryLoad(1L, 1, 5, kg(70), 0)).isTrue();
+        assertThat(load.tryLoad(1L, 1, 5, kg(70), 0)).isTrue();
+        assertThat(load.maxWeight(1, 5)).isEqualTo(kg(70));
+    }
+
+    @Test
+    @DisplayName("El árbol de sumas prefijas debe coincidir con recorrer los tramos uno a uno")
+    void segmentLoadShouldMatchBruteForce() {
+        Random random = new Random(42);
+        int segments = 37;
+        SegmentLoad tree = new SegmentLoad(segments);
+        long[] naive = new long[segments];
+
+        for (int i = 0; i < 5_000; i++) {
+            int from = random.nextInt(segments);
+            int to = from + 1 + random.nextInt(segments - from);
+            if (random.nextBoolean()) {
+                long amount = random.nextInt(2_000) - 500;
+                tree.add(from, to, amount);
+                for (int k = from; k < to; k++) {
+                    naive[k] += amount;
+                }
+            } else {
+                long expected = Long.MIN_VALUE;
+                for (int k = from; k < to; k++) {
+                    expected = Math.max(expected, naive[k]);
+                }
+                assertThat(tree.max(from, to)).isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Debe rechazar rangos de tramos inválidos")
+    void segmentLoadShouldRejectInvalidRange() {
+        SegmentLoad tree = new SegmentLoad(3);
+
+        assertThatThrownBy(() -> tree.add(2, 2, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> tree.max(0, 4)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,115 @@
+package com.unimag.bustransport.services.codes;
+
+import com.unimag.bustransport.config.ParcelCodeProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CodeNodeLeaseTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private ParcelCodeProperties properties;
+    private CodeNodeLease lease;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ParcelCodeProperties();
+        lease = new CodeNodeLease(jdbcTemplate, properties);
+    }
+
+    @Test
+    @DisplayName("Debe usar el node-id configurado sin tocar la BD")
+    void shouldUseConfiguredNode() {
+        properties.setNodeId(7);
+
+        lease.init();
+        lease.renew();
+        lease.release();
+
+        assertThat(lease.nodeId()).isEqualTo(7);
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Debe tomar un id libre en la BD cuando no hay node-id configurado")
+    void shouldLeaseNodeWhenNotConfigured() {
+        givenAcquired(List.of(3L));
+
+        lease.init();
+
+        assertThat(lease.nodeId()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Debe reintentar cuando otro nodo gana la carrera por el mismo id")
+    void shouldRetryWhenAnotherNodeWinsTheRace() {
+        givenAcquired(List.of(), List.of(4L));
+
+        lease.init();
+
+        assertThat(lease.nodeId()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Debe fallar al arrancar si no queda ningún id libre")
+    void shouldFailWhenNoNodeIsAvailable() {
+        givenAcquired(List.of());
+
+        assertThatThrownBy(() -> lease.init()).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    @DisplayName("Debe cambiar de id si al renovar el lease ya es de otro nodo")
+    void shouldSwitchNodeWhenLeaseIsLost() {
+        givenAcquired(List.of(3L), List.of(5L));
+        lease.init();
+        when(jdbcTemplate.update(eq(CodeNodeLease.RENEW_SQL), any(), eq(3L), anyString())).thenReturn(0);
+
+        lease.renew();
+
+        assertThat(lease.nodeId()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Debe conservar el id mientras el lease se renueva")
+    void shouldKeepNodeWhileRenewed() {
+        givenAcquired(List.of(3L));
+        lease.init();
+        when(jdbcTemplate.update(eq(CodeNodeLease.RENEW_SQL), any(), eq(3L), anyString())).thenReturn(1);
+
+        lease.renew();
+
+        assertThat(lease.nodeId()).isEqualTo(3);
+        verify(jdbcTemplate, times(1)).queryForList(eq(CodeNodeLease.ACQUIRE_SQL), eq(Long.class), any(), any());
+    }
+
+    @Test
+    @DisplayName("Debe rechazar un node-id configurado fuera de rango")
+    void shouldRejectConfiguredNodeOutOfRange() {
+        properties.setNodeId(1024);
+
+        assertThatThrownBy(() -> lease.init()).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @SafeVarargs
+    private void givenAcquired(List<Long> first, List<Long>... next) {
+        when(jdbcTemplate.queryForList(eq(CodeNodeLease.ACQUIRE_SQL), eq(Long.class), any(), any()))
+                .thenReturn(first, next);
+    }
+}
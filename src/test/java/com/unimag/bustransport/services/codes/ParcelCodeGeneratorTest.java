@@ -0,0 +1,94 @@
+package com.unimag.bustransport.services.codes;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ParcelCodeGeneratorTest {
+
+    private static final long NOON = Instant.parse("2025-11-12T12:00:00Z").toEpochMilli();
+
+    @Test
+    @DisplayName("Debe generar el formato PAQ-YYYYMMDD-XXXXXXXXXX con la fecha UTC")
+    void shouldKeepParcelCodeFormat() {
+        ParcelCodeGenerator generator = new ParcelCodeGenerator(7, () -> NOON);
+
+        assertThat(generator.next()).matches("PAQ-20251112-[0-9A-Z]{10}");
+    }
+
+    @Test
+    @DisplayName("Debe generar un millón de códigos únicos entre hilos en el mismo milisegundo")
+    void shouldNotRepeatAcrossThreads() throws Exception {
+        // Reloj congelado: todo el volumen cae en el mismo ms y obliga a desbordar el contador
+        ParcelCodeGenerator generator = new ParcelCodeGenerator(1, () -> NOON);
+        Set<String> codes = ConcurrentHashMap.newKeySet();
+
+        try (ExecutorService pool = Executors.newFixedThreadPool(8)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 125_000; i++) {
+                        codes.add(generator.next());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+
+        assertThat(codes).hasSize(1_000_000);
+    }
+
+    @Test
+    @DisplayName("No debe repetir códigos cuando el reloj retrocede")
+    void shouldNotRepeatWhenClockGoesBackwards() {
+        AtomicLong clock = new AtomicLong(NOON);
+        ParcelCodeGenerator generator = new ParcelCodeGenerator(3, clock::get);
+
+        String before = generator.next();
+        clock.set(NOON - 5_000);
+        String after = generator.next();
+
+        assertThat(after).isNotEqualTo(before);
+        assertThat(after.compareTo(before)).isPositive();
+    }
+
+    @Test
+    @DisplayName("Debe distinguir nodos con el mismo reloj")
+    void shouldSeparateNodes() {
+        String node1 = new ParcelCodeGenerator(1, () -> NOON).next();
+        String node2 = new ParcelCodeGenerator(2, () -> NOON).next();
+
+        assertThat(node1).isNotEqualTo(node2);
+    }
+
+    @Test
+    @DisplayName("Debe rechazar nodeId fuera de rango")
+    void shouldRejectInvalidNode() {
+        assertThatThrownBy(() -> new ParcelCodeGenerator(1024, () -> NOON))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Debe generar OTP de 6 dígitos")
+    void shouldGenerateSixDigitOtp() {
+        OtpGenerator otpGenerator = new OtpGenerator();
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(otpGenerator.next()).matches("\\d{6}");
+        }
+    }
+}
@@ -10,12 +10,14 @@ import com.unimag.bustransport.domain.repositories.AssignmentRepository;
 import com.unimag.bustransport.domain.repositories.UserRepository;
 import com.unimag.bustransport.exception.DuplicateResourceException;
 import com.unimag.bustransport.exception.NotFoundException;
+import com.unimag.bustransport.services.RosterService;
 import com.unimag.bustransport.services.TripService;
 import com.unimag.bustransport.services.mapper.AssignmentMapper;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mapstruct.factory.Mappers;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
@@ -43,6 +45,9 @@ class AssignmentServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private RosterService rosterService;
+
     @Spy
     private AssignmentMapper assignmentMapper = Mappers.getMapper(AssignmentMapper.class);
 
@@ -138,7 +143,7 @@ class AssignmentServiceImplTest {
 
         when(tripService.getTripDetails(1L)).thenReturn(tripResponse);
         when(assignmentRepository.findByTripId(1L)).thenReturn(Optional.empty());
-        when(userRepository.findById(1L)).thenReturn(Optional.of(driver));
+        when(userRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(driver));
         when(userRepository.findById(2L)).thenReturn(Optional.of(dispatcher));
         when(assignmentRepository.save(any(Assignment.class))).thenReturn(savedAssignment);
 
@@ -151,9 +156,34 @@ class AssignmentServiceImplTest {
 
         verify(tripService, times(1)).getTripDetails(1L);
         verify(assignmentRepository, times(1)).findByTripId(1L);
-        verify(userRepository, times(1)).findById(1L);
         verify(userRepository, times(1)).findById(2L);
         verify(assignmentRepository, times(1)).save(any(Assignment.class));
+        // El conductor queda bloqueado antes de verificar su disponibilidad
+        InOrder inOrder = inOrder(userRepository, rosterService);
+        inOrder.verify(userRepository).findByIdForUpdate(1L);
+        inOrder.verify(rosterService).checkDriverAvailability(1L, tripResponse.departureAt(), tripResponse.arrivalAt());
+    }
+
+    @Test
+    @DisplayName("Debe rechazar el assignment si el conductor ya tiene un viaje que se cruza")
+    void shouldNotCreateAssignmentWhenDriverIsBusy() {
+        // Given
+        TripDtos.TripResponse tripResponse = givenTripResponse();
+        AssignmentDtos.AssignmentCreateRequest request = givenCreateRequest();
+
+        when(tripService.getTripDetails(1L)).thenReturn(tripResponse);
+        when(assignmentRepository.findByTripId(1L)).thenReturn(Optional.empty());
+        when(userRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(givenDriver()));
+        when(userRepository.findById(2L)).thenReturn(Optional.of(givenDispatcher()));
+        doThrow(new DuplicateResourceException("Driver already has trip 7"))
+                .when(rosterService).checkDriverAvailability(1L, tripResponse.departureAt(), tripResponse.arrivalAt());
+
+        // When & Then
+        assertThatThrownBy(() -> assignmentService.createAssignment(request))
+                .isInstanceOf(DuplicateResourceException.class)
+                .hasMessageContaining("Driver already has trip 7");
+
+        verify(assignmentRepository, never()).save(any(Assignment.class));
     }
 
     @Test
@@ -187,14 +217,14 @@ class AssignmentServiceImplTest {
 
         when(tripService.getTripDetails(1L)).thenReturn(tripResponse);
         when(assignmentRepository.findByTripId(1L)).thenReturn(Optional.empty());
-        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+        when(userRepository.findByIdForUpdate(1L)).thenReturn(Optional.empty());
 
         // When & Then
         assertThatThrownBy(() -> assignmentService.createAssignment(request))
                 .isInstanceOf(NotFoundException.class)
                 .hasMessageContaining("Driver with ID 1 not found");
 
-        verify(userRepository, times(1)).findById(1L);
+        verify(userRepository, times(1)).findByIdForUpdate(1L);
         verify(assignmentRepository, never()).save(any(Assignment.class));
     }
 
@@ -209,7 +239,7 @@ class AssignmentServiceImplTest {
 
         when(tripService.getTripDetails(1L)).thenReturn(tripResponse);
         when(assignmentRepository.findByTripId(1L)).thenReturn(Optional.empty());
-        when(userRepository.findById(1L)).thenReturn(Optional.of(invalidDriver));
+        when(userRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(invalidDriver));
 
         // When & Then
         assertThatThrownBy(() -> assignmentService.createAssignment(request))
@@ -231,7 +261,7 @@ class AssignmentServiceImplTest {
 
         when(tripService.getTripDetails(1L)).thenReturn(tripResponse);
         when(assignmentRepository.findByTripId(1L)).thenReturn(Optional.empty());
-        when(userRepository.findById(1L)).thenReturn(Optional.of(inactiveDriver));
+        when(userRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(inactiveDriver));
         when(userRepository.findById(2L)).thenReturn(Optional.of(dispatcher));
 
         // When & Then
@@ -252,7 +282,7 @@ class AssignmentServiceImplTest {
 
         when(tripService.getTripDetails(1L)).thenReturn(tripResponse);
         when(assignmentRepository.findByTripId(1L)).thenReturn(Optional.empty());
-        when(userRepository.findById(1L)).thenReturn(Optional.of(driver));
+        when(userRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(driver));
         when(userRepository.findById(2L)).thenReturn(Optional.empty());
 
         // When & Then
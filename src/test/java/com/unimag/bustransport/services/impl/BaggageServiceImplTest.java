@@ -5,14 +5,19 @@ import com.unimag.bustransport.domain.entities.Baggage;
 import com.unimag.bustransport.domain.entities.Ticket;
 import com.unimag.bustransport.domain.repositories.BaggageRepository;
 import com.unimag.bustransport.domain.repositories.TicketRepository;
+import com.unimag.bustransport.domain.repositories.TripRepository;
+import com.unimag.bustransport.config.BaggageProperties;
 import com.unimag.bustransport.exception.NotFoundException;
 import com.unimag.bustransport.services.ConfigService;
+import com.unimag.bustransport.services.baggage.BaggageFeeSchedule;
+import com.unimag.bustransport.services.codes.BaggageTagGenerator;
 import com.unimag.bustransport.services.mapper.BaggageMapper;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mapstruct.factory.Mappers;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -24,8 +29,10 @@ import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -37,15 +44,35 @@ class BaggageServiceImplTest {
     @Mock
     private TicketRepository ticketRepository;
 
+    @Mock
+    private TripRepository tripRepository;
+
     @Mock
     private ConfigService configService;
 
+    @Mock
+    private BaggageTagGenerator tagGenerator;
+
     @Spy
     private final BaggageMapper baggageMapper = Mappers.getMapper(BaggageMapper.class);
 
-    @InjectMocks
+    private BaggageFeeSchedule feeSchedule;
+
     private BaggageServiceImpl baggageService;
 
+    // La tarifa real se arma sobre el ConfigService simulado: se carga completa una vez, así
+    // que cada prueba parte de valores por defecto y sobrescribe solo las claves que le importan
+    @BeforeEach
+    void setUp() {
+        lenient().when(configService.getValueAsBigDecimal("BAGGAGE_FREE_LIMIT_KG")).thenReturn(BigDecimal.valueOf(20.0));
+        lenient().when(configService.getValueAsBigDecimal("BAGGAGE_EXTRA_FEE_PER_KG")).thenReturn(BigDecimal.valueOf(3000));
+        lenient().when(configService.getValueAsBigDecimal("BAGGAGE_MAX_WEIGHT_KG")).thenReturn(BigDecimal.valueOf(30.0));
+        lenient().when(configService.getValueAsInt("MAX_BAGGAGE_PER_TICKET")).thenReturn(2);
+        feeSchedule = new BaggageFeeSchedule(configService, new BaggageProperties());
+        baggageService = new BaggageServiceImpl(baggageRepository, ticketRepository, tripRepository,
+                baggageMapper, feeSchedule, tagGenerator);
+    }
+
     private Ticket givenSoldTicket() {
         return Ticket.builder()
                 .id(1L)
@@ -417,4 +444,130 @@ class BaggageServiceImplTest {
         verify(baggageRepository, times(1)).findById(999L);
         verify(baggageRepository, never()).delete(any(Baggage.class));
     }
+
+    private BaggageRepository.TicketBaggage ticketBaggage(Long ticketId, Long tripId, Ticket.Status status, long bags) {
+        return new BaggageRepository.TicketBaggage() {
+            @Override
+            public Long getTicketId() {
+                return ticketId;
+            }
+
+            @Override
+            public Long getTripId() {
+                return tripId;
+            }
+
+            @Override
+            public Ticket.Status getStatus() {
+                return status;
+            }
+
+            @Override
+            public Long getBags() {
+                return bags;
+            }
+        };
+    }
+
+    private BaggageDtos.BaggageBatchItem bag(Long ticketId, double weightKg) {
+        return new BaggageDtos.BaggageBatchItem(ticketId, weightKg);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    @DisplayName("Debe registrar el lote con un solo saveAll y rechazar las maletas inválidas")
+    void shouldRegisterBaggageBatch() {
+        // Given
+        when(tripRepository.existsById(10L)).thenReturn(true);
+        when(baggageRepository.findTicketBaggage(anyCollection())).thenReturn(List.of(
+                ticketBaggage(1L, 10L, Ticket.Status.SOLD, 0),
+                ticketBaggage(2L, 10L, Ticket.Status.PENDING, 0),
+                ticketBaggage(3L, 99L, Ticket.Status.SOLD, 0),
+                ticketBaggage(4L, 10L, Ticket.Status.SOLD, 1)));
+        when(tagGenerator.next()).thenReturn("BAG-1", "BAG-2", "BAG-3");
+        when(tripRepository.addBaggageWeight(eq(10L),
+                argThat((BigDecimal kg) -> new BigDecimal("47").compareTo(kg) == 0)))
+                .thenReturn(new BigDecimal("147.00"));
+
+        var request = new BaggageDtos.BaggageBatchRequest(List.of(
+                bag(1L, 25.0),
+                bag(1L, 10.0),
+                bag(1L, 5.0),
+                bag(2L, 8.0),
+                bag(3L, 8.0),
+                bag(5L, 8.0),
+                bag(4L, 35.0),
+                bag(4L, 12.0)));
+
+        // When
+        BaggageDtos.BaggageBatchResponse response = baggageService.registerBaggageBatch(10L, request);
+
+        // Then
+        assertThat(response.received()).isEqualTo(8);
+        assertThat(response.registered()).isEqualTo(3);
+        assertThat(response.tags()).extracting(BaggageDtos.BaggageTag::tagCode).containsExactly("BAG-1", "BAG-2", "BAG-3");
+        assertThat(response.totalFee()).isEqualByComparingTo("15000");
+        assertThat(response.tripBaggageWeightKg()).isEqualByComparingTo("147");
+        assertThat(response.rejected()).extracting(BaggageDtos.BaggageRejection::index).containsExactly(2, 3, 4, 5, 6);
+        assertThat(response.rejected()).extracting(BaggageDtos.BaggageRejection::reason).containsExactly(
+                "Ticket already has maximum allowed baggage (2)",
+                "Cannot register baggage for ticket with status PENDING",
+                "Ticket does not belong to this trip",
+                "Ticket with ID 5 not found",
+                String.format("Baggage exceeds maximum weight per bag (%.2f kg)", BigDecimal.valueOf(30.0)));
+
+        ArgumentCaptor<Iterable<Baggage>> captor = ArgumentCaptor.forClass(Iterable.class);
+        verify(baggageRepository).saveAll(captor.capture());
+        assertThat(captor.getValue()).extracting(Baggage::getTagCode).containsExactly("BAG-1", "BAG-2", "BAG-3");
+        verify(ticketRepository).getReferenceById(4L);
+        verify(configService, times(1)).getValueAsBigDecimal("BAGGAGE_FREE_LIMIT_KG");
+        verify(baggageRepository, never()).save(any(Baggage.class));
+        verify(baggageRepository, never()).countByTicketId(anyLong());
+    }
+
+    @Test
+    @DisplayName("Debe leer el peso del viaje sin guardar cuando todo el lote es rechazado")
+    void shouldSkipInsertWhenWholeBatchIsRejected() {
+        when(tripRepository.existsById(10L)).thenReturn(true);
+        when(baggageRepository.findTicketBaggage(anyCollection())).thenReturn(List.of());
+        when(tripRepository.findBaggageWeightKg(10L)).thenReturn(new BigDecimal("40.00"));
+
+        BaggageDtos.BaggageBatchResponse response = baggageService.registerBaggageBatch(10L,
+                new BaggageDtos.BaggageBatchRequest(List.of(bag(7L, 10.0))));
+
+        assertThat(response.registered()).isZero();
+        assertThat(response.tripBaggageWeightKg()).isEqualByComparingTo("40");
+        verify(baggageRepository, never()).saveAll(any());
+        verifyNoInteractions(tagGenerator);
+    }
+
+    @Test
+    @DisplayName("Debe lanzar excepción cuando el viaje del lote no existe")
+    void shouldThrowWhenBatchTripNotFound() {
+        when(tripRepository.existsById(99L)).thenReturn(false);
+
+        assertThatThrownBy(() -> baggageService.registerBaggageBatch(99L,
+                new BaggageDtos.BaggageBatchRequest(List.of(bag(1L, 10.0)))))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessageContaining("Trip with ID 99 not found");
+
+        verifyNoInteractions(baggageRepository);
+        verify(tripRepository, never()).addBaggageWeight(any(), any());
+    }
+
+    @Test
+    @DisplayName("Debe reutilizar la tarifa en caché hasta que cambie una de sus claves")
+    void shouldCacheFeesUntilConfigChanges() {
+        baggageService.calculateBaggageFee(25.0);
+        baggageService.calculateBaggageFee(26.0);
+        feeSchedule.on(new ConfigService.ConfigChanged("MAX_SEATS"));
+        baggageService.calculateBaggageFee(27.0);
+
+        verify(configService, times(1)).getValueAsBigDecimal("BAGGAGE_EXTRA_FEE_PER_KG");
+
+        feeSchedule.on(new ConfigService.ConfigChanged("BAGGAGE_EXTRA_FEE_PER_KG"));
+        assertThat(baggageService.calculateBaggageFee(25.0)).isEqualByComparingTo("15000");
+
+        verify(configService, times(2)).getValueAsBigDecimal("BAGGAGE_EXTRA_FEE_PER_KG");
+    }
 }
\ No newline at end of file
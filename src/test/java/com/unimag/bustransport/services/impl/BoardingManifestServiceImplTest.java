@@ -0,0 +1,374 @@
+package com.unimag.bustransport.services.impl;
+
+import com.unimag.bustransport.api.dto.BoardingDtos;
+import com.unimag.bustransport.config.BoardingProperties;
+import com.unimag.bustransport.domain.entities.*;
+import com.unimag.bustransport.domain.repositories.TicketRepository;
+import com.unimag.bustransport.domain.repositories.TripRepository;
+import com.unimag.bustransport.exception.InvalidCredentialsException;
+import com.unimag.bustransport.security.qr.QrProperties;
+import com.unimag.bustransport.security.qr.TicketQrSigner;
+import com.unimag.bustransport.seatmap.SeatMapEvent;
+import com.unimag.bustransport.services.TicketService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BoardingManifestServiceImplTest {
+
+    @Mock
+    private TicketRepository ticketRepository;
+    @Mock
+    private TripRepository tripRepository;
+    @Mock
+    private TicketService ticketService;
+    @Spy
+    private TicketQrSigner qrSigner = new TicketQrSigner(givenQrProperties());
+    @Spy
+    private BoardingProperties properties = new BoardingProperties();
+    @InjectMocks
+    private BoardingManifestServiceImpl boardingService;
+
+    private Trip trip;
+    private Ticket ticket1;
+    private Ticket ticket2;
+
+    @BeforeEach
+    void setUp() {
+        trip = new Trip();
+        trip.setId(1L);
+        trip.setStatus(Trip.Status.BOARDING);
+        ticket1 = createTicket(10L, "1A", "QR-10", Ticket.Status.SOLD);
+        ticket2 = createTicket(11L, "1B", "QR-11", Ticket.Status.SOLD);
+    }
+
+    @Test
+    @DisplayName("Debe resolver el escaneo con el manifiesto y reclamar el ticket en la BD antes de confirmarlo")
+    void scan_ResolvesFromManifest() {
+        givenBoardingTrip(ticket1, ticket2);
+        boardingService.refreshManifests();
+        when(ticketRepository.markBoarded(10L, "QR-10")).thenReturn(1);
+
+        BoardingDtos.ScanResponse response = boardingService.scan(1L, "QR-10");
+
+        assertThat(response.valid()).isTrue();
+        assertThat(response.ticketId()).isEqualTo(10L);
+        assertThat(response.seatNumber()).isEqualTo("1A");
+        assertThat(response.passengerName()).isEqualTo("Pasajero 10");
+        verify(ticketRepository).markBoarded(10L, "QR-10");
+        verifyNoInteractions(ticketService);
+    }
+
+    @Test
+    @DisplayName("Debe rechazar un segundo escaneo del mismo QR sin volver a la BD")
+    void scan_RejectsAlreadyBoarded() {
+        givenBoardingTrip(ticket1);
+        boardingService.refreshManifests();
+        when(ticketRepository.markBoarded(10L, "QR-10")).thenReturn(1);
+        boardingService.scan(1L, "QR-10");
+
+        assertThatThrownBy(() -> boardingService.scan(1L, "QR-10"))
+                .isInstanceOf(InvalidCredentialsException.class)
+                .hasMessageContaining("BOARDED");
+        verify(ticketRepository, times(1)).markBoarded(10L, "QR-10");
+    }
+
+    @Test
+    @DisplayName("Debe rechazar el QR que otro nodo ya abordó aunque el manifiesto local lo vea SOLD")
+    void scan_RejectsTicketClaimedByAnotherNode() {
+        givenBoardingTrip(ticket1);
+        boardingService.refreshManifests();
+        when(ticketRepository.markBoarded(10L, "QR-10")).thenReturn(0);
+        when(ticketRepository.findById(10L))
+                .thenReturn(Optional.of(createTicket(10L, "1A", "QR-10", Ticket.Status.BOARDED)));
+
+        assertThatThrownBy(() -> boardingService.scan(1L, "QR-10"))
+                .isInstanceOf(InvalidCredentialsException.class)
+                .hasMessageContaining("BOARDED");
+        assertThat(boardingService.getManifest(1L).boardedTickets()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Debe rechazar un QR del manifiesto que fue reemplazado por uno más reciente")
+    void scan_RejectsReplacedQr() {
+        givenBoardingTrip(ticket1);
+        boardingService.refreshManifests();
+        when(ticketRepository.markBoarded(10L, "QR-10")).thenReturn(0);
+        when(ticketRepository.findById(10L))
+                .thenReturn(Optional.of(createTicket(10L, "1A", "QR-10-NEW", Ticket.Status.SOLD)));
+
+        assertThatThrownBy(() -> boardingService.scan(1L, "QR-10"))
+                .isInstanceOf(InvalidCredentialsException.class)
+                .hasMessageContaining("reemplazado");
+    }
+
+    @Test
+    @DisplayName("Debe conservar los abordajes confirmados si el refresco leyó la BD antes de confirmarse")
+    void refresh_KeepsConfirmedBoardings() {
+        givenBoardingTrip(ticket1);
+        boardingService.refreshManifests();
+        when(ticketRepository.markBoarded(10L, "QR-10")).thenReturn(1);
+        boardingService.scan(1L, "QR-10");
+
+        // La consulta del refresco aún trae el ticket como SOLD
+        boardingService.refreshManifests();
+
+        assertThatThrownBy(() -> boardingService.scan(1L, "QR-10"))
+                .isInstanceOf(InvalidCredentialsException.class);
+        assertThat(boardingService.getManifest(1L).boardedTickets()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Debe sacar del manifiesto los tickets cancelados al refrescar")
+    void refresh_DropsCancelledTickets() {
+        givenBoardingTrip(ticket1, ticket2);
+        boardingService.refreshManifests();
+        when(ticketRepository.findBoardingManifest(1L)).thenReturn(List.of(ticket1));
+
+        boardingService.refreshManifests();
+
+        assertThat(boardingService.getManifest(1L).entries())
+                .extracting(BoardingDtos.ManifestResponse.ManifestEntry::ticketId).containsExactly(10L);
+        // Fuera del manifiesto, el QR se valida contra la BD, que lo rechaza
+        doThrow(new InvalidCredentialsException("El ticket no está activo (status: CANCELLED)"))
+                .when(ticketService).validateQrForTicket("QR-11", 1L);
+        assertThatThrownBy(() -> boardingService.scan(1L, "QR-11"))
+                .isInstanceOf(InvalidCredentialsException.class);
+    }
+
+    @Test
+    @DisplayName("Debe rehacer el manifiesto al liberarse un asiento sin esperar el refresco")
+    void onSeatReleased_RebuildsManifest() {
+        givenBoardingTrip(ticket1, ticket2);
+        boardingService.refreshManifests();
+        when(ticketRepository.findBoardingManifest(1L)).thenReturn(List.of(ticket1));
+
+        boardingService.onSeatReleased(SeatMapEvent.released(1L, "1B"));
+
+        assertThat(boardingService.getManifest(1L).entries())
+                .extracting(BoardingDtos.ManifestResponse.ManifestEntry::ticketId).containsExactly(10L);
+    }
+
+    @Test
+    @DisplayName("No debe construir manifiestos para viajes que no están en abordaje")
+    void onSeatReleased_IgnoresTripsWithoutManifest() {
+        boardingService.onSeatReleased(SeatMapEvent.released(2L, "1A"));
+        boardingService.onSeatReleased(SeatMapEvent.sold(1L, "1A"));
+
+        verifyNoInteractions(ticketRepository);
+    }
+
+    @Test
+    @DisplayName("Debe descartar el manifiesto cuando el viaje sale")
+    void refresh_ReleasesDepartedTrip() {
+        givenBoardingTrip(ticket1);
+        boardingService.refreshManifests();
+
+        when(tripRepository.findByStatus(Trip.Status.BOARDING)).thenReturn(List.of());
+        boardingService.refreshManifests();
+
+        boardingService.scan(1L, "QR-10");
+        verify(ticketService).validateQrForTicket("QR-10", 1L);
+    }
+
+    @Test
+    @DisplayName("Debe validar contra la BD los QR que no están en el manifiesto")
+    void scan_FallsBackToDatabase() {
+        givenBoardingTrip(ticket1);
+        boardingService.refreshManifests();
+
+        BoardingDtos.ScanResponse response = boardingService.scan(1L, "QR-LATE");
+
+        assertThat(response.valid()).isTrue();
+        verify(ticketService).validateQrForTicket("QR-LATE", 1L);
+    }
+
+    @Test
+    @DisplayName("Debe procesar un lote con una sola actualización y resultados en el orden del envío")
+    void scanBatch_SingleBulkUpdate() {
+        givenBoardingTrip(ticket1);
+        boardingService.refreshManifests();
+        Ticket late = createTicket(12L, "2A", "QR-12", Ticket.Status.SOLD);
+        when(ticketRepository.findByTripIdAndQrCodeIn(eq(1L), any())).thenReturn(List.of(late));
+        when(ticketRepository.markBoardedBatch(any())).thenReturn(List.of(10L, 12L));
+
+        BoardingDtos.BatchScanResponse response = boardingService.scanBatch(1L, batch(null,
+                "QR-10", "QR-12", "QR-10", "QR-UNKNOWN"));
+
+        assertThat(response.results()).extracting(BoardingDtos.BatchScanResponse.ScanResult::outcome)
+                .containsExactly(
+                        BoardingDtos.ScanOutcome.BOARDED,
+                        BoardingDtos.ScanOutcome.BOARDED,
+                        BoardingDtos.ScanOutcome.DUPLICATE,
+                        BoardingDtos.ScanOutcome.REJECTED);
+        assertThat(response.results().get(2).ticketId()).isEqualTo(10L);
+        assertThat(response.boarded()).isEqualTo(2);
+        assertThat(response.rejected()).isEqualTo(1);
+        ArgumentCaptor<Collection<Long>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(ticketRepository, times(1)).markBoardedBatch(captor.capture());
+        assertThat(captor.getValue()).containsExactly(10L, 12L);
+        verifyNoInteractions(ticketService);
+    }
+
+    @Test
+    @DisplayName("Debe reportar ALREADY_BOARDED para los tickets del lote que otro nodo reclamó antes")
+    void scanBatch_ReportsTicketsClaimedElsewhere() {
+        givenBoardingTrip(ticket1, ticket2);
+        boardingService.refreshManifests();
+        when(ticketRepository.markBoardedBatch(any())).thenReturn(List.of(10L));
+        when(ticketRepository.findAllById(List.of(11L)))
+                .thenReturn(List.of(createTicket(11L, "1B", "QR-11", Ticket.Status.BOARDED)));
+
+        BoardingDtos.BatchScanResponse response = boardingService.scanBatch(1L, batch(null, "QR-10", "QR-11"));
+
+        assertThat(response.results()).extracting(BoardingDtos.BatchScanResponse.ScanResult::outcome)
+                .containsExactly(BoardingDtos.ScanOutcome.BOARDED, BoardingDtos.ScanOutcome.ALREADY_BOARDED);
+        assertThat(boardingService.getManifest(1L).boardedTickets()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Debe devolver la misma respuesta ante un reenvío con el mismo uploadId")
+    void scanBatch_ReplaysSameUpload() {
+        givenBoardingTrip(ticket1, ticket2);
+        boardingService.refreshManifests();
+        when(ticketRepository.markBoardedBatch(any())).thenReturn(List.of(10L, 11L));
+
+        BoardingDtos.BatchScanResponse first = boardingService.scanBatch(1L, batch("gate-7-001", "QR-10", "QR-11"));
+        BoardingDtos.BatchScanResponse retry = boardingService.scanBatch(1L, batch("gate-7-001", "QR-10", "QR-11"));
+
+        assertThat(retry).isEqualTo(first);
+        verify(ticketRepository, times(1)).markBoardedBatch(any());
+    }
+
+    @Test
+    @DisplayName("Debe reportar ALREADY_BOARDED sin escribir cuando el lote se reenvía sin uploadId")
+    void scanBatch_DuplicateUploadIsIdempotent() {
+        givenBoardingTrip(ticket1);
+        boardingService.refreshManifests();
+        when(ticketRepository.markBoardedBatch(any())).thenReturn(List.of(10L));
+        boardingService.scanBatch(1L, batch(null, "QR-10"));
+
+        BoardingDtos.BatchScanResponse retry = boardingService.scanBatch(1L, batch(null, "QR-10"));
+
+        assertThat(retry.results().get(0).outcome()).isEqualTo(BoardingDtos.ScanOutcome.ALREADY_BOARDED);
+        assertThat(retry.alreadyBoarded()).isEqualTo(1);
+        verify(ticketRepository, times(1)).markBoardedBatch(any());
+    }
+
+    @Test
+    @DisplayName("Debe respetar la hora de escaneo al decidir entre QR repetidos")
+    void scanBatch_OrdersByScannedAt() {
+        givenBoardingTrip(ticket1);
+        boardingService.refreshManifests();
+        when(ticketRepository.markBoardedBatch(any())).thenReturn(List.of(10L));
+        OffsetDateTime now = OffsetDateTime.now();
+
+        BoardingDtos.BatchScanResponse response = boardingService.scanBatch(1L, new BoardingDtos.BatchScanRequest(null, List.of(
+                new BoardingDtos.BatchScanRequest.ScanItem("QR-10", now),
+                new BoardingDtos.BatchScanRequest.ScanItem("QR-10", now.minusMinutes(1)))));
+
+        assertThat(response.results()).extracting(BoardingDtos.BatchScanResponse.ScanResult::outcome)
+                .containsExactly(BoardingDtos.ScanOutcome.DUPLICATE, BoardingDtos.ScanOutcome.BOARDED);
+    }
+
+    @Test
+    @DisplayName("No debe confirmar ningún abordaje del lote si falla la actualización, para que se reintente")
+    void scanBatch_RejectsForRetryOnFailure() {
+        givenBoardingTrip(ticket1);
+        boardingService.refreshManifests();
+        when(ticketRepository.markBoardedBatch(any()))
+                .thenThrow(new RuntimeException("db down"))
+                .thenReturn(List.of(10L));
+
+        BoardingDtos.BatchScanResponse response = boardingService.scanBatch(1L, batch("gate-7-002", "QR-10"));
+        BoardingDtos.BatchScanResponse retry = boardingService.scanBatch(1L, batch("gate-7-002", "QR-10"));
+
+        assertThat(response.boarded()).isZero();
+        assertThat(response.rejected()).isEqualTo(1);
+        assertThat(retry.boarded()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Debe exportar el manifiesto construyéndolo bajo demanda")
+    void getManifest_LoadsOnDemand() {
+        when(tripRepository.findById(1L)).thenReturn(Optional.of(trip));
+        when(ticketRepository.findBoardingManifest(1L)).thenReturn(List.of(ticket2, ticket1));
+
+        BoardingDtos.ManifestResponse response = boardingService.getManifest(1L);
+
+        assertThat(response.tripId()).isEqualTo(1L);
+        assertThat(response.totalTickets()).isEqualTo(2);
+        assertThat(response.boardedTickets()).isZero();
+        assertThat(response.entries()).extracting(BoardingDtos.ManifestResponse.ManifestEntry::seatNumber)
+                .containsExactly("1A", "1B");
+    }
+
+    @Test
+    @DisplayName("Debe rechazar la exportación de un viaje que ya salió")
+    void getManifest_RejectsDepartedTrip() {
+        trip.setStatus(Trip.Status.DEPARTED);
+        when(tripRepository.findById(1L)).thenReturn(Optional.of(trip));
+
+        assertThatThrownBy(() -> boardingService.getManifest(1L))
+                .isInstanceOf(IllegalStateException.class);
+        verify(ticketRepository, never()).findBoardingManifest(anyLong());
+    }
+
+    private void givenBoardingTrip(Ticket... tickets) {
+        when(tripRepository.findByStatus(Trip.Status.BOARDING)).thenReturn(List.of(trip));
+        when(tripRepository.findTripsNearDeparture(any(), any())).thenReturn(new ArrayList<>());
+        when(ticketRepository.findBoardingManifest(1L)).thenReturn(List.of(tickets));
+    }
+
+    private BoardingDtos.BatchScanRequest batch(String uploadId, String... qrCodes) {
+        List<BoardingDtos.BatchScanRequest.ScanItem> scans = new ArrayList<>();
+        for (String qrCode : qrCodes) {
+            scans.add(new BoardingDtos.BatchScanRequest.ScanItem(qrCode, null));
+        }
+        return new BoardingDtos.BatchScanRequest(uploadId, scans);
+    }
+
+    private Ticket createTicket(Long id, String seatNumber, String qrCode, Ticket.Status status) {
+        Passenger passenger = new Passenger();
+        passenger.setId(id);
+        passenger.setFullName("Pasajero " + id);
+        Stop fromStop = new Stop();
+        fromStop.setOrder(0);
+        Stop toStop = new Stop();
+        toStop.setOrder(3);
+
+        Ticket ticket = new Ticket();
+        ticket.setId(id);
+        ticket.setSeatNumber(seatNumber);
+        ticket.setQrCode(qrCode);
+        ticket.setStatus(status);
+        ticket.setTrip(trip);
+        ticket.setPassenger(passenger);
+        ticket.setFromStop(fromStop);
+        ticket.setToStop(toStop);
+        return ticket;
+    }
+
+    private static QrProperties givenQrProperties() {
+        QrProperties properties = new QrProperties();
+        properties.setSecret("test-qr-secret");
+        return properties;
+    }
+}
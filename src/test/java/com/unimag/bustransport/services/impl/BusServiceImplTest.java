@@ -2,6 +2,7 @@ package com.unimag.bustransport.services.impl;
 
 import com.unimag.bustransport.api.dto.BusDtos;
 import com.unimag.bustransport.api.dto.SeatDtos;
+import com.unimag.bustransport.api.dto.PageDtos;
 import com.unimag.bustransport.domain.entities.Bus;
 import com.unimag.bustransport.domain.entities.Seat;
 import com.unimag.bustransport.domain.repositories.BusRepository;
@@ -16,7 +17,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mapstruct.factory.Mappers;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -63,7 +66,9 @@ class BusServiceImplTest {
                 plate,
                 capacity,
                 List.of("WiFi", "AC"),
-                Bus.Status.ACTIVE
+                Bus.Status.ACTIVE,
+                null,
+                null
         );
     }
 
@@ -71,7 +76,9 @@ class BusServiceImplTest {
         return new BusDtos.BusUpdateRequest(
                 44,
                 List.of("WiFi", "AC", "TV"),
-                Bus.Status.IN_REPAIR
+                Bus.Status.IN_REPAIR,
+                new BigDecimal("800.0"),
+                null
         );
     }
 
@@ -192,6 +199,7 @@ class BusServiceImplTest {
         // Then
         verify(busRepository, times(1)).findById(1L);
         verify(busRepository, times(1)).save(existingBus);
+        assertThat(existingBus.getCargoCapacityKg()).isEqualByComparingTo("800");
     }
 
     @Test
@@ -219,7 +227,9 @@ class BusServiceImplTest {
         BusDtos.BusUpdateRequest request = new BusDtos.BusUpdateRequest(
                 37,
                 List.of("WiFi"),
-                Bus.Status.ACTIVE
+                Bus.Status.ACTIVE,
+                null,
+                null
         );
 
         when(busRepository.findById(1L)).thenReturn(Optional.of(existingBus));
@@ -306,31 +316,31 @@ class BusServiceImplTest {
                 givenBus(2L, "BUS002", 44, Bus.Status.ACTIVE)
         );
 
-        when(busRepository.findAll()).thenReturn(buses);
+        when(busRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(51))).thenReturn(buses);
 
         // When
-        List<BusDtos.BusResponse> result = busService.getAllBus();
+        PageDtos.CursorPage<BusDtos.BusResponse> result = busService.getAllBus(null, null);
 
         // Then
-        assertThat(result).hasSize(2);
-        assertThat(result).extracting(BusDtos.BusResponse::plate)
+        assertThat(result.items()).hasSize(2);
+        assertThat(result.items()).extracting(BusDtos.BusResponse::plate)
                 .containsExactly("BUS001", "BUS002");
 
-        verify(busRepository, times(1)).findAll();
+        verify(busRepository, times(1)).findByIdGreaterThanOrderByIdAsc(0L, Limit.of(51));
     }
 
     @Test
     @DisplayName("Debe retornar lista vacía cuando no hay buses")
     void shouldReturnEmptyListWhenNoBuses() {
         // Given
-        when(busRepository.findAll()).thenReturn(List.of());
+        when(busRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(51))).thenReturn(List.of());
 
         // When
-        List<BusDtos.BusResponse> result = busService.getAllBus();
+        PageDtos.CursorPage<BusDtos.BusResponse> result = busService.getAllBus(null, null);
 
         // Then
-        assertThat(result).isEmpty();
-        verify(busRepository, times(1)).findAll();
+        assertThat(result.items()).isEmpty();
+        assertThat(result.nextCursor()).isNull();
     }
 
     @Test
@@ -4,6 +4,7 @@ import com.unimag.bustransport.api.dto.ConfigDtos;
 import com.unimag.bustransport.domain.entities.Config;
 import com.unimag.bustransport.domain.repositories.ConfigRepository;
 import com.unimag.bustransport.exception.NotFoundException;
+import com.unimag.bustransport.services.ConfigService;
 import com.unimag.bustransport.services.mapper.ConfigMapper;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -13,6 +14,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -32,6 +34,9 @@ class ConfigServiceImplTest {
     @Spy
     private final ConfigMapper configMapper = Mappers.getMapper(ConfigMapper.class);
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private ConfigServiceImpl configService;
 
@@ -108,6 +113,7 @@ class ConfigServiceImplTest {
         // Then
         verify(configRepository, times(1)).findById(1L);
         verify(configRepository, times(1)).save(existingConfig);
+        verify(eventPublisher).publishEvent(new ConfigService.ConfigChanged("MAX_SEATS"));
     }
 
     @Test
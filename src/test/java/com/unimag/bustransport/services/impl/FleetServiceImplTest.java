@@ -0,0 +1,278 @@
+package com.unimag.bustransport.services.impl;
+
+import com.unimag.bustransport.api.dto.FleetDtos;
+import com.unimag.bustransport.config.FleetProperties;
+import com.unimag.bustransport.domain.entities.Bus;
+import com.unimag.bustransport.domain.entities.Trip;
+import com.unimag.bustransport.domain.repositories.BusRepository;
+import com.unimag.bustransport.domain.repositories.TripRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FleetServiceImplTest {
+
+    private static final LocalDate DAY = LocalDate.of(2030, 1, 7);
+
+    @Mock
+    private TripRepository tripRepository;
+
+    @Mock
+    private BusRepository busRepository;
+
+    @Spy
+    private FleetProperties properties = new FleetProperties();
+
+    @InjectMocks
+    private FleetServiceImpl fleetService;
+
+    private OffsetDateTime at(int hours) {
+        return OffsetDateTime.parse("2030-01-07T00:00:00-05:00").plusHours(hours);
+    }
+
+    private Bus givenBus(Long id, int capacity) {
+        return Bus.builder().id(id).plate("BUS-" + id).capacity(capacity).status(Bus.Status.ACTIVE).build();
+    }
+
+    private TripRepository.FleetTrip fleetTrip(Long tripId, Long busId, String origin, String destination,
+                                               int departureHour, int arrivalHour, long seatsTaken) {
+        return fleetTrip(tripId, busId, 40, origin, destination, departureHour, arrivalHour, seatsTaken, 0);
+    }
+
+    private TripRepository.FleetTrip fleetTrip(Long tripId, Long busId, int busCapacity, String origin,
+                                               String destination, int departureHour, int arrivalHour,
+                                               long seatsTaken, long seatsHeld) {
+        return new TripRepository.FleetTrip() {
+            @Override
+            public Long getTripId() {
+                return tripId;
+            }
+
+            @Override
+            public Long getBusId() {
+                return busId;
+            }
+
+            @Override
+            public Integer getBusCapacity() {
+                return busCapacity;
+            }
+
+            @Override
+            public String getOrigin() {
+                return origin;
+            }
+
+            @Override
+            public String getDestination() {
+                return destination;
+            }
+
+            @Override
+            public OffsetDateTime getDepartureAt() {
+                return at(departureHour);
+            }
+
+            @Override
+            public OffsetDateTime getArrivalAt() {
+                return at(arrivalHour);
+            }
+
+            @Override
+            public Long getSeatsTaken() {
+                return seatsTaken;
+            }
+
+            @Override
+            public Long getSeatsHeld() {
+                return seatsHeld;
+            }
+        };
+    }
+
+    private TripRepository.BusTrip busTrip(Long tripId, Long busId, String origin, String destination,
+                                           int departureHour, int arrivalHour) {
+        return new TripRepository.BusTrip() {
+            @Override
+            public Long getTripId() {
+                return tripId;
+            }
+
+            @Override
+            public Long getBusId() {
+                return busId;
+            }
+
+            @Override
+            public String getOrigin() {
+                return origin;
+            }
+
+            @Override
+            public String getDestination() {
+                return destination;
+            }
+
+            @Override
+            public OffsetDateTime getDepartureAt() {
+                return at(departureHour);
+            }
+
+            @Override
+            public OffsetDateTime getArrivalAt() {
+                return at(arrivalHour);
+            }
+        };
+    }
+
+    @Test
+    @DisplayName("Debe proponer el plan sin bloquear ni cambiar los viajes en dry-run")
+    void plan_DryRunShouldNotWrite() {
+        when(busRepository.findByStatus(Bus.Status.ACTIVE)).thenReturn(List.of(givenBus(1L, 40), givenBus(2L, 40)));
+        when(tripRepository.findFleetTrips(eq(at(0)), eq(at(24)), any())).thenReturn(List.of(
+                fleetTrip(10L, 1L, "SMR", "BAQ", 6, 8, 0), fleetTrip(11L, 2L, "BAQ", "SMR", 9, 11, 0)));
+
+        FleetDtos.FleetPlanResponse response = fleetService.plan(new FleetDtos.FleetPlanRequest(DAY, null, null, null), true);
+
+        assertThat(response.busesUsed()).isEqualTo(1);
+        assertThat(response.lowerBound()).isEqualTo(1);
+        assertThat(response.changed()).isEqualTo(1);
+        assertThat(response.assignments()).extracting(FleetDtos.FleetAssignment::busId).containsExactly(1L, 1L);
+        verify(busRepository, never()).findAllByIdForUpdate(any());
+        verify(tripRepository, never()).findAllById(any());
+    }
+
+    @Test
+    @DisplayName("Debe mover solo los viajes que cambian de bus, evitando los viajes fijos de otros días")
+    void plan_ShouldApplyOnlyChangedTrips() {
+        Bus current = givenBus(1L, 40);
+        Bus other = givenBus(2L, 40);
+        when(busRepository.findAllByIdForUpdate(List.of(1L, 2L))).thenReturn(List.of(current, other));
+        when(tripRepository.findFleetTrips(eq(at(0)), eq(at(24)), any())).thenReturn(List.of(
+                fleetTrip(10L, 1L, "SMR", "BAQ", 6, 8, 0), fleetTrip(11L, 1L, "SMR", "BAQ", 7, 9, 0)));
+        // El bus 1 tiene además un viaje en curso que termina a las 6; el 10 (en el plan) no cuenta como fijo
+        when(tripRepository.findBusTrips(anyCollection(), any(), any())).thenReturn(List.of(
+                busTrip(10L, 1L, "SMR", "BAQ", 6, 8), busTrip(99L, 1L, "BAQ", "SMR", 4, 6)));
+        Trip moved = Trip.builder().id(10L).bus(current).status(Trip.Status.SCHEDULED).build();
+        when(tripRepository.findAllById(Set.of(10L))).thenReturn(List.of(moved));
+
+        FleetDtos.FleetPlanResponse response =
+                fleetService.plan(new FleetDtos.FleetPlanRequest(DAY, List.of(1L, 2L), null, null), false);
+
+        assertThat(response.changed()).isEqualTo(1);
+        assertThat(moved.getBus()).isSameAs(other);
+    }
+
+    @Test
+    @DisplayName("Debe dejar en su bus los viajes con tiquetes y tratarlos como fijos")
+    void plan_ShouldKeepTicketedTripsOnTheirBus() {
+        Bus current = givenBus(1L, 40);
+        Bus other = givenBus(2L, 40);
+        when(busRepository.findAllByIdForUpdate(List.of(1L, 2L))).thenReturn(List.of(current, other));
+        // El 10 tiene puestos vendidos en el bus 1; el 11, sin tiquetes, se cruza con él
+        when(tripRepository.findFleetTrips(eq(at(0)), eq(at(24)), any())).thenReturn(List.of(
+                fleetTrip(10L, 1L, "SMR", "BAQ", 6, 8, 3), fleetTrip(11L, 1L, "SMR", "BAQ", 7, 9, 0)));
+        when(tripRepository.findBusTrips(anyCollection(), any(), any())).thenReturn(List.of(
+                busTrip(10L, 1L, "SMR", "BAQ", 6, 8), busTrip(11L, 1L, "SMR", "BAQ", 7, 9)));
+        Trip moved = Trip.builder().id(11L).bus(current).status(Trip.Status.SCHEDULED).build();
+        when(tripRepository.findAllById(Set.of(11L))).thenReturn(List.of(moved));
+
+        FleetDtos.FleetPlanResponse response =
+                fleetService.plan(new FleetDtos.FleetPlanRequest(DAY, List.of(1L, 2L), null, null), false);
+
+        assertThat(response.assignments()).extracting(FleetDtos.FleetAssignment::tripId,
+                        FleetDtos.FleetAssignment::busId, FleetDtos.FleetAssignment::previousBusId)
+                .containsExactly(tuple(10L, 1L, 1L), tuple(11L, 2L, 1L));
+        assertThat(response.changed()).isEqualTo(1);
+        assertThat(response.busesUsed()).isEqualTo(2);
+        assertThat(moved.getBus()).isSameAs(other);
+    }
+
+    @Test
+    @DisplayName("Debe dejar en su bus los viajes con puestos retenidos aunque no tengan tiquetes")
+    void plan_ShouldKeepHeldTripsOnTheirBus() {
+        when(busRepository.findByStatus(Bus.Status.ACTIVE)).thenReturn(List.of(givenBus(1L, 40), givenBus(2L, 40)));
+        when(tripRepository.findFleetTrips(eq(at(0)), eq(at(24)), any())).thenReturn(List.of(
+                fleetTrip(10L, 2L, 40, "SMR", "BAQ", 6, 8, 0, 2), fleetTrip(11L, 2L, 40, "BAQ", "SMR", 9, 11, 0, 0)));
+
+        FleetDtos.FleetPlanResponse response = fleetService.plan(new FleetDtos.FleetPlanRequest(DAY, null, null, null), true);
+
+        assertThat(response.assignments()).extracting(FleetDtos.FleetAssignment::tripId, FleetDtos.FleetAssignment::busId)
+                .containsExactly(tuple(10L, 2L), tuple(11L, 1L));
+        assertThat(response.changed()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("No debe pasar un viaje a un bus más pequeño que el que tiene")
+    void plan_ShouldNotDownsizeBelowCurrentBus() {
+        when(busRepository.findByStatus(Bus.Status.ACTIVE)).thenReturn(List.of(givenBus(1L, 20), givenBus(2L, 40)));
+        when(tripRepository.findFleetTrips(eq(at(0)), eq(at(24)), any())).thenReturn(List.of(
+                fleetTrip(10L, 2L, 40, "SMR", "BAQ", 6, 8, 0, 0)));
+
+        FleetDtos.FleetPlanResponse response = fleetService.plan(new FleetDtos.FleetPlanRequest(DAY, null, null, null), true);
+
+        assertThat(response.assignments()).extracting(FleetDtos.FleetAssignment::busId).containsExactly(2L);
+        assertThat(response.changed()).isZero();
+    }
+
+    @Test
+    @DisplayName("Debe ubicar cada bus donde terminó su último viaje anterior al plan")
+    void plan_ShouldLocateBusesFromTheirLastTrip() {
+        when(busRepository.findByStatus(Bus.Status.ACTIVE)).thenReturn(List.of(givenBus(1L, 40), givenBus(2L, 40)));
+        when(tripRepository.findFleetTrips(eq(at(0)), eq(at(24)), any())).thenReturn(List.of(
+                fleetTrip(10L, 1L, "SMR", "BAQ", 6, 8, 0)));
+        // El bus 1 amanece en CTG y el 2 en SMR
+        when(tripRepository.findLastBusTrips(anyCollection(), any())).thenReturn(List.of(
+                busTrip(98L, 1L, "SMR", "CTG", -40, -38), busTrip(99L, 2L, "CTG", "SMR", -40, -38)));
+
+        FleetDtos.FleetPlanResponse response = fleetService.plan(new FleetDtos.FleetPlanRequest(DAY, null, null, null), true);
+
+        assertThat(response.assignments()).extracting(FleetDtos.FleetAssignment::busId).containsExactly(2L);
+        assertThat(response.deadheads()).isZero();
+    }
+
+    @Test
+    @DisplayName("No debe aplicar un plan con viajes sin bus")
+    void plan_ShouldNotApplyPartialPlan() {
+        when(busRepository.findAllByIdForUpdate(List.of(1L))).thenReturn(List.of(givenBus(1L, 20)));
+        when(tripRepository.findFleetTrips(eq(at(0)), eq(at(24)), any())).thenReturn(List.of(
+                fleetTrip(10L, 1L, 20, "SMR", "BAQ", 6, 8, 0, 0), fleetTrip(11L, 1L, 20, "SMR", "BAQ", 7, 9, 0, 0)));
+
+        assertThatThrownBy(() -> fleetService.plan(new FleetDtos.FleetPlanRequest(DAY, List.of(1L), null, null), false))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("1 trips could not get a bus");
+
+        verify(tripRepository, never()).findAllById(any());
+    }
+
+    @Test
+    @DisplayName("Debe rechazar buses que no están ACTIVE")
+    void plan_ShouldRejectInactiveBus() {
+        Bus inRepair = Bus.builder().id(2L).plate("BUS-2").capacity(40).status(Bus.Status.IN_REPAIR).build();
+        when(busRepository.findAllById(List.of(2L))).thenReturn(List.of(inRepair));
+
+        assertThatThrownBy(() -> fleetService.plan(new FleetDtos.FleetPlanRequest(DAY, List.of(2L), null, null), true))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Bus with ID 2 is not ACTIVE");
+
+        verifyNoInteractions(tripRepository);
+    }
+}
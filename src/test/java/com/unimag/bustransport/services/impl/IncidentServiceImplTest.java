@@ -1,6 +1,7 @@
 package com.unimag.bustransport.services.impl;
 
 import com.unimag.bustransport.api.dto.IncidentDtos;
+import com.unimag.bustransport.api.dto.PageDtos;
 import com.unimag.bustransport.domain.entities.Incident;
 import com.unimag.bustransport.domain.repositories.IncidentRepository;
 import com.unimag.bustransport.exception.NotFoundException;
@@ -13,6 +14,8 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 
 import java.time.OffsetDateTime;
 import java.util.List;
@@ -32,6 +35,8 @@ class IncidentServiceImplTest {
     @Spy
     private final IncidentMapper incidentMapper = Mappers.getMapper(IncidentMapper.class);
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
     @InjectMocks
     private IncidentServiceImpl incidentService;
 
@@ -139,35 +144,33 @@ class IncidentServiceImplTest {
                 givenIncident()
         );
 
-        when(incidentRepository.findByEntityType(Incident.EntityType.TRIP))
+        when(incidentRepository.findByEntityTypeAndIdLessThanOrderByIdDesc(
+                Incident.EntityType.TRIP, Long.MAX_VALUE, Limit.of(51)))
                 .thenReturn(incidents);
 
         // When
-        List<IncidentDtos.IncidentResponse> result =
-                incidentService.findByIncidentByType(Incident.EntityType.TRIP);
+        PageDtos.CursorPage<IncidentDtos.IncidentResponse> result =
+                incidentService.findByIncidentByType(Incident.EntityType.TRIP, null, null);
 
         // Then
-        assertThat(result).hasSize(2);
-        assertThat(result).allMatch(i -> i.entityType().equals("TRIP"));
-
-        verify(incidentRepository, times(1)).findByEntityType(Incident.EntityType.TRIP);
+        assertThat(result.items()).hasSize(2);
+        assertThat(result.items()).allMatch(i -> i.entityType().equals("TRIP"));
     }
 
     @Test
     @DisplayName("Debe retornar lista vacía cuando no hay incidents del entity type")
     void shouldReturnEmptyListWhenNoIncidentsFoundByEntityType() {
         // Given
-        when(incidentRepository.findByEntityType(Incident.EntityType.BUS))
+        when(incidentRepository.findByEntityTypeAndIdLessThanOrderByIdDesc(
+                Incident.EntityType.BUS, Long.MAX_VALUE, Limit.of(51)))
                 .thenReturn(List.of());
 
         // When
-        List<IncidentDtos.IncidentResponse> result =
-                incidentService.findByIncidentByType(Incident.EntityType.BUS);
+        PageDtos.CursorPage<IncidentDtos.IncidentResponse> result =
+                incidentService.findByIncidentByType(Incident.EntityType.BUS, null, null);
 
         // Then
-        assertThat(result).isEmpty();
-
-        verify(incidentRepository, times(1)).findByEntityType(Incident.EntityType.BUS);
+        assertThat(result.items()).isEmpty();
     }
 
     @Test
@@ -2,8 +2,11 @@ package com.unimag.bustransport.services.impl;
 
 import com.unimag.bustransport.api.dto.KpiDtos;
 import com.unimag.bustransport.domain.entities.Kpi;
+import com.unimag.bustransport.domain.entities.KpiSample;
 import com.unimag.bustransport.domain.repositories.KpiRepository;
+import com.unimag.bustransport.domain.repositories.KpiSampleRepository;
 import com.unimag.bustransport.exception.NotFoundException;
+import com.unimag.bustransport.kpi.KpiProperties;
 import com.unimag.bustransport.services.mapper.KpiMapper;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -21,6 +24,9 @@ import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,6 +38,12 @@ class KpiServiceImplTest {
     @Spy
     private final KpiMapper kpiMapper = Mappers.getMapper(KpiMapper.class);
 
+    @Mock
+    private KpiSampleRepository sampleRepository;
+
+    @Spy
+    private KpiProperties properties = new KpiProperties();
+
     @InjectMocks
     private KpiServiceImpl kpiService;
 
@@ -201,4 +213,73 @@ class KpiServiceImplTest {
 
         verify(kpiRepository, times(1)).findRecentMetrics();
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Debe elegir resolución por hora para un rango de un mes")
+    void getSeries_MonthUsesHourlyResolution() {
+        OffsetDateTime to = OffsetDateTime.now();
+        OffsetDateTime from = to.minusDays(30);
+        KpiSample sample = KpiSample.builder()
+                .name("occupancy.24h").resolution(KpiSample.Resolution.HOUR).bucketStart(from)
+                .value(0.8).minValue(0.7).maxValue(0.9).sampleCount(60).build();
+        when(sampleRepository.findSeries("occupancy.24h", KpiSample.Resolution.HOUR, from, to))
+                .thenReturn(List.of(sample));
+
+        KpiDtos.KpiSeriesResponse result = kpiService.getSeries("occupancy.24h", from, to, null);
+
+        assertThat(result.resolution()).isEqualTo("HOUR");
+        assertThat(result.points()).hasSize(1);
+        assertThat(result.points().get(0).samples()).isEqualTo(60);
+    }
+
+    @Test
+    @DisplayName("Debe usar minutos para rangos cortos y días para rangos largos")
+    void getSeries_ChoosesResolutionByRange() {
+        OffsetDateTime to = OffsetDateTime.now();
+
+        assertThat(kpiService.getSeries("revenue.1h", to.minusHours(12), to, null).resolution())
+                .isEqualTo("MINUTE");
+        assertThat(kpiService.getSeries("revenue.1h", to.minusDays(365), to, null).resolution())
+                .isEqualTo("DAY");
+    }
+
+    @Test
+    @DisplayName("Debe saltar a una resolución retenida si el rango empieza antes de la retención")
+    void getSeries_RespectsRetention() {
+        OffsetDateTime to = OffsetDateTime.now().minusDays(10);
+
+        assertThat(kpiService.getSeries("revenue.1h", to.minusHours(1), to, null).resolution())
+                .isEqualTo("HOUR");
+    }
+
+    @Test
+    @DisplayName("Debe rechazar rangos que exceden el tope de puntos o están invertidos")
+    void getSeries_RejectsInvalidRanges() {
+        OffsetDateTime to = OffsetDateTime.now();
+
+        assertThatThrownBy(() -> kpiService.getSeries("revenue.1h", to.minusDays(30), to, KpiSample.Resolution.MINUTE))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> kpiService.getSeries("revenue.1h", to, to.minusDays(1), null))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(sampleRepository);
+    }
+
+    @Test
+    @DisplayName("Debe resumir minutos a horas y horas a días")
+    void downsampleSamples_RollsUpBothLevels() {
+        kpiService.downsampleSamples();
+
+        verify(sampleRepository).rollup(eq("MINUTE"), eq("HOUR"), eq(3600L), any(), any());
+        verify(sampleRepository).rollup(eq("HOUR"), eq("DAY"), eq(86400L), any(), any());
+    }
+
+    @Test
+    @DisplayName("Debe aplicar la retención de cada resolución")
+    void purgeExpiredSamples_DeletesPerResolution() {
+        kpiService.purgeExpiredSamples();
+
+        verify(sampleRepository).deleteOlderThan(eq(KpiSample.Resolution.MINUTE), any());
+        verify(sampleRepository).deleteOlderThan(eq(KpiSample.Resolution.HOUR), any());
+        verify(sampleRepository).deleteOlderThan(eq(KpiSample.Resolution.DAY), any());
+    }
+}
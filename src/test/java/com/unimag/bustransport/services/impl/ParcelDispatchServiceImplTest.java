@@ -0,0 +1,246 @@
+package com.unimag.bustransport.services.impl;
+
+import com.unimag.bustransport.api.dto.ParcelDtos;
+import com.unimag.bustransport.config.ParcelDispatchProperties;
+import com.unimag.bustransport.domain.entities.Trip;
+import com.unimag.bustransport.domain.repositories.ParcelEventRepository;
+import com.unimag.bustransport.domain.repositories.ParcelRepository;
+import com.unimag.bustransport.domain.repositories.StopRepository;
+import com.unimag.bustransport.domain.repositories.TripRepository;
+import com.unimag.bustransport.services.cargo.CargoLoadTracker;
+import com.unimag.bustransport.services.cargo.TripCargoLoad;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ParcelDispatchServiceImplTest {
+
+    @Mock
+    private ParcelRepository parcelRepository;
+
+    @Mock
+    private ParcelEventRepository parcelEventRepository;
+
+    @Mock
+    private TripRepository tripRepository;
+
+    @Mock
+    private StopRepository stopRepository;
+
+    @Mock
+    private CargoLoadTracker cargoLoadTracker;
+
+    @Spy
+    private ParcelDispatchProperties properties = new ParcelDispatchProperties();
+
+    @InjectMocks
+    private ParcelDispatchServiceImpl dispatchService;
+
+    private final OffsetDateTime departure = OffsetDateTime.parse("2025-11-12T08:00:00-05:00");
+
+    private ParcelRepository.PendingParcel pending(Long parcelId, Long routeId, Long fromStopId, Long toStopId) {
+        return pending(parcelId, routeId, fromStopId, toStopId, 10);
+    }
+
+    private ParcelRepository.PendingParcel pending(Long parcelId, Long routeId, Long fromStopId, Long toStopId, int kg) {
+        return new ParcelRepository.PendingParcel() {
+            @Override public Long getParcelId() { return parcelId; }
+            @Override public Long getFromStopId() { return fromStopId; }
+            @Override public Long getToStopId() { return toStopId; }
+            @Override public Long getRouteId() { return routeId; }
+            @Override public BigDecimal getWeightKg() { return BigDecimal.valueOf(kg); }
+            @Override public BigDecimal getVolumeLiters() { return BigDecimal.ONE; }
+        };
+    }
+
+    private TripRepository.DispatchTrip trip(Long tripId, Long routeId, int hoursLater) {
+        return new TripRepository.DispatchTrip() {
+            @Override public Long getTripId() { return tripId; }
+            @Override public Long getRouteId() { return routeId; }
+            @Override public OffsetDateTime getDepartureAt() { return departure.plusHours(hoursLater); }
+        };
+    }
+
+    private StopRepository.StopPosition stop(Long stopId, Long routeId, int order) {
+        return new StopRepository.StopPosition() {
+            @Override public Long getStopId() { return stopId; }
+            @Override public Long getRouteId() { return routeId; }
+            @Override public Integer getStopOrder() { return order; }
+        };
+    }
+
+    // Bodega de la ruta con paradas 1..3 (dos tramos)
+    private TripCargoLoad cargo(Long tripId, int capacityKg) {
+        return new TripCargoLoad(tripId, new int[]{1, 2, 3},
+                TripCargoLoad.grams(BigDecimal.valueOf(capacityKg)), TripCargoLoad.cubicCm(BigDecimal.valueOf(1000)));
+    }
+
+    private void givenCargo(TripCargoLoad... loads) {
+        when(cargoLoadTracker.isEnabled()).thenReturn(true);
+        Map<Long, TripCargoLoad> byTrip = new HashMap<>();
+        for (TripCargoLoad load : loads) {
+            byTrip.put(load.tripId(), load);
+        }
+        when(cargoLoadTracker.lockLoadsFor(anyCollection())).thenReturn(byTrip);
+    }
+
+    private void givenDispatchLock() {
+        when(parcelRepository.tryAdvisoryXactLock(ParcelDispatchServiceImpl.AUTO_ASSIGN_LOCK_KEY)).thenReturn(true);
+    }
+
+    private void givenTripReferences() {
+        when(tripRepository.getReferenceById(anyLong()))
+                .thenAnswer(invocation -> Trip.builder().id(invocation.getArgument(0)).build());
+        when(parcelRepository.assignPendingToTrip(anyCollection(), any()))
+                .thenAnswer(invocation -> invocation.<List<Long>>getArgument(0).size());
+    }
+
+    @Test
+    @DisplayName("Debe llenar primero el viaje que sale antes según la carga de cada tramo")
+    void shouldFillEarliestTripUpToSegmentCapacity() {
+        // Given: cupo 30 kg; el viaje 10 ya lleva 10 kg en el primer tramo
+        TripCargoLoad early = cargo(10L, 30);
+        early.tryLoad(99L, 1, 2, TripCargoLoad.grams(BigDecimal.TEN), 0);
+        givenCargo(early, cargo(11L, 30));
+        givenDispatchLock();
+        when(parcelRepository.findPendingForDispatch()).thenReturn(List.of(
+                pending(1L, 1L, 100L, 102L),
+                pending(2L, 1L, 100L, 101L, 15),  // No cabe en el primer tramo del viaje 10
+                pending(3L, 1L, 101L, 102L),      // El segundo tramo del viaje 10 aún tiene cupo
+                pending(4L, 1L, 100L, 102L, 11))); // Se pasaría por 1 kg en el viaje 10
+        when(tripRepository.findScheduledForDispatch(any(), any()))
+                .thenReturn(List.of(trip(10L, 1L, 0), trip(11L, 1L, 2)));
+        when(stopRepository.findPositionsByRouteIds(anyCollection())).thenReturn(List.of(
+                stop(100L, 1L, 1), stop(101L, 1L, 2), stop(102L, 1L, 3)));
+        givenTripReferences();
+
+        // When
+        ParcelDtos.AutoAssignResponse response = dispatchService.autoAssignPendingParcels();
+
+        // Then
+        verify(parcelRepository).assignPendingToTrip(eq(List.of(1L, 3L)), argThat(t -> t.getId().equals(10L)));
+        verify(parcelRepository).assignPendingToTrip(eq(List.of(2L, 4L)), argThat(t -> t.getId().equals(11L)));
+        verify(parcelEventRepository).appendLoadedForTrip(List.of(1L, 3L), 10L, "auto-assign");
+        verify(parcelEventRepository).appendLoadedForTrip(List.of(2L, 4L), 11L, "auto-assign");
+        verify(parcelRepository, never()).save(any());
+        assertThat(early.maxWeight(1, 3)).isEqualTo(20_000);
+        assertThat(response.pending()).isEqualTo(4);
+        assertThat(response.assigned()).isEqualTo(4);
+        assertThat(response.trips()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Debe dejar sin asignar las encomiendas cuya ruta no tiene viajes o cuyo tramo va en sentido contrario")
+    void shouldSkipParcelsNotCoveredByTrips() {
+        // Given
+        givenDispatchLock();
+        when(parcelRepository.findPendingForDispatch()).thenReturn(List.of(
+                pending(1L, 1L, 102L, 100L),  // Sentido contrario
+                pending(2L, 1L, 100L, 999L),  // Parada que ya no está en la ruta
+                pending(3L, 2L, 200L, 201L),  // Ruta sin viajes en la ventana
+                pending(4L, 1L, 100L, 101L)));
+        when(tripRepository.findScheduledForDispatch(any(), any())).thenReturn(List.of(trip(10L, 1L, 0)));
+        givenCargo(cargo(10L, 500));
+        when(stopRepository.findPositionsByRouteIds(anyCollection())).thenReturn(List.of(
+                stop(100L, 1L, 1), stop(101L, 1L, 2), stop(102L, 1L, 3),
+                stop(200L, 2L, 1), stop(201L, 2L, 2)));
+        givenTripReferences();
+
+        // When
+        ParcelDtos.AutoAssignResponse response = dispatchService.autoAssignPendingParcels();
+
+        // Then
+        verify(parcelRepository).assignPendingToTrip(eq(List.of(4L)), any());
+        verify(parcelRepository, times(1)).assignPendingToTrip(anyCollection(), any());
+        assertThat(response.assigned()).isEqualTo(1);
+        assertThat(response.unassigned()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Debe partir la asignación en bloques y no limitar el cupo si el control de bodega está apagado")
+    void shouldApplyInChunks() {
+        // Given
+        properties.setChunkSize(2);
+        List<ParcelRepository.PendingParcel> parcels = new ArrayList<>();
+        for (long id = 1; id <= 5; id++) {
+            parcels.add(pending(id, 1L, 100L, 101L));
+        }
+        givenDispatchLock();
+        when(parcelRepository.findPendingForDispatch()).thenReturn(parcels);
+        when(tripRepository.findScheduledForDispatch(any(), any())).thenReturn(List.of(trip(10L, 1L, 0)));
+        when(stopRepository.findPositionsByRouteIds(anyCollection()))
+                .thenReturn(List.of(stop(100L, 1L, 1), stop(101L, 1L, 2)));
+        givenTripReferences();
+
+        // When
+        ParcelDtos.AutoAssignResponse response = dispatchService.autoAssignPendingParcels();
+
+        // Then
+        verify(parcelRepository).assignPendingToTrip(eq(List.of(1L, 2L)), any());
+        verify(parcelRepository).assignPendingToTrip(eq(List.of(3L, 4L)), any());
+        verify(parcelRepository).assignPendingToTrip(eq(List.of(5L)), any());
+        verify(parcelEventRepository, times(3)).appendLoadedForTrip(anyCollection(), eq(10L), anyString());
+        verify(cargoLoadTracker, never()).lockLoadsFor(anyCollection());
+        assertThat(response.assigned()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Debe contar como no asignadas las que otra operación tomó antes del UPDATE")
+    void shouldReportConcurrentlyAssignedAsUnassigned() {
+        // Given
+        givenDispatchLock();
+        when(parcelRepository.findPendingForDispatch()).thenReturn(List.of(
+                pending(1L, 1L, 100L, 101L), pending(2L, 1L, 100L, 101L)));
+        when(tripRepository.findScheduledForDispatch(any(), any())).thenReturn(List.of(trip(10L, 1L, 0)));
+        when(stopRepository.findPositionsByRouteIds(anyCollection()))
+                .thenReturn(List.of(stop(100L, 1L, 1), stop(101L, 1L, 2)));
+        when(tripRepository.getReferenceById(10L)).thenReturn(Trip.builder().id(10L).build());
+        when(parcelRepository.assignPendingToTrip(anyCollection(), any())).thenReturn(1);
+
+        // When
+        ParcelDtos.AutoAssignResponse response = dispatchService.autoAssignPendingParcels();
+
+        // Then
+        assertThat(response.assigned()).isEqualTo(1);
+        assertThat(response.unassigned()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("No debe consultar nada cuando el despacho automático está deshabilitado")
+    void shouldDoNothingWhenDisabled() {
+        properties.setEnabled(false);
+
+        ParcelDtos.AutoAssignResponse response = dispatchService.autoAssignPendingParcels();
+
+        assertThat(response.pending()).isZero();
+        verifyNoInteractions(parcelRepository, tripRepository, stopRepository, parcelEventRepository);
+    }
+
+    @Test
+    @DisplayName("No debe despachar si otro nodo ya tiene el candado del despacho automático")
+    void shouldSkipWhenAnotherNodeHoldsTheLock() {
+        when(parcelRepository.tryAdvisoryXactLock(ParcelDispatchServiceImpl.AUTO_ASSIGN_LOCK_KEY)).thenReturn(false);
+
+        ParcelDtos.AutoAssignResponse response = dispatchService.autoAssignPendingParcels();
+
+        assertThat(response.assigned()).isZero();
+        verify(parcelRepository, never()).findPendingForDispatch();
+        verifyNoInteractions(tripRepository, stopRepository, parcelEventRepository, cargoLoadTracker);
+    }
+}
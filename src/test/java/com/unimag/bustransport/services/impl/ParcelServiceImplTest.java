@@ -2,11 +2,17 @@ package com.unimag.bustransport.services.impl;
 
 import com.unimag.bustransport.api.dto.IncidentDtos;
 import com.unimag.bustransport.api.dto.ParcelDtos;
+import com.unimag.bustransport.api.dto.PageDtos;
+import com.unimag.bustransport.config.CargoProperties;
 import com.unimag.bustransport.domain.entities.*;
+import com.unimag.bustransport.domain.repositories.ParcelEventRepository;
 import com.unimag.bustransport.domain.repositories.ParcelRepository;
 import com.unimag.bustransport.domain.repositories.StopRepository;
 import com.unimag.bustransport.domain.repositories.TripRepository;
 import com.unimag.bustransport.services.IncidentService;
+import com.unimag.bustransport.services.cargo.CargoLoadTracker;
+import com.unimag.bustransport.services.codes.OtpGenerator;
+import com.unimag.bustransport.services.codes.ParcelCodeGenerator;
 import com.unimag.bustransport.services.mapper.ParcelMapper;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -16,6 +22,8 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -26,6 +34,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,6 +43,9 @@ class ParcelServiceImplTest {
     @Mock
     private ParcelRepository parcelRepository;
 
+    @Mock
+    private ParcelEventRepository parcelEventRepository;
+
     @Mock
     private StopRepository stopRepository;
 
@@ -46,6 +58,20 @@ class ParcelServiceImplTest {
     @Spy
     private final ParcelMapper parcelMapper = Mappers.getMapper(ParcelMapper.class);
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ParcelCodeGenerator parcelCodeGenerator;
+
+    @Mock
+    private OtpGenerator otpGenerator;
+
+    @Mock
+    private CargoLoadTracker cargoLoadTracker;
+
+    @Spy
+    private final CargoProperties cargoProperties = new CargoProperties();
     @InjectMocks
     private ParcelServiceImpl parcelService;
 
@@ -101,7 +127,9 @@ class ParcelServiceImplTest {
                 "3009876543",
                 fromStopId,
                 toStopId,
-                tripId
+                tripId,
+                null,
+                null
         );
     }
 
@@ -129,7 +157,8 @@ class ParcelServiceImplTest {
 
         when(stopRepository.findById(1L)).thenReturn(Optional.of(fromStop));
         when(stopRepository.findById(2L)).thenReturn(Optional.of(toStop));
-        when(parcelRepository.existsByCode(anyString())).thenReturn(false);
+        when(parcelCodeGenerator.next()).thenReturn("PAQ-20251112-0000000001");
+        when(otpGenerator.next()).thenReturn("012345");
         when(parcelRepository.save(any(Parcel.class))).thenReturn(savedParcel);
 
         // When
@@ -141,7 +170,12 @@ class ParcelServiceImplTest {
 
         verify(stopRepository, times(1)).findById(1L);
         verify(stopRepository, times(1)).findById(2L);
-        verify(parcelRepository, times(1)).save(any(Parcel.class));
+        verify(parcelRepository).save(argThat(parcel -> "PAQ-20251112-0000000001".equals(parcel.getCode())
+                && "012345".equals(parcel.getDeliveryOtp())
+                && parcel.getWeightKg().compareTo(BigDecimal.valueOf(5)) == 0));
+        verify(parcelRepository, never()).existsByCode(anyString());
+        verify(parcelEventRepository).save(argThat(event -> event.getType() == ParcelEvent.Type.CREATED
+                && event.getParcelStatus() == Parcel.Status.CREATED));
         verify(tripRepository, never()).findById(anyLong());
     }
 
@@ -159,8 +193,10 @@ class ParcelServiceImplTest {
         when(stopRepository.findById(1L)).thenReturn(Optional.of(fromStop));
         when(stopRepository.findById(2L)).thenReturn(Optional.of(toStop));
         when(tripRepository.findById(1L)).thenReturn(Optional.of(trip));
-        when(parcelRepository.existsByCode(anyString())).thenReturn(false);
+        when(parcelCodeGenerator.next()).thenReturn("PAQ-20251112-0000000002");
+        when(otpGenerator.next()).thenReturn("654321");
         when(parcelRepository.save(any(Parcel.class))).thenReturn(savedParcel);
+        when(cargoLoadTracker.tryLoad(eq(1L), eq(1L), eq(1), eq(2), any(), any())).thenReturn(true);
 
         // When
         ParcelDtos.ParcelResponse response = parcelService.createParcel(request);
@@ -268,6 +304,7 @@ class ParcelServiceImplTest {
         when(parcelRepository.findById(1L)).thenReturn(Optional.of(parcel));
         when(tripRepository.findById(1L)).thenReturn(Optional.of(trip));
         when(parcelRepository.save(any(Parcel.class))).thenReturn(parcel);
+        when(cargoLoadTracker.tryLoad(eq(1L), eq(1L), eq(1), eq(2), any(), any())).thenReturn(true);
 
         // When
         parcelService.assignTrip(1L, 1L);
@@ -278,6 +315,30 @@ class ParcelServiceImplTest {
         verify(parcelRepository, times(1)).save(parcel);
     }
 
+    @Test
+    @DisplayName("Debe rechazar la asignación cuando algún tramo del viaje no tiene cupo de bodega")
+    void shouldRejectAssignmentWhenCargoIsFull() {
+        // Given
+        Route route = givenRoute();
+        Stop fromStop = givenStop(1L, "Stop 1", 1, route);
+        Stop toStop = givenStop(2L, "Stop 2", 2, route);
+        Parcel parcel = givenParcel(fromStop, toStop, Parcel.Status.CREATED);
+        Trip trip = givenTrip(route, Trip.Status.SCHEDULED);
+
+        when(parcelRepository.findById(1L)).thenReturn(Optional.of(parcel));
+        when(tripRepository.findById(1L)).thenReturn(Optional.of(trip));
+        when(cargoLoadTracker.tryLoad(eq(1L), eq(1L), eq(1), eq(2), any(), any())).thenReturn(false);
+
+        // When & Then
+        assertThatThrownBy(() -> parcelService.assignTrip(1L, 1L))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("no cargo capacity left between stops Stop 1 and Stop 2");
+
+        assertThat(parcel.getStatus()).isEqualTo(Parcel.Status.CREATED);
+        verify(parcelRepository, never()).save(any(Parcel.class));
+        verify(parcelEventRepository, never()).save(any());
+    }
+
     @Test
     @DisplayName("Debe lanzar excepción al asignar trip a parcel que no está en CREATED")
     void shouldThrowExceptionWhenAssigningTripToNonCreatedParcel() {
@@ -307,14 +368,14 @@ class ParcelServiceImplTest {
         Stop toStop = givenStop(2L, "Stop 2", 2, route);
         List<Parcel> parcels = List.of(givenParcel(fromStop, toStop, Parcel.Status.CREATED));
 
-        when(parcelRepository.findBySenderPhone("3001234567")).thenReturn(parcels);
+        when(parcelRepository.findBySenderPhoneAndIdGreaterThanOrderByIdAsc("3001234567", 0L, Limit.of(51)))
+                .thenReturn(parcels);
 
         // When
-        List<ParcelDtos.ParcelResponse> result = parcelService.getParcelsBySender("3001234567");
+        PageDtos.CursorPage<ParcelDtos.ParcelResponse> result = parcelService.getParcelsBySender("3001234567", null, null);
 
         // Then
-        assertThat(result).hasSize(1);
-        verify(parcelRepository, times(1)).findBySenderPhone("3001234567");
+        assertThat(result.items()).hasSize(1);
     }
 
     @Test
@@ -386,6 +447,7 @@ class ParcelServiceImplTest {
         Stop fromStop = givenStop(1L, "Stop 1", 1, route);
         Stop toStop = givenStop(2L, "Stop 2", 2, route);
         Parcel parcel = givenParcel(fromStop, toStop, Parcel.Status.IN_TRANSIT);
+        parcel.setTrip(givenTrip(route, Trip.Status.DEPARTED));
 
         when(parcelRepository.findById(1L)).thenReturn(Optional.of(parcel));
         when(parcelRepository.save(any(Parcel.class))).thenReturn(parcel);
@@ -396,6 +458,8 @@ class ParcelServiceImplTest {
         // Then
         verify(parcelRepository, times(1)).findById(1L);
         verify(parcelRepository, times(1)).save(parcel);
+        verify(parcelEventRepository).save(argThat(event -> event.getType() == ParcelEvent.Type.DELIVERED
+                && event.getParcelCode().equals("PAQ-20251112-0001")));
     }
 
     @Test
@@ -437,6 +501,8 @@ class ParcelServiceImplTest {
         // Then
         verify(parcelRepository, times(1)).findById(1L);
         verify(parcelRepository, times(1)).save(parcel);
+        verify(parcelEventRepository).save(argThat(event -> event.getType() == ParcelEvent.Type.FAILED
+                && "Lost in transit".equals(event.getNote())));
         verify(incidentService, times(1)).createIncident(any(IncidentDtos.IncidentCreateRequest.class));
     }
 
@@ -0,0 +1,288 @@
+package com.unimag.bustransport.services.impl;
+
+import com.unimag.bustransport.api.dto.IncidentDtos;
+import com.unimag.bustransport.api.dto.ParcelDtos;
+import com.unimag.bustransport.domain.entities.*;
+import com.unimag.bustransport.domain.repositories.ParcelEventRepository;
+import com.unimag.bustransport.domain.repositories.ParcelRepository;
+import com.unimag.bustransport.domain.repositories.StopRepository;
+import com.unimag.bustransport.domain.repositories.TripRepository;
+import com.unimag.bustransport.exception.NotFoundException;
+import com.unimag.bustransport.kpi.KpiEvent;
+import com.unimag.bustransport.services.IncidentService;
+import com.unimag.bustransport.services.cargo.CargoLoadTracker;
+import com.unimag.bustransport.services.mapper.ParcelMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mapstruct.factory.Mappers;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ParcelTrackingServiceImplTest {
+
+    @Mock
+    private ParcelRepository parcelRepository;
+
+    @Mock
+    private ParcelEventRepository parcelEventRepository;
+
+    @Mock
+    private TripRepository tripRepository;
+
+    @Mock
+    private StopRepository stopRepository;
+
+    @Mock
+    private IncidentService incidentService;
+
+    @Spy
+    private final ParcelMapper parcelMapper = Mappers.getMapper(ParcelMapper.class);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private CargoLoadTracker cargoLoadTracker;
+
+    @InjectMocks
+    private ParcelTrackingServiceImpl trackingService;
+
+    private final OffsetDateTime t0 = OffsetDateTime.parse("2025-11-12T08:00:00-05:00");
+
+    private Route givenRoute(Long id) {
+        return Route.builder().id(id).code("R00" + id).build();
+    }
+
+    private Trip givenTrip(Long id, Route route, Trip.Status status) {
+        return Trip.builder().id(id).route(route).status(status).build();
+    }
+
+    private Parcel givenParcel(Long id, String code, Parcel.Status status) {
+        return Parcel.builder()
+                .id(id)
+                .code(code)
+                .status(status)
+                .deliveryOtp("012345")
+                .fromStop(Stop.builder().id(1L).order(1).build())
+                .toStop(Stop.builder().id(3L).order(3).build())
+                .build();
+    }
+
+    private ParcelDtos.ScanRequest scan(String scanId, String code, ParcelEvent.Type type,
+                                        Long tripId, Long stopId, String otp, OffsetDateTime at) {
+        return new ParcelDtos.ScanRequest(scanId, code, type, tripId, stopId, otp, null, at);
+    }
+
+    private void givenRoutes(Long parcelId, Long routeId) {
+        when(parcelRepository.findRoutes(anyCollection())).thenReturn(List.of(new ParcelRepository.ParcelRoute() {
+            @Override
+            public Long getParcelId() {
+                return parcelId;
+            }
+
+            @Override
+            public Long getRouteId() {
+                return routeId;
+            }
+        }));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<ParcelEvent> capturedEvents() {
+        ArgumentCaptor<Collection<ParcelEvent>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), captor.capture(), any(Integer.class), any());
+        return List.copyOf(captor.getValue());
+    }
+
+    @Test
+    @DisplayName("Debe aplicar el lote en orden de escaneo con un solo UPDATE y un solo batch de eventos")
+    void shouldApplyBatchInScanOrder() {
+        // Given: llegan desordenados (entrega, carga, descarga)
+        Route route = givenRoute(1L);
+        Trip trip = givenTrip(10L, route, Trip.Status.SCHEDULED);
+        Parcel parcel = givenParcel(1L, "PAQ-1", Parcel.Status.CREATED);
+        Stop stop = Stop.builder().id(3L).name("Terminal Barranquilla").route(route).build();
+
+        when(parcelRepository.findByCodeInForUpdate(anyCollection())).thenReturn(List.of(parcel));
+        when(parcelEventRepository.findRecordedScanIds(eq("HH-01"), anyCollection())).thenReturn(List.of());
+        givenRoutes(1L, 1L);
+        when(tripRepository.findAllById(anyCollection())).thenReturn(List.of(trip));
+        when(stopRepository.findAllById(anyCollection())).thenReturn(List.of(stop));
+        when(cargoLoadTracker.tryLoad(10L, 1L, 1, 3, null, null)).thenReturn(true);
+
+        var request = new ParcelDtos.ScanBatchRequest("HH-01", List.of(
+                scan("s3", "PAQ-1", ParcelEvent.Type.DELIVERED, null, null, "012345", t0.plusHours(3)),
+                scan("s1", "PAQ-1", ParcelEvent.Type.LOADED, 10L, null, null, t0),
+                scan("s2", "PAQ-1", ParcelEvent.Type.UNLOADED, null, 3L, null, t0.plusHours(2))
+        ));
+
+        // When
+        ParcelDtos.ScanBatchResponse response = trackingService.applyScans(request);
+
+        // Then
+        assertThat(response.received()).isEqualTo(3);
+        assertThat(response.applied()).isEqualTo(3);
+        assertThat(response.rejected()).isEmpty();
+
+        verify(parcelRepository).updateStatusAndTrip(List.of(1L), Parcel.Status.DELIVERED, trip);
+        verify(parcelRepository, never()).updateStatus(anyCollection(), any());
+        verify(parcelRepository, never()).save(any());
+
+        List<ParcelEvent> events = capturedEvents();
+        assertThat(events).extracting(ParcelEvent::getScanId).containsExactly("s1", "s2", "s3");
+        assertThat(events).extracting(ParcelEvent::getParcelStatus)
+                .containsExactly(Parcel.Status.IN_TRANSIT, Parcel.Status.IN_TRANSIT, Parcel.Status.DELIVERED);
+        assertThat(events.get(1).getStopName()).isEqualTo("Terminal Barranquilla");
+        assertThat(events).allMatch(event -> event.getTripId().equals(10L));
+
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof KpiEvent.ParcelClosed closed
+                && closed.delivered() && closed.routeId().equals(1L)));
+    }
+
+    @Test
+    @DisplayName("Debe descartar escaneos ya registrados o repetidos en el mismo lote")
+    void shouldSkipDuplicateScans() {
+        // Given
+        Parcel parcel = givenParcel(1L, "PAQ-1", Parcel.Status.IN_TRANSIT);
+        when(parcelRepository.findByCodeInForUpdate(anyCollection())).thenReturn(List.of(parcel));
+        when(parcelEventRepository.findRecordedScanIds(eq("HH-01"), anyCollection())).thenReturn(List.of("s1"));
+        givenRoutes(1L, 1L);
+
+        var request = new ParcelDtos.ScanBatchRequest("HH-01", List.of(
+                scan("s1", "PAQ-1", ParcelEvent.Type.FAILED, null, null, null, t0),
+                scan("s2", "PAQ-1", ParcelEvent.Type.FAILED, null, null, null, t0),
+                scan("s2", "PAQ-1", ParcelEvent.Type.FAILED, null, null, null, t0)
+        ));
+
+        // When
+        ParcelDtos.ScanBatchResponse response = trackingService.applyScans(request);
+
+        // Then
+        assertThat(response.duplicates()).isEqualTo(2);
+        assertThat(response.applied()).isEqualTo(1);
+        verify(parcelRepository).updateStatus(List.of(1L), Parcel.Status.FAILED);
+        verify(incidentService).createIncident(any(IncidentDtos.IncidentCreateRequest.class));
+        assertThat(capturedEvents()).extracting(ParcelEvent::getScanId).containsExactly("s2");
+    }
+
+    @Test
+    @DisplayName("Debe rechazar escaneos inválidos sin abortar el lote ni tocar la BD")
+    void shouldRejectInvalidScans() {
+        // Given
+        Route route = givenRoute(1L);
+        Parcel created = givenParcel(1L, "PAQ-1", Parcel.Status.CREATED);
+        Parcel inTransit = givenParcel(2L, "PAQ-2", Parcel.Status.IN_TRANSIT);
+        Trip otherRouteTrip = givenTrip(20L, givenRoute(2L), Trip.Status.SCHEDULED);
+
+        when(parcelRepository.findByCodeInForUpdate(anyCollection())).thenReturn(List.of(created, inTransit));
+        when(parcelEventRepository.findRecordedScanIds(eq("HH-01"), anyCollection())).thenReturn(List.of());
+        givenRoutes(1L, route.getId());
+        when(tripRepository.findAllById(anyCollection())).thenReturn(List.of(otherRouteTrip));
+
+        var request = new ParcelDtos.ScanBatchRequest("HH-01", List.of(
+                scan("s1", "PAQ-404", ParcelEvent.Type.LOADED, 20L, null, null, t0),
+                scan("s2", "PAQ-1", ParcelEvent.Type.UNLOADED, null, 3L, null, t0),
+                scan("s3", "PAQ-1", ParcelEvent.Type.LOADED, 20L, null, null, t0),
+                scan("s4", "PAQ-2", ParcelEvent.Type.DELIVERED, null, null, "999999", t0),
+                scan("s5", "PAQ-2", ParcelEvent.Type.CREATED, null, null, null, t0)
+        ));
+
+        // When
+        ParcelDtos.ScanBatchResponse response = trackingService.applyScans(request);
+
+        // Then
+        assertThat(response.applied()).isZero();
+        assertThat(response.rejected()).extracting(ParcelDtos.ScanRejection::reason).containsExactly(
+                "Parcel not found",
+                "Cannot unload parcel with status CREATED",
+                "Trip must belong to the same route as the parcel stops",
+                "Invalid delivery OTP",
+                "CREATED is recorded when the parcel is registered");
+        verify(parcelRepository, never()).updateStatus(anyCollection(), any());
+        verify(parcelRepository, never()).updateStatusAndTrip(anyCollection(), any(), any());
+        verifyNoInteractions(jdbcTemplate, eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Debe rechazar la carga que no cabe en la bodega del viaje")
+    void shouldRejectLoadWithoutCargoCapacity() {
+        // Given
+        Route route = givenRoute(1L);
+        Trip trip = givenTrip(10L, route, Trip.Status.SCHEDULED);
+        Parcel parcel = givenParcel(1L, "PAQ-1", Parcel.Status.CREATED);
+
+        when(parcelRepository.findByCodeInForUpdate(anyCollection())).thenReturn(List.of(parcel));
+        when(parcelEventRepository.findRecordedScanIds(eq("HH-01"), anyCollection())).thenReturn(List.of());
+        givenRoutes(1L, 1L);
+        when(tripRepository.findAllById(anyCollection())).thenReturn(List.of(trip));
+        when(cargoLoadTracker.tryLoad(10L, 1L, 1, 3, null, null)).thenReturn(false);
+
+        var request = new ParcelDtos.ScanBatchRequest("HH-01", List.of(
+                scan("s1", "PAQ-1", ParcelEvent.Type.LOADED, 10L, null, null, t0)));
+
+        // When
+        ParcelDtos.ScanBatchResponse response = trackingService.applyScans(request);
+
+        // Then
+        assertThat(response.applied()).isZero();
+        assertThat(response.rejected()).extracting(ParcelDtos.ScanRejection::reason)
+                .containsExactly("Trip 10 has no cargo capacity left for the parcel");
+        verify(parcelRepository, never()).updateStatusAndTrip(anyCollection(), any(), any());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Debe responder el rastreo desde la bitácora con el estado del último evento")
+    void shouldTrackFromEventLog() {
+        // Given
+        when(parcelEventRepository.findByParcelCodeOrderByIdAsc("PAQ-1")).thenReturn(List.of(
+                ParcelEvent.builder().id(1L).parcelCode("PAQ-1").type(ParcelEvent.Type.CREATED)
+                        .parcelStatus(Parcel.Status.CREATED).occurredAt(t0).build(),
+                ParcelEvent.builder().id(2L).parcelCode("PAQ-1").type(ParcelEvent.Type.UNLOADED)
+                        .parcelStatus(Parcel.Status.IN_TRANSIT).tripId(10L).stopId(3L)
+                        .stopName("Terminal Barranquilla").occurredAt(t0.plusHours(2)).build()
+        ));
+
+        // When
+        ParcelDtos.TrackingResponse response = trackingService.track("PAQ-1");
+
+        // Then
+        assertThat(response.status()).isEqualTo("IN_TRANSIT");
+        assertThat(response.events()).hasSize(2);
+        assertThat(response.events().get(1).type()).isEqualTo("UNLOADED");
+        assertThat(response.events().get(1).stopName()).isEqualTo("Terminal Barranquilla");
+        verifyNoInteractions(parcelRepository);
+    }
+
+    @Test
+    @DisplayName("Debe lanzar NotFound cuando el código no tiene eventos")
+    void shouldThrowWhenCodeUnknown() {
+        when(parcelEventRepository.findByParcelCodeOrderByIdAsc("NOPE")).thenReturn(List.of());
+
+        assertThatThrownBy(() -> trackingService.track("NOPE"))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessageContaining("NOPE");
+    }
+}
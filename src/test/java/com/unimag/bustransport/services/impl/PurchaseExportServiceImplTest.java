@@ -0,0 +1,148 @@
+package com.unimag.bustransport.services.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.unimag.bustransport.api.dto.PurchaseDtos;
+import com.unimag.bustransport.config.ExportProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.quality.Strictness;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PurchaseExportServiceImplTest {
+
+    private static final OffsetDateTime CREATED = OffsetDateTime.parse("2025-06-01T10:00:00-05:00");
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private ExportProperties properties;
+    private PurchaseExportServiceImpl exportService;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ExportProperties();
+        exportService = new PurchaseExportServiceImpl(jdbcTemplate, objectMapper, properties);
+    }
+
+    private PurchaseExportWriter.Row row(long purchaseId, Long ticketId, String seat, String userName) {
+        return new PurchaseExportWriter.Row(purchaseId, BigDecimal.valueOf(150000), "CARD", "CONFIRMED", CREATED,
+                5L, userName, "ana@example.com", ticketId, seat,
+                ticketId == null ? null : BigDecimal.valueOf(75000), ticketId == null ? null : "SOLD");
+    }
+
+    @Test
+    @DisplayName("Debe emitir una línea NDJSON por compra agrupando sus tickets consecutivos")
+    void writer_Ndjson_ShouldGroupTicketsPerPurchase() throws Exception {
+        // Given
+        StringWriter out = new StringWriter();
+        var writer = new PurchaseExportWriter(PurchaseDtos.ExportFormat.NDJSON, out, objectMapper);
+
+        // When
+        writer.start();
+        writer.write(row(1L, 10L, "1A", "Ana"));
+        writer.write(row(1L, 11L, "1B", "Ana"));
+        writer.write(row(2L, null, null, "Ana"));
+        writer.finish();
+
+        // Then
+        List<String> lines = out.toString().lines().toList();
+        assertThat(lines).hasSize(2);
+        var first = objectMapper.readValue(lines.get(0), PurchaseDtos.PurchaseResponse.class);
+        assertThat(first.id()).isEqualTo(1L);
+        assertThat(first.tickets()).extracting(PurchaseDtos.PurchaseResponse.TicketSummary::seatNumber)
+                .containsExactly("1A", "1B");
+        var second = objectMapper.readValue(lines.get(1), PurchaseDtos.PurchaseResponse.class);
+        assertThat(second.tickets()).isEmpty();
+        assertThat(writer.getPurchases()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Debe emitir CSV con una línea por ticket y escapar el texto libre")
+    void writer_Csv_ShouldEscapeAndNeutralizeFormulas() {
+        // Given
+        StringWriter out = new StringWriter();
+        var writer = new PurchaseExportWriter(PurchaseDtos.ExportFormat.CSV, out, objectMapper);
+
+        // When
+        writer.start();
+        writer.write(row(1L, 10L, "1A", "Pérez, \"Ana\""));
+        writer.write(row(2L, 12L, "2C", "=HYPERLINK(\"x\")"));
+        writer.finish();
+
+        // Then
+        List<String> lines = out.toString().lines().toList();
+        assertThat(lines).hasSize(3);
+        assertThat(lines.get(0)).isEqualTo(PurchaseExportWriter.CSV_HEADER);
+        assertThat(lines.get(1)).startsWith("1,").contains("\"Pérez, \"\"Ana\"\"\"").endsWith(",10,1A,75000,SOLD");
+        assertThat(lines.get(2)).contains("\"'=HYPERLINK(\"\"x\"\")\"");
+    }
+
+    @Test
+    @DisplayName("Debe recorrer el cursor y escribir cada fila a la salida")
+    void exportByDateRange_ShouldStreamCursorRows() throws Exception {
+        // Given
+        ResultSet rs = mock(ResultSet.class, withSettings().strictness(Strictness.LENIENT));
+        when(rs.getLong("id")).thenReturn(1L);
+        when(rs.getLong("user_id")).thenReturn(5L);
+        when(rs.getString("user_name")).thenReturn("Ana");
+        when(rs.getString("payment_method")).thenReturn("CARD");
+        when(rs.getObject("created_at", OffsetDateTime.class)).thenReturn(CREATED);
+        when(rs.getObject("ticket_id", Long.class)).thenReturn(10L, 11L);
+        when(rs.getString("seat_number")).thenReturn("1A", "1B");
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            handler.processRow(rs);
+            handler.processRow(rs);
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        long exported = exportService.exportByDateRange(CREATED.minusDays(30), CREATED,
+                PurchaseDtos.ExportFormat.NDJSON, out);
+
+        // Then
+        assertThat(exported).isEqualTo(1);
+        String body = out.toString(StandardCharsets.UTF_8);
+        assertThat(body.lines()).hasSize(1);
+        assertThat(body).contains("\"seatNumber\":\"1A\"").contains("\"seatNumber\":\"1B\"");
+    }
+
+    @Test
+    @DisplayName("Debe rechazar rangos invertidos o mayores al máximo sin consultar la BD")
+    void validateExportRange_InvalidRange_ShouldFail() {
+        assertThatThrownBy(() -> exportService.validateExportRange(CREATED, CREATED.minusDays(1)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> exportService.exportByDateRange(CREATED, CREATED.plusYears(2),
+                PurchaseDtos.ExportFormat.CSV, new ByteArrayOutputStream()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("cannot exceed");
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
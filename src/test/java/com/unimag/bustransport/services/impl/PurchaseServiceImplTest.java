@@ -2,6 +2,7 @@ package com.unimag.bustransport.services.impl;
 
 import com.unimag.bustransport.api.dto.PurchaseDtos;
 import com.unimag.bustransport.api.dto.TicketDtos;
+import com.unimag.bustransport.api.dto.PageDtos;
 import com.unimag.bustransport.domain.entities.*;
 import com.unimag.bustransport.domain.repositories.PurchaseRepository;
 import com.unimag.bustransport.domain.repositories.SeatHoldRepository;
@@ -20,6 +21,8 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -61,6 +64,8 @@ class PurchaseServiceImplTest {
     @Spy
     private final PurchaseMapper purchaseMapper = Mappers.getMapper(PurchaseMapper.class);
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
     @InjectMocks
     private PurchaseServiceImpl purchaseService;
 
@@ -155,8 +160,7 @@ class PurchaseServiceImplTest {
         when(fareRuleService.calculatePrice(anyLong(), anyLong(), anyLong(), anyLong(),
                 anyLong(), anyString(), anyLong()))
                 .thenReturn(BigDecimal.valueOf(50000));
-        when(ticketService.createTicket(any(TicketDtos.TicketCreateRequest.class)))
-                .thenReturn(null);
+        when(ticketService.createTickets(anyList())).thenReturn(List.of());
         when(purchaseRepository.save(any(Purchase.class))).thenReturn(savedPurchase);
 
         // When
@@ -171,7 +175,10 @@ class PurchaseServiceImplTest {
         verify(seatHoldService, times(1)).validateActiveHolds(anyLong(), anyList(), anyLong());
         verify(fareRuleService, times(1)).calculatePrice(anyLong(), anyLong(), anyLong(),
                 anyLong(), anyLong(), anyString(), anyLong());
-        verify(ticketService, times(1)).createTicket(any(TicketDtos.TicketCreateRequest.class));
+        verify(ticketService, times(1)).createTickets(argThat(tickets -> tickets.size() == 1
+                && tickets.get(0).seatNumber().equals("A1")
+                && tickets.get(0).price().compareTo(BigDecimal.valueOf(50000)) == 0));
+        verify(ticketService, never()).createTicket(any());
         verify(purchaseRepository, times(2)).save(any(Purchase.class)); // 2 veces: inicial + actualizar total
     }
 
@@ -263,16 +270,17 @@ class PurchaseServiceImplTest {
         List<Purchase> purchases = List.of(givenPurchase(user, Purchase.PaymentStatus.CONFIRMED));
 
         when(userRepository.existsById(1L)).thenReturn(true);
-        when(purchaseRepository.findByUserId(1L)).thenReturn(purchases);
+        when(purchaseRepository.findByUserIdAndIdLessThanOrderByIdDesc(1L, Long.MAX_VALUE, Limit.of(51)))
+                .thenReturn(purchases);
 
         // When
-        List<PurchaseDtos.PurchaseResponse> result = purchaseService.getPurchasesByUserId(1L);
+        PageDtos.CursorPage<PurchaseDtos.PurchaseResponse> result = purchaseService.getPurchasesByUserId(1L, null, null);
 
         // Then
-        assertThat(result).hasSize(1);
+        assertThat(result.items()).hasSize(1);
 
         verify(userRepository, times(1)).existsById(1L);
-        verify(purchaseRepository, times(1)).findByUserId(1L);
+        verify(purchaseRepository, times(1)).findByUserIdAndIdLessThanOrderByIdDesc(1L, Long.MAX_VALUE, Limit.of(51));
     }
 
     @Test
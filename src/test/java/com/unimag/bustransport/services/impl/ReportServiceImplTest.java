@@ -0,0 +1,238 @@
+package com.unimag.bustransport.services.impl;
+
+import com.unimag.bustransport.api.dto.ReportDtos;
+import com.unimag.bustransport.config.ReportProperties;
+import com.unimag.bustransport.domain.entities.RefundDailyReport;
+import com.unimag.bustransport.domain.entities.ReportWatermark;
+import com.unimag.bustransport.domain.entities.RouteDailyReport;
+import com.unimag.bustransport.domain.entities.Ticket;
+import com.unimag.bustransport.domain.repositories.RefundDailyReportRepository;
+import com.unimag.bustransport.domain.repositories.ReportWatermarkRepository;
+import com.unimag.bustransport.domain.repositories.RouteDailyReportRepository;
+import com.unimag.bustransport.domain.repositories.TicketRepository;
+import com.unimag.bustransport.domain.repositories.TripOccupancyReportRepository;
+import com.unimag.bustransport.domain.repositories.TripRepository;
+import com.unimag.bustransport.services.mapper.ReportMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mapstruct.factory.Mappers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReportServiceImplTest {
+
+    @Mock
+    private RouteDailyReportRepository routeDailyRepository;
+
+    @Mock
+    private TripOccupancyReportRepository occupancyRepository;
+
+    @Mock
+    private RefundDailyReportRepository refundRepository;
+
+    @Mock
+    private ReportWatermarkRepository watermarkRepository;
+
+    @Mock
+    private TicketRepository ticketRepository;
+
+    @Mock
+    private TripRepository tripRepository;
+
+    @Spy
+    private final ReportMapper mapper = Mappers.getMapper(ReportMapper.class);
+
+    @Spy
+    private ReportProperties properties = new ReportProperties();
+
+    @InjectMocks
+    private ReportServiceImpl reportService;
+
+    private ReportWatermark givenWatermark(OffsetDateTime highWater) {
+        ReportWatermark watermark = new ReportWatermark(ReportServiceImpl.TICKETS_WATERMARK, highWater);
+        when(watermarkRepository.findForUpdate(ReportServiceImpl.TICKETS_WATERMARK)).thenReturn(Optional.of(watermark));
+        return watermark;
+    }
+
+    @Test
+    @DisplayName("Debe recalcular solo los viajes cambiados desde la marca y avanzarla")
+    void refreshRollups_ShouldRefreshChangedTripsAndAdvanceWatermark() {
+        // Given
+        OffsetDateTime highWater = OffsetDateTime.now().minusMinutes(10);
+        ReportWatermark watermark = givenWatermark(highWater);
+        when(ticketRepository.findTripIdsChangedBetween(eq(highWater), any())).thenReturn(List.of(1L, 2L, 3L));
+
+        // When
+        int refreshed = reportService.refreshRollups();
+
+        // Then
+        assertThat(refreshed).isEqualTo(3);
+        verify(occupancyRepository).refreshForTrips(List.of(1L, 2L, 3L));
+        verify(routeDailyRepository).refreshForTrips(List.of(1L, 2L, 3L));
+        verify(refundRepository).refreshChangedBetween(eq(highWater), any());
+        assertThat(watermark.getHighWater())
+                .isAfter(highWater)
+                .isBefore(OffsetDateTime.now().minusSeconds(properties.getLagSeconds() - 1));
+        verify(watermarkRepository).save(watermark);
+    }
+
+    @Test
+    @DisplayName("Debe recalcular por lotes cuando cambian muchos viajes")
+    void refreshRollups_ShouldChunkTrips() {
+        // Given
+        properties.setBatchSize(2);
+        givenWatermark(OffsetDateTime.now().minusMinutes(10));
+        when(ticketRepository.findTripIdsChangedBetween(any(), any())).thenReturn(List.of(1L, 2L, 3L));
+
+        // When
+        reportService.refreshRollups();
+
+        // Then
+        verify(occupancyRepository).refreshForTrips(List.of(1L, 2L));
+        verify(occupancyRepository).refreshForTrips(List.of(3L));
+        verify(routeDailyRepository, times(2)).refreshForTrips(anyList());
+    }
+
+    @Test
+    @DisplayName("Sin cambios no debe tocar los resúmenes pero sí avanzar la marca")
+    void refreshRollups_NoChanges_ShouldOnlyAdvanceWatermark() {
+        // Given
+        OffsetDateTime highWater = OffsetDateTime.now().minusMinutes(10);
+        ReportWatermark watermark = givenWatermark(highWater);
+        when(ticketRepository.findTripIdsChangedBetween(any(), any())).thenReturn(List.of());
+
+        // When
+        int refreshed = reportService.refreshRollups();
+
+        // Then
+        assertThat(refreshed).isZero();
+        verifyNoInteractions(occupancyRepository, routeDailyRepository, refundRepository);
+        assertThat(watermark.getHighWater()).isAfter(highWater);
+    }
+
+    @Test
+    @DisplayName("No debe refrescar si la marca está dentro del margen de seguridad")
+    void refreshRollups_WatermarkWithinLag_ShouldDoNothing() {
+        // Given
+        givenWatermark(OffsetDateTime.now());
+
+        // When
+        int refreshed = reportService.refreshRollups();
+
+        // Then
+        assertThat(refreshed).isZero();
+        verifyNoInteractions(ticketRepository);
+        verify(watermarkRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Debe recalcular todos los viajes por lotes y borrar las filas huérfanas")
+    void recomputeRollups_ShouldRefreshAllTripsAndDeleteOrphans() {
+        // Given
+        properties.setBatchSize(2);
+        when(occupancyRepository.deleteOrphans()).thenReturn(1);
+        when(routeDailyRepository.deleteOrphans()).thenReturn(1);
+        when(tripRepository.findIdsAfter(0L, 2)).thenReturn(List.of(1L, 2L));
+        when(tripRepository.findIdsAfter(2L, 2)).thenReturn(List.of(5L));
+
+        // When
+        int recomputed = reportService.recomputeRollups();
+
+        // Then
+        assertThat(recomputed).isEqualTo(3);
+        verify(watermarkRepository).findForUpdate(ReportServiceImpl.TICKETS_WATERMARK);
+        verify(refundRepository).deleteOrphans();
+        verify(occupancyRepository).refreshForTrips(List.of(1L, 2L));
+        verify(occupancyRepository).refreshForTrips(List.of(5L));
+        verify(routeDailyRepository).refreshForTrips(List.of(5L));
+        verify(refundRepository).refreshChangedBetween(any(), any());
+        verify(watermarkRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("No debe recalcular con los resúmenes deshabilitados")
+    void recomputeRollups_Disabled_ShouldDoNothing() {
+        // Given
+        properties.setEnabled(false);
+
+        // When
+        int recomputed = reportService.recomputeRollups();
+
+        // Then
+        assertThat(recomputed).isZero();
+        verifyNoInteractions(tripRepository, occupancyRepository, routeDailyRepository, refundRepository);
+    }
+
+    @Test
+    @DisplayName("Debe leer los ingresos por ruta solo desde la tabla resumen")
+    void getRevenueByRoute_ShouldReadRollup() {
+        // Given
+        LocalDate from = LocalDate.of(2025, 1, 1);
+        LocalDate to = LocalDate.of(2025, 12, 31);
+        RouteDailyReport row = RouteDailyReport.builder()
+                .routeId(7L).serviceDate(from).trips(3).ticketsSold(90)
+                .revenue(BigDecimal.valueOf(4500000)).refreshedAt(OffsetDateTime.now())
+                .build();
+        when(routeDailyRepository.findByServiceDateBetweenOrderByServiceDateAscRouteIdAsc(from, to))
+                .thenReturn(List.of(row));
+
+        // When
+        List<ReportDtos.RouteRevenueRow> result = reportService.getRevenueByRoute(from, to, null);
+
+        // Then
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).routeId()).isEqualTo(7L);
+        assertThat(result.get(0).ticketsSold()).isEqualTo(90);
+        verifyNoInteractions(ticketRepository);
+    }
+
+    @Test
+    @DisplayName("Debe filtrar los reembolsos por ruta y exponer el tramo de política")
+    void getRefundsByPolicy_WithRoute_ShouldUseRouteQuery() {
+        // Given
+        LocalDate from = LocalDate.of(2025, 3, 1);
+        LocalDate to = LocalDate.of(2025, 3, 31);
+        RefundDailyReport row = RefundDailyReport.builder()
+                .routeId(7L).refundDate(from).policy(Ticket.RefundPolicy.FROM_2H_TO_24H)
+                .refunds(2).refundedAmount(BigDecimal.valueOf(100000)).refreshedAt(OffsetDateTime.now())
+                .build();
+        when(refundRepository.findByRouteIdAndRefundDateBetweenOrderByRefundDateAscPolicyAsc(7L, from, to))
+                .thenReturn(List.of(row));
+
+        // When
+        List<ReportDtos.RefundPolicyRow> result = reportService.getRefundsByPolicy(from, to, 7L);
+
+        // Then
+        assertThat(result).extracting(ReportDtos.RefundPolicyRow::policy).containsExactly("FROM_2H_TO_24H");
+    }
+
+    @Test
+    @DisplayName("Debe rechazar rangos invertidos o demasiado largos")
+    void getOccupancyByTrip_InvalidRange_ShouldFail() {
+        LocalDate from = LocalDate.of(2025, 1, 1);
+
+        assertThatThrownBy(() -> reportService.getOccupancyByTrip(from, from.minusDays(1), null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> reportService.getOccupancyByTrip(from, from.plusYears(2), null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("cannot exceed");
+        verifyNoInteractions(occupancyRepository);
+    }
+}
@@ -0,0 +1,224 @@
+package com.unimag.bustransport.services.impl;
+
+import com.unimag.bustransport.api.dto.RosterDtos;
+import com.unimag.bustransport.config.RosterProperties;
+import com.unimag.bustransport.domain.entities.Assignment;
+import com.unimag.bustransport.domain.entities.Role;
+import com.unimag.bustransport.domain.entities.Trip;
+import com.unimag.bustransport.domain.entities.User;
+import com.unimag.bustransport.domain.repositories.AssignmentRepository;
+import com.unimag.bustransport.domain.repositories.TripRepository;
+import com.unimag.bustransport.domain.repositories.UserRepository;
+import com.unimag.bustransport.exception.DuplicateResourceException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RosterServiceImplTest {
+
+    private static final LocalDate DAY = LocalDate.of(2030, 1, 7);
+
+    @Mock
+    private AssignmentRepository assignmentRepository;
+
+    @Mock
+    private TripRepository tripRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Spy
+    private RosterProperties properties = new RosterProperties();
+
+    @InjectMocks
+    private RosterServiceImpl rosterService;
+
+    private OffsetDateTime at(int hours) {
+        return OffsetDateTime.parse("2030-01-07T00:00:00-05:00").plusHours(hours);
+    }
+
+    private User givenUser(Long id, Role role) {
+        return User.builder().id(id).name("User " + id).role(role).status(User.Status.ACTIVE).build();
+    }
+
+    private Trip givenTrip(Long id, int departureHour, int arrivalHour) {
+        return Trip.builder().id(id).date(DAY).departureAt(at(departureHour)).arrivalAt(at(arrivalHour))
+                .status(Trip.Status.SCHEDULED).build();
+    }
+
+    private AssignmentRepository.DriverDuty duty(Long driverId, Long tripId, OffsetDateTime departureAt,
+                                                 OffsetDateTime arrivalAt) {
+        return new AssignmentRepository.DriverDuty() {
+            @Override
+            public Long getDriverId() {
+                return driverId;
+            }
+
+            @Override
+            public Long getTripId() {
+                return tripId;
+            }
+
+            @Override
+            public OffsetDateTime getDepartureAt() {
+                return departureAt;
+            }
+
+            @Override
+            public OffsetDateTime getArrivalAt() {
+                return arrivalAt;
+            }
+        };
+    }
+
+    private void givenDispatcher() {
+        when(userRepository.findById(9L)).thenReturn(Optional.of(givenUser(9L, Role.ROLE_DISPATCHER)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    @DisplayName("Debe asignar por mejor ajuste respetando el descanso y guardar con un solo saveAll")
+    void autoAssign_ShouldUseBestFitDriver() {
+        givenDispatcher();
+        when(userRepository.findByRoleAndStatusForUpdate(Role.ROLE_DRIVER, User.Status.ACTIVE))
+                .thenReturn(List.of(givenUser(1L, Role.ROLE_DRIVER), givenUser(2L, Role.ROLE_DRIVER)));
+        when(tripRepository.findUnassignedScheduled(at(0), at(24))).thenReturn(List.of(
+                givenTrip(101L, 6, 8), givenTrip(102L, 7, 9), givenTrip(103L, 9, 11), givenTrip(104L, 11, 12)));
+        when(assignmentRepository.findDriverDuties(anyCollection(), any(), any(), any())).thenReturn(List.of());
+
+        RosterDtos.AutoAssignResponse response =
+                rosterService.autoAssign(new RosterDtos.AutoAssignRequest(DAY, 9L, null), false);
+
+        // 103 sale a las 9: el conductor 2 llega a esa hora sin descanso, el 1 llegó a las 8
+        assertThat(response.assignments()).extracting(RosterDtos.DriverAssignment::driverId)
+                .containsExactly(1L, 2L, 1L, 2L);
+        assertThat(response.assigned()).isEqualTo(4);
+        assertThat(response.unassigned()).isEmpty();
+
+        ArgumentCaptor<List<Assignment>> captor = ArgumentCaptor.forClass(List.class);
+        verify(assignmentRepository).saveAll(captor.capture());
+        assertThat(captor.getValue()).hasSize(4)
+                .allMatch(assignment -> assignment.getDispatcher().getId() == 9L && !assignment.getChecklistOk());
+        verify(userRepository, never()).findByRoleAndStatus(any(), any());
+    }
+
+    @Test
+    @DisplayName("Debe tener en cuenta los turnos ya asignados y dejar sin asignar lo que nadie puede tomar")
+    void autoAssign_ShouldRespectExistingDuties() {
+        givenDispatcher();
+        when(userRepository.findByRoleAndStatus(Role.ROLE_DRIVER, User.Status.ACTIVE))
+                .thenReturn(List.of(givenUser(1L, Role.ROLE_DRIVER), givenUser(2L, Role.ROLE_DRIVER)));
+        when(tripRepository.findUnassignedScheduled(at(0), at(24)))
+                .thenReturn(List.of(givenTrip(101L, 6, 8), givenTrip(102L, 6, 8)));
+        when(assignmentRepository.findDriverDuties(anyCollection(), any(), any(), any()))
+                .thenReturn(List.of(duty(1L, 50L, at(5), at(7))));
+
+        RosterDtos.AutoAssignResponse response =
+                rosterService.autoAssign(new RosterDtos.AutoAssignRequest(DAY, 9L, List.of()), true);
+
+        assertThat(response.assignments()).extracting(RosterDtos.DriverAssignment::driverId).containsExactly(2L);
+        assertThat(response.unassigned()).extracting(RosterDtos.UnassignedTrip::tripId).containsExactly(102L);
+        assertThat(response.dryRun()).isTrue();
+        verify(assignmentRepository, never()).saveAll(any());
+        verify(userRepository, never()).findByRoleAndStatusForUpdate(any(), any());
+    }
+
+    @Test
+    @DisplayName("Debe bloquear solo los conductores pedidos, en orden de id")
+    void autoAssign_ShouldLockOnlyRequestedDrivers() {
+        givenDispatcher();
+        when(userRepository.findAllByIdForUpdate(List.of(1L, 2L)))
+                .thenReturn(List.of(givenUser(1L, Role.ROLE_DRIVER), givenUser(2L, Role.ROLE_DRIVER)));
+        when(tripRepository.findUnassignedScheduled(at(0), at(24))).thenReturn(List.of(givenTrip(101L, 6, 8)));
+        when(assignmentRepository.findDriverDuties(anyCollection(), any(), any(), any())).thenReturn(List.of());
+
+        RosterDtos.AutoAssignResponse response =
+                rosterService.autoAssign(new RosterDtos.AutoAssignRequest(DAY, 9L, List.of(2L, 1L, 2L)), false);
+
+        assertThat(response.assigned()).isEqualTo(1);
+        verify(userRepository, never()).findByRoleAndStatusForUpdate(any(), any());
+    }
+
+    @Test
+    @DisplayName("Debe rechazar conductores que no están activos")
+    void autoAssign_ShouldRejectUnknownDriver() {
+        givenDispatcher();
+        when(userRepository.findAllById(List.of(1L, 3L)))
+                .thenReturn(List.of(givenUser(1L, Role.ROLE_DRIVER), givenUser(3L, Role.ROLE_DISPATCHER)));
+
+        assertThatThrownBy(() -> rosterService.autoAssign(new RosterDtos.AutoAssignRequest(DAY, 9L, List.of(3L, 1L)), true))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Driver with ID 3 is not an active driver");
+
+        verifyNoInteractions(tripRepository, assignmentRepository);
+    }
+
+    @Test
+    @DisplayName("Debe rechazar un despachador con otro rol")
+    void autoAssign_ShouldRejectInvalidDispatcher() {
+        when(userRepository.findById(9L)).thenReturn(Optional.of(givenUser(9L, Role.ROLE_DRIVER)));
+
+        assertThatThrownBy(() -> rosterService.autoAssign(new RosterDtos.AutoAssignRequest(DAY, 9L, null), false))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid Dispatcher");
+    }
+
+    @Test
+    @DisplayName("Debe reportar cada choque una vez y contar los turnos del día anterior")
+    void findConflicts_ShouldReportOverlapAndRest() {
+        when(assignmentRepository.findAllDuties(any(), eq(at(0).minusMinutes(30)), eq(at(24)))).thenReturn(List.of(
+                duty(1L, 40L, at(-3), at(0)),
+                duty(1L, 41L, at(0).plusMinutes(10), at(3)),
+                duty(2L, 42L, at(6), at(9)),
+                duty(2L, 43L, at(8), at(10))));
+
+        List<RosterDtos.RosterConflict> conflicts = rosterService.findConflicts(DAY);
+
+        assertThat(conflicts).extracting(RosterDtos.RosterConflict::tripId,
+                        RosterDtos.RosterConflict::conflictingTripId, RosterDtos.RosterConflict::violation)
+                .containsExactly(
+                        tuple(41L, 40L, "REST"),
+                        tuple(43L, 42L, "OVERLAP"));
+    }
+
+    @Test
+    @DisplayName("Debe lanzar DuplicateResourceException si el conductor ya tiene un viaje que se cruza")
+    void checkDriverAvailability_ShouldThrowOnOverlap() {
+        when(assignmentRepository.findDriverDuties(eq(List.of(1L)), any(), any(), any()))
+                .thenReturn(List.of(duty(1L, 7L, at(8), at(10))));
+
+        assertThatThrownBy(() -> rosterService.checkDriverAvailability(1L, at(9), at(11)))
+                .isInstanceOf(DuplicateResourceException.class)
+                .hasMessageContaining("Driver already has trip 7");
+    }
+
+    @Test
+    @DisplayName("Debe lanzar IllegalStateException si el viaje excede el tope diario de conducción")
+    void checkDriverAvailability_ShouldThrowOnDailyLimit() {
+        when(assignmentRepository.findDriverDuties(eq(List.of(1L)), any(), any(), any()))
+                .thenReturn(List.of(duty(1L, 7L, at(4), at(12))));
+
+        assertThatThrownBy(() -> rosterService.checkDriverAvailability(1L, at(13), at(15)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("the daily limit is 540");
+    }
+}
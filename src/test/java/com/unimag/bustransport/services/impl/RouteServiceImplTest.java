@@ -2,6 +2,7 @@ package com.unimag.bustransport.services.impl;
 
 import com.unimag.bustransport.api.dto.RouteDtos;
 import com.unimag.bustransport.api.dto.StopDtos;
+import com.unimag.bustransport.api.dto.PageDtos;
 import com.unimag.bustransport.domain.entities.Route;
 import com.unimag.bustransport.domain.entities.Stop;
 import com.unimag.bustransport.domain.repositories.RouteRepository;
@@ -17,6 +18,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
 import java.util.List;
 import java.util.Optional;
@@ -183,15 +185,17 @@ class RouteServiceImplTest {
                 givenRoute()
         );
 
-        when(routeRepository.findAll()).thenReturn(routes);
+        when(routeRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(51))).thenReturn(routes);
 
         // When
-        List<RouteDtos.RouteResponse> result = routeService.getAllRoutes();
+        PageDtos.CursorPage<RouteDtos.RouteResponse> result = routeService.getAllRoutes(null, null);
 
         // Then
-        assertThat(result).hasSize(2);
+        assertThat(result.items()).hasSize(2);
+        assertThat(result.limit()).isEqualTo(50);
+        assertThat(result.hasMore()).isFalse();
 
-        verify(routeRepository, times(1)).findAll();
+        verify(routeRepository, times(1)).findByIdGreaterThanOrderByIdAsc(0L, Limit.of(51));
     }
 
     @Test
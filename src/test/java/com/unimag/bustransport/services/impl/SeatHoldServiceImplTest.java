@@ -6,6 +6,7 @@ import com.unimag.bustransport.domain.repositories.SeatHoldRepository;
 import com.unimag.bustransport.domain.repositories.TripRepository;
 import com.unimag.bustransport.domain.repositories.UserRepository;
 import com.unimag.bustransport.exception.NotFoundException;
+import com.unimag.bustransport.seatmap.SeatMapEvent;
 import com.unimag.bustransport.services.ConfigService;
 import com.unimag.bustransport.services.mapper.SeatHoldMapper;
 import org.junit.jupiter.api.DisplayName;
@@ -16,6 +17,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
@@ -44,6 +46,9 @@ class SeatHoldServiceImplTest {
     @Mock
     private ConfigService configService;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @Spy
     private final SeatHoldMapper seatHoldMapper = Mappers.getMapper(SeatHoldMapper.class);
     @InjectMocks
@@ -124,6 +129,8 @@ class SeatHoldServiceImplTest {
         verify(tripRepository, times(1)).findById(1L);
         verify(userRepository, times(1)).findById(1L);
         verify(seatHoldRepository, times(1)).save(any(SeatHold.class));
+        verify(eventPublisher).publishEvent(argThat((Object e) -> e instanceof SeatMapEvent ev
+                && ev.state() == SeatMapEvent.SeatState.HELD && ev.seatNumber().equals("A1")));
     }
 
     @Test
@@ -181,6 +188,8 @@ class SeatHoldServiceImplTest {
         // Then
         verify(seatHoldRepository, times(1)).findById(1L);
         verify(seatHoldRepository, times(1)).save(seatHold);
+        verify(eventPublisher).publishEvent(argThat((Object e) -> e instanceof SeatMapEvent ev
+                && ev.state() == SeatMapEvent.SeatState.RELEASED));
     }
 
     @Test
@@ -1,12 +1,18 @@
 package com.unimag.bustransport.services.impl;
 
 import com.unimag.bustransport.api.dto.TicketDtos;
+import com.unimag.bustransport.api.dto.PageDtos;
 import com.unimag.bustransport.domain.entities.*;
 import com.unimag.bustransport.domain.repositories.*;
 import com.unimag.bustransport.exception.DuplicateResourceException;
 import com.unimag.bustransport.exception.InvalidCredentialsException;
 import com.unimag.bustransport.exception.NotFoundException;
+import com.unimag.bustransport.kpi.KpiEvent;
 import com.unimag.bustransport.notification.NotificationHelper;
+import com.unimag.bustransport.security.qr.QrPayload;
+import com.unimag.bustransport.security.qr.QrProperties;
+import com.unimag.bustransport.security.qr.TicketQrSigner;
+import com.unimag.bustransport.services.BoardingManifestService;
 import com.unimag.bustransport.services.ConfigService;
 import com.unimag.bustransport.services.mapper.TicketMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,16 +20,20 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mapstruct.factory.Mappers;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -46,8 +56,16 @@ class TicketServiceImplTest {
     private ConfigService configService;
     @Mock
     private NotificationHelper notificationHelper;
+    @Mock
+    private KpiRepository kpiRepository;
+    @Mock
+    private BoardingManifestService boardingManifestService;
     @Spy
     private TicketMapper ticketMapper = Mappers.getMapper(TicketMapper.class);
+    @Spy
+    private TicketQrSigner qrSigner = new TicketQrSigner(givenQrProperties("test-qr-secret"));
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
     @InjectMocks
     private TicketServiceImpl ticketService;
 
@@ -137,6 +155,72 @@ class TicketServiceImplTest {
         verify(ticketRepository, never()).save(any());
     }
 
+    @Test
+    @DisplayName("Debe crear los tickets de una compra con una consulta por entidad y un solo saveAll")
+    @SuppressWarnings("unchecked")
+    void createTickets_ShouldSaveAllInOneBatch() {
+        // Given
+        TicketDtos.TicketCreateRequest second = new TicketDtos.TicketCreateRequest(
+                "1B", BigDecimal.valueOf(45000), 1L, 1L, 1L, 2L, 1L);
+        when(tripRepository.findAllById(Set.of(1L))).thenReturn(List.of(trip));
+        when(passengerRepository.findAllById(Set.of(1L))).thenReturn(List.of(passenger));
+        when(stopRepository.findAllById(Set.of(1L, 2L))).thenReturn(List.of(fromStop, toStop));
+        when(purchaseRepository.findAllById(Set.of(1L))).thenReturn(List.of(purchase));
+        when(ticketRepository.findOverlappingTickets(eq(1L), anyString(), eq(0), eq(5))).thenReturn(List.of());
+        when(ticketRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        List<TicketDtos.TicketResponse> responses = ticketService.createTickets(List.of(createRequest, second));
+
+        // Then
+        assertThat(responses).extracting(TicketDtos.TicketResponse::seatNumber).containsExactly("1A", "1B");
+        assertThat(responses).extracting(TicketDtos.TicketResponse::status).containsOnly("PENDING");
+        ArgumentCaptor<List<Ticket>> captor = ArgumentCaptor.forClass(List.class);
+        verify(ticketRepository).saveAll(captor.capture());
+        assertThat(captor.getValue()).allMatch(saved -> saved.getTrip() == trip && saved.getPurchase() == purchase);
+        verify(ticketRepository, never()).save(any());
+        verify(tripRepository, never()).findById(any());
+    }
+
+    @Test
+    @DisplayName("No debe guardar ningún ticket de la compra si uno ya está ocupado")
+    void createTickets_ShouldSaveNothing_WhenOneSeatIsOccupied() {
+        // Given
+        TicketDtos.TicketCreateRequest occupied = new TicketDtos.TicketCreateRequest(
+                "1B", BigDecimal.valueOf(45000), 1L, 1L, 1L, 2L, 1L);
+        when(tripRepository.findAllById(Set.of(1L))).thenReturn(List.of(trip));
+        when(passengerRepository.findAllById(Set.of(1L))).thenReturn(List.of(passenger));
+        when(stopRepository.findAllById(Set.of(1L, 2L))).thenReturn(List.of(fromStop, toStop));
+        when(purchaseRepository.findAllById(Set.of(1L))).thenReturn(List.of(purchase));
+        when(ticketRepository.findOverlappingTickets(1L, "1A", 0, 5)).thenReturn(List.of());
+        when(ticketRepository.findOverlappingTickets(1L, "1B", 0, 5))
+                .thenReturn(List.of(createTicket(2L, "1B", trip, passenger, fromStop, toStop, purchase)));
+
+        // When & Then
+        assertThatThrownBy(() -> ticketService.createTickets(List.of(createRequest, occupied)))
+                .isInstanceOf(DuplicateResourceException.class)
+                .hasMessageContaining("El asiento 1B ya está ocupado");
+
+        verify(ticketRepository, never()).saveAll(any());
+    }
+
+    @Test
+    @DisplayName("Debe lanzar NotFoundException si la parada de un ticket de la compra no existe")
+    void createTickets_ShouldThrowNotFound_WhenStopDoesNotExist() {
+        // Given
+        when(tripRepository.findAllById(Set.of(1L))).thenReturn(List.of(trip));
+        when(passengerRepository.findAllById(Set.of(1L))).thenReturn(List.of(passenger));
+        when(stopRepository.findAllById(Set.of(1L, 2L))).thenReturn(List.of(fromStop));
+        when(purchaseRepository.findAllById(Set.of(1L))).thenReturn(List.of(purchase));
+
+        // When & Then
+        assertThatThrownBy(() -> ticketService.createTickets(List.of(createRequest)))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessageContaining("Stop with ID 2 not found");
+
+        verify(ticketRepository, never()).saveAll(any());
+    }
+
 
     @Test
     @DisplayName("Debe lanzar DuplicateResourceException si el asiento está ocupado en el tramo")
@@ -209,25 +293,55 @@ class TicketServiceImplTest {
     }
 
     @Test
-    @DisplayName("Debe obtener todos los tickets de un trip")
-    void getTicketsByTrip_ShouldReturnAllTickets() {
+    @DisplayName("Debe paginar los tickets de un trip por keyset")
+    void getTicketsByTrip_ShouldReturnFirstPageWithCursor() {
         // Given
         Ticket ticket2 = createTicket(2L, "1B", trip, passenger, fromStop, toStop, purchase);
         Ticket ticket3 = createTicket(3L, "1C", trip, passenger, fromStop, toStop, purchase);
 
-        when(ticketRepository.findByTripId(1L))
+        when(ticketRepository.findByTripIdAndIdGreaterThanOrderByIdAsc(1L, 0L, Limit.of(3)))
                 .thenReturn(List.of(ticket, ticket2, ticket3));
 
         // When
-        List<TicketDtos.TicketResponse> responses = ticketService.getTicketsByTrip(1L);
+        PageDtos.CursorPage<TicketDtos.TicketResponse> page = ticketService.getTicketsByTrip(1L, null, 2);
 
         // Then
-        assertThat(responses)
-                .hasSize(3)
+        assertThat(page.items())
                 .extracting(TicketDtos.TicketResponse::seatNumber)
-                .containsExactly("1A", "1B", "1C");
+                .containsExactly("1A", "1B");
+        assertThat(page.hasMore()).isTrue();
+        assertThat(page.nextCursor()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Debe continuar la paginación de tickets desde el cursor")
+    void getTicketsByTrip_WithCursor_ShouldSeekAfterLastId() {
+        // Given
+        Ticket ticket3 = createTicket(3L, "1C", trip, passenger, fromStop, toStop, purchase);
+        Ticket ticket2 = createTicket(2L, "1B", trip, passenger, fromStop, toStop, purchase);
+        when(ticketRepository.findByTripIdAndIdGreaterThanOrderByIdAsc(1L, 0L, Limit.of(3)))
+                .thenReturn(List.of(ticket, ticket2, ticket3));
+        String cursor = ticketService.getTicketsByTrip(1L, null, 2).nextCursor();
+
+        when(ticketRepository.findByTripIdAndIdGreaterThanOrderByIdAsc(1L, 2L, Limit.of(3)))
+                .thenReturn(List.of(ticket3));
 
-        verify(ticketRepository).findByTripId(1L);
+        // When
+        PageDtos.CursorPage<TicketDtos.TicketResponse> page = ticketService.getTicketsByTrip(1L, cursor, 2);
+
+        // Then
+        assertThat(page.items()).extracting(TicketDtos.TicketResponse::seatNumber).containsExactly("1C");
+        assertThat(page.hasMore()).isFalse();
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("Debe rechazar un cursor inválido")
+    void getTicketsByTrip_InvalidCursor_ShouldFail() {
+        assertThatThrownBy(() -> ticketService.getTicketsByTrip(1L, "not-a-cursor", 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+        verifyNoInteractions(ticketRepository);
     }
 
     @Test
@@ -287,7 +401,9 @@ class TicketServiceImplTest {
         verify(ticketRepository).findById(1L);
         verify(ticketRepository).save(ticket);
         assertThat(ticket.getQrCode()).isNotNull();
-        assertThat(ticket.getQrCode()).startsWith("TICKET-");
+        assertThat(ticket.getQrCode()).startsWith(TicketQrSigner.PREFIX);
+        assertThat(qrSigner.verify(ticket.getQrCode()))
+                .isEqualTo(new QrPayload(1L, 1L, ticket.getSeatNumber(), 0, 5));
     }
 
     @Test
@@ -345,6 +461,61 @@ class TicketServiceImplTest {
                 .hasMessageContaining("El ticket no está activo (status: PENDING)");
     }
 
+    @Test
+    @DisplayName("Debe abordar con QR firmado usando una sola actualización")
+    void validateQrForTicket_SignedQr_ShouldBoardWithoutLookup() {
+        // Given
+        String qr = qrSigner.sign(new QrPayload(1L, 1L, "1A", 0, 5));
+        when(ticketRepository.markBoarded(1L, qr)).thenReturn(1);
+
+        // When
+        ticketService.validateQrForTicket(qr, 1L);
+
+        // Then
+        verify(ticketRepository).markBoarded(1L, qr);
+        verify(ticketRepository, never()).findById(any());
+        verify(ticketRepository, never()).findByQrCode(any());
+    }
+
+    @Test
+    @DisplayName("Debe rechazar sin consultar la BD un QR de otro viaje")
+    void validateQrForTicket_SignedQr_ShouldRejectWrongTrip() {
+        String qr = qrSigner.sign(new QrPayload(1L, 1L, "1A", 0, 5));
+
+        assertThatThrownBy(() -> ticketService.validateQrForTicket(qr, 2L))
+                .isInstanceOf(InvalidCredentialsException.class)
+                .hasMessageContaining("otro viaje");
+
+        verifyNoInteractions(ticketRepository);
+    }
+
+    @Test
+    @DisplayName("Debe rechazar sin consultar la BD un QR con firma alterada")
+    void validateQrForTicket_SignedQr_ShouldRejectForgedCode() {
+        String forged = new TicketQrSigner(givenQrProperties("otra-clave"))
+                .sign(new QrPayload(1L, 1L, "1A", 0, 5));
+
+        assertThatThrownBy(() -> ticketService.validateQrForTicket(forged, 1L))
+                .isInstanceOf(InvalidCredentialsException.class)
+                .hasMessageContaining("Firma del QR inválida");
+
+        verifyNoInteractions(ticketRepository);
+    }
+
+    @Test
+    @DisplayName("Debe explicar el motivo cuando el QR firmado no se puede abordar")
+    void validateQrForTicket_SignedQr_ShouldReportStatusWhenNotSold() {
+        String qr = qrSigner.sign(new QrPayload(1L, 1L, "1A", 0, 5));
+        ticket.setQrCode(qr);
+        ticket.setStatus(Ticket.Status.BOARDED);
+        when(ticketRepository.markBoarded(1L, qr)).thenReturn(0);
+        when(ticketRepository.findById(1L)).thenReturn(Optional.of(ticket));
+
+        assertThatThrownBy(() -> ticketService.validateQrForTicket(qr, 1L))
+                .isInstanceOf(InvalidCredentialsException.class)
+                .hasMessageContaining("El ticket no está activo (status: BOARDED)");
+    }
+
     @Test
     @DisplayName("Debe hacer reembolso de ticket más de 24 horas antes del viaje")
     void refundTicket_MoreThan24Hours_Success() {
@@ -366,6 +537,9 @@ class TicketServiceImplTest {
 
         // Then
         assertThat(ticketToRefund.getStatus()).isEqualTo(Ticket.Status.CANCELLED);
+        assertThat(ticketToRefund.getRefundPolicy()).isEqualTo(Ticket.RefundPolicy.OVER_24H);
+        assertThat(ticketToRefund.getRefundAmount()).isEqualByComparingTo("90000");
+        assertThat(ticketToRefund.getRefundedAt()).isNotNull();
         verify(configService).getValueAsBigDecimal("refund.>24");
         verify(purchaseRepository).save(purchase);
         verify(ticketRepository).save(ticketToRefund);
@@ -393,6 +567,7 @@ class TicketServiceImplTest {
 
         // Then
         assertThat(ticketToRefund.getStatus()).isEqualTo(Ticket.Status.CANCELLED);
+        assertThat(ticketToRefund.getRefundPolicy()).isEqualTo(Ticket.RefundPolicy.FROM_2H_TO_24H);
         verify(configService).getValueAsBigDecimal("refund.2to24");
         verify(purchaseRepository).save(purchase);
         verify(ticketRepository).save(ticketToRefund);
@@ -419,6 +594,7 @@ class TicketServiceImplTest {
 
         // Then
         assertThat(ticketToRefund.getStatus()).isEqualTo(Ticket.Status.CANCELLED);
+        assertThat(ticketToRefund.getRefundPolicy()).isEqualTo(Ticket.RefundPolicy.UNDER_2H);
         verify(configService).getValueAsBigDecimal("refund.<2");
     }
 
@@ -441,30 +617,93 @@ class TicketServiceImplTest {
     }
 
     @Test
-    @DisplayName("Debe procesar no-shows correctamente")
+    @DisplayName("Debe procesar no-shows con una sentencia por viaje")
     void processNoshows_ShouldMarkTicketsAsNoShow() {
         // Given
-        Trip departingTrip = createTrip(1L, bus, route);
-        departingTrip.setDepartureAt(OffsetDateTime.now().plusMinutes(3));
+        when(tripRepository.findTripIdsPendingNoShow(any(OffsetDateTime.class))).thenReturn(List.of(1L, 2L));
+        when(ticketRepository.markNoShowByTrip(1L)).thenReturn(2);
+        when(ticketRepository.markNoShowByTrip(2L)).thenReturn(0);
+        when(tripRepository.recordNoShowCounters(anyLong(), any(OffsetDateTime.class))).thenReturn(1);
+        when(tripRepository.noShowRateSince(any(OffsetDateTime.class))).thenReturn(0.25);
+        when(kpiRepository.findByName("no_show_rate_30d")).thenReturn(Optional.empty());
 
-        Ticket ticket1 = createTicket(1L, "1A", departingTrip, passenger, fromStop, toStop, purchase);
-        Ticket ticket2 = createTicket(2L, "1B", departingTrip, passenger, fromStop, toStop, purchase);
-        ticket1.setStatus(Ticket.Status.SOLD);
-        ticket2.setStatus(Ticket.Status.SOLD);
+        // When
+        ticketService.processNoshows();
 
-        when(ticketRepository.findTicketNoShow(any(OffsetDateTime.class)))
-                .thenReturn(List.of(ticket1, ticket2));
-        when(ticketRepository.save(any(Ticket.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        // Then
+        var inOrder = inOrder(boardingManifestService, ticketRepository, tripRepository);
+        inOrder.verify(boardingManifestService).releaseTrip(1L);
+        inOrder.verify(ticketRepository).markNoShowByTrip(1L);
+        inOrder.verify(tripRepository).recordNoShowCounters(eq(1L), any(OffsetDateTime.class));
+        verify(tripRepository).recordNoShowCounters(eq(2L), any(OffsetDateTime.class));
+        verify(ticketRepository, never()).save(any(Ticket.class));
+        verify(kpiRepository).save(argThat(kpi -> kpi.getName().equals("no_show_rate_30d") && kpi.getValue() == 0.25));
+    }
+
+    @Test
+    @DisplayName("Debe publicar el cierre del viaje para el motor de KPIs")
+    void processNoshows_ShouldPublishTripClosed() {
+        // Given
+        trip.setBoardedCount(30);
+        trip.setNoShowCount(2);
+        when(tripRepository.findTripIdsPendingNoShow(any(OffsetDateTime.class))).thenReturn(List.of(1L));
+        when(tripRepository.recordNoShowCounters(eq(1L), any(OffsetDateTime.class))).thenReturn(1);
+        when(tripRepository.findById(1L)).thenReturn(Optional.of(trip));
 
         // When
         ticketService.processNoshows();
 
         // Then
-        assertThat(ticket1.getStatus()).isEqualTo(Ticket.Status.NO_SHOW);
-        assertThat(ticket2.getStatus()).isEqualTo(Ticket.Status.NO_SHOW);
-        verify(ticketRepository).findTicketNoShow(any(OffsetDateTime.class));
-        verify(ticketRepository, times(2)).save(any(Ticket.class));
+        verify(eventPublisher).publishEvent(argThat((Object event) ->
+                event instanceof KpiEvent.TripClosed closed
+                        && closed.tripId().equals(1L)
+                        && closed.boarded() == 30
+                        && closed.noShows() == 2
+                        && closed.capacity() == bus.getCapacity()));
     }
+
+    @Test
+    @DisplayName("No debe publicar el cierre si otro nodo ya procesó el viaje")
+    void processNoshows_ShouldSkipTripClosedByAnotherNode() {
+        // Given
+        when(tripRepository.findTripIdsPendingNoShow(any(OffsetDateTime.class))).thenReturn(List.of(1L));
+        when(tripRepository.recordNoShowCounters(eq(1L), any(OffsetDateTime.class))).thenReturn(0);
+
+        // When
+        ticketService.processNoshows();
+
+        // Then
+        verify(tripRepository, never()).findById(anyLong());
+        verifyNoInteractions(eventPublisher, kpiRepository);
+    }
+
+    @Test
+    @DisplayName("Debe continuar con los demás viajes si uno falla")
+    void processNoshows_ShouldIsolateTripFailures() {
+        // Given
+        when(tripRepository.findTripIdsPendingNoShow(any(OffsetDateTime.class))).thenReturn(List.of(1L, 2L));
+        when(ticketRepository.markNoShowByTrip(1L)).thenThrow(new RuntimeException("db error"));
+        when(ticketRepository.markNoShowByTrip(2L)).thenReturn(1);
+
+        // When
+        ticketService.processNoshows();
+
+        // Then
+        verify(tripRepository, never()).recordNoShowCounters(eq(1L), any(OffsetDateTime.class));
+        verify(tripRepository).recordNoShowCounters(eq(2L), any(OffsetDateTime.class));
+    }
+
+    @Test
+    @DisplayName("No debe hacer nada si ningún viaje cruzó el umbral")
+    void processNoshows_ShouldSkipWhenNoTrips() {
+        when(tripRepository.findTripIdsPendingNoShow(any(OffsetDateTime.class))).thenReturn(List.of());
+
+        ticketService.processNoshows();
+
+        verifyNoInteractions(boardingManifestService, kpiRepository);
+        verify(ticketRepository, never()).markNoShowByTrip(anyLong());
+    }
+
     @Test
     @DisplayName("Debe limpiar tickets PENDING expirados exitosamente")
     void expireOldTickets_ShouldCleanupExpiredTickets() {
@@ -598,4 +837,10 @@ class TicketServiceImplTest {
         ticket.setPurchase(purchase);
         return ticket;
     }
+
+    private static QrProperties givenQrProperties(String secret) {
+        QrProperties properties = new QrProperties();
+        properties.setSecret(secret);
+        return properties;
+    }
 }
@@ -0,0 +1,213 @@
+package com.unimag.bustransport.services.impl;
+
+import com.unimag.bustransport.api.dto.TimetableDtos;
+import com.unimag.bustransport.config.TimetableProperties;
+import com.unimag.bustransport.domain.entities.Bus;
+import com.unimag.bustransport.domain.entities.Route;
+import com.unimag.bustransport.domain.entities.Trip;
+import com.unimag.bustransport.domain.repositories.BusRepository;
+import com.unimag.bustransport.domain.repositories.RouteRepository;
+import com.unimag.bustransport.domain.repositories.TripRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TimetableServiceImplTest {
+
+    private static final ZoneId BOGOTA = ZoneId.of("America/Bogota");
+
+    @Mock
+    private TripRepository tripRepository;
+
+    @Mock
+    private RouteRepository routeRepository;
+
+    @Mock
+    private BusRepository busRepository;
+
+    @Spy
+    private TimetableProperties properties = new TimetableProperties();
+
+    @InjectMocks
+    private TimetableServiceImpl timetableService;
+
+    private final LocalDate monday = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+
+    private Bus givenBus(Long id, Bus.Status status) {
+        return Bus.builder().id(id).plate("BUS-" + id).capacity(40).status(status).build();
+    }
+
+    private void givenRouteAndBuses(Bus... buses) {
+        when(routeRepository.findById(1L)).thenReturn(Optional.of(Route.builder().id(1L).code("R001").build()));
+        when(busRepository.findAllById(anyCollection())).thenReturn(List.of(buses));
+    }
+
+    private TimetableDtos.TimetableRequest request(Set<DayOfWeek> days, List<LocalTime> times, int durationMinutes,
+                                                   List<Long> busIds) {
+        return new TimetableDtos.TimetableRequest(1L, monday, monday.plusDays(6), days, times, durationMinutes,
+                busIds, BOGOTA, 10.0);
+    }
+
+    private TripRepository.BusInterval busy(Long busId, OffsetDateTime departureAt, OffsetDateTime arrivalAt) {
+        return new TripRepository.BusInterval() {
+            @Override
+            public Long getTripId() {
+                return 99L;
+            }
+
+            @Override
+            public Long getBusId() {
+                return busId;
+            }
+
+            @Override
+            public OffsetDateTime getDepartureAt() {
+                return departureAt;
+            }
+
+            @Override
+            public OffsetDateTime getArrivalAt() {
+                return arrivalAt;
+            }
+        };
+    }
+
+    @Test
+    @DisplayName("Debe expandir el patrón por días y horas rotando los buses")
+    void shouldExpandPatternWithBusRotation() {
+        givenRouteAndBuses(givenBus(1L, Bus.Status.ACTIVE), givenBus(2L, Bus.Status.ACTIVE));
+        when(tripRepository.findBusyIntervals(anyCollection(), any(), any(), any())).thenReturn(List.of());
+
+        TimetableDtos.TimetableResponse response = timetableService.preview(request(
+                Set.of(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY),
+                List.of(LocalTime.of(14, 0), LocalTime.of(6, 0)), 240, List.of(1L, 2L)));
+
+        assertThat(response.planned()).isEqualTo(4);
+        assertThat(response.conflicts()).isEmpty();
+        assertThat(response.trips()).extracting(TimetableDtos.PlannedTrip::date)
+                .containsExactly(monday, monday, monday.plusDays(2), monday.plusDays(2));
+        assertThat(response.trips()).extracting(TimetableDtos.PlannedTrip::busId).containsExactly(1L, 2L, 1L, 2L);
+        TimetableDtos.PlannedTrip first = response.trips().get(0);
+        assertThat(first.departureAt()).isEqualTo(monday.atTime(6, 0).atZone(BOGOTA).toOffsetDateTime());
+        assertThat(first.arrivalAt()).isEqualTo(first.departureAt().plusHours(4));
+        verify(tripRepository, never()).saveAll(any());
+    }
+
+    @Test
+    @DisplayName("Debe saltar al siguiente bus de la rotación si el que toca ya tiene un viaje")
+    void shouldSkipBusyBusInRotation() {
+        givenRouteAndBuses(givenBus(1L, Bus.Status.ACTIVE), givenBus(2L, Bus.Status.ACTIVE));
+        OffsetDateTime busyFrom = monday.atTime(5, 0).atZone(BOGOTA).toOffsetDateTime();
+        when(tripRepository.findBusyIntervals(anyCollection(), any(), any(), any()))
+                .thenReturn(List.of(busy(1L, busyFrom, busyFrom.plusHours(3))));
+
+        TimetableDtos.TimetableResponse response = timetableService.preview(request(
+                Set.of(DayOfWeek.MONDAY), List.of(LocalTime.of(6, 0), LocalTime.of(14, 0)), 240, List.of(1L, 2L)));
+
+        assertThat(response.trips()).extracting(TimetableDtos.PlannedTrip::busId).containsExactly(2L, 1L);
+        assertThat(response.conflicts()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Debe reportar conflicto cuando ningún bus está libre, incluidos los viajes recién planeados")
+    void shouldReportConflictWhenNoBusIsFree() {
+        givenRouteAndBuses(givenBus(1L, Bus.Status.ACTIVE));
+        when(tripRepository.findBusyIntervals(anyCollection(), any(), any(), any())).thenReturn(List.of());
+
+        TimetableDtos.TimetableResponse response = timetableService.preview(request(
+                Set.of(DayOfWeek.MONDAY), List.of(LocalTime.of(6, 0), LocalTime.of(8, 0)), 240, List.of(1L)));
+
+        assertThat(response.planned()).isEqualTo(1);
+        assertThat(response.conflicts()).extracting(TimetableDtos.TimetableConflict::reason)
+                .containsExactly("No bus in the rotation is available");
+        assertThat(response.conflicts().get(0).departureAt())
+                .isEqualTo(monday.atTime(8, 0).atZone(BOGOTA).toOffsetDateTime());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    @DisplayName("Debe bloquear los buses y guardar los viajes con un solo saveAll")
+    void shouldGenerateTripsInOneSaveAll() {
+        when(routeRepository.findById(1L)).thenReturn(Optional.of(Route.builder().id(1L).code("R001").build()));
+        when(busRepository.findAllByIdForUpdate(anyCollection()))
+                .thenReturn(List.of(givenBus(1L, Bus.Status.ACTIVE), givenBus(2L, Bus.Status.ACTIVE)));
+        when(tripRepository.findBusyIntervals(anyCollection(), any(), any(), any())).thenReturn(List.of());
+        when(tripRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        TimetableDtos.TimetableResponse response = timetableService.generate(request(
+                Set.of(DayOfWeek.values()), List.of(LocalTime.of(6, 0), LocalTime.of(14, 0)), 240, List.of(1L, 2L)), false);
+
+        assertThat(response.created()).isEqualTo(14);
+        assertThat(response.dryRun()).isFalse();
+        assertThat(response.trips()).isEmpty();
+
+        ArgumentCaptor<List<Trip>> captor = ArgumentCaptor.forClass(List.class);
+        verify(tripRepository).saveAll(captor.capture());
+        assertThat(captor.getValue()).hasSize(14)
+                .allMatch(trip -> trip.getStatus() == Trip.Status.SCHEDULED && trip.getOverbookingPercent() == 10.0);
+        verify(busRepository, never()).findAllById(any());
+    }
+
+    @Test
+    @DisplayName("Debe validar sin bloquear ni guardar en modo dry-run")
+    void shouldNotWriteOnDryRun() {
+        givenRouteAndBuses(givenBus(1L, Bus.Status.ACTIVE));
+        when(tripRepository.findBusyIntervals(anyCollection(), any(), any(), any())).thenReturn(List.of());
+
+        TimetableDtos.TimetableResponse response = timetableService.generate(request(
+                Set.of(DayOfWeek.MONDAY), List.of(LocalTime.of(6, 0)), 240, List.of(1L)), true);
+
+        assertThat(response.planned()).isEqualTo(1);
+        assertThat(response.created()).isZero();
+        verify(busRepository, never()).findAllByIdForUpdate(any());
+        verify(tripRepository, never()).saveAll(any());
+    }
+
+    @Test
+    @DisplayName("Debe rechazar solicitudes que superan el tope de viajes antes de consultar la BD")
+    void shouldRejectTooManyTrips() {
+        properties.setMaxTrips(5);
+
+        assertThatThrownBy(() -> timetableService.generate(request(
+                Set.of(DayOfWeek.values()), List.of(LocalTime.of(6, 0)), 240, List.of(1L)), false))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("would create 7 trips");
+
+        verifyNoInteractions(routeRepository, busRepository, tripRepository);
+    }
+
+    @Test
+    @DisplayName("Debe rechazar buses inactivos en la rotación")
+    void shouldRejectInactiveBus() {
+        givenRouteAndBuses(givenBus(1L, Bus.Status.ACTIVE), givenBus(2L, Bus.Status.IN_REPAIR));
+
+        assertThatThrownBy(() -> timetableService.preview(request(
+                Set.of(DayOfWeek.MONDAY), List.of(LocalTime.of(6, 0)), 240, List.of(1L, 2L))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Bus with ID 2 is not ACTIVE");
+
+        verifyNoInteractions(tripRepository);
+    }
+}
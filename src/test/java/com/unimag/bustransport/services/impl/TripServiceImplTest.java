@@ -6,6 +6,7 @@ import com.unimag.bustransport.domain.entities.*;
 import com.unimag.bustransport.domain.repositories.BusRepository;
 import com.unimag.bustransport.domain.repositories.RouteRepository;
 import com.unimag.bustransport.domain.repositories.TripRepository;
+import com.unimag.bustransport.exception.DuplicateResourceException;
 import com.unimag.bustransport.exception.NotFoundException;
 import com.unimag.bustransport.services.mapper.TripMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -21,7 +22,6 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -90,7 +90,7 @@ class TripServiceImplTest {
         // Given
         when(routeRepository.findById(1L)).thenReturn(Optional.of(route));
         when(busRepository.findById(1L)).thenReturn(Optional.of(bus));
-        when(tripRepository.findByBusIdAndStatus(eq(1L), any())).thenReturn(new ArrayList<>());
+        when(tripRepository.findBusyIntervals(eq(List.of(1L)), any(), any(), any())).thenReturn(List.of());
         when(tripRepository.save(any(Trip.class))).thenAnswer(invocation -> {
             Trip saved = invocation.getArgument(0);
             saved.setId(2L);
@@ -156,6 +156,45 @@ class TripServiceImplTest {
         verify(tripRepository).save(any(Trip.class));
     }
 
+    @Test
+    @DisplayName("Debe rechazar el viaje si el bus ya tiene otro que se cruza, consultando solo el rango")
+    void createTrip_ShouldThrowDuplicate_WhenBusIsBusy() {
+        // Given
+        OffsetDateTime departure = createRequest.departureAt();
+        when(routeRepository.findById(1L)).thenReturn(Optional.of(route));
+        when(busRepository.findById(1L)).thenReturn(Optional.of(bus));
+        when(tripRepository.findBusyIntervals(eq(List.of(1L)), eq(departure.minusHours(33)), eq(departure),
+                eq(createRequest.arrivalAt())))
+                .thenReturn(List.of(busyInterval(7L, departure.minusHours(1), departure.plusHours(1))));
+
+        // When & Then
+        assertThatThrownBy(() -> tripService.createTrip(createRequest))
+                .isInstanceOf(DuplicateResourceException.class)
+                .hasMessageContaining("Another trip (ID : 7)");
+
+        verify(tripRepository, never()).findByBusIdAndStatus(anyLong(), any());
+        verify(tripRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Debe ignorar el propio viaje al validar la disponibilidad en una actualización")
+    void updateTrip_ShouldExcludeItselfFromAvailability() {
+        // Given
+        when(tripRepository.findById(1L)).thenReturn(Optional.of(trip));
+        when(tripRepository.countSoldTickets(1L)).thenReturn(0L);
+        when(tripRepository.findBusyIntervals(eq(List.of(1L)), any(), any(), any()))
+                .thenReturn(List.of(busyInterval(1L, departureAt, arrivalAt)));
+        when(tripRepository.save(any(Trip.class))).thenReturn(trip);
+        TripDtos.TripUpdateRequest moveLater = new TripDtos.TripUpdateRequest(
+                departureAt.plusHours(1), arrivalAt.plusHours(1), null, null);
+
+        // When
+        tripService.updateTrip(1L, moveLater);
+
+        // Then
+        verify(tripRepository).save(trip);
+    }
+
     @Test
     @DisplayName("Debe lanzar NotFoundException si el trip no existe")
     void updateTrip_ShouldThrowNotFoundException_WhenTripDoesNotExist() {
@@ -423,6 +462,30 @@ class TripServiceImplTest {
         return trip;
     }
 
+    private TripRepository.BusInterval busyInterval(Long tripId, OffsetDateTime departure, OffsetDateTime arrival) {
+        return new TripRepository.BusInterval() {
+            @Override
+            public Long getTripId() {
+                return tripId;
+            }
+
+            @Override
+            public Long getBusId() {
+                return 1L;
+            }
+
+            @Override
+            public OffsetDateTime getDepartureAt() {
+                return departure;
+            }
+
+            @Override
+            public OffsetDateTime getArrivalAt() {
+                return arrival;
+            }
+        };
+    }
+
     private Seat createSeat(Long id, String number, Bus bus) {
         Seat seat = new Seat();
         seat.setId(id);
@@ -1,9 +1,12 @@
 package com.unimag.bustransport.services.impl;
 
 import com.unimag.bustransport.api.dto.UserDtos;
+import com.unimag.bustransport.api.dto.PageDtos;
 import com.unimag.bustransport.domain.entities.Role;
 import com.unimag.bustransport.domain.entities.User;
 import com.unimag.bustransport.domain.repositories.UserRepository;
+import com.unimag.bustransport.security.token.RefreshTokenStore;
+import com.unimag.bustransport.security.user.PrincipalInvalidator;
 import com.unimag.bustransport.services.mapper.UserMapper;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -14,6 +17,7 @@ import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.data.domain.Limit;
 
 import java.time.OffsetDateTime;
 import java.util.List;
@@ -30,6 +34,10 @@ class UserServiceImplTest {
     private UserRepository userRepository;
     @Mock
     private PasswordEncoder passwordEncoder;
+    @Mock
+    private PrincipalInvalidator principalInvalidator;
+    @Mock
+    private RefreshTokenStore refreshTokenStore;
     @Spy
     private final UserMapper mapper = Mappers.getMapper(UserMapper.class);
 
@@ -161,6 +169,8 @@ class UserServiceImplTest {
         assertThat("encodedNewPassword").isEqualTo(user.getPasswordHash());
 
         verify(userRepository, times(1)).save(user);
+        verify(principalInvalidator).invalidate(1L);
+        verify(refreshTokenStore).revokeAllForUser(1L);
     }
 
     @Test
@@ -177,6 +187,8 @@ class UserServiceImplTest {
 
         // Then
         verify(userRepository, times(1)).save(user);
+        verify(principalInvalidator).invalidate(1L);
+        verify(refreshTokenStore).revokeAllForUser(1L);
     }
 
     @Test
@@ -193,6 +205,7 @@ class UserServiceImplTest {
 
         // Then
         verify(userRepository, times(1)).save(user);
+        verify(principalInvalidator).invalidate(1L);
     }
 
     @Test
@@ -238,14 +251,16 @@ class UserServiceImplTest {
                 givenUser(2L, "driver2@test.com", Role.ROLE_DRIVER, User.Status.ACTIVE)
         );
 
-        when(userRepository.findByRoleAndStatus(Role.ROLE_DRIVER, User.Status.ACTIVE)).thenReturn(users);
+        when(userRepository.findByRoleAndStatusAndIdGreaterThanOrderByIdAsc(
+                Role.ROLE_DRIVER, User.Status.ACTIVE, 0L, Limit.of(2))).thenReturn(users);
 
         // When
-        List<UserDtos.UserResponse> result = userService.getAllUsersByRole(Role.ROLE_DRIVER);
+        PageDtos.CursorPage<UserDtos.UserResponse> result = userService.getAllUsersByRole(Role.ROLE_DRIVER, null, 1);
 
         // Then
-        assertThat(result).hasSize(2);
-        assertThat(result).allMatch(u -> u.role() == Role.ROLE_DRIVER);
+        assertThat(result.items()).hasSize(1);
+        assertThat(result.items()).allMatch(u -> u.role() == Role.ROLE_DRIVER);
+        assertThat(result.hasMore()).isTrue();
     }
 
 }
@@ -0,0 +1,98 @@
+package com.unimag.bustransport.services.schedule;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BusIntervalIndexTest {
+
+    private final OffsetDateTime t0 = OffsetDateTime.parse("2025-11-12T00:00:00-05:00");
+
+    private OffsetDateTime at(int hours) {
+        return t0.plusHours(hours);
+    }
+
+    @Test
+    @DisplayName("Debe tratar los intervalos como semiabiertos: llegar y salir a la misma hora no choca")
+    void shouldTreatIntervalsAsHalfOpen() {
+        BusIntervalIndex index = new BusIntervalIndex();
+        index.add(1L, 10L, at(8), at(10));
+
+        assertThat(index.isFree(1L, at(10), at(12))).isTrue();
+        assertThat(index.isFree(1L, at(6), at(8))).isTrue();
+        assertThat(index.findOverlap(1L, at(9), at(11), null)).map(BusIntervalIndex.Booking::tripId).contains(10L);
+        assertThat(index.isFree(2L, at(9), at(11))).isTrue();
+    }
+
+    @Test
+    @DisplayName("Debe encontrar viajes largos que salieron antes del rango consultado")
+    void shouldFindLongTripStartedBefore() {
+        BusIntervalIndex index = new BusIntervalIndex();
+        index.add(1L, 10L, at(0), at(30));
+        index.add(1L, 11L, at(31), at(33));
+
+        assertThat(index.findOverlap(1L, at(28), at(29), null)).map(BusIntervalIndex.Booking::tripId).contains(10L);
+    }
+
+    @Test
+    @DisplayName("Debe ignorar el viaje excluido (actualización) pero no a los demás")
+    void shouldSkipExcludedTrip() {
+        BusIntervalIndex index = new BusIntervalIndex();
+        index.add(1L, 10L, at(8), at(10));
+        index.add(1L, 11L, at(8), at(9));
+
+        assertThat(index.findOverlap(1L, at(9), at(11), 10L)).isEmpty();
+        assertThat(index.findOverlap(1L, at(8), at(11), 10L)).map(BusIntervalIndex.Booking::tripId).contains(11L);
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Debe coincidir con la comparación lineal en intervalos aleatorios")
+    void shouldMatchLinearScan() {
+        Random random = new Random(7);
+        BusIntervalIndex index = new BusIntervalIndex();
+        List<long[]> trips = new ArrayList<>(); // bus, id, salida, llegada (minutos)
+
+        for (long id = 1; id <= 2000; id++) {
+            long bus = random.nextInt(5);
+            long start = random.nextInt(60 * 24 * 30);
+            long end = start + 1 + random.nextInt(32 * 60);
+            trips.add(new long[]{bus, id, start, end});
+            index.add(bus, id, t0.plusMinutes(start), t0.plusMinutes(end));
+        }
+
+        for (int i = 0; i < 5000; i++) {
+            long bus = random.nextInt(5);
+            long start = random.nextInt(60 * 24 * 30);
+            long end = start + 1 + random.nextInt(32 * 60);
+            Long exclude = random.nextBoolean() ? (long) (1 + random.nextInt(2000)) : null;
+
+            boolean expected = trips.stream().anyMatch(trip -> trip[0] == bus
+                    && (exclude == null || trip[1] != exclude)
+                    && start < trip[3] && end > trip[2]);
+
+            assertThat(index.findOverlap(bus, t0.plusMinutes(start), t0.plusMinutes(end), exclude).isPresent())
+                    .as("bus %d [%d, %d) excluding %s", bus, start, end, exclude)
+                    .isEqualTo(expected);
+        }
+    }
+
+    @Test
+    @DisplayName("Debe comparar por instante aunque los offsets sean distintos")
+    void shouldCompareByInstant() {
+        BusIntervalIndex index = new BusIntervalIndex();
+        index.add(1L, 10L, at(8), at(10)); // 13:00-15:00 UTC
+
+        assertThat(index.isFree(1L, at(9).withOffsetSameInstant(ZoneOffset.UTC),
+                at(9).withOffsetSameInstant(ZoneOffset.UTC).plusMinutes(30))).isFalse();
+        assertThat(index.isFree(1L, at(10).withOffsetSameInstant(ZoneOffset.UTC),
+                at(11).withOffsetSameInstant(ZoneOffset.UTC))).isTrue();
+    }
+}
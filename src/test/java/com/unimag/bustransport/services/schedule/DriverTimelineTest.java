@@ -0,0 +1,75 @@
+package com.unimag.bustransport.services.schedule;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DriverTimelineTest {
+
+    private final OffsetDateTime t0 = OffsetDateTime.parse("2025-11-12T00:00:00-05:00");
+
+    private final DriverTimeline timeline =
+            new DriverTimeline(Duration.ofMinutes(30), Duration.ofHours(9), ZoneId.of("America/Bogota"));
+
+    private OffsetDateTime at(int hours, int minutes) {
+        return t0.plusHours(hours).plusMinutes(minutes);
+    }
+
+    @Test
+    @DisplayName("Debe reportar el cruce con otro viaje del conductor")
+    void shouldDetectOverlap() {
+        timeline.add(1L, 10L, at(8, 0), at(10, 0));
+
+        assertThat(timeline.check(1L, at(9, 0), at(11, 0)))
+                .hasValueSatisfying(conflict -> {
+                    assertThat(conflict.violation()).isEqualTo(DriverTimeline.Violation.OVERLAP);
+                    assertThat(conflict.conflictingTripId()).isEqualTo(10L);
+                });
+        assertThat(timeline.check(2L, at(9, 0), at(11, 0))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Debe exigir el descanso mínimo antes y después de cada turno")
+    void shouldRequireMinimumRest() {
+        timeline.add(1L, 10L, at(8, 0), at(10, 0));
+
+        assertThat(timeline.check(1L, at(10, 15), at(12, 0)))
+                .map(DriverTimeline.Conflict::violation).contains(DriverTimeline.Violation.REST);
+        assertThat(timeline.check(1L, at(6, 0), at(7, 45)))
+                .map(DriverTimeline.Conflict::violation).contains(DriverTimeline.Violation.REST);
+        assertThat(timeline.check(1L, at(10, 30), at(12, 0))).isEmpty();
+        assertThat(timeline.check(1L, at(6, 0), at(7, 30))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Debe sumar los minutos del día local de la salida y respetar el tope diario")
+    void shouldEnforceDailyLimit() {
+        timeline.add(1L, 10L, at(5, 0), at(9, 0));
+        timeline.add(1L, 11L, at(10, 0), at(14, 0));
+
+        assertThat(timeline.drivenOn(1L, LocalDate.of(2025, 11, 12))).isEqualTo(480);
+        assertThat(timeline.check(1L, at(15, 0), at(16, 0))).isEmpty();
+        assertThat(timeline.check(1L, at(15, 0), at(16, 1)))
+                .map(DriverTimeline.Conflict::violation).contains(DriverTimeline.Violation.DAILY_LIMIT);
+        // El día siguiente arranca en cero
+        assertThat(timeline.check(1L, at(24, 0), at(32, 0))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Debe devolver la llegada del turno anterior más cercano")
+    void shouldFindPreviousArrival() {
+        timeline.add(1L, 10L, at(5, 0), at(7, 0));
+        timeline.add(1L, 11L, at(9, 0), at(11, 0));
+
+        assertThat(timeline.previousArrival(1L, at(12, 0))).contains(at(11, 0));
+        assertThat(timeline.previousArrival(1L, at(8, 0))).contains(at(7, 0));
+        assertThat(timeline.previousArrival(1L, at(4, 0))).isEmpty();
+        assertThat(timeline.previousArrival(2L, at(12, 0))).isEmpty();
+    }
+}
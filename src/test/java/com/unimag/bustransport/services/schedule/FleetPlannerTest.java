@@ -0,0 +1,146 @@
+package com.unimag.bustransport.services.schedule;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FleetPlannerTest {
+
+    private final OffsetDateTime t0 = OffsetDateTime.parse("2030-01-07T00:00:00-05:00");
+
+    private final FleetPlanner planner = new FleetPlanner(Duration.ofMinutes(20), Duration.ofMinutes(90));
+
+    private OffsetDateTime at(int hours, int minutes) {
+        return t0.plusHours(hours).plusMinutes(minutes);
+    }
+
+    private FleetPlanner.TripDemand trip(long id, String origin, String destination, int departureHour,
+                                         int arrivalHour, int seats) {
+        return new FleetPlanner.TripDemand(id, origin, destination, at(departureHour, 0), at(arrivalHour, 0), seats);
+    }
+
+    private FleetPlanner.PinnedTrip pinned(long busId, long tripId, String origin, String destination,
+                                           int departureHour, int arrivalHour) {
+        return new FleetPlanner.PinnedTrip(busId, tripId, origin, destination, at(departureHour, 0), at(arrivalHour, 0));
+    }
+
+    private Map<Long, Long> busByTrip(FleetPlanner.Plan plan) {
+        return plan.assignments().stream()
+                .collect(Collectors.toMap(FleetPlanner.Assignment::tripId, FleetPlanner.Assignment::busId));
+    }
+
+    @Test
+    @DisplayName("Debe encadenar ida y vuelta en el mismo bus en lugar de abrir otro")
+    void shouldChainRoundTripOnSameBus() {
+        FleetPlanner.Plan plan = planner.plan(
+                List.of(trip(1, "SMR", "BAQ", 6, 8, 10), trip(2, "BAQ", "SMR", 9, 11, 10),
+                        trip(3, "SMR", "BAQ", 12, 14, 10)),
+                List.of(new FleetPlanner.Vehicle(1L, 40), new FleetPlanner.Vehicle(2L, 40)),
+                List.of());
+
+        assertThat(busByTrip(plan)).containsEntry(1L, 1L).containsEntry(2L, 1L).containsEntry(3L, 1L);
+        assertThat(plan.busesUsed()).isEqualTo(1);
+        assertThat(plan.deadheads()).isZero();
+        assertThat(plan.lowerBound()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Debe respetar el alistamiento y preferir un vacío antes que sumar un bus")
+    void shouldPreferDeadheadOverNewBus() {
+        FleetPlanner.Plan plan = planner.plan(
+                List.of(trip(1, "SMR", "BAQ", 6, 8, 10),
+                        // Sale a las 8, antes de que el bus 1 termine el alistamiento de 20 minutos
+                        trip(2, "BAQ", "CTG", 8, 10, 10),
+                        // El bus 1 llega a BAQ a las 8 y alcanza a ir en vacío a SMR (8:20 + 1:30)
+                        trip(3, "SMR", "BAQ", 10, 12, 10)),
+                List.of(new FleetPlanner.Vehicle(1L, 40), new FleetPlanner.Vehicle(2L, 40),
+                        new FleetPlanner.Vehicle(3L, 40)),
+                List.of());
+
+        assertThat(busByTrip(plan)).containsEntry(1L, 1L).containsEntry(2L, 2L).containsEntry(3L, 1L);
+        assertThat(plan.deadheads()).isEqualTo(1);
+        assertThat(plan.assignments()).filteredOn(FleetPlanner.Assignment::deadhead)
+                .extracting(FleetPlanner.Assignment::tripId).containsExactly(3L);
+        assertThat(plan.busesUsed()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Debe tomar el bus más pequeño que cubre la demanda y reportar lo que no cabe")
+    void shouldUseSmallestBusThatFits() {
+        FleetPlanner.Plan plan = planner.plan(
+                List.of(trip(1, "SMR", "BAQ", 6, 8, 30), trip(2, "SMR", "BAQ", 6, 8, 45),
+                        trip(3, "SMR", "BAQ", 6, 8, 60)),
+                List.of(new FleetPlanner.Vehicle(1L, 50), new FleetPlanner.Vehicle(2L, 32),
+                        new FleetPlanner.Vehicle(3L, 40)),
+                List.of());
+
+        assertThat(busByTrip(plan)).containsEntry(1L, 2L).containsEntry(2L, 1L).doesNotContainKey(3L);
+        assertThat(plan.unassigned()).extracting(FleetPlanner.Unassigned::reason)
+                .containsExactly("No bus with 60 seats is available");
+    }
+
+    @Test
+    @DisplayName("Debe saltar los buses ocupados por viajes fijos")
+    void shouldSkipPinnedBuses() {
+        FleetPlanner.Plan plan = planner.plan(List.of(trip(1, "SMR", "BAQ", 7, 9, 10)),
+                List.of(new FleetPlanner.Vehicle(1L, 40), new FleetPlanner.Vehicle(2L, 40)),
+                List.of(pinned(1L, 99L, "BAQ", "SMR", 5, 7)));
+
+        assertThat(busByTrip(plan)).containsEntry(1L, 2L);
+    }
+
+    @Test
+    @DisplayName("Nunca debe poner dos viajes que se cruzan en el mismo bus y sin vacíos iguala la cota inferior")
+    void shouldProduceValidPlanAtLowerBound() {
+        Random random = new Random(42);
+        List<String> terminals = List.of("SMR", "BAQ", "CTG", "VAL", "MTR");
+        List<FleetPlanner.TripDemand> trips = new ArrayList<>();
+        for (long id = 1; id <= 3000; id++) {
+            OffsetDateTime departure = t0.plusMinutes(random.nextInt(24 * 60));
+            trips.add(new FleetPlanner.TripDemand(id, terminals.get(random.nextInt(5)), terminals.get(random.nextInt(5)),
+                    departure, departure.plusMinutes(30 + random.nextInt(8 * 60)), random.nextInt(40)));
+        }
+        List<FleetPlanner.Vehicle> buses = new ArrayList<>();
+        for (long id = 1; id <= 2000; id++) {
+            buses.add(new FleetPlanner.Vehicle(id, 40));
+        }
+
+        // Con vacío instantáneo el voraz por salida es el coloreo óptimo del grafo de intervalos
+        FleetPlanner.Plan optimal = new FleetPlanner(Duration.ofMinutes(20), Duration.ZERO)
+                .plan(trips, buses, List.of());
+        assertThat(optimal.unassigned()).isEmpty();
+        assertThat(optimal.busesUsed()).isEqualTo(optimal.lowerBound());
+
+        FleetPlanner.Plan plan = planner.plan(trips, buses, List.of());
+        assertThat(plan.unassigned()).isEmpty();
+        assertThat(plan.busesUsed()).isGreaterThanOrEqualTo(plan.lowerBound());
+
+        Map<Long, FleetPlanner.TripDemand> byId = trips.stream()
+                .collect(Collectors.toMap(FleetPlanner.TripDemand::tripId, trip -> trip));
+        Map<Long, List<FleetPlanner.TripDemand>> perBus = new HashMap<>();
+        for (FleetPlanner.Assignment assignment : plan.assignments()) {
+            perBus.computeIfAbsent(assignment.busId(), id -> new ArrayList<>()).add(byId.get(assignment.tripId()));
+        }
+        for (List<FleetPlanner.TripDemand> chain : perBus.values()) {
+            chain.sort(Comparator.comparing(FleetPlanner.TripDemand::departureAt));
+            for (int i = 1; i < chain.size(); i++) {
+                FleetPlanner.TripDemand previous = chain.get(i - 1);
+                FleetPlanner.TripDemand next = chain.get(i);
+                Duration gap = previous.destination().equals(next.origin())
+                        ? Duration.ofMinutes(20) : Duration.ofMinutes(110);
+                assertThat(previous.arrivalAt().plus(gap)).isBeforeOrEqualTo(next.departureAt());
+            }
+        }
+    }
+}